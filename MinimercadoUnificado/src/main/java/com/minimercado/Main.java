@@ -7,17 +7,41 @@
  * - Modelo: Clases en el paquete modelo/
  * - Vista: Clases en el paquete gui/
  * - Controlador: Clases en el paquete controlador/
+ * 
+ * Arranque: la ventana se muestra de inmediato; productos y clientes se cargan en
+ * paralelo y el historial de ventas a continuación, y cada pestaña se construye
+ * cuando se selecciona por primera vez. Los catálogos se entregan a la ventana junto
+ * con el historial: mientras este se carga resuelve productos y clientes en los índices
+ * de sus controladores, que no admiten escrituras concurrentes desde las pestañas.
+ * Los hitos se registran en MedicionArranque.
  */
 package com.minimercado;
 
 import com.minimercado.controlador.ControladorProducto;
 import com.minimercado.controlador.ControladorCliente;
+import com.minimercado.controlador.ControladorTurno;
 import com.minimercado.controlador.ControladorVenta;
 import com.minimercado.gui.VentanaPrincipal;
+import com.minimercado.util.MedicionArranque;
+import com.minimercado.util.MonitorEDT;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Main {
+    // Hilos de carga inicial: uno por catálogo, sin superar los núcleos disponibles
+    // (con un solo núcleo los catálogos se cargan en orden y productos queda listo primero);
+    // el historial reutiliza uno de ellos
+    private static final ExecutorService CARGA = Executors.newFixedThreadPool(
+            Math.min(2, Runtime.getRuntime().availableProcessors()), tarea -> {
+        Thread hilo = new Thread(tarea, "minimercado-carga");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    
     public static void main(String[] args) {
         // Configuración del Look and Feel del sistema
         try {
@@ -26,20 +50,56 @@ public class Main {
             e.printStackTrace();
         }
         
+        // Medición de la latencia del hilo de eventos desde el primer evento
+        MonitorEDT.instalar();
+        
         // Inicialización de la aplicación en el hilo de eventos de Swing
         SwingUtilities.invokeLater(() -> {
-            // Creación de los controladores (parte del MVC)
-            ControladorProducto controladorProducto = new ControladorProducto();
-            ControladorCliente controladorCliente = new ControladorCliente();
-            // El controlador de ventas necesita acceso a productos y clientes
-            ControladorVenta controladorVenta = new ControladorVenta(controladorProducto, controladorCliente);
-            
             // Obtención de la instancia única de la ventana principal (Singleton)
             VentanaPrincipal ventana = VentanaPrincipal.getInstance();
-            // Inicialización de los controladores en la ventana principal
-            ventana.inicializarControladores(controladorProducto, controladorCliente, controladorVenta);
-            // Mostrar la ventana principal
+            // La ventana se muestra de inmediato con el estado de carga
+            ventana.mostrarCargando();
             ventana.setVisible(true);
+            MedicionArranque.marcar("Ventana visible");
+            
+            // Los catálogos se cargan en paralelo y el historial en cuanto ambos están listos
+            // (sus ventas se enlazan con las instancias de Producto y Cliente)
+            CompletableFuture<ControladorProducto> productos = CompletableFuture.supplyAsync(() -> {
+                ControladorProducto controlador = new ControladorProducto();
+                MedicionArranque.marcar("Productos cargados");
+                return controlador;
+            }, CARGA);
+            CompletableFuture<ControladorCliente> clientes = CompletableFuture.supplyAsync(() -> {
+                ControladorCliente controlador = new ControladorCliente();
+                MedicionArranque.marcar("Clientes cargados");
+                return controlador;
+            }, CARGA);
+            CompletableFuture<ControladorVenta> ventas = productos.thenCombineAsync(clientes, (controladorProducto, controladorCliente) -> {
+                // El controlador de ventas necesita acceso a productos y clientes, y atribuye
+                // cada venta al turno de caja abierto
+                ControladorVenta controlador = new ControladorVenta(controladorProducto, controladorCliente, new ControladorTurno());
+                MedicionArranque.marcar("Historial de ventas cargado");
+                return controlador;
+            }, CARGA);
+            
+            // Los controladores se entregan a la ventana en el EDT al terminar el historial, que
+            // hasta entonces consulta los catálogos desde el hilo de carga. Si el historial falla,
+            // los catálogos que sí se cargaron se entregan igualmente
+            ventas.whenCompleteAsync((controladorVenta, error) -> {
+                if (productos.isDone() && !productos.isCompletedExceptionally()) {
+                    ventana.setControladorProducto(productos.join());
+                }
+                if (clientes.isDone() && !clientes.isCompletedExceptionally()) {
+                    ventana.setControladorCliente(clientes.join());
+                }
+                if (error != null) {
+                    Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    causa.printStackTrace();
+                    ventana.mostrarErrorCarga(causa instanceof Exception ? (Exception) causa : new Exception(causa));
+                } else {
+                    ventana.setControladorVenta(controladorVenta);
+                }
+            }, SwingUtilities::invokeLater);
         });
     }
 } 
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.minimercado.controlador;
+
+import com.minimercado.modelo.Producto;
+
+// Recibe cada producto que entra o sale de la alerta de stock bajo, en el hilo que modificó
+// el stock (el EDT cuando el cambio viene de los paneles)
+public interface AlertaStockListener {
+    void onAlertaStock(Producto producto, boolean enAlerta);
+}
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.minimercado.controlador;
 
+import com.minimercado.util.CambiosEntidad;
+
+// Recibe en el EDT los clientes agregados, actualizados y eliminados, agrupados por cuadro
 public interface ClienteChangeListener {
-    void onClientesChanged();
+    void onClientesChanged(CambiosEntidad cambios);
 } 
\ No newline at end of file
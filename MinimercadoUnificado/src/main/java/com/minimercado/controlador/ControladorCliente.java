@@ -9,28 +9,65 @@
  * - Integración con el sistema de ventas
  * 
  * Notas técnicas:
- * - Mantiene una lista de clientes
- * - Coordina la persistencia de datos
+ * - Mantiene una lista de clientes y un índice primitivo por ID para búsquedas O(1)
+ * - Índice de trigramas para la búsqueda aproximada de clientes
+ * - Índice único por documento con un filtro de Bloom delante: la mayoría de los
+ *   documentos nuevos se confirman sin consultar el mapa
+ * - Coordina la persistencia de datos; las escrituras se encolan en el hilo escritor
  * - Valida la información de contacto
  * - Maneja la relación con las ventas
+ * - Los cambios se publican por ID en un BusCambios y llegan a las vistas agrupados por cuadro
  */
 package com.minimercado.controlador;
 
 import com.minimercado.modelo.Cliente;
+import com.minimercado.util.BusCambios;
+import com.minimercado.util.CambiosEntidad;
+import com.minimercado.util.EjecutorIO;
 import com.minimercado.util.FileManager;
+import com.minimercado.util.FiltroBloom;
+import com.minimercado.util.IndiceTrigramas;
+import com.minimercado.util.MapaEnteros;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ControladorCliente {
     // Lista que mantiene todos los clientes del sistema
     private List<Cliente> clientes;
+    // Índice por ID mantenido junto a la lista
+    private MapaEnteros<Cliente> indice;
+    // Índice de búsqueda aproximada por nombre, apellido, documento, teléfono y email
+    private IndiceTrigramas<Cliente> indiceBusqueda;
+    // Índice único por documento normalizado y filtro de Bloom que lo precede
+    private Map<String, Cliente> indiceDocumento;
+    // Clave con la que se indexó cada cliente, por si el objeto se modifica en el lugar
+    private MapaEnteros<String> documentoPorId;
+    private FiltroBloom filtroDocumentos;
     private List<ClienteChangeListener> listeners;
+    // Acumula los cambios y los entrega a los listeners una vez por cuadro
+    private BusCambios cambios;
     
     // Constructor que inicializa el controlador
     public ControladorCliente() {
         // Carga los clientes desde el archivo
         this.clientes = FileManager.cargarClientes();
+        this.indice = new MapaEnteros<>(clientes.size());
+        this.indiceBusqueda = new IndiceTrigramas<>();
+        this.indiceDocumento = new HashMap<>(clientes.size() * 2);
+        this.documentoPorId = new MapaEnteros<>(clientes.size());
+        for (Cliente cliente : clientes) {
+            indice.put(cliente.getId(), cliente);
+            indexarBusqueda(cliente);
+            String documento = normalizarDocumento(cliente.getDocumento());
+            if (!documento.isEmpty() && indiceDocumento.putIfAbsent(documento, cliente) == null) {
+                documentoPorId.put(cliente.getId(), documento);
+            }
+        }
+        reconstruirFiltroDocumentos();
         this.listeners = new ArrayList<>();
+        this.cambios = new BusCambios(this::notifyClientesChanged);
     }
     
     public void addClienteChangeListener(ClienteChangeListener listener) {
@@ -41,49 +78,57 @@ public class ControladorCliente {
         listeners.remove(listener);
     }
     
-    private void notifyClientesChanged() {
-        for (ClienteChangeListener listener : listeners) {
-            listener.onClientesChanged();
+    // Lo invoca el bus en el EDT con los cambios agrupados
+    private void notifyClientesChanged(CambiosEntidad cambiosClientes) {
+        for (ClienteChangeListener listener : new ArrayList<>(listeners)) {
+            listener.onClientesChanged(cambiosClientes);
         }
     }
     
     // Método para agregar un nuevo cliente
     public void agregarCliente(Cliente cliente) {
+        // Rechaza documentos ya registrados antes de modificar nada
+        validarDocumentoUnico(cliente);
         // Asigna un nuevo ID si es necesario
         if (cliente.getId() == 0) {
             int nuevoId = clientes.isEmpty() ? 1 : clientes.get(clientes.size() - 1).getId() + 1;
             cliente.setId(nuevoId);
         }
         clientes.add(cliente);
-        // Guarda los cambios en el archivo
-        FileManager.guardarClientes(clientes);
-        notifyClientesChanged();
+        indice.put(cliente.getId(), cliente);
+        indexarBusqueda(cliente);
+        indexarDocumento(cliente);
+        // Guarda los cambios en el archivo desde el hilo escritor
+        persistir();
+        cambios.agregado(cliente.getId());
     }
     
     // Método para eliminar un cliente
     public void eliminarCliente(Cliente cliente) {
         clientes.remove(cliente);
-        // Guarda los cambios en el archivo
-        FileManager.guardarClientes(clientes);
-        notifyClientesChanged();
+        indice.remove(cliente.getId());
+        indiceBusqueda.eliminar(cliente.getId());
+        desindexarDocumento(cliente);
+        // Guarda los cambios en el archivo desde el hilo escritor
+        persistir();
+        cambios.eliminado(cliente.getId());
     }
     
     // Método para actualizar un cliente existente
     public void actualizarCliente(Cliente cliente) {
-        int indice = -1;
-        // Busca el cliente por su ID
-        for (int i = 0; i < clientes.size(); i++) {
-            if (clientes.get(i).getId() == cliente.getId()) {
-                indice = i;
-                break;
-            }
-        }
-        // Si encuentra el cliente, lo actualiza
-        if (indice != -1) {
-            clientes.set(indice, cliente);
-            // Guarda los cambios en el archivo
-            FileManager.guardarClientes(clientes);
-            notifyClientesChanged();
+        Cliente anterior = indice.get(cliente.getId());
+        // Busca la posición en la lista a partir del índice por ID
+        int posicion = anterior == null ? -1 : buscarPosicion(anterior);
+        if (posicion != -1) {
+            validarDocumentoUnico(cliente);
+            clientes.set(posicion, cliente);
+            indice.put(cliente.getId(), cliente);
+            indexarBusqueda(cliente);
+            desindexarDocumento(anterior);
+            indexarDocumento(cliente);
+            // Guarda los cambios en el archivo desde el hilo escritor
+            persistir();
+            cambios.actualizado(cliente.getId());
         }
     }
     
@@ -94,12 +139,108 @@ public class ControladorCliente {
     
     // Método para buscar un cliente por su ID
     public Cliente buscarClientePorId(int id) {
-        System.out.println("Searching for client with ID: " + id);
-        System.out.println("Clientes list size: " + clientes.size());
-        return clientes.stream().filter(c -> {
-                    boolean found = c.getId() == id;
-                    System.out.println("Comparing client ID " + c.getId() + " with " + id + ": " + found);
-                    return found;
-                }).findFirst().orElse(null);
+        return indice.get(id);
+    }
+    
+    // Método para buscar clientes de forma aproximada, ordenados por similitud.
+    // Sin texto devuelve los primeros k clientes; con texto solo consulta el índice,
+    // que es seguro para hilos, así que puede llamarse desde un hilo de fondo
+    public List<Cliente> buscarClientes(String texto, int k) {
+        if (texto == null || texto.trim().isEmpty()) {
+            return new ArrayList<>(clientes.subList(0, Math.min(k, clientes.size())));
+        }
+        return indiceBusqueda.buscar(texto, k);
+    }
+    
+    // Método para buscar un cliente por su documento; el filtro de Bloom descarta
+    // sin consultar el mapa los documentos que nunca se registraron
+    public Cliente buscarClientePorDocumento(String documento) {
+        String clave = normalizarDocumento(documento);
+        if (clave.isEmpty() || !filtroDocumentos.puedeContener(clave)) {
+            return null;
+        }
+        return indiceDocumento.get(clave);
+    }
+    
+    // Lanza una excepción si el documento ya pertenece a otro cliente (el documento vacío se permite)
+    private void validarDocumentoUnico(Cliente cliente) {
+        Cliente existente = buscarClientePorDocumento(cliente.getDocumento());
+        if (existente != null && existente.getId() != cliente.getId()) {
+            throw new IllegalArgumentException("El documento " + cliente.getDocumento()
+                    + " ya está registrado para " + existente.getNombre());
+        }
+    }
+    
+    private void indexarDocumento(Cliente cliente) {
+        String clave = normalizarDocumento(cliente.getDocumento());
+        if (!clave.isEmpty()) {
+            indiceDocumento.put(clave, cliente);
+            documentoPorId.put(cliente.getId(), clave);
+            filtroDocumentos.agregar(clave);
+            // Un filtro lleno pierde precisión: se redimensiona con el doble de capacidad
+            if (filtroDocumentos.estaSaturado()) {
+                reconstruirFiltroDocumentos();
+            }
+        }
+    }
+    
+    // El filtro no admite bajas: el documento queda marcado y solo cuesta una consulta al mapa
+    private void desindexarDocumento(Cliente cliente) {
+        String clave = documentoPorId.remove(cliente.getId());
+        if (clave != null) {
+            indiceDocumento.remove(clave);
+        }
+    }
+    
+    private void reconstruirFiltroDocumentos() {
+        filtroDocumentos = new FiltroBloom(Math.max(1024, indiceDocumento.size() * 2), 0.01);
+        for (String clave : indiceDocumento.keySet()) {
+            filtroDocumentos.agregar(clave);
+        }
+    }
+    
+    // Documento sin espacios, puntos ni guiones y en mayúsculas ("12.345.678-k" ~ "12345678K")
+    private static String normalizarDocumento(String documento) {
+        if (documento == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(documento.length());
+        for (int i = 0; i < documento.length(); i++) {
+            char c = documento.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toUpperCase(c));
+            }
+        }
+        return sb.toString();
+    }
+    
+    private void indexarBusqueda(Cliente cliente) {
+        indiceBusqueda.agregar(cliente.getId(), cliente, cliente.getNombre(), cliente.getApellido(),
+                cliente.getDocumento(), cliente.getTelefono(), cliente.getEmail());
+    }
+    
+    // Encola la escritura del archivo con una copia de la lista, para no bloquear el EDT
+    private void persistir() {
+        List<Cliente> copia = new ArrayList<>(clientes);
+        EjecutorIO.escribir(() -> FileManager.guardarClientes(copia));
+    }
+    
+    // Posición del cliente en la lista: los IDs se asignan crecientes, así que se usa
+    // búsqueda binaria y, si la lista no estuviera ordenada, se recurre a indexOf
+    private int buscarPosicion(Cliente cliente) {
+        int bajo = 0, alto = clientes.size() - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            Cliente c = clientes.get(medio);
+            if (c == cliente) {
+                return medio;
+            }
+            if (c.getId() < cliente.getId()) {
+                bajo = medio + 1;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return clientes.indexOf(cliente);
     }
 } 
\ No newline at end of file
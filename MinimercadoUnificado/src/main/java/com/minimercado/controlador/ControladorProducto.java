@@ -10,29 +10,70 @@
  * - Cálculo de precios y descuentos
  * 
  * Notas técnicas:
- * - Mantiene una lista de productos
- * - Coordina la persistencia de datos
+ * - Mantiene una lista de productos y un índice primitivo por ID para búsquedas O(1)
+ * - Indexa los productos por código de barras para la venta por escáner
+ * - Índice de prefijos por nombre y código para el autocompletado
+ * - Coordina la persistencia de datos; las escrituras se encolan en el hilo escritor
  * - Maneja la actualización de stock
  * - Valida operaciones de venta
+ * - Los cambios se publican por ID en un BusCambios y llegan a las vistas agrupados por cuadro
+ * - Vigila el stock mínimo en una cola de prioridad indexada (AlertasStock): cada cambio de
+ *   stock, propio o de ControladorVenta vía stockModificado, cuesta O(log n) y avisa al
+ *   instante a los AlertaStockListener cuando un producto entra o sale de la alerta
  */
 package com.minimercado.controlador;
 
 import com.minimercado.modelo.Producto;
+import com.minimercado.util.AlertasStock;
+import com.minimercado.util.BusCambios;
+import com.minimercado.util.CambiosEntidad;
+import com.minimercado.util.EjecutorIO;
 import com.minimercado.util.FileManager;
+import com.minimercado.util.IndicePrefijos;
+import com.minimercado.util.MapaEnteros;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ControladorProducto {
     // Lista que mantiene todos los productos del sistema
     private List<Producto> productos;
+    // Índice por ID mantenido junto a la lista
+    private MapaEnteros<Producto> indice;
+    // Índice por código de barras
+    private Map<String, Producto> indiceCodigo;
+    // Código con el que se indexó cada producto, por si el objeto se modifica en el lugar
+    private MapaEnteros<String> codigoPorId;
+    // Índice de prefijos para sugerir productos mientras se escribe
+    private IndicePrefijos<Producto> indiceNombres;
     // Lista de listeners para notificar cambios
     private List<ProductoChangeListener> listeners;
+    // Acumula los cambios y los entrega a los listeners una vez por cuadro
+    private BusCambios cambios;
+    // Productos con stock mínimo ordenados por stock / stock mínimo
+    private AlertasStock alertas;
+    // Listeners de entradas y salidas de la alerta de stock bajo
+    private List<AlertaStockListener> alertaListeners;
     
     // Constructor que inicializa el controlador
     public ControladorProducto() {
         // Carga los productos desde el archivo
         this.productos = FileManager.cargarProductos();
+        this.indice = new MapaEnteros<>(productos.size());
+        this.indiceCodigo = new HashMap<>(productos.size() * 2);
+        this.codigoPorId = new MapaEnteros<>(productos.size());
+        this.indiceNombres = new IndicePrefijos<>();
+        this.alertas = new AlertasStock(productos.size());
+        for (Producto producto : productos) {
+            indice.put(producto.getId(), producto);
+            alertas.actualizar(producto.getId(), producto.getStock(), producto.getStockMinimo());
+            indexarCodigo(producto);
+            indiceNombres.agregar(producto.getId(), producto, producto.getNombre(), producto.getCodigo());
+        }
         this.listeners = new ArrayList<>();
+        this.alertaListeners = new ArrayList<>();
+        this.cambios = new BusCambios(this::notifyProductosChanged);
     }
     
     // Método para registrar un nuevo listener
@@ -45,53 +86,95 @@ public class ControladorProducto {
         listeners.remove(listener);
     }
     
-    // Método para notificar a todos los listeners
-    private void notifyProductosChanged() {
-        for (ProductoChangeListener listener : listeners) {
-            listener.onProductosChanged();
+    // Método para notificar a todos los listeners (lo invoca el bus en el EDT)
+    private void notifyProductosChanged(CambiosEntidad cambiosProductos) {
+        for (ProductoChangeListener listener : new ArrayList<>(listeners)) {
+            listener.onProductosChanged(cambiosProductos);
+        }
+    }
+    
+    public void addAlertaStockListener(AlertaStockListener listener) {
+        alertaListeners.add(listener);
+    }
+    
+    public void removeAlertaStockListener(AlertaStockListener listener) {
+        alertaListeners.remove(listener);
+    }
+    
+    // Lleva el stock del producto a la cola de alertas y avisa si entró o salió de la alerta
+    private void vigilarStock(Producto producto) {
+        int cambio = alertas.actualizar(producto.getId(), producto.getStock(), producto.getStockMinimo());
+        if (cambio != 0) {
+            notifyAlertaStock(producto, cambio > 0);
+        }
+    }
+    
+    private void notifyAlertaStock(Producto producto, boolean enAlerta) {
+        for (AlertaStockListener listener : new ArrayList<>(alertaListeners)) {
+            listener.onAlertaStock(producto, enAlerta);
         }
     }
     
+    // Avisa que el stock de un producto cambió en el lugar (por ejemplo, al venderlo)
+    public void stockModificado(int productoId) {
+        Producto producto = indice.get(productoId);
+        if (producto != null) {
+            vigilarStock(producto);
+        }
+        cambios.actualizado(productoId);
+    }
+    
     // Método para agregar un nuevo producto
     public void agregarProducto(Producto producto) {
+        validarCodigoUnico(producto);
         // Asigna un nuevo ID si es necesario
         if (producto.getId() == 0) {
             int nuevoId = productos.isEmpty() ? 1 : productos.get(productos.size() - 1).getId() + 1;
             producto.setId(nuevoId);
         }
         productos.add(producto);
-        // Guarda los cambios en el archivo
-        FileManager.guardarProductos(productos);
+        indice.put(producto.getId(), producto);
+        indexarCodigo(producto);
+        indiceNombres.agregar(producto.getId(), producto, producto.getNombre(), producto.getCodigo());
+        vigilarStock(producto);
+        // Guarda los cambios en el archivo desde el hilo escritor
+        persistir();
         // Notifica a los listeners
-        notifyProductosChanged();
+        cambios.agregado(producto.getId());
     }
     
     // Método para eliminar un producto
     public void eliminarProducto(Producto producto) {
         productos.remove(producto);
-        // Guarda los cambios en el archivo
-        FileManager.guardarProductos(productos);
+        indice.remove(producto.getId());
+        desindexarCodigo(producto);
+        indiceNombres.eliminar(producto.getId());
+        if (alertas.quitar(producto.getId())) {
+            notifyAlertaStock(producto, false);
+        }
+        // Guarda los cambios en el archivo desde el hilo escritor
+        persistir();
         // Notifica a los listeners
-        notifyProductosChanged();
+        cambios.eliminado(producto.getId());
     }
     
     // Método para actualizar un producto existente
     public void actualizarProducto(Producto producto) {
-        int indice = -1;
-        // Busca el producto por su ID
-        for (int i = 0; i < productos.size(); i++) {
-            if (productos.get(i).getId() == producto.getId()) {
-                indice = i;
-                break;
-            }
-        }
-        // Si encuentra el producto, lo actualiza
-        if (indice != -1) {
-            productos.set(indice, producto);
-            // Guarda los cambios en el archivo
-            FileManager.guardarProductos(productos);
+        Producto anterior = indice.get(producto.getId());
+        // Busca la posición en la lista a partir del índice por ID
+        int posicion = anterior == null ? -1 : buscarPosicion(anterior);
+        if (posicion != -1) {
+            validarCodigoUnico(producto);
+            productos.set(posicion, producto);
+            indice.put(producto.getId(), producto);
+            desindexarCodigo(anterior);
+            indexarCodigo(producto);
+            indiceNombres.agregar(producto.getId(), producto, producto.getNombre(), producto.getCodigo());
+            vigilarStock(producto);
+            // Guarda los cambios en el archivo desde el hilo escritor
+            persistir();
             // Notifica a los listeners
-            notifyProductosChanged();
+            cambios.actualizado(producto.getId());
         }
     }
     
@@ -102,6 +185,88 @@ public class ControladorProducto {
     
     // Método para buscar un producto por su ID
     public Producto buscarProductoPorId(int id) {
-        return productos.stream().filter(p -> p.getId() == id).findFirst().orElse(null);
+        return indice.get(id);
+    }
+    
+    // Método para buscar un producto por su código de barras
+    public Producto buscarProductoPorCodigo(String codigo) {
+        if (codigo == null || codigo.isEmpty()) {
+            return null;
+        }
+        return indiceCodigo.get(codigo);
+    }
+    
+    // Método para sugerir hasta k productos cuyo nombre o código empieza por el texto
+    public List<Producto> sugerirProductos(String texto, int k) {
+        return indiceNombres.buscar(texto, k);
+    }
+    
+    // Hasta maximo productos en alerta de stock bajo, del más urgente al menos urgente
+    public List<Producto> obtenerProductosBajoStock(int maximo) {
+        int[] ids = alertas.obtenerUrgentes(maximo);
+        List<Producto> resultado = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            resultado.add(indice.get(id));
+        }
+        return resultado;
+    }
+    
+    // Producto más urgente en alerta de stock bajo, o null si no hay ninguno
+    public Producto obtenerProductoMasUrgente() {
+        return indice.get(alertas.getMasUrgente());
+    }
+    
+    public int contarProductosBajoStock() {
+        return alertas.getEnAlerta();
+    }
+    
+    // Rechaza un código de barras que ya pertenece a otro producto
+    private void validarCodigoUnico(Producto producto) {
+        Producto existente = buscarProductoPorCodigo(producto.getCodigo());
+        if (existente != null && existente.getId() != producto.getId()) {
+            throw new IllegalArgumentException("El código " + producto.getCodigo() + " ya está asignado a " + existente.getNombre());
+        }
+    }
+    
+    // Un código repetido en el archivo se queda con el primer producto que lo tiene
+    private void indexarCodigo(Producto producto) {
+        String codigo = producto.getCodigo();
+        if (codigo != null && !codigo.isEmpty() && indiceCodigo.putIfAbsent(codigo, producto) == null) {
+            codigoPorId.put(producto.getId(), codigo);
+        }
+    }
+    
+    // Quita el código con que se indexó el producto, no el que tiene ahora: al editarlo
+    // en el lugar, el objeto ya trae el código nuevo
+    private void desindexarCodigo(Producto producto) {
+        String codigo = codigoPorId.remove(producto.getId());
+        if (codigo != null) {
+            indiceCodigo.remove(codigo);
+        }
+    }
+    
+    // Encola la escritura del archivo con una copia de la lista, para no bloquear el EDT
+    private void persistir() {
+        List<Producto> copia = new ArrayList<>(productos);
+        EjecutorIO.escribir(() -> FileManager.guardarProductos(copia));
+    }
+    
+    // Posición del producto en la lista: los IDs se asignan crecientes, así que se usa
+    // búsqueda binaria y, si la lista no estuviera ordenada, se recurre a indexOf
+    private int buscarPosicion(Producto producto) {
+        int bajo = 0, alto = productos.size() - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            Producto p = productos.get(medio);
+            if (p == producto) {
+                return medio;
+            }
+            if (p.getId() < producto.getId()) {
+                bajo = medio + 1;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return productos.indexOf(producto);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,175 @@
+/**
+ * Controlador que maneja los turnos de caja.
+ * Esta clase implementa el patrón Controlador del MVC y coordina la apertura,
+ * el cierre y la atribución de ventas a los turnos.
+ *
+ * Funcionalidades principales:
+ * - Apertura de turnos con cajero y base de efectivo
+ * - Atribución de cada venta finalizada al turno abierto
+ * - Cierre de caja con arqueo de efectivo y reporte PDF
+ * - Historial de turnos cerrados
+ *
+ * Notas técnicas:
+ * - Los totales del turno se acumulan venta a venta: el cierre es inmediato
+ * - Si se finaliza una venta sin turno abierto se abre uno automáticamente
+ * - Al arrancar, los totales del turno abierto se recalculan con sus ventas guardadas
+ *   (el archivo de turnos puede ir una venta por detrás si la aplicación se cerró de golpe)
+ * - Eliminar una venta del turno abierto la resta; los turnos cerrados no cambian
+ * - Las escrituras se encolan en el hilo escritor con copias de los turnos
+ */
+package com.minimercado.controlador;
+
+import com.minimercado.modelo.Turno;
+import com.minimercado.modelo.Venta;
+import com.minimercado.util.EjecutorIO;
+import com.minimercado.util.FileManager;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ControladorTurno {
+    // Cajero de los turnos abiertos automáticamente al vender sin turno
+    private static final String CAJERO_AUTOMATICO = "Sin asignar";
+
+    // Todos los turnos en orden de ID; el último puede estar abierto
+    private List<Turno> turnos;
+    private Turno turnoAbierto;
+    // Ventas del turno abierto por ID, para poder restarlas si se eliminan
+    private Map<Integer, Venta> ventasTurnoAbierto;
+    // Si ya hay un guardado de turnos encolado
+    private final AtomicBoolean guardadoPendiente = new AtomicBoolean();
+
+    // Constructor que carga los turnos desde el archivo
+    public ControladorTurno() {
+        this.turnos = FileManager.cargarTurnos();
+        this.ventasTurnoAbierto = new HashMap<>();
+        for (Turno turno : turnos) {
+            if (turno.estaAbierto()) {
+                turnoAbierto = turno;
+            }
+        }
+    }
+
+    // Método para abrir un turno
+    public synchronized Turno abrirTurno(String cajero, double baseEfectivo) {
+        if (turnoAbierto != null) {
+            throw new IllegalArgumentException("Ya hay un turno abierto (#" + turnoAbierto.getId() + ")");
+        }
+        if (cajero == null || cajero.trim().isEmpty()) {
+            throw new IllegalArgumentException("El nombre del cajero es obligatorio");
+        }
+        if (baseEfectivo < 0) {
+            throw new IllegalArgumentException("La base de efectivo no puede ser negativa");
+        }
+        int id = turnos.isEmpty() ? 1 : turnos.get(turnos.size() - 1).getId() + 1;
+        turnoAbierto = new Turno(id, cajero.trim(), baseEfectivo);
+        turnos.add(turnoAbierto);
+        ventasTurnoAbierto.clear();
+        persistir();
+        return new Turno(turnoAbierto);
+    }
+
+    // Método para cerrar el turno abierto; genera el reporte PDF del cierre
+    public synchronized Turno cerrarTurno(double efectivoContado) {
+        if (turnoAbierto == null) {
+            throw new IllegalArgumentException("No hay un turno abierto");
+        }
+        if (efectivoContado < 0) {
+            throw new IllegalArgumentException("El efectivo contado no puede ser negativo");
+        }
+        turnoAbierto.setEfectivoContado(efectivoContado);
+        turnoAbierto.setCierre(new Date());
+        Turno cerrado = new Turno(turnoAbierto);
+        turnoAbierto = null;
+        ventasTurnoAbierto.clear();
+        persistir();
+        EjecutorIO.escribir(() -> FileManager.generarCierreTurnoPDF(cerrado));
+        return cerrado;
+    }
+
+    // Atribuye una venta finalizada al turno abierto y la suma a sus totales
+    public synchronized void registrarVenta(Venta venta) {
+        if (turnoAbierto == null) {
+            abrirTurno(CAJERO_AUTOMATICO, 0);
+        }
+        venta.setTurnoId(turnoAbierto.getId());
+        turnoAbierto.registrarVenta(venta);
+        ventasTurnoAbierto.put(venta.getId(), venta);
+        persistir();
+    }
+
+    // Resta una venta eliminada si pertenece al turno abierto
+    public synchronized void ventaEliminada(int ventaId) {
+        Venta venta = ventasTurnoAbierto.remove(ventaId);
+        if (venta != null) {
+            turnoAbierto.anularVenta(venta);
+            persistir();
+        }
+    }
+
+    // ID del turno abierto (0 si no hay)
+    public synchronized int getIdTurnoAbierto() {
+        return turnoAbierto != null ? turnoAbierto.getId() : 0;
+    }
+
+    // Recalcula los totales del turno abierto con sus ventas guardadas (al arrancar)
+    synchronized void restaurarTurnoAbierto(List<Venta> ventas) {
+        if (turnoAbierto == null) {
+            return;
+        }
+        turnoAbierto.reiniciarTotales();
+        ventasTurnoAbierto.clear();
+        for (Venta venta : ventas) {
+            turnoAbierto.registrarVenta(venta);
+            ventasTurnoAbierto.put(venta.getId(), venta);
+        }
+        persistir();
+    }
+
+    // Copia del turno abierto, o null si no hay
+    public synchronized Turno obtenerTurnoAbierto() {
+        return turnoAbierto != null ? new Turno(turnoAbierto) : null;
+    }
+
+    // Copias de todos los turnos, del más reciente al más antiguo
+    public synchronized List<Turno> obtenerTurnos() {
+        List<Turno> copia = new ArrayList<>(turnos.size());
+        for (int i = turnos.size() - 1; i >= 0; i--) {
+            copia.add(new Turno(turnos.get(i)));
+        }
+        return copia;
+    }
+
+    // Vuelve a generar el PDF de cierre de un turno
+    public synchronized void generarReporteCierre(int turnoId) {
+        for (Turno turno : turnos) {
+            if (turno.getId() == turnoId) {
+                Turno copia = new Turno(turno);
+                EjecutorIO.escribir(() -> FileManager.generarCierreTurnoPDF(copia));
+                return;
+            }
+        }
+        throw new IllegalArgumentException("No se encontró el turno #" + turnoId);
+    }
+
+    // Encola el guardado de los turnos; varias llamadas seguidas se resuelven con una escritura
+    private void persistir() {
+        if (guardadoPendiente.compareAndSet(false, true)) {
+            EjecutorIO.escribir(() -> {
+                guardadoPendiente.set(false);
+                FileManager.guardarTurnos(copiarTurnos());
+            });
+        }
+    }
+
+    private synchronized List<Turno> copiarTurnos() {
+        List<Turno> copia = new ArrayList<>(turnos.size());
+        for (Turno turno : turnos) {
+            copia.add(new Turno(turno));
+        }
+        return copia;
+    }
+}
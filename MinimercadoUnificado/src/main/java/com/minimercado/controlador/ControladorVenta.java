@@ -10,9 +10,21 @@
  * - Integración con otros controladores (Producto, Cliente)
  * 
  * Notas técnicas:
- * - Mantiene una lista de ventas activas
- * - Coordina la persistencia de datos
+ * - Mantiene en memoria solo las ventas recientes; las antiguas se paginan desde disco
+ * - Índices secundarios por cliente y por fecha sobre todo el historial
+ * - Consultas con filtros, orden y paginación resueltos sobre IDs antes de leer ventas
+ * - Coordina la persistencia de datos: las escrituras y los PDF se encolan en el hilo
+ *   escritor con una instantánea de la venta, fuera del EDT
  * - Maneja la generación de facturas
+ * - Acumulados por hora, día, producto y cliente actualizados al finalizar y eliminar
+ *   ventas; se guardan en binario y se reconstruyen si no coinciden con el historial
+ * - Cada venta finalizada se atribuye al turno de caja abierto (ControladorTurno)
+ * - Productos más vendidos de la última hora, día y semana con memoria acotada
+ * - Clientes distintos por día con bosquejos HyperLogLog, guardados y validados
+ *   igual que los acumulados
+ * - Reportes ad hoc en paralelo (ForkJoin) sobre el almacén columnar de líneas
+ * - Índice de productos comprados juntos para sugerir productos en el carrito
+ * - Demanda suavizada por producto y lista de reposición por días de cobertura
  */
 package com.minimercado.controlador;
 
@@ -20,23 +32,125 @@ import com.minimercado.modelo.Venta;
 import com.minimercado.modelo.DetalleVenta;
 import com.minimercado.modelo.Producto;
 import com.minimercado.modelo.Cliente;
+import com.minimercado.util.AcumuladosVentas;
+import com.minimercado.util.ClientesDistintos;
+import com.minimercado.util.ColumnasDetalleVenta;
+import com.minimercado.util.ComprasConjuntas;
+import com.minimercado.util.ConsultaVentas;
+import com.minimercado.util.EjecutorIO;
 import com.minimercado.util.FileManager;
+import com.minimercado.util.HistorialVentas;
+import com.minimercado.util.IndiceVentas;
+import com.minimercado.util.MasVendidos;
+import com.minimercado.util.MotorConsultaVentas;
+import com.minimercado.util.PronosticoDemanda;
+import com.minimercado.util.ReportesParalelos;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 public class ControladorVenta {
-    // Lista que mantiene todas las ventas del sistema
-    private List<Venta> ventas;
+    // Límites de memoria del historial, configurables por propiedades del sistema
+    private static final int MAX_VENTAS_RECIENTES = Integer.getInteger("minimercado.ventas.recientes", 1000);
+    private static final int DIAS_VENTAS_RECIENTES = Integer.getInteger("minimercado.ventas.dias", 30);
+    private static final int CAPACIDAD_CACHE_LINEAS = Integer.getInteger("minimercado.ventas.cacheLineas", 5000);
+    
+    // Historial de ventas con ventana reciente en memoria y caché de ventas antiguas
+    private HistorialVentas ventas;
+    // Líneas de las ventas finalizadas en columnas fuera del heap, para análisis
+    private ColumnasDetalleVenta lineas;
+    // Índices por cliente y por fecha de todas las ventas (residentes y archivadas)
+    private IndiceVentas indiceVentas;
+    // Motor de consultas sobre el historial, los índices y las columnas
+    private MotorConsultaVentas motorConsultas;
+    // Motor de reportes ad hoc en paralelo sobre las columnas
+    private ReportesParalelos reportes;
+    // Acumulados de ventas y clientes distintos para reportes, y si ya hay un guardado encolado
+    private AcumuladosVentas acumulados;
+    private ClientesDistintos clientesDistintos;
+    private final AtomicBoolean guardadoResumenesPendiente = new AtomicBoolean();
+    // Resúmenes de los productos más vendidos por ventana deslizante
+    private MasVendidos masVendidos;
+    // Coocurrencias de productos en las ventas, para sugerencias del carrito
+    private ComprasConjuntas comprasConjuntas;
+    // Demanda suavizada por producto, para la reposición
+    private PronosticoDemanda pronosticoDemanda;
+    // IDs de las ventas creadas que aún no se han finalizado (carritos en curso)
+    private Set<Integer> ventasEnCurso;
     // Referencias a otros controladores necesarios
     private ControladorProducto productoController;
     private ControladorCliente clienteController;
+    private ControladorTurno turnoController;
     
     // Constructor que inicializa el controlador
-    public ControladorVenta(ControladorProducto productoController, ControladorCliente clienteController) {
+    public ControladorVenta(ControladorProducto productoController, ControladorCliente clienteController,
+                            ControladorTurno turnoController) {
         this.productoController = productoController;
         this.clienteController = clienteController;
-        // Carga las ventas desde el archivo
-        this.ventas = FileManager.cargarVentas();
+        this.turnoController = turnoController;
+        // Carga las ventas desde el archivo; solo las recientes quedan residentes
+        this.ventas = new HistorialVentas(MAX_VENTAS_RECIENTES, DIAS_VENTAS_RECIENTES, CAPACIDAD_CACHE_LINEAS,
+                clienteController::buscarClientePorId, productoController::buscarProductoPorId);
+        this.lineas = new ColumnasDetalleVenta();
+        this.indiceVentas = new IndiceVentas();
+        this.ventasEnCurso = new HashSet<>();
+        this.motorConsultas = new MotorConsultaVentas(ventas, indiceVentas, lineas, ventasEnCurso);
+        this.reportes = new ReportesParalelos(lineas);
+        // El historial se recorre en streaming para no materializarlo completo
+        // Las ventas comparten las instancias de Producto y Cliente de los controladores
+        // Firma del historial (ventas con líneas y suma de sus IDs) para validar los acumulados guardados
+        long[] firma = new long[2];
+        // Ventas del turno abierto, para recalcular sus totales
+        int turnoAbierto = turnoController.getIdTurnoAbierto();
+        List<Venta> ventasTurno = new ArrayList<>();
+        // Solo las ventas de la última semana alcanzan las ventanas de más vendidos
+        this.masVendidos = new MasVendidos();
+        this.comprasConjuntas = new ComprasConjuntas();
+        this.pronosticoDemanda = new PronosticoDemanda();
+        long inicioMasVendidos = System.currentTimeMillis() - MasVendidos.Ventana.SEMANA.getDuracion();
+        // El recorrido registra de paso la posición en disco de cada venta para las búsquedas
+        try (Stream<Venta> historial = FileManager.recorrerVentas(id -> true,
+                clienteController::buscarClientePorId, productoController::buscarProductoPorId,
+                ventas.getPosiciones())) {
+            historial.forEachOrdered(venta -> {
+                lineas.agregarVenta(venta);
+                ventas.agregar(venta);
+                indexar(venta);
+                if (!venta.getDetalles().isEmpty()) {
+                    firma[0]++;
+                    firma[1] += venta.getId();
+                }
+                comprasConjuntas.agregarVenta(venta);
+                pronosticoDemanda.agregarVenta(venta);
+                if (venta.getFecha().getTime() >= inicioMasVendidos) {
+                    masVendidos.agregarVenta(venta);
+                }
+                if (turnoAbierto != 0 && venta.getTurnoId() == turnoAbierto) {
+                    ventasTurno.add(venta);
+                }
+            });
+        }
+        turnoController.restaurarTurnoAbierto(ventasTurno);
+        this.acumulados = new AcumuladosVentas();
+        byte[] guardados = FileManager.cargarAcumulados();
+        if (guardados == null || !acumulados.cargar(guardados)
+                || acumulados.getVentasAcumuladas() != firma[0] || acumulados.getSumaIds() != firma[1]) {
+            // Sin archivo, de otra versión o desactualizado: se reconstruye desde las líneas
+            acumulados.reconstruir(lineas);
+            persistirResumenes();
+        }
+        this.clientesDistintos = new ClientesDistintos();
+        guardados = FileManager.cargarClientesDistintos();
+        if (guardados == null || !clientesDistintos.cargar(guardados)
+                || clientesDistintos.getVentasAcumuladas() != firma[0] || clientesDistintos.getSumaIds() != firma[1]) {
+            // También tras eliminar ventas, que los bosquejos no pueden restar
+            clientesDistintos.reconstruir(lineas);
+            persistirResumenes();
+        }
     }
     
     // Getters para los controladores
@@ -48,30 +162,57 @@ public class ControladorVenta {
         return clienteController;
     }
     
+    public ControladorTurno getTurnoController() {
+        return turnoController;
+    }
+    
     // Método para crear una nueva venta
     public Venta crearVenta(Cliente cliente) {
         Venta venta = new Venta(cliente);
         // Asigna un nuevo ID si es necesario
         if (venta.getId() == 0) {
-            int nuevoId = ventas.isEmpty() ? 1 : ventas.get(ventas.size() - 1).getId() + 1;
-            venta.setId(nuevoId);
+            venta.setId(ventas.getUltimoId() + 1);
         }
-        ventas.add(venta);
-        // Guarda la venta en el archivo
-        FileManager.guardarVenta(venta);
+        ventas.agregar(venta);
+        indexar(venta);
+        ventasEnCurso.add(venta.getId());
+        // Guarda la venta en el archivo; al ser la más reciente basta con agregarla al final
+        Venta copia = instantanea(venta);
+        EjecutorIO.escribir(() -> FileManager.agregarVentaNueva(copia));
         return venta;
     }
     
+    // Método para finalizar una venta: genera la factura y la incorpora al almacén de análisis
+    public void finalizarVenta(Venta venta) {
+        boolean enCurso = ventasEnCurso.remove(venta.getId());
+        if (enCurso) {
+            // El turno se asigna antes de persistir para que quede guardado con la venta
+            turnoController.registrarVenta(venta);
+        }
+        persistirConFactura(venta);
+        if (enCurso) {
+            lineas.agregarVenta(venta);
+            acumulados.agregarVenta(venta);
+            clientesDistintos.agregarVenta(venta);
+            persistirResumenes();
+            masVendidos.agregarVenta(venta);
+            comprasConjuntas.agregarVenta(venta);
+            pronosticoDemanda.agregarVenta(venta);
+        }
+        // El total indexado se fija al finalizar
+        indexar(venta);
+    }
+    
     // Método para agregar un producto a una venta
     public void agregarProductoAVenta(Venta venta, Producto producto, int cantidad) {
         // Verifica que haya stock suficiente
         if (producto.getStock() >= cantidad) {
             DetalleVenta detalle = new DetalleVenta(producto, cantidad);
             venta.agregarDetalle(detalle);
-            // Actualiza el stock del producto
+            // Actualiza el stock del producto; stockModificado también revisa su stock mínimo
             producto.setStock(producto.getStock() - cantidad);
-            // Guarda los cambios
-            FileManager.guardarVenta(venta);
+            productoController.stockModificado(producto.getId());
+            // La venta en curso se persiste al finalizarla, no en cada línea
         }
     }
     
@@ -81,30 +222,206 @@ public class ControladorVenta {
         // Devuelve el stock al producto
         Producto producto = detalle.getProducto();
         producto.setStock(producto.getStock() + detalle.getCantidad());
-        // Guarda los cambios
-        FileManager.guardarVenta(venta);
+        productoController.stockModificado(producto.getId());
     }
     
     // Método para agregar una venta existente
     public void agregarVenta(Venta venta) {
-        ventas.add(venta);
-        FileManager.guardarVenta(venta);
+        ventas.agregar(venta);
+        indexar(venta);
+        persistirConFactura(venta);
     }
     
     // Método para eliminar una venta
     public void eliminarVenta(Venta venta) {
-        ventas.remove(venta);
-        FileManager.guardarVentas(ventas);
+        eliminarVenta(venta.getId());
+    }
+    
+    // Método para eliminar una venta por su ID, sin necesidad de leerla de disco
+    public void eliminarVenta(int id) {
+        if (ventas.eliminar(id)) {
+            indiceVentas.eliminar(id);
+            EjecutorIO.escribir(() -> FileManager.eliminarVenta(id));
+            if (!ventasEnCurso.remove(id)) {
+                // Los acumulados se restan con las líneas antes de marcarlas como inactivas
+                acumulados.quitarVenta(lineas, id);
+                comprasConjuntas.quitarVenta(lineas, id);
+                pronosticoDemanda.quitarVenta(lineas, id);
+                lineas.eliminarVenta(id);
+                persistirResumenes();
+                turnoController.ventaEliminada(id);
+            }
+        }
     }
     
     // Método para obtener todas las ventas
     public List<Venta> obtenerVentas() {
-        return new ArrayList<>(ventas);
+        return ventas.obtenerTodas();
     }
     
-    // Método para buscar una venta por su ID
+    // Método para buscar una venta por su ID; si está archivada se lee de disco y se resuelve
+    // en el mismo hilo. Desde la interfaz, usar leerVentas fuera del EDT y resolverVentas en el EDT
     public Venta buscarVentaPorId(int id) {
-        return ventas.stream().filter(v -> v.getId() == id).findFirst().orElse(null);
+        return ventas.buscar(id);
+    }
+    
+    // Primera fase de una búsqueda desde la interfaz: lee de disco las ventas archivadas sin
+    // consultar los catálogos, así que puede ejecutarse fuera del EDT
+    public HistorialVentas.Lectura leerVentas(int... ids) {
+        return ventas.leer(ids);
+    }
+    
+    // Segunda fase, en el EDT: resuelve clientes y productos de las ventas leídas
+    public List<Venta> resolverVentas(HistorialVentas.Lectura lectura) {
+        return ventas.resolver(lectura);
+    }
+    
+    // Método para obtener las ventas de un cliente, en orden de creación
+    public List<Venta> buscarVentasPorCliente(int clienteId) {
+        return ventas.buscarVarias(indiceVentas.buscarPorCliente(clienteId));
+    }
+    
+    // Método para obtener las ventas con fecha en [desde, hasta), ordenadas por fecha
+    public List<Venta> buscarVentasPorRango(Date desde, Date hasta) {
+        return ventas.buscarVarias(indiceVentas.buscarPorRango(desde.getTime(), hasta.getTime()));
+    }
+    
+    // Método para obtener los IDs de las ventas que cumplen una consulta, en orden; no lee ninguna venta
+    public int[] buscarIdsVentas(ConsultaVentas consulta) {
+        return motorConsultas.buscarIds(consulta);
+    }
+    
+    // Indica si la venta está en curso (creada pero aún no finalizada)
+    public boolean esVentaEnCurso(int id) {
+        return ventasEnCurso.contains(id);
+    }
+    
+    // Método para resolver varias ventas por ID en una sola pasada por disco, en el mismo hilo
+    public List<Venta> buscarVentasPorIds(int[] ids) {
+        return ventas.buscarVarias(ids);
+    }
+    
+    // Método para consultar ventas con filtros, orden y paginación; solo se leen las ventas de la página.
+    // Las archivadas se leen de disco: desde la interfaz, resolver los IDs en el EDT con
+    // buscarIdsVentas, leer las ventas en segundo plano con leerVentas y resolverlas en el EDT
+    public List<Venta> consultar(ConsultaVentas consulta) {
+        return motorConsultas.ejecutar(consulta);
+    }
+    
+    // Método para contar las ventas que cumplen una consulta, sin paginar ni leer ventas
+    public int contarVentas(ConsultaVentas consulta) {
+        return motorConsultas.contar(consulta);
+    }
+    
+    // Método para obtener el plan de ejecución de una consulta (índice usado y ventas por paso)
+    public String explicar(ConsultaVentas consulta) {
+        return motorConsultas.explicar(consulta);
+    }
+    
+    // Índices secundarios del historial, para consultas que solo necesitan IDs o conteos
+    public IndiceVentas obtenerIndiceVentas() {
+        return indiceVentas;
+    }
+    
+    // Encola la escritura de la venta y de su factura PDF con una instantánea de la venta
+    private void persistirConFactura(Venta venta) {
+        Venta copia = instantanea(venta);
+        EjecutorIO.escribir(() -> {
+            FileManager.guardarVenta(copia);
+            FileManager.generarFacturaPDF(copia);
+        });
+    }
+    
+    // Copia de la venta con su propia lista de detalles, para que el hilo escritor no vea
+    // los cambios que se hagan después en el EDT
+    private static Venta instantanea(Venta venta) {
+        Venta copia = new Venta(venta.getCliente());
+        copia.setId(venta.getId());
+        copia.setFecha(venta.getFecha() != null ? new Date(venta.getFecha().getTime()) : null);
+        copia.setMedioPago(venta.getMedioPago());
+        copia.setTurnoId(venta.getTurnoId());
+        copia.setDetalles(new ArrayList<>(venta.getDetalles()));
+        return copia;
+    }
+    
+    private void indexar(Venta venta) {
+        indiceVentas.agregar(venta.getId(),
+                venta.getCliente() != null ? venta.getCliente().getId() : 0,
+                venta.getFecha() != null ? venta.getFecha().getTime() : 0L,
+                venta.getTotal());
+    }
+    
+    // Acumulados por hora, día, producto y cliente para los reportes
+    public AcumuladosVentas obtenerAcumulados() {
+        return acumulados;
+    }
+    
+    // Reporte ad hoc de las ventas finalizadas con fecha en [desde, hasta). Recorre las líneas
+    // bloqueando las altas mientras dura: desde la interfaz, llamarlo en segundo plano
+    public List<ReportesParalelos.Grupo> calcularReporte(ReportesParalelos.Tipo tipo, long desde, long hasta) {
+        return reportes.calcular(tipo, desde, hasta);
+    }
+    
+    // Productos que más se compran junto con los del carrito de la venta
+    public List<Producto> sugerirParaCarrito(Venta venta, int maximo) {
+        int[] carrito = new int[venta.getDetalles().size()];
+        for (int i = 0; i < carrito.length; i++) {
+            carrito[i] = venta.getDetalles().get(i).getProducto().getId();
+        }
+        List<Producto> sugeridos = new ArrayList<>(Math.max(0, maximo));
+        // Se piden algunos de más por si hay productos eliminados o sin stock
+        for (ComprasConjuntas.Sugerencia sugerencia : comprasConjuntas.sugerir(carrito, maximo * 2)) {
+            Producto producto = productoController.buscarProductoPorId(sugerencia.getProductoId());
+            if (producto != null && producto.getStock() > 0 && sugeridos.size() < maximo) {
+                sugeridos.add(producto);
+            }
+        }
+        return sugeridos;
+    }
+    
+    // Productos que se agotarán antes de la cobertura objetivo, del más urgente al menos urgente
+    public List<PronosticoDemanda.Reposicion> calcularReposicion(int maximo) {
+        return pronosticoDemanda.calcularReposicion(productoController.obtenerProductos(),
+                System.currentTimeMillis(), maximo);
+    }
+    
+    // Índice de productos comprados juntos
+    public ComprasConjuntas obtenerComprasConjuntas() {
+        return comprasConjuntas;
+    }
+    
+    // Clientes distintos estimados por rango de fechas
+    public ClientesDistintos obtenerClientesDistintos() {
+        return clientesDistintos;
+    }
+    
+    // Productos más vendidos por ventana deslizante, con cotas de error
+    public MasVendidos obtenerMasVendidos() {
+        return masVendidos;
+    }
+    
+    // Encola el guardado de los acumulados y los clientes distintos; varias llamadas
+    // seguidas se resuelven con una escritura
+    private void persistirResumenes() {
+        if (guardadoResumenesPendiente.compareAndSet(false, true)) {
+            EjecutorIO.escribir(() -> {
+                guardadoResumenesPendiente.set(false);
+                FileManager.guardarAcumulados(acumulados.serializar());
+                if (clientesDistintos != null) {
+                    FileManager.guardarClientesDistintos(clientesDistintos.serializar());
+                }
+            });
+        }
+    }
+    
+    // Almacén columnar de las líneas de ventas finalizadas
+    public ColumnasDetalleVenta obtenerLineasVenta() {
+        return lineas;
+    }
+    
+    // Estadísticas de memoria y caché del historial de ventas
+    public String obtenerEstadisticasHistorial() {
+        return ventas.getEstadisticas();
     }
     
     // Método para buscar un producto por su ID
@@ -1,5 +1,8 @@
 package com.minimercado.controlador;
 
+import com.minimercado.util.CambiosEntidad;
+
+// Recibe en el EDT los productos agregados, actualizados y eliminados, agrupados por cuadro
 public interface ProductoChangeListener {
-    void onProductosChanged();
+    void onProductosChanged(CambiosEntidad cambios);
 } 
\ No newline at end of file
@@ -0,0 +1,150 @@
+/**
+ * Modelo de tabla virtualizado para el historial de facturas.
+ * En lugar de cargar una fila formateada por venta, guarda solo los IDs en el
+ * orden pedido y construye las filas por páginas cuando la tabla las pinta.
+ *
+ * Características principales:
+ * - Abrir la pestaña no lee ni formatea ninguna venta
+ * - Filas por páginas bajo demanda, con una caché LRU de páginas recientes
+ * - Orden y filtro resueltos por la API de consultas (índices de fecha y cliente)
+ * - Los valores son tipados (Date, Double); el formato lo aplican los renderers
+ *
+ * Notas técnicas:
+ * - Fecha, cliente y total salen del índice de ventas, sin paginar ventas desde disco
+ * - Las ventas en curso toman el total de la venta residente, que aún puede cambiar
+ * - Cada cambio de orden o filtro solo recalcula el arreglo de IDs
+ */
+package com.minimercado.gui;
+
+import com.minimercado.controlador.ControladorVenta;
+import com.minimercado.modelo.Cliente;
+import com.minimercado.modelo.Venta;
+import com.minimercado.util.ConsultaVentas;
+import com.minimercado.util.IndiceVentas;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.swing.table.AbstractTableModel;
+
+public class ModeloTablaFacturas extends AbstractTableModel {
+    // Filas por página y páginas conservadas en caché
+    private static final int FILAS_POR_PAGINA = 100;
+    private static final int MAX_PAGINAS = 20;
+
+    private static final String[] COLUMNAS = {"ID", "Cliente", "Fecha", "Total"};
+    private static final Class<?>[] CLASES = {Integer.class, String.class, Date.class, Double.class};
+
+    private final ControladorVenta ventaController;
+    private ConsultaVentas consulta;
+    // IDs de las ventas visibles en el orden de la tabla
+    private int[] ids = new int[0];
+    // Caché LRU de páginas: número de página -> filas
+    private final Map<Integer, Object[][]> paginas = new LinkedHashMap<Integer, Object[][]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> mayor) {
+            return size() > MAX_PAGINAS;
+        }
+    };
+    private long paginasCargadas;
+
+    public ModeloTablaFacturas(ControladorVenta ventaController) {
+        this.ventaController = ventaController;
+        this.consulta = new ConsultaVentas();
+        consulta.setOrden(ConsultaVentas.Orden.FECHA_DESC);
+    }
+
+    // Cambia el filtro u orden y vuelve a resolver los IDs (no se leen ventas)
+    public void setConsulta(ConsultaVentas consulta) {
+        this.consulta = consulta;
+        recargar();
+    }
+
+    public ConsultaVentas getConsulta() {
+        return consulta;
+    }
+
+    // Vuelve a resolver los IDs tras altas o bajas de ventas y descarta las páginas
+    public void recargar() {
+        ids = ventaController.buscarIdsVentas(consulta);
+        paginas.clear();
+        fireTableDataChanged();
+    }
+
+    // ID de la venta en la fila, sin construir la página
+    public int getIdVenta(int fila) {
+        return ids[fila];
+    }
+
+    public long getPaginasCargadas() {
+        return paginasCargadas;
+    }
+
+    @Override
+    public int getRowCount() {
+        return ids.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columna) {
+        return CLASES[columna];
+    }
+
+    @Override
+    public boolean isCellEditable(int fila, int columna) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        if (columna == 0) {
+            return ids[fila];
+        }
+        int numero = fila / FILAS_POR_PAGINA;
+        Object[][] pagina = paginas.get(numero);
+        if (pagina == null) {
+            pagina = cargarPagina(numero);
+            paginas.put(numero, pagina);
+        }
+        return pagina[fila - numero * FILAS_POR_PAGINA][columna];
+    }
+
+    // Construye las filas de una página con los datos del índice de ventas
+    private Object[][] cargarPagina(int numero) {
+        paginasCargadas++;
+        IndiceVentas indice = ventaController.obtenerIndiceVentas();
+        int inicio = numero * FILAS_POR_PAGINA;
+        int fin = Math.min(ids.length, inicio + FILAS_POR_PAGINA);
+        Object[][] filas = new Object[fin - inicio][];
+        for (int i = inicio; i < fin; i++) {
+            int id = ids[i];
+            if (!indice.contiene(id)) {
+                // La venta se eliminó después de resolver los IDs
+                filas[i - inicio] = new Object[]{id, "", null, null};
+                continue;
+            }
+            Cliente cliente = ventaController.buscarClientePorId(indice.getClienteId(id));
+            double total = indice.getTotal(id);
+            if (ventaController.esVentaEnCurso(id)) {
+                Venta venta = ventaController.buscarVentaPorId(id);
+                total = venta != null ? venta.getTotal() : total;
+            }
+            filas[i - inicio] = new Object[]{
+                id,
+                cliente != null ? cliente.getNombre() + " " + cliente.getApellido() : "",
+                new Date(indice.getFecha(id)),
+                total
+            };
+        }
+        return filas;
+    }
+}
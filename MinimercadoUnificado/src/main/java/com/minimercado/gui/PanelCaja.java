@@ -0,0 +1,225 @@
+/**
+ * Panel que maneja la interfaz de usuario de la caja.
+ * Este panel permite abrir y cerrar turnos de caja, ver los totales del turno
+ * abierto y consultar los cierres anteriores.
+ *
+ * Características principales:
+ * - Apertura de turno con cajero y base de efectivo
+ * - Totales del turno abierto por medio de pago y por tasa de IVA
+ * - Cierre de caja con arqueo de efectivo y reporte PDF
+ * - Historial de turnos con regeneración del PDF de cierre
+ *
+ * Componentes principales:
+ * - Campos de cajero y base de efectivo
+ * - Botones de apertura, cierre, PDF y actualización
+ * - Área de texto con el resumen del turno
+ * - Tabla de turnos
+ *
+ * Notas técnicas:
+ * - Implementa un diseño moderno con tema oscuro
+ * - Los totales ya están acumulados en el turno: mostrar y cerrar no recorre ventas
+ * - Los PDF se generan en el hilo escritor (data/cierres)
+ */
+package com.minimercado.gui;
+
+import com.minimercado.controlador.ControladorTurno;
+import com.minimercado.modelo.Turno;
+import com.minimercado.modelo.Venta;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.text.SimpleDateFormat;
+import java.util.Map;
+
+public class PanelCaja extends JPanel {
+    private JTextField txtCajero;
+    private JTextField txtBase;
+    private JButton btnAbrir, btnCerrar, btnPdf, btnActualizar;
+    private JTextArea txtResumen;
+    private JTable tablaTurnos;
+    private DefaultTableModel modelo;
+    private ControladorTurno turnoController;
+    private final SimpleDateFormat formatoFecha = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+
+    public PanelCaja(ControladorTurno turnoController) {
+        this.turnoController = turnoController;
+        initComponents();
+        actualizar();
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout(20, 20));
+        setBackground(new Color(30, 30, 30));
+
+        Font labelFont = new Font("Segoe UI", Font.BOLD, 14);
+        Font fieldFont = new Font("Segoe UI", Font.PLAIN, 14);
+        Color fg = Color.WHITE;
+        Color bgField = new Color(50, 50, 50);
+
+        JPanel headerPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        headerPanel.setBackground(new Color(30, 30, 30));
+        JLabel lblCajero = new JLabel("Cajero:");
+        lblCajero.setFont(labelFont);
+        lblCajero.setForeground(fg);
+        headerPanel.add(lblCajero);
+        txtCajero = new JTextField(15); txtCajero.setFont(fieldFont); txtCajero.setBackground(bgField); txtCajero.setForeground(fg); txtCajero.setCaretColor(fg);
+        headerPanel.add(txtCajero);
+        JLabel lblBase = new JLabel("Base efectivo:");
+        lblBase.setFont(labelFont);
+        lblBase.setForeground(fg);
+        headerPanel.add(lblBase);
+        txtBase = new JTextField("0", 8); txtBase.setFont(fieldFont); txtBase.setBackground(bgField); txtBase.setForeground(fg); txtBase.setCaretColor(fg);
+        headerPanel.add(txtBase);
+
+        btnAbrir = new JButton("Abrir turno");
+        btnCerrar = new JButton("Cerrar caja");
+        btnPdf = new JButton("PDF cierre");
+        btnActualizar = new JButton("Actualizar");
+        for (JButton btn : new JButton[]{btnAbrir, btnCerrar, btnPdf, btnActualizar}) {
+            btn.setFont(labelFont);
+            btn.setPreferredSize(new Dimension(130, 40));
+            btn.setBackground(new Color(35, 35, 35));
+            btn.setForeground(new Color(200, 200, 200));
+            headerPanel.add(btn);
+        }
+
+        txtResumen = new JTextArea();
+        txtResumen.setEditable(false);
+        txtResumen.setFont(new Font("Monospaced", Font.PLAIN, 14));
+        txtResumen.setBackground(bgField);
+        txtResumen.setForeground(fg);
+
+        modelo = new DefaultTableModel(new Object[]{"Turno", "Cajero", "Apertura", "Cierre", "Ventas", "Total", "Diferencia"}, 0) {
+            @Override
+            public boolean isCellEditable(int fila, int columna) {
+                return false;
+            }
+        };
+        tablaTurnos = new JTable(modelo);
+        tablaTurnos.setFont(fieldFont);
+        tablaTurnos.setRowHeight(28);
+        tablaTurnos.getTableHeader().setFont(labelFont);
+        tablaTurnos.setBackground(bgField);
+        tablaTurnos.setForeground(fg);
+        tablaTurnos.getTableHeader().setBackground(new Color(40, 40, 40));
+        tablaTurnos.getTableHeader().setForeground(Color.BLACK);
+        tablaTurnos.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        JScrollPane scrollResumen = new JScrollPane(txtResumen);
+        scrollResumen.getViewport().setBackground(bgField);
+        JScrollPane scrollTurnos = new JScrollPane(tablaTurnos);
+        scrollTurnos.getViewport().setBackground(bgField);
+        JPanel centro = new JPanel(new GridLayout(1, 2, 20, 20));
+        centro.setBackground(new Color(30, 30, 30));
+        centro.add(scrollResumen);
+        centro.add(scrollTurnos);
+
+        add(headerPanel, BorderLayout.NORTH);
+        add(centro, BorderLayout.CENTER);
+
+        btnAbrir.addActionListener(e -> abrirTurno());
+        btnCerrar.addActionListener(e -> cerrarTurno());
+        btnPdf.addActionListener(e -> generarPdf());
+        btnActualizar.addActionListener(e -> actualizar());
+    }
+
+    private void abrirTurno() {
+        try {
+            double base = Double.parseDouble(txtBase.getText().trim());
+            Turno turno = turnoController.abrirTurno(txtCajero.getText(), base);
+            actualizar();
+            JOptionPane.showMessageDialog(this, "Turno #" + turno.getId() + " abierto");
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "La base de efectivo debe ser un número", "Error", JOptionPane.ERROR_MESSAGE);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void cerrarTurno() {
+        Turno abierto = turnoController.obtenerTurnoAbierto();
+        if (abierto == null) {
+            JOptionPane.showMessageDialog(this, "No hay un turno abierto", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String contado = JOptionPane.showInputDialog(this,
+                String.format("Efectivo esperado: $%.2f%nIngrese el efectivo contado:", abierto.getEfectivoEsperado()),
+                "Cerrar caja", JOptionPane.QUESTION_MESSAGE);
+        if (contado == null) {
+            return;
+        }
+        try {
+            Turno cerrado = turnoController.cerrarTurno(Double.parseDouble(contado.trim()));
+            actualizar();
+            JOptionPane.showMessageDialog(this,
+                    String.format("Turno #%d cerrado. Diferencia: $%.2f%nReporte: data/cierres/Cierre_Turno_%d.pdf",
+                            cerrado.getId(), cerrado.getDiferencia(), cerrado.getId()));
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "El efectivo contado debe ser un número", "Error", JOptionPane.ERROR_MESSAGE);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void generarPdf() {
+        int fila = tablaTurnos.getSelectedRow();
+        if (fila < 0) {
+            JOptionPane.showMessageDialog(this, "Por favor seleccione un turno", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int id = (Integer) modelo.getValueAt(fila, 0);
+        try {
+            turnoController.generarReporteCierre(id);
+            JOptionPane.showMessageDialog(this, "Reporte: data/cierres/Cierre_Turno_" + id + ".pdf");
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Muestra los totales del turno abierto y el historial de turnos
+    public void actualizar() {
+        Turno abierto = turnoController.obtenerTurnoAbierto();
+        btnAbrir.setEnabled(abierto == null);
+        btnCerrar.setEnabled(abierto != null);
+        txtResumen.setText(abierto != null ? resumen(abierto) : "No hay un turno abierto.\n"
+                + "Las ventas finalizadas sin turno abren uno automáticamente.");
+        txtResumen.setCaretPosition(0);
+
+        modelo.setRowCount(0);
+        for (Turno turno : turnoController.obtenerTurnos()) {
+            modelo.addRow(new Object[]{
+                turno.getId(),
+                turno.getCajero(),
+                formatoFecha.format(turno.getApertura()),
+                turno.estaAbierto() ? "Abierto" : formatoFecha.format(turno.getCierre()),
+                turno.getVentas(),
+                String.format("$%.2f", turno.getTotal()),
+                turno.estaAbierto() ? "" : String.format("$%.2f", turno.getDiferencia())
+            });
+        }
+    }
+
+    private String resumen(Turno turno) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Turno #").append(turno.getId()).append(" - ").append(turno.getCajero()).append("\n");
+        sb.append("Apertura: ").append(formatoFecha.format(turno.getApertura())).append("\n");
+        sb.append("Ventas: ").append(turno.getVentas()).append("\n\n");
+        sb.append("Por medio de pago:\n");
+        for (int i = 0; i < Venta.MEDIOS_PAGO.length; i++) {
+            sb.append(String.format("  %-14s %5d  $%.2f\n", Venta.MEDIOS_PAGO[i],
+                    turno.getVentasPorMedio(i), turno.getTotalPorMedio(i)));
+        }
+        sb.append("\nIVA por tasa (base / IVA):\n");
+        for (Map.Entry<Double, double[]> tasa : turno.getIvaPorTasa().entrySet()) {
+            sb.append(String.format("  %6.2f%%  $%.2f / $%.2f\n", tasa.getKey() * 100,
+                    tasa.getValue()[0], tasa.getValue()[1]));
+        }
+        sb.append(String.format("\nSubtotal (Base): $%.2f\n", turno.getSubtotal()));
+        sb.append(String.format("IVA (Total): $%.2f\n", turno.getIva()));
+        sb.append(String.format("Descuento (Total): $%.2f\n", turno.getDescuento()));
+        sb.append(String.format("Total: $%.2f\n\n", turno.getTotal()));
+        sb.append(String.format("Base de efectivo: $%.2f\n", turno.getBaseEfectivo()));
+        sb.append(String.format("Efectivo esperado: $%.2f\n", turno.getEfectivoEsperado()));
+        return sb.toString();
+    }
+}
@@ -17,12 +17,16 @@
  * - Implementa un diseño moderno con tema oscuro
  * - Actualiza en tiempo real
  * - Coordina con el controlador de clientes
+ * - Las filas de la tabla se arman en segundo plano y llegan al EDT por lotes
+ * - Los cambios posteriores solo reemplazan, insertan o quitan las filas afectadas
  */
 package com.minimercado.gui;
 
 import com.minimercado.modelo.Cliente;
 import com.minimercado.controlador.ControladorCliente;
 import com.minimercado.controlador.ClienteChangeListener;
+import com.minimercado.util.CambiosEntidad;
+import com.minimercado.util.EjecutorIO;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
@@ -32,9 +36,14 @@ import javax.swing.table.JTableHeader;
 public class PanelClientes extends JPanel implements ClienteChangeListener {
     private JTable tablaClientes;
     private DefaultTableModel modelo;
-    private JTextField txtNombre, txtApellido, txtEmail, txtTelefono;
+    private JTextField txtNombre, txtApellido, txtDocumento, txtEmail, txtTelefono;
     private JButton btnNuevo, btnGuardar, btnEliminar, btnLimpiar;
     private ControladorCliente clienteController;
+    private SwingWorker<Void, Object[]> cargaTabla; // Carga de la tabla en curso, si hay alguna
+    private boolean cargandoTabla;                  // Aún llegan lotes: los cambios no se pueden aplicar por fila
+    
+    // Más cambios que estos en una entrega recargan la tabla en lugar de aplicarse fila por fila
+    private static final int MAX_CAMBIOS_PARCHE = 500;
     
     public PanelClientes(ControladorCliente clienteController) {
         this.clienteController = clienteController;
@@ -60,11 +69,12 @@ public class PanelClientes extends JPanel implements ClienteChangeListener {
         
         txtNombre = new JTextField(20); txtNombre.setFont(fieldFont); txtNombre.setBackground(bgField); txtNombre.setForeground(fg);
         txtApellido = new JTextField(20); txtApellido.setFont(fieldFont); txtApellido.setBackground(bgField); txtApellido.setForeground(fg);
+        txtDocumento = new JTextField(20); txtDocumento.setFont(fieldFont); txtDocumento.setBackground(bgField); txtDocumento.setForeground(fg);
         txtEmail = new JTextField(20); txtEmail.setFont(fieldFont); txtEmail.setBackground(bgField); txtEmail.setForeground(fg);
         txtTelefono = new JTextField(20); txtTelefono.setFont(fieldFont); txtTelefono.setBackground(bgField); txtTelefono.setForeground(fg);
         
-        String[] labels = {"Nombre:", "Apellido:", "Email:", "Teléfono:"};
-        Component[] fields = {txtNombre, txtApellido, txtEmail, txtTelefono};
+        String[] labels = {"Nombre:", "Apellido:", "Documento:", "Email:", "Teléfono:"};
+        Component[] fields = {txtNombre, txtApellido, txtDocumento, txtEmail, txtTelefono};
         for (int i = 0; i < labels.length; i++) {
             gbc.gridx = 0; gbc.gridy = i;
             JLabel lbl = new JLabel(labels[i]);
@@ -91,7 +101,7 @@ public class PanelClientes extends JPanel implements ClienteChangeListener {
         gbc.gridx = 0; gbc.gridy = labels.length; gbc.gridwidth = 2;
         formPanel.add(buttonPanel, gbc);
         
-        String[] columnas = {"ID", "Nombre", "Apellido", "Email", "Teléfono"};
+        String[] columnas = {"ID", "Nombre", "Apellido", "Documento", "Email", "Teléfono"};
         modelo = new DefaultTableModel(columnas, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -131,25 +141,39 @@ public class PanelClientes extends JPanel implements ClienteChangeListener {
     }
     
     private void cargarClientes() {
+        // Una recarga nueva descarta los lotes pendientes de la anterior
+        if (cargaTabla != null) {
+            cargaTabla.cancel(false);
+        }
         modelo.setRowCount(0);
+        cargandoTabla = true;
         List<Cliente> clientes = clienteController.obtenerClientes();
-        for (Cliente c : clientes) {
-            Object[] fila = {
-                c.getId(),
-                c.getNombre(),
-                c.getApellido(),
-                c.getEmail(),
-                c.getTelefono()
-            };
-            modelo.addRow(fila);
-        }
+        cargaTabla = EjecutorIO.cargarPorLotes(publicar -> {
+            for (Cliente c : clientes) {
+                publicar.accept(filaCliente(c));
+            }
+        }, lote -> {
+            for (Object[] fila : lote) {
+                modelo.addRow(fila);
+            }
+        }, () -> cargandoTabla = false);
+    }
+    
+    private Object[] filaCliente(Cliente c) {
+        return new Object[] {
+            c.getId(),
+            c.getNombre(),
+            c.getApellido(),
+            c.getDocumento(),
+            c.getEmail(),
+            c.getTelefono()
+        };
     }
     
     private void guardarCliente() {
         try {
             Cliente cliente = obtenerClienteFormulario();
             clienteController.agregarCliente(cliente);
-            cargarClientes();
             limpiarFormulario();
             JOptionPane.showMessageDialog(this, "Cliente guardado exitosamente");
         } catch (Exception e) {
@@ -170,7 +194,6 @@ public class PanelClientes extends JPanel implements ClienteChangeListener {
                     Cliente cliente = clienteController.buscarClientePorId(id);
                     if (cliente != null) {
                         clienteController.eliminarCliente(cliente);
-                        cargarClientes();
                         limpiarFormulario();
                         JOptionPane.showMessageDialog(this, "Cliente eliminado exitosamente");
                     }
@@ -198,6 +221,7 @@ public class PanelClientes extends JPanel implements ClienteChangeListener {
     private void limpiarFormulario() {
         txtNombre.setText("");
         txtApellido.setText("");
+        txtDocumento.setText("");
         txtEmail.setText("");
         txtTelefono.setText("");
         tablaClientes.clearSelection();
@@ -206,6 +230,7 @@ public class PanelClientes extends JPanel implements ClienteChangeListener {
     private void mostrarCliente(Cliente cliente) {
         txtNombre.setText(cliente.getNombre());
         txtApellido.setText(cliente.getApellido());
+        txtDocumento.setText(cliente.getDocumento());
         txtEmail.setText(cliente.getEmail());
         txtTelefono.setText(cliente.getTelefono());
     }
@@ -214,13 +239,22 @@ public class PanelClientes extends JPanel implements ClienteChangeListener {
         Cliente cliente = new Cliente();
         cliente.setNombre(txtNombre.getText());
         cliente.setApellido(txtApellido.getText());
+        cliente.setDocumento(txtDocumento.getText().trim());
         cliente.setEmail(txtEmail.getText());
         cliente.setTelefono(txtTelefono.getText());
         return cliente;
     }
     
     @Override
-    public void onClientesChanged() {
-        cargarClientes();
+    public void onClientesChanged(CambiosEntidad cambios) {
+        // Con una carga en curso o ante un cambio masivo se recarga la tabla completa
+        if (cargandoTabla || cambios.getTotal() > MAX_CAMBIOS_PARCHE) {
+            cargarClientes();
+            return;
+        }
+        ParcheTabla.aplicar(modelo, cambios, id -> {
+            Cliente c = clienteController.buscarClientePorId(id);
+            return c == null ? null : filaCliente(c);
+        });
     }
 } 
\ No newline at end of file
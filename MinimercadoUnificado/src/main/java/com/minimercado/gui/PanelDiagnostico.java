@@ -0,0 +1,160 @@
+/**
+ * Panel de diagnóstico de la latencia de la interfaz.
+ * Muestra lo que mide MonitorEDT: cuánto tarda el hilo de eventos de Swing en
+ * atender cada evento y qué estaba haciendo cuando se quedó bloqueado.
+ *
+ * Características principales:
+ * - Resumen con eventos atendidos, percentiles p50/p95/p99 y máximo
+ * - Histograma de latencias por cubeta
+ * - Últimos bloqueos con la pila capturada del EDT
+ * - Hitos del arranque (ventana visible, primer pintado, cargas y pestañas construidas)
+ *
+ * Componentes principales:
+ * - Etiqueta de resumen
+ * - Tabla del histograma
+ * - Área de texto con los bloqueos recientes
+ * - Área de texto con los hitos del arranque
+ * - Botón de actualización
+ *
+ * Notas técnicas:
+ * - Se refresca cada segundo con un Timer de Swing mientras el panel está visible
+ * - Si el monitor no está instalado el panel lo indica y no muestra datos
+ */
+package com.minimercado.gui;
+
+import com.minimercado.util.MedicionArranque;
+import com.minimercado.util.MonitorEDT;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+
+public class PanelDiagnostico extends JPanel {
+    // Intervalo de refresco en ms
+    private static final int REFRESCO_MS = 1000;
+
+    private JLabel lblResumen;
+    private JTable tablaHistograma;
+    private DefaultTableModel modeloHistograma;
+    private JTextArea txtBloqueos;
+    private JTextArea txtArranque;
+    private JButton btnActualizar;
+    private Timer timerRefresco;
+    // Bloqueo más reciente mostrado, para no reescribir el texto si no hay nuevos
+    private String ultimoBloqueo;
+    // Hitos del arranque ya mostrados
+    private int hitosMostrados;
+
+    public PanelDiagnostico() {
+        initComponents();
+        actualizar();
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout(20, 20));
+        setBackground(new Color(30, 30, 30));
+
+        JPanel headerPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        headerPanel.setBackground(new Color(30, 30, 30));
+        btnActualizar = new JButton("Actualizar");
+        btnActualizar.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        btnActualizar.setPreferredSize(new Dimension(130, 40));
+        btnActualizar.setBackground(new Color(35, 35, 35));
+        btnActualizar.setForeground(new Color(200, 200, 200));
+        headerPanel.add(btnActualizar);
+        lblResumen = new JLabel();
+        lblResumen.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        lblResumen.setForeground(Color.WHITE);
+        headerPanel.add(lblResumen);
+
+        modeloHistograma = new DefaultTableModel(new Object[]{"Latencia", "Eventos", "%"}, 0) {
+            @Override
+            public boolean isCellEditable(int fila, int columna) {
+                return false;
+            }
+        };
+        for (String etiqueta : MonitorEDT.getEtiquetasHistograma()) {
+            modeloHistograma.addRow(new Object[]{etiqueta, 0L, ""});
+        }
+        tablaHistograma = new JTable(modeloHistograma);
+        tablaHistograma.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        tablaHistograma.setRowHeight(24);
+        tablaHistograma.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
+        tablaHistograma.setBackground(new Color(50, 50, 50));
+        tablaHistograma.setForeground(Color.WHITE);
+        tablaHistograma.getTableHeader().setBackground(new Color(40, 40, 40));
+        tablaHistograma.getTableHeader().setForeground(Color.BLACK);
+        JScrollPane scrollHistograma = new JScrollPane(tablaHistograma);
+        scrollHistograma.getViewport().setBackground(new Color(50, 50, 50));
+        scrollHistograma.setPreferredSize(new Dimension(350, 0));
+
+        txtBloqueos = new JTextArea();
+        txtBloqueos.setEditable(false);
+        txtBloqueos.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        txtBloqueos.setBackground(new Color(50, 50, 50));
+        txtBloqueos.setForeground(Color.WHITE);
+        JScrollPane scrollBloqueos = new JScrollPane(txtBloqueos);
+        scrollBloqueos.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createLineBorder(new Color(60, 60, 60)), "Bloqueos recientes",
+                0, 0, new Font("Segoe UI", Font.BOLD, 14), Color.WHITE));
+
+        txtArranque = new JTextArea(6, 0);
+        txtArranque.setEditable(false);
+        txtArranque.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        txtArranque.setBackground(new Color(50, 50, 50));
+        txtArranque.setForeground(Color.WHITE);
+        JScrollPane scrollArranque = new JScrollPane(txtArranque);
+        scrollArranque.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createLineBorder(new Color(60, 60, 60)), "Arranque (ms desde el inicio de la JVM)",
+                0, 0, new Font("Segoe UI", Font.BOLD, 14), Color.WHITE));
+
+        add(headerPanel, BorderLayout.NORTH);
+        add(scrollHistograma, BorderLayout.WEST);
+        add(scrollBloqueos, BorderLayout.CENTER);
+        add(scrollArranque, BorderLayout.SOUTH);
+
+        btnActualizar.addActionListener(e -> actualizar());
+        timerRefresco = new Timer(REFRESCO_MS, e -> {
+            if (isShowing()) {
+                actualizar();
+            }
+        });
+        timerRefresco.start();
+    }
+
+    // Vuelca las métricas actuales del monitor en el panel
+    public void actualizar() {
+        List<String> hitos = MedicionArranque.getHitos();
+        for (int i = hitosMostrados; i < hitos.size(); i++) {
+            txtArranque.append(hitos.get(i) + "\n");
+        }
+        hitosMostrados = hitos.size();
+
+        MonitorEDT monitor = MonitorEDT.getInstancia();
+        if (monitor == null) {
+            lblResumen.setText("Monitor del EDT no instalado");
+            return;
+        }
+        long eventos = monitor.getEventos();
+        lblResumen.setText(String.format("Eventos: %d   p50: %d ms   p95: %d ms   p99: %d ms   máx: %d ms   lentos (>= %d ms): %d",
+                eventos, monitor.getPercentilMs(50), monitor.getPercentilMs(95), monitor.getPercentilMs(99),
+                monitor.getMaximoMs(), monitor.getUmbralMs(), monitor.getEventosLentos()));
+
+        long[] histograma = monitor.getHistograma();
+        for (int i = 0; i < histograma.length; i++) {
+            modeloHistograma.setValueAt(histograma[i], i, 1);
+            modeloHistograma.setValueAt(eventos == 0 ? "" : String.format("%.2f", histograma[i] * 100.0 / eventos), i, 2);
+        }
+
+        List<String> bloqueos = monitor.getBloqueos();
+        if (!bloqueos.isEmpty() && bloqueos.get(0) != ultimoBloqueo) {
+            StringBuilder texto = new StringBuilder();
+            for (String bloqueo : bloqueos) {
+                texto.append(bloqueo).append('\n');
+            }
+            txtBloqueos.setText(texto.toString());
+            txtBloqueos.setCaretPosition(0);
+            ultimoBloqueo = bloqueos.get(0);
+        }
+    }
+}
@@ -10,7 +10,8 @@
  * - Eliminación de facturas
  * 
  * Componentes principales:
- * - Tabla de facturas
+ * - Tabla de facturas virtualizada (ModeloTablaFacturas)
+ * - Filtro por período y orden al hacer clic en el encabezado
  * - Botones de control
  * - Diálogo de detalle de factura
  * 
@@ -19,26 +20,46 @@
  * - Maneja la generación de PDFs
  * - Coordina con el controlador de ventas
  * - Mantiene la consistencia de datos
+ * - El detalle de una factura se lee de disco en segundo plano (puede estar archivada) y
+ *   se resuelve contra los catálogos en el EDT
+ * - Las filas se construyen por páginas al pintarse y se formatean en los renderers
+ *   con formateadores compartidos
  */
 package com.minimercado.gui;
 
 import com.minimercado.modelo.Venta;
 import com.minimercado.modelo.DetalleVenta;
 import com.minimercado.controlador.ControladorVenta;
+import com.minimercado.util.ConsultaVentas;
+import com.minimercado.util.EjecutorIO;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
-import java.util.List;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
 
 public class PanelFacturacion extends JPanel {
     private JTable tablaFacturas;
-    private DefaultTableModel modelo;
+    private ModeloTablaFacturas modelo;
+    private JComboBox<String> cmbPeriodo;
     private JButton btnVerDetalle;
     private JButton btnEliminarFactura;
     private ControladorVenta ventaController;
     private VentanaPrincipal ventanaPrincipal;
     
+    // Períodos del filtro, en días hacia atrás (0 = todas las facturas)
+    private static final String[] PERIODOS = {"Todas", "Hoy", "Últimos 7 días", "Últimos 30 días"};
+    private static final int[] DIAS_PERIODO = {0, 1, 7, 30};
+    
+    // Formateadores compartidos por los renderers y el detalle (solo se usan en el EDT)
+    private final SimpleDateFormat formatoFecha = new SimpleDateFormat("dd 'de' MMMM 'de' yyyy");
+    private final DecimalFormat formatoMoneda = new DecimalFormat("$0.00");
+    
     public PanelFacturacion(ControladorVenta ventaController, VentanaPrincipal ventanaPrincipal) {
         this.ventaController = ventaController;
         this.ventanaPrincipal = ventanaPrincipal;
@@ -66,15 +87,31 @@ public class PanelFacturacion extends JPanel {
         btnEliminarFactura.setForeground(new Color(200, 200, 200));
         headerPanel.add(btnEliminarFactura);
         
-        String[] columnas = {"ID", "Cliente", "Fecha", "Total"};
-        modelo = new DefaultTableModel(columnas, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        JLabel lblPeriodo = new JLabel("Período:");
+        lblPeriodo.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        lblPeriodo.setForeground(Color.WHITE);
+        headerPanel.add(lblPeriodo);
+        cmbPeriodo = new JComboBox<>(PERIODOS);
+        cmbPeriodo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        headerPanel.add(cmbPeriodo);
+        
+        modelo = new ModeloTablaFacturas(ventaController);
         
         tablaFacturas = new JTable(modelo);
+        // Formato al pintar: la tabla solo guarda valores tipados
+        tablaFacturas.setDefaultRenderer(Date.class, new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object valor) {
+                setText(valor == null ? "" : formatoFecha.format((Date) valor));
+            }
+        });
+        tablaFacturas.setDefaultRenderer(Double.class, new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object valor) {
+                setHorizontalAlignment(SwingConstants.RIGHT);
+                setText(valor == null ? "" : formatoMoneda.format(valor));
+            }
+        });
         tablaFacturas.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         tablaFacturas.setRowHeight(28);
         tablaFacturas.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
@@ -91,62 +128,80 @@ public class PanelFacturacion extends JPanel {
         
         btnVerDetalle.addActionListener(e -> mostrarDetalleFactura());
         btnEliminarFactura.addActionListener(e -> eliminarFactura());
+        cmbPeriodo.addActionListener(e -> aplicarFiltro());
+        // Clic en el encabezado: ordena por ID, fecha o total a través de la API de consultas
+        tablaFacturas.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                ordenarPorColumna(tablaFacturas.columnAtPoint(e.getPoint()));
+            }
+        });
     }
     
-    private void cargarFacturas() {
-        modelo.setRowCount(0);
-        List<Venta> ventas = ventaController.obtenerVentas();
-        for (Venta v : ventas) {
-            Object[] fila = {
-                v.getId(),
-                v.getCliente().getNombre() + " " + v.getCliente().getApellido(),
-                new SimpleDateFormat("dd 'de' MMMM 'de' yyyy").format(v.getFecha()),
-                String.format("$%.2f", v.getTotal())
-            };
-            modelo.addRow(fila);
+    // Aplica el período seleccionado conservando el orden actual
+    private void aplicarFiltro() {
+        ConsultaVentas consulta = nuevaConsulta(modelo.getConsulta().getOrden());
+        modelo.setConsulta(consulta);
+    }
+    
+    // Alterna entre orden ascendente y descendente; la columna Cliente no tiene índice y se ignora
+    private void ordenarPorColumna(int columna) {
+        ConsultaVentas.Orden actual = modelo.getConsulta().getOrden();
+        ConsultaVentas.Orden orden;
+        switch (columna) {
+            case 0:
+                orden = actual == ConsultaVentas.Orden.ID_DESC ? ConsultaVentas.Orden.ID_ASC : ConsultaVentas.Orden.ID_DESC;
+                break;
+            case 2:
+                orden = actual == ConsultaVentas.Orden.FECHA_DESC ? ConsultaVentas.Orden.FECHA_ASC : ConsultaVentas.Orden.FECHA_DESC;
+                break;
+            case 3:
+                orden = actual == ConsultaVentas.Orden.TOTAL_DESC ? ConsultaVentas.Orden.TOTAL_ASC : ConsultaVentas.Orden.TOTAL_DESC;
+                break;
+            default:
+                return;
         }
+        modelo.setConsulta(nuevaConsulta(orden));
+    }
+    
+    private ConsultaVentas nuevaConsulta(ConsultaVentas.Orden orden) {
+        ConsultaVentas consulta = new ConsultaVentas();
+        consulta.setOrden(orden);
+        int dias = DIAS_PERIODO[Math.max(0, cmbPeriodo.getSelectedIndex())];
+        if (dias > 0) {
+            Calendar inicio = Calendar.getInstance();
+            inicio.set(Calendar.HOUR_OF_DAY, 0);
+            inicio.set(Calendar.MINUTE, 0);
+            inicio.set(Calendar.SECOND, 0);
+            inicio.set(Calendar.MILLISECOND, 0);
+            inicio.add(Calendar.DAY_OF_MONTH, 1 - dias);
+            consulta.setDesde(inicio.getTime());
+        }
+        return consulta;
+    }
+    
+    // Solo resuelve los IDs; las filas se construyen al pintarse
+    private void cargarFacturas() {
+        modelo.recargar();
     }
     
     private void mostrarDetalleFactura() {
         int fila = tablaFacturas.getSelectedRow();
         if (fila >= 0) {
-            int id = (int) modelo.getValueAt(fila, 0);
-            List<Venta> ventas = ventaController.obtenerVentas();
-            Venta venta = ventas.stream().filter(v -> v.getId() == id).findFirst().orElse(null);
-            
-            if (venta != null) {
-                StringBuilder detalle = new StringBuilder();
-                detalle.append("Factura #").append(venta.getId()).append("\n");
-                detalle.append("Cliente: ").append(venta.getCliente().getNombre())
-                        .append(" ").append(venta.getCliente().getApellido()).append("\n");
-                detalle.append("Fecha: ").append(new SimpleDateFormat("dd 'de' MMMM 'de' yyyy").format(venta.getFecha())).append("\n\n");
-                detalle.append("Detalle de Productos:\n");
-                
-                for (DetalleVenta d : venta.getDetalles()) {
-                    detalle.append(String.format("%s x%d $%.2f = $%.2f\n",
-                            d.getProducto().getNombre(),
-                            d.getCantidad(),
-                            d.getPrecioUnitario(),
-                            d.getTotalDetalle()));
+            int id = modelo.getIdVenta(fila);
+            // Las facturas antiguas se leen de disco en segundo plano; cliente y productos se
+            // resuelven después en el EDT, que es el hilo que modifica los catálogos
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            EjecutorIO.cargar(() -> ventaController.leerVentas(id), lectura -> {
+                setCursor(Cursor.getDefaultCursor());
+                List<Venta> ventas = ventaController.resolverVentas(lectura);
+                if (!ventas.isEmpty()) {
+                    mostrarDetalle(ventas.get(0));
                 }
-                
-                detalle.append("\nSubtotal (Base): $").append(String.format("%.2f", venta.getSubtotal())).append("\n");
-                detalle.append("IVA (Total): $").append(String.format("%.2f", venta.getIva())).append("\n");
-                detalle.append("Descuento (Total): $").append(String.format("%.2f", venta.getDescuento())).append("\n");
-                detalle.append("Total: $").append(String.format("%.2f", venta.getTotal()));
-                
-                JTextArea textArea = new JTextArea(detalle.toString());
-                textArea.setEditable(false);
-                textArea.setFont(new Font("Monospaced", Font.PLAIN, 14));
-                
-                JScrollPane scrollPane = new JScrollPane(textArea);
-                scrollPane.setPreferredSize(new Dimension(400, 300));
-                
-                JOptionPane.showMessageDialog(this,
-                        scrollPane,
-                        "Detalle de Factura",
-                        JOptionPane.INFORMATION_MESSAGE);
-            }
+            }, e -> {
+                setCursor(Cursor.getDefaultCursor());
+                JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            });
         } else {
             JOptionPane.showMessageDialog(this,
                     "Por favor seleccione una factura",
@@ -155,14 +210,49 @@ public class PanelFacturacion extends JPanel {
         }
     }
     
+    private void mostrarDetalle(Venta venta) {
+        StringBuilder detalle = new StringBuilder();
+        detalle.append("Factura #").append(venta.getId()).append("\n");
+        detalle.append("Cliente: ").append(venta.getCliente().getNombre())
+                .append(" ").append(venta.getCliente().getApellido()).append("\n");
+        detalle.append("Fecha: ").append(formatoFecha.format(venta.getFecha())).append("\n");
+        detalle.append("Medio de pago: ").append(venta.getMedioPago()).append("\n\n");
+        detalle.append("Detalle de Productos:\n");
+        
+        for (DetalleVenta d : venta.getDetalles()) {
+            detalle.append(String.format("%s x%d $%.2f = $%.2f\n",
+                    d.getProducto().getNombre(),
+                    d.getCantidad(),
+                    d.getPrecioUnitario(),
+                    d.getTotalDetalle()));
+        }
+        
+        detalle.append("\nSubtotal (Base): $").append(String.format("%.2f", venta.getSubtotal())).append("\n");
+        detalle.append("IVA (Total): $").append(String.format("%.2f", venta.getIva())).append("\n");
+        detalle.append("Descuento (Total): $").append(String.format("%.2f", venta.getDescuento())).append("\n");
+        detalle.append("Total: $").append(String.format("%.2f", venta.getTotal()));
+        
+        JTextArea textArea = new JTextArea(detalle.toString());
+        textArea.setEditable(false);
+        textArea.setFont(new Font("Monospaced", Font.PLAIN, 14));
+        
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        scrollPane.setPreferredSize(new Dimension(400, 300));
+        
+        JOptionPane.showMessageDialog(this,
+                scrollPane,
+                "Detalle de Factura",
+                JOptionPane.INFORMATION_MESSAGE);
+    }
+    
     private void eliminarFactura() {
         int fila = tablaFacturas.getSelectedRow();
         if (fila >= 0) {
-            int id = (int) modelo.getValueAt(fila, 0);
-            Venta ventaToDelete = ventaController.obtenerVentas().stream().filter(v -> v.getId() == id).findFirst().orElse(null);
+            int id = modelo.getIdVenta(fila);
             
-            if (ventaToDelete != null) {
-                ventaController.eliminarVenta(ventaToDelete);
+            // Se elimina por ID, sin leer la venta de disco
+            if (ventaController.obtenerIndiceVentas().contiene(id)) {
+                ventaController.eliminarVenta(id);
                 cargarFacturas();
                 ventanaPrincipal.actualizarPanelVentas();
             } else {
@@ -0,0 +1,173 @@
+/**
+ * Panel de inventario con las alertas de stock bajo y la lista de reposición.
+ * Muestra los productos por debajo de su stock mínimo y los que se agotarán antes de
+ * la cobertura objetivo según su demanda suavizada, del más urgente al menos urgente.
+ *
+ * Características principales:
+ * - Productos en alerta de stock bajo ordenados por stock / stock mínimo
+ * - Demanda diaria suavizada por producto
+ * - Días de cobertura del stock actual
+ * - Pedido sugerido para cubrir la cobertura objetivo
+ *
+ * Componentes principales:
+ * - Tabla de alertas de stock bajo
+ * - Tabla de reposición
+ * - Resumen con la cobertura objetivo
+ * - Botón de actualización
+ *
+ * Notas técnicas:
+ * - Implementa un diseño moderno con tema oscuro
+ * - La demanda ya está suavizada venta a venta (PronosticoDemanda): actualizar no recorre ventas
+ * - Las alertas salen de la cola de prioridad del controlador de productos sin recorrer
+ *   el catálogo; actualizarAlertas las refresca sola cuando un producto entra o sale
+ * - Se actualiza al seleccionar la pestaña y al finalizar o eliminar ventas
+ */
+package com.minimercado.gui;
+
+import com.minimercado.controlador.ControladorProducto;
+import com.minimercado.controlador.ControladorVenta;
+import com.minimercado.modelo.Producto;
+import com.minimercado.util.PronosticoDemanda;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+
+public class PanelInventario extends JPanel {
+    // Número máximo de productos en la lista de reposición
+    private static final int MAX_REPOSICION = 200;
+    // Número máximo de productos en la tabla de alertas
+    private static final int MAX_ALERTAS = 200;
+
+    private JButton btnActualizar;
+    private JLabel lblResumen;
+    private JLabel lblAlertas;
+    private JTable tablaAlertas;
+    private DefaultTableModel modeloAlertas;
+    private JTable tablaReposicion;
+    private DefaultTableModel modelo;
+    private ControladorVenta ventaController;
+    private ControladorProducto productoController;
+
+    public PanelInventario(ControladorVenta ventaController, ControladorProducto productoController) {
+        this.ventaController = ventaController;
+        this.productoController = productoController;
+        initComponents();
+        actualizar();
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout(20, 20));
+        setBackground(new Color(30, 30, 30));
+
+        Font labelFont = new Font("Segoe UI", Font.BOLD, 14);
+        Color fg = Color.WHITE;
+        Color bgField = new Color(50, 50, 50);
+
+        JPanel headerPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        headerPanel.setBackground(new Color(30, 30, 30));
+        btnActualizar = new JButton("Actualizar");
+        btnActualizar.setFont(labelFont);
+        btnActualizar.setPreferredSize(new Dimension(130, 40));
+        btnActualizar.setBackground(new Color(35, 35, 35));
+        btnActualizar.setForeground(new Color(200, 200, 200));
+        headerPanel.add(btnActualizar);
+        lblResumen = new JLabel();
+        lblResumen.setFont(labelFont);
+        lblResumen.setForeground(fg);
+        headerPanel.add(lblResumen);
+
+        modelo = new DefaultTableModel(new Object[]{"ID", "Producto", "Stock", "Demanda/día", "Días de cobertura", "Pedido sugerido"}, 0) {
+            @Override
+            public boolean isCellEditable(int fila, int columna) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int columna) {
+                return columna == 0 || columna == 2 || columna == 5 ? Integer.class : String.class;
+            }
+        };
+        tablaReposicion = new JTable(modelo);
+        modeloAlertas = new DefaultTableModel(new Object[]{"ID", "Producto", "Stock", "Stock mínimo", "% del mínimo"}, 0) {
+            @Override
+            public boolean isCellEditable(int fila, int columna) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int columna) {
+                return columna == 0 || columna == 2 || columna == 3 ? Integer.class : String.class;
+            }
+        };
+        tablaAlertas = new JTable(modeloAlertas);
+        for (JTable tabla : new JTable[]{tablaAlertas, tablaReposicion}) {
+            tabla.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+            tabla.setRowHeight(28);
+            tabla.getTableHeader().setFont(labelFont);
+            tabla.setBackground(bgField);
+            tabla.setForeground(fg);
+            tabla.getTableHeader().setBackground(new Color(40, 40, 40));
+            tabla.getTableHeader().setForeground(Color.BLACK);
+        }
+
+        lblAlertas = new JLabel();
+        lblAlertas.setFont(labelFont);
+        lblAlertas.setForeground(fg);
+        JScrollPane scrollAlertas = new JScrollPane(tablaAlertas);
+        scrollAlertas.getViewport().setBackground(bgField);
+        JPanel alertasPanel = new JPanel(new BorderLayout(5, 5));
+        alertasPanel.setBackground(new Color(30, 30, 30));
+        alertasPanel.add(lblAlertas, BorderLayout.NORTH);
+        alertasPanel.add(scrollAlertas, BorderLayout.CENTER);
+
+        JScrollPane scrollPane = new JScrollPane(tablaReposicion);
+        scrollPane.getViewport().setBackground(bgField);
+
+        JPanel centroPanel = new JPanel(new GridLayout(2, 1, 0, 20));
+        centroPanel.setBackground(new Color(30, 30, 30));
+        centroPanel.add(alertasPanel);
+        centroPanel.add(scrollPane);
+
+        add(headerPanel, BorderLayout.NORTH);
+        add(centroPanel, BorderLayout.CENTER);
+
+        btnActualizar.addActionListener(e -> actualizar());
+    }
+
+    // Vuelve a cargar las alertas y a calcular la lista de reposición con el stock y la demanda actuales
+    public void actualizar() {
+        actualizarAlertas();
+        List<PronosticoDemanda.Reposicion> reposicion = ventaController.calcularReposicion(MAX_REPOSICION);
+        modelo.setRowCount(0);
+        for (PronosticoDemanda.Reposicion r : reposicion) {
+            modelo.addRow(new Object[]{
+                r.getProducto().getId(),
+                r.getProducto().getNombre(),
+                r.getProducto().getStock(),
+                String.format("%.2f", r.getDemandaDiaria()),
+                String.format("%.1f", r.getDiasCobertura()),
+                r.getPedidoSugerido()
+            });
+        }
+        lblResumen.setText(String.format("%d productos con menos de %d días de cobertura",
+                reposicion.size(), PronosticoDemanda.getDiasCobertura()));
+    }
+
+    // Vuelve a cargar los productos en alerta de stock bajo, del más urgente al menos urgente
+    public void actualizarAlertas() {
+        List<Producto> bajoStock = productoController.obtenerProductosBajoStock(MAX_ALERTAS);
+        modeloAlertas.setRowCount(0);
+        for (Producto p : bajoStock) {
+            modeloAlertas.addRow(new Object[]{
+                p.getId(),
+                p.getNombre(),
+                p.getStock(),
+                p.getStockMinimo(),
+                String.format("%.0f%%", 100.0 * Math.max(0, p.getStock()) / p.getStockMinimo())
+            });
+        }
+        lblAlertas.setText(String.format("%d productos en o por debajo de su stock mínimo",
+                productoController.contarProductosBajoStock()));
+    }
+}
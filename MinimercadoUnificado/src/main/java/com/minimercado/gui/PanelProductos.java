@@ -12,19 +12,23 @@
  * Componentes principales:
  * - Formulario de producto
  * - Tabla de productos
- * - Controles de stock
+ * - Controles de stock y stock mínimo para las alertas de stock bajo
  * - Campos de precios y descuentos
  * 
  * Notas técnicas:
  * - Implementa un diseño moderno con tema oscuro
  * - Actualiza en tiempo real
  * - Coordina con el controlador de productos
+ * - Las filas de la tabla se formatean en segundo plano y llegan al EDT por lotes
+ * - Los cambios posteriores solo reemplazan, insertan o quitan las filas afectadas
  */
 package com.minimercado.gui;
 
 import com.minimercado.modelo.Producto;
 import com.minimercado.controlador.ControladorProducto;
 import com.minimercado.controlador.ProductoChangeListener;
+import com.minimercado.util.CambiosEntidad;
+import com.minimercado.util.EjecutorIO;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
@@ -36,10 +40,15 @@ import java.util.Locale;
 public class PanelProductos extends JPanel implements ProductoChangeListener {
     private JTable tablaProductos;
     private DefaultTableModel modelo;
-    private JTextField txtNombre, txtDescripcion, txtPrecio, txtStock;
+    private JTextField txtCodigo, txtNombre, txtDescripcion, txtPrecio, txtStock, txtStockMinimo;
     private JSpinner spnStock, spnIva, spnDescuento;
     private JButton btnNuevo, btnGuardar, btnEliminar, btnLimpiar;
     private ControladorProducto productoController;
+    private SwingWorker<Void, Object[]> cargaTabla; // Carga de la tabla en curso, si hay alguna
+    private boolean cargandoTabla;                  // Aún llegan lotes: los cambios no se pueden aplicar por fila
+    
+    // Más cambios que estos en una entrega recargan la tabla en lugar de aplicarse fila por fila
+    private static final int MAX_CAMBIOS_PARCHE = 500;
     
     // Definimos la configuración regional para Colombia
     private static final Locale LOCALE = Locale.US;
@@ -66,18 +75,20 @@ public class PanelProductos extends JPanel implements ProductoChangeListener {
         Color fg = Color.WHITE;
         Color bgField = new Color(50, 50, 50);
         
+        txtCodigo = new JTextField(20); txtCodigo.setFont(fieldFont); txtCodigo.setBackground(bgField); txtCodigo.setForeground(fg);
         txtNombre = new JTextField(20); txtNombre.setFont(fieldFont); txtNombre.setBackground(bgField); txtNombre.setForeground(fg);
         txtDescripcion = new JTextField(20); txtDescripcion.setFont(fieldFont); txtDescripcion.setBackground(bgField); txtDescripcion.setForeground(fg);
         txtPrecio = new JTextField(20); txtPrecio.setFont(fieldFont); txtPrecio.setBackground(bgField); txtPrecio.setForeground(fg);
         txtStock = new JTextField(20); txtStock.setFont(fieldFont); txtStock.setBackground(bgField); txtStock.setForeground(fg);
+        txtStockMinimo = new JTextField(20); txtStockMinimo.setFont(fieldFont); txtStockMinimo.setBackground(bgField); txtStockMinimo.setForeground(fg);
         
         // Configuramos los spinners para IVA y Descuento
         spnStock = new JSpinner(new SpinnerNumberModel(0, 0, 10000, 1)); spnStock.setFont(fieldFont);
         spnIva = new JSpinner(new SpinnerNumberModel(0.0, 0.0, 100.0, 1.0)); spnIva.setFont(fieldFont);
         spnDescuento = new JSpinner(new SpinnerNumberModel(0.0, 0.0, 100.0, 1.0)); spnDescuento.setFont(fieldFont);
         
-        String[] labels = {"Nombre:", "Descripción:", "Precio:", "Stock:", "IVA (%):", "Descuento (%):"};
-        Component[] fields = {txtNombre, txtDescripcion, txtPrecio, txtStock, spnIva, spnDescuento};
+        String[] labels = {"Código:", "Nombre:", "Descripción:", "Precio:", "Stock:", "Stock mínimo:", "IVA (%):", "Descuento (%):"};
+        Component[] fields = {txtCodigo, txtNombre, txtDescripcion, txtPrecio, txtStock, txtStockMinimo, spnIva, spnDescuento};
         for (int i = 0; i < labels.length; i++) {
             gbc.gridx = 0; gbc.gridy = i;
             JLabel lbl = new JLabel(labels[i]);
@@ -101,7 +112,7 @@ public class PanelProductos extends JPanel implements ProductoChangeListener {
         }
         gbc.gridx = 0; gbc.gridy = labels.length; gbc.gridwidth = 2;
         formPanel.add(buttonPanel, gbc);
-        String[] columnas = {"ID", "Nombre", "Descripción", "Precio", "IVA", "Descuento", "Stock", "Precio Final"};
+        String[] columnas = {"ID", "Código", "Nombre", "Descripción", "Precio", "IVA", "Descuento", "Stock", "Stock mín.", "Precio Final"};
         modelo = new DefaultTableModel(columnas, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -134,28 +145,52 @@ public class PanelProductos extends JPanel implements ProductoChangeListener {
     }
     
     private void cargarProductos() {
+        // Una recarga nueva descarta los lotes pendientes de la anterior
+        if (cargaTabla != null) {
+            cargaTabla.cancel(false);
+        }
         modelo.setRowCount(0);
+        cargandoTabla = true;
         List<Producto> productos = productoController.obtenerProductos();
-        for (Producto p : productos) {
-            Object[] fila = {
-                p.getId(),
-                p.getNombre(),
-                p.getDescripcion(),
-                // Usamos String.format con LOCALE para mostrar el precio con el separador decimal correcto
-                String.format(LOCALE, "%.2f", p.getPrecio()),
-                String.format(LOCALE, "%.0f%%", p.getIva() * 100),
-                String.format(LOCALE, "%.0f%%", p.getDescuento() * 100),
-                p.getStock(),
-                // Usamos String.format con LOCALE para mostrar el precio final
-                String.format(LOCALE, "%.2f", p.getPrecioFinal())
-            };
-            modelo.addRow(fila);
-        }
+        cargaTabla = EjecutorIO.cargarPorLotes(publicar -> {
+            for (Producto p : productos) {
+                publicar.accept(filaProducto(p));
+            }
+        }, lote -> {
+            for (Object[] fila : lote) {
+                modelo.addRow(fila);
+            }
+        }, () -> cargandoTabla = false);
+    }
+    
+    private Object[] filaProducto(Producto p) {
+        return new Object[] {
+            p.getId(),
+            p.getCodigo(),
+            p.getNombre(),
+            p.getDescripcion(),
+            // Usamos String.format con LOCALE para mostrar el precio con el separador decimal correcto
+            String.format(LOCALE, "%.2f", p.getPrecio()),
+            String.format(LOCALE, "%.0f%%", p.getIva() * 100),
+            String.format(LOCALE, "%.0f%%", p.getDescuento() * 100),
+            p.getStock(),
+            p.getStockMinimo(),
+            // Usamos String.format con LOCALE para mostrar el precio final
+            String.format(LOCALE, "%.2f", p.getPrecioFinal())
+        };
     }
     
     @Override
-    public void onProductosChanged() {
-        cargarProductos();
+    public void onProductosChanged(CambiosEntidad cambios) {
+        // Con una carga en curso o ante un cambio masivo se recarga la tabla completa
+        if (cargandoTabla || cambios.getTotal() > MAX_CAMBIOS_PARCHE) {
+            cargarProductos();
+            return;
+        }
+        ParcheTabla.aplicar(modelo, cambios, id -> {
+            Producto p = productoController.buscarProductoPorId(id);
+            return p == null ? null : filaProducto(p);
+        });
     }
     
     private void guardarProducto() {
@@ -182,7 +217,7 @@ public class PanelProductos extends JPanel implements ProductoChangeListener {
             // ventana.actualizarPanelVentas(); 
            
         } catch (NumberFormatException | ParseException e) { // Capturamos NumberFormatException y ParseException
-            JOptionPane.showMessageDialog(this, "Por favor ingrese valores numéricos válidos para precio, stock, IVA y descuento. Use el formato numérico de su región.",
+            JOptionPane.showMessageDialog(this, "Por favor ingrese valores numéricos válidos para precio, stock, stock mínimo, IVA y descuento. Use el formato numérico de su región.",
                 "Error", JOptionPane.ERROR_MESSAGE);
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
@@ -227,10 +262,12 @@ public class PanelProductos extends JPanel implements ProductoChangeListener {
     }
     
     private void limpiarFormulario() {
+        txtCodigo.setText("");
         txtNombre.setText("");
         txtDescripcion.setText("");
         txtPrecio.setText("");
         txtStock.setText("");
+        txtStockMinimo.setText("");
         // Restablecer spinners a valores por defecto o vacíos si aplica
         spnStock.setValue(0);
         spnIva.setValue(0.0);
@@ -239,6 +276,7 @@ public class PanelProductos extends JPanel implements ProductoChangeListener {
     }
     
     private void mostrarProducto(Producto producto) {
+        txtCodigo.setText(producto.getCodigo());
         txtNombre.setText(producto.getNombre());
         txtDescripcion.setText(producto.getDescripcion());
         // Usamos String.format con LOCALE para mostrar el precio con el separador decimal correcto
@@ -247,10 +285,13 @@ public class PanelProductos extends JPanel implements ProductoChangeListener {
         spnIva.setValue(producto.getIva() * 100.0);
         spnDescuento.setValue(producto.getDescuento() * 100.0);
         txtStock.setText(String.valueOf(producto.getStock()));
+        txtStockMinimo.setText(producto.getStockMinimo() > 0 ? String.valueOf(producto.getStockMinimo()) : "");
     }
     
     private Producto obtenerProductoFormulario() throws ParseException, NumberFormatException {
         Producto producto = new Producto();
+        String codigo = txtCodigo.getText().trim();
+        producto.setCodigo(codigo.isEmpty() ? null : codigo);
         producto.setNombre(txtNombre.getText());
         producto.setDescripcion(txtDescripcion.getText());
         
@@ -259,6 +300,12 @@ public class PanelProductos extends JPanel implements ProductoChangeListener {
         
         producto.setPrecio(nf.parse(txtPrecio.getText()).doubleValue());
         producto.setStock(nf.parse(txtStock.getText()).intValue()); // Leer stock como entero
+        // El stock mínimo es opcional: vacío = sin alerta de stock bajo
+        String stockMinimo = txtStockMinimo.getText().trim();
+        producto.setStockMinimo(stockMinimo.isEmpty() ? 0 : nf.parse(stockMinimo).intValue());
+        if (producto.getStockMinimo() < 0) {
+            throw new IllegalArgumentException("El stock mínimo no puede ser negativo");
+        }
         
         // Obtenemos los valores directamente de los spinners y los convertimos a decimal
         double iva = ((Number) spnIva.getValue()).doubleValue();
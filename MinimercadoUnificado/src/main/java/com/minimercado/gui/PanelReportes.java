@@ -0,0 +1,392 @@
+/**
+ * Panel de reportes de ventas construido sobre los acumulados materializados.
+ * Muestra ventas, unidades, subtotal, IVA, descuento y total agrupados por hora,
+ * por día, por producto o por cliente, sin recorrer las líneas de venta. Los
+ * reportes que los acumulados no cubren se calculan en paralelo sobre las líneas.
+ *
+ * Características principales:
+ * - Agrupación por hora, día, producto, cliente, hora del día o tasa de IVA
+ * - Filtro por período en todas las agrupaciones
+ * - Totales del período en la cabecera
+ * - Más vendidos de la última hora, día o semana con su margen de error
+ * - Clientes distintos por día y de hoy, los últimos 7 y los últimos 30 días
+ *
+ * Componentes principales:
+ * - Selector de agrupación y de período
+ * - Tabla de cubetas
+ * - Tabla de más vendidos con selector de ventana
+ * - Resumen de clientes distintos
+ * - Botón de actualización
+ *
+ * Notas técnicas:
+ * - Implementa un diseño moderno con tema oscuro
+ * - Cada consulta cuesta O(cubetas), no O(líneas de venta)
+ * - Productos y clientes de todo el historial salen de los acumulados; con un período,
+ *   igual que la hora del día y la tasa de IVA, los calcula ReportesParalelos
+ * - Productos y clientes se ordenan por total
+ * - Los más vendidos son estimaciones (MasVendidos): las unidades reales están entre
+ *   Unidades - Error y Unidades
+ * - Los clientes distintos son estimaciones (ClientesDistintos) con un error típico
+ *   cercano al 1.6%; la columna Clientes solo se llena al agrupar por día
+ * - Se actualiza al seleccionar la pestaña y al finalizar o eliminar ventas
+ * - Los reportes sobre las líneas se calculan en segundo plano (EjecutorIO) y la tabla
+ *   se llena en el EDT; una actualización nueva descarta el cálculo pendiente
+ */
+package com.minimercado.gui;
+
+import com.minimercado.controlador.ControladorVenta;
+import com.minimercado.modelo.Cliente;
+import com.minimercado.modelo.Producto;
+import com.minimercado.util.AcumuladosVentas;
+import com.minimercado.util.AcumuladosVentas.Acumulado;
+import com.minimercado.util.AcumuladosVentas.Dimension;
+import com.minimercado.util.ClientesDistintos;
+import com.minimercado.util.EjecutorIO;
+import com.minimercado.util.MasVendidos;
+import com.minimercado.util.ReportesParalelos;
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+public class PanelReportes extends JPanel {
+    private static final String[] AGRUPACIONES = {"Por hora", "Por día", "Por producto", "Por cliente",
+            "Por hora del día", "Por tasa de IVA"};
+    // Fuente de cada agrupación: dimensión de los acumulados y/o reporte sobre las líneas
+    private static final Dimension[] DIMENSIONES = {Dimension.HORA, Dimension.DIA, Dimension.PRODUCTO, Dimension.CLIENTE,
+            null, null};
+    private static final ReportesParalelos.Tipo[] TIPOS_LINEAS = {null, null, ReportesParalelos.Tipo.PRODUCTO,
+            ReportesParalelos.Tipo.CLIENTE, ReportesParalelos.Tipo.HORA_DEL_DIA, ReportesParalelos.Tipo.TASA_IVA};
+    // Períodos del filtro, en días hacia atrás (0 = todo el historial)
+    private static final String[] PERIODOS = {"Hoy", "Últimos 7 días", "Últimos 30 días", "Todo"};
+    private static final int[] DIAS_PERIODO = {1, 7, 30, 0};
+    // Ventanas de más vendidos y número de productos mostrados
+    private static final String[] VENTANAS = {"Última hora", "Último día", "Última semana"};
+    private static final MasVendidos.Ventana[] VENTANAS_TOP = {MasVendidos.Ventana.HORA, MasVendidos.Ventana.DIA, MasVendidos.Ventana.SEMANA};
+    private static final int TOP_K = 10;
+
+    private JComboBox<String> cmbAgrupacion;
+    private JComboBox<String> cmbPeriodo;
+    private JButton btnActualizar;
+    private JLabel lblResumen;
+    private JTable tablaReporte;
+    private DefaultTableModel modelo;
+    private JComboBox<String> cmbVentana;
+    private JLabel lblTop;
+    private JLabel lblClientes;
+    private JTable tablaTop;
+    private DefaultTableModel modeloTop;
+    private ControladorVenta ventaController;
+    private SwingWorker<List<ReportesParalelos.Grupo>, Void> calculoLineas; // Reporte sobre las líneas en curso, si hay alguno
+
+    // Formateadores compartidos (solo se usan en el EDT)
+    private final SimpleDateFormat formatoHora = new SimpleDateFormat("dd/MM/yyyy HH:00");
+    private final SimpleDateFormat formatoDia = new SimpleDateFormat("dd/MM/yyyy");
+    private final DecimalFormat formatoMoneda = new DecimalFormat("$0.00");
+
+    public PanelReportes(ControladorVenta ventaController) {
+        this.ventaController = ventaController;
+        initComponents();
+        actualizar();
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout(20, 20));
+        setBackground(new Color(30, 30, 30));
+
+        JPanel headerPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        headerPanel.setBackground(new Color(30, 30, 30));
+        JLabel lblAgrupacion = new JLabel("Agrupar:");
+        lblAgrupacion.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        lblAgrupacion.setForeground(Color.WHITE);
+        headerPanel.add(lblAgrupacion);
+        cmbAgrupacion = new JComboBox<>(AGRUPACIONES);
+        cmbAgrupacion.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        cmbAgrupacion.setSelectedIndex(1);
+        headerPanel.add(cmbAgrupacion);
+        JLabel lblPeriodo = new JLabel("Período:");
+        lblPeriodo.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        lblPeriodo.setForeground(Color.WHITE);
+        headerPanel.add(lblPeriodo);
+        cmbPeriodo = new JComboBox<>(PERIODOS);
+        cmbPeriodo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        cmbPeriodo.setSelectedIndex(2);
+        headerPanel.add(cmbPeriodo);
+        btnActualizar = new JButton("Actualizar");
+        btnActualizar.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        btnActualizar.setPreferredSize(new java.awt.Dimension(130, 40));
+        btnActualizar.setBackground(new Color(35, 35, 35));
+        btnActualizar.setForeground(new Color(200, 200, 200));
+        headerPanel.add(btnActualizar);
+        lblResumen = new JLabel();
+        lblResumen.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        lblResumen.setForeground(Color.WHITE);
+        headerPanel.add(lblResumen);
+
+        modelo = new DefaultTableModel(new Object[]{"Grupo", "Ventas", "Clientes", "Unidades", "Subtotal", "IVA", "Descuento", "Total"}, 0) {
+            @Override
+            public boolean isCellEditable(int fila, int columna) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int columna) {
+                return columna == 0 ? String.class : columna <= 3 ? Long.class : Double.class;
+            }
+        };
+        tablaReporte = new JTable(modelo);
+        tablaReporte.setDefaultRenderer(Double.class, new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object valor) {
+                setHorizontalAlignment(SwingConstants.RIGHT);
+                setText(valor == null ? "" : formatoMoneda.format(valor));
+            }
+        });
+        tablaReporte.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        tablaReporte.setRowHeight(28);
+        tablaReporte.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
+        tablaReporte.setBackground(new Color(50, 50, 50));
+        tablaReporte.setForeground(Color.WHITE);
+        tablaReporte.getTableHeader().setBackground(new Color(40, 40, 40));
+        tablaReporte.getTableHeader().setForeground(Color.BLACK);
+
+        JScrollPane scrollPane = new JScrollPane(tablaReporte);
+        scrollPane.getViewport().setBackground(new Color(50, 50, 50));
+
+        // Panel lateral de más vendidos
+        JPanel topPanel = new JPanel(new BorderLayout(10, 10));
+        topPanel.setBackground(new Color(30, 30, 30));
+        JPanel topHeader = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        topHeader.setBackground(new Color(30, 30, 30));
+        JLabel lblVentana = new JLabel("Más vendidos:");
+        lblVentana.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        lblVentana.setForeground(Color.WHITE);
+        topHeader.add(lblVentana);
+        cmbVentana = new JComboBox<>(VENTANAS);
+        cmbVentana.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        cmbVentana.setSelectedIndex(1);
+        topHeader.add(cmbVentana);
+        lblTop = new JLabel();
+        lblTop.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        lblTop.setForeground(Color.WHITE);
+        modeloTop = new DefaultTableModel(new Object[]{"Producto", "Unidades", "± Error", "Seguro"}, 0) {
+            @Override
+            public boolean isCellEditable(int fila, int columna) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int columna) {
+                return columna == 0 ? String.class : columna == 3 ? Boolean.class : Long.class;
+            }
+        };
+        tablaTop = new JTable(modeloTop);
+        tablaTop.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        tablaTop.setRowHeight(28);
+        tablaTop.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
+        tablaTop.setBackground(new Color(50, 50, 50));
+        tablaTop.setForeground(Color.WHITE);
+        tablaTop.getTableHeader().setBackground(new Color(40, 40, 40));
+        tablaTop.getTableHeader().setForeground(Color.BLACK);
+        JScrollPane scrollTop = new JScrollPane(tablaTop);
+        scrollTop.getViewport().setBackground(new Color(50, 50, 50));
+        scrollTop.setPreferredSize(new java.awt.Dimension(420, 0));
+        topPanel.add(topHeader, BorderLayout.NORTH);
+        topPanel.add(scrollTop, BorderLayout.CENTER);
+        lblClientes = new JLabel();
+        lblClientes.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        lblClientes.setForeground(Color.WHITE);
+        JPanel pieTop = new JPanel(new GridLayout(2, 1, 0, 5));
+        pieTop.setBackground(new Color(30, 30, 30));
+        pieTop.add(lblTop);
+        pieTop.add(lblClientes);
+        topPanel.add(pieTop, BorderLayout.SOUTH);
+
+        add(headerPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        add(topPanel, BorderLayout.EAST);
+
+        cmbVentana.addActionListener(e -> actualizarMasVendidos());
+        cmbAgrupacion.addActionListener(e -> actualizar());
+        cmbPeriodo.addActionListener(e -> actualizar());
+        btnActualizar.addActionListener(e -> actualizar());
+    }
+
+    // Vuelve a consultar los acumulados o las líneas con la agrupación y el período seleccionados
+    public void actualizar() {
+        int agrupacion = cmbAgrupacion.getSelectedIndex();
+        Dimension dimension = DIMENSIONES[agrupacion];
+        boolean temporal = dimension == Dimension.HORA || dimension == Dimension.DIA;
+        int dias = DIAS_PERIODO[cmbPeriodo.getSelectedIndex()];
+        long desde = dias > 0 ? inicioPeriodo(dias) : Long.MIN_VALUE;
+        ClientesDistintos clientesDistintos = ventaController.obtenerClientesDistintos();
+
+        // El resultado de un cálculo anterior ya no corresponde a la selección
+        if (calculoLineas != null) {
+            calculoLineas.cancel(false);
+            calculoLineas = null;
+            setCursor(Cursor.getDefaultCursor());
+        }
+        if (dimension == null || (!temporal && dias > 0)) {
+            actualizarDesdeLineas(TIPOS_LINEAS[agrupacion], desde);
+        } else {
+            actualizarDesdeAcumulados(dimension, temporal, desde, clientesDistintos);
+        }
+        actualizarMasVendidos();
+        actualizarClientesDistintos(clientesDistintos);
+    }
+
+    private void actualizarDesdeAcumulados(Dimension dimension, boolean temporal, long desde,
+                                           ClientesDistintos clientesDistintos) {
+        AcumuladosVentas acumulados = ventaController.obtenerAcumulados();
+        List<Acumulado> cubetas = temporal
+                ? acumulados.consultarRango(dimension, desde, Long.MAX_VALUE)
+                : acumulados.consultarTodo(dimension);
+
+        long ventas = 0, unidades = 0;
+        double total = 0;
+        modelo.setRowCount(0);
+        for (Acumulado a : cubetas) {
+            Long clientes = null;
+            if (dimension == Dimension.DIA) {
+                long inicio = acumulados.inicioCubeta(dimension, a.getClave());
+                clientes = clientesDistintos.estimar(inicio, acumulados.inicioCubeta(dimension, a.getClave() + 1));
+            }
+            modelo.addRow(new Object[]{
+                nombreGrupo(acumulados, dimension, a.getClave()),
+                a.getVentas(),
+                clientes,
+                a.getUnidades(),
+                a.getSubtotal(),
+                a.getIva(),
+                a.getDescuento(),
+                a.getTotal()
+            });
+            unidades += a.getUnidades();
+            total += a.getTotal();
+            ventas += a.getVentas();
+        }
+        // En la dimensión producto una venta con varios productos cuenta en cada uno
+        lblResumen.setText(String.format("%s: %d grupos, %d unidades, total %s",
+                dimension == Dimension.PRODUCTO ? "Líneas por producto" : ventas + " ventas",
+                cubetas.size(), unidades, formatoMoneda.format(total)));
+    }
+
+    // Reporte calculado en paralelo sobre las líneas de venta del período. El cálculo recorre
+    // las columnas y bloquea las altas mientras dura, así que se hace fuera del EDT
+    private void actualizarDesdeLineas(ReportesParalelos.Tipo tipo, long desde) {
+        modelo.setRowCount(0);
+        lblResumen.setText("Calculando...");
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        calculoLineas = EjecutorIO.cargar(() -> ventaController.calcularReporte(tipo, desde, Long.MAX_VALUE), grupos -> {
+            calculoLineas = null;
+            setCursor(Cursor.getDefaultCursor());
+            mostrarGrupos(tipo, grupos);
+        }, e -> {
+            calculoLineas = null;
+            setCursor(Cursor.getDefaultCursor());
+            lblResumen.setText("Error al calcular el reporte: " + e.getMessage());
+        });
+    }
+
+    // Llena la tabla con los grupos de un reporte sobre las líneas (en el EDT, que resuelve los nombres)
+    private void mostrarGrupos(ReportesParalelos.Tipo tipo, List<ReportesParalelos.Grupo> grupos) {
+        long unidades = 0;
+        double total = 0;
+        modelo.setRowCount(0);
+        for (ReportesParalelos.Grupo g : grupos) {
+            modelo.addRow(new Object[]{
+                nombreGrupo(tipo, g),
+                g.getVentas(),
+                null,
+                g.getUnidades(),
+                g.getSubtotal(),
+                g.getIva(),
+                g.getDescuento(),
+                g.getTotal()
+            });
+            unidades += g.getUnidades();
+            total += g.getTotal();
+        }
+        lblResumen.setText(String.format("%d grupos, %d unidades, total %s",
+                grupos.size(), unidades, formatoMoneda.format(total)));
+    }
+
+    // Clientes distintos de hoy, de los últimos 7 y de los últimos 30 días
+    private void actualizarClientesDistintos(ClientesDistintos clientesDistintos) {
+        StringBuilder texto = new StringBuilder("Clientes distintos:");
+        for (int i = 0; i < DIAS_PERIODO.length; i++) {
+            if (DIAS_PERIODO[i] > 0) {
+                texto.append(String.format(" %s ≈%d,", PERIODOS[i].toLowerCase(),
+                        clientesDistintos.estimar(inicioPeriodo(DIAS_PERIODO[i]), Long.MAX_VALUE)));
+            }
+        }
+        texto.setLength(texto.length() - 1);
+        texto.append(String.format(" (±%.1f%%)", ClientesDistintos.getErrorEstandar() * 100));
+        lblClientes.setText(texto.toString());
+    }
+
+    // Medianoche local de hace dias - 1 días
+    private static long inicioPeriodo(int dias) {
+        Calendar inicio = Calendar.getInstance();
+        inicio.set(Calendar.HOUR_OF_DAY, 0);
+        inicio.set(Calendar.MINUTE, 0);
+        inicio.set(Calendar.SECOND, 0);
+        inicio.set(Calendar.MILLISECOND, 0);
+        inicio.add(Calendar.DAY_OF_MONTH, 1 - dias);
+        return inicio.getTimeInMillis();
+    }
+
+    // Consulta los más vendidos de la ventana seleccionada
+    private void actualizarMasVendidos() {
+        MasVendidos.Resultado resultado = ventaController.obtenerMasVendidos()
+                .top(VENTANAS_TOP[cmbVentana.getSelectedIndex()], TOP_K);
+        modeloTop.setRowCount(0);
+        for (MasVendidos.Estimacion estimacion : resultado.getEstimaciones()) {
+            Producto producto = ventaController.buscarProductoPorId(estimacion.getProductoId());
+            modeloTop.addRow(new Object[]{
+                producto != null ? producto.getNombre() : "Producto " + estimacion.getProductoId(),
+                estimacion.getUnidades(),
+                estimacion.getError(),
+                estimacion.isGarantizado()
+            });
+        }
+        lblTop.setText(String.format("%d unidades en la ventana, error máximo ±%d",
+                resultado.getUnidadesVentana(), resultado.getCotaError()));
+    }
+
+    private String nombreGrupo(ReportesParalelos.Tipo tipo, ReportesParalelos.Grupo grupo) {
+        switch (tipo) {
+            case PRODUCTO:
+                return nombreGrupo(null, Dimension.PRODUCTO, grupo.getClave());
+            case CLIENTE:
+                return nombreGrupo(null, Dimension.CLIENTE, grupo.getClave());
+            case HORA_DEL_DIA:
+                return String.format("%02d:00 - %02d:59", grupo.getClave(), grupo.getClave());
+            default:
+                // En la tasa de IVA se muestra además el ingreso neto (sin IVA, con descuento)
+                return String.format("IVA %.2f%% (neto %s)", grupo.getTasaIva() * 100,
+                        formatoMoneda.format(grupo.getIngresoNeto()));
+        }
+    }
+
+    private String nombreGrupo(AcumuladosVentas acumulados, Dimension dimension, int clave) {
+        switch (dimension) {
+            case HORA:
+                return formatoHora.format(new Date(acumulados.inicioCubeta(dimension, clave)));
+            case DIA:
+                return formatoDia.format(new Date(acumulados.inicioCubeta(dimension, clave)));
+            case PRODUCTO:
+                Producto producto = ventaController.buscarProductoPorId(clave);
+                return producto != null ? producto.getNombre() : "Producto " + clave;
+            default:
+                Cliente cliente = ventaController.buscarClientePorId(clave);
+                return cliente != null ? cliente.getNombre() + " " + cliente.getApellido() : "Cliente " + clave;
+        }
+    }
+}
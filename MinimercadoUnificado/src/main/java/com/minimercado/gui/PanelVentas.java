@@ -6,20 +6,28 @@
  * Características principales:
  * - Selección de cliente y productos
  * - Control de cantidades
+ * - Selección del medio de pago al finalizar
  * - Cálculo de totales en tiempo real
+ * - Sugerencias de productos que suelen comprarse junto con los del carrito
  * - Validación de operaciones
  * 
  * Componentes principales:
- * - ComboBox para selección de cliente
- * - ComboBox para selección de producto
+ * - Campo de código de barras para lectores tipo teclado (escáner)
+ * - Búsqueda de clientes tolerante a errores de escritura
+ * - ComboBox para selección de cliente (solo los resultados de la búsqueda)
+ * - Búsqueda de productos con sugerencias mientras se escribe
+ * - ComboBox para selección de producto (solo las sugerencias)
  * - Spinner para control de cantidades
  * - Tabla de productos en la venta
+ * - Lista de productos comprados juntos (doble clic o Enter para agregar)
  * - Botones de control
  * 
  * Notas técnicas:
  * - Implementa un diseño moderno con tema oscuro
  * - Maneja la actualización en tiempo real
  * - Valida el stock disponible
+ * - La búsqueda de clientes espera una pausa al escribir y corre en un SwingWorker
+ * - Las sugerencias se recalculan al cambiar el carrito, con el índice de coocurrencias
  * - Coordina con el controlador de ventas
  */
 package com.minimercado.gui;
@@ -33,26 +41,48 @@ import com.minimercado.controlador.ControladorProducto;
 import com.minimercado.controlador.ControladorCliente;
 import com.minimercado.controlador.ProductoChangeListener;
 import com.minimercado.controlador.ClienteChangeListener;
-import com.minimercado.util.FileManager;
+import com.minimercado.util.CambiosEntidad;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 
 public class PanelVentas extends JPanel implements ProductoChangeListener, ClienteChangeListener {
     // Componentes de la interfaz
     private JTable tablaVentas;          // Tabla para mostrar los productos en la venta
     private DefaultTableModel modelo;    // Modelo de datos para la tabla
+    private JTextField txtCodigo;        // Campo de código de barras (escáner)
+    private JTextField txtBuscarCliente; // Texto para buscar clientes (tolerante a errores)
     private JComboBox<Cliente> cmbCliente;   // ComboBox para seleccionar cliente
-    private JComboBox<Producto> cmbProducto; // ComboBox para seleccionar producto
+    private JTextField txtBuscarProducto; // Texto para sugerir productos
+    private JComboBox<Producto> cmbProducto; // ComboBox con los productos sugeridos
     private JSpinner spnCantidad;        // Spinner para seleccionar cantidad
+    private JComboBox<String> cmbMedioPago; // ComboBox con el medio de pago de la venta
     private JButton btnAgregar, btnEliminar, btnFinalizar;  // Botones de control
+    private JList<Producto> lstSugeridos; // Productos comprados junto con los del carrito
+    
+    // Número máximo de productos sugeridos en el ComboBox
+    private static final int MAX_SUGERENCIAS = 20;
+    // Número de productos comprados juntos que se sugieren para el carrito
+    private static final int MAX_COMPRADOS_JUNTOS = 8;
+    // Número máximo de clientes en el ComboBox y espera antes de buscar mientras se escribe
+    private static final int MAX_CLIENTES = 50;
+    private static final int ESPERA_BUSQUEDA_MS = 150;
     
     // Controladores y estado
     private ControladorVenta ventaController;
     private ControladorProducto productoController;
     private ControladorCliente clienteController;
     private Venta ventaActual;           // Venta en proceso
+    private Timer temporizadorClientes;  // Agrupa las pulsaciones antes de buscar clientes
+    private int busquedaClientes;        // Número de la última búsqueda lanzada, para descartar respuestas viejas
     
     // Constructor del panel
     public PanelVentas(ControladorVenta ventaController, ControladorProducto productoController, ControladorCliente clienteController) {
@@ -88,13 +118,17 @@ public class PanelVentas extends JPanel implements ProductoChangeListener, Clien
         Color bgField = new Color(50, 50, 50);
         
         // Inicialización de componentes
+        txtCodigo = new JTextField(20); txtCodigo.setFont(fieldFont); txtCodigo.setBackground(bgField); txtCodigo.setForeground(fg); txtCodigo.setCaretColor(fg);
+        txtBuscarCliente = new JTextField(20); txtBuscarCliente.setFont(fieldFont); txtBuscarCliente.setBackground(bgField); txtBuscarCliente.setForeground(fg); txtBuscarCliente.setCaretColor(fg);
         cmbCliente = new JComboBox<>(); cmbCliente.setFont(fieldFont); cmbCliente.setBackground(bgField); cmbCliente.setForeground(fg);
+        txtBuscarProducto = new JTextField(20); txtBuscarProducto.setFont(fieldFont); txtBuscarProducto.setBackground(bgField); txtBuscarProducto.setForeground(fg); txtBuscarProducto.setCaretColor(fg);
         cmbProducto = new JComboBox<>(); cmbProducto.setFont(fieldFont); cmbProducto.setBackground(bgField); cmbProducto.setForeground(fg);
         spnCantidad = new JSpinner(new SpinnerNumberModel(1, 1, 100, 1)); spnCantidad.setFont(fieldFont);
+        cmbMedioPago = new JComboBox<>(Venta.MEDIOS_PAGO); cmbMedioPago.setFont(fieldFont); cmbMedioPago.setBackground(bgField); cmbMedioPago.setForeground(fg);
         
         // Agregar campos al formulario
-        String[] labels = {"Cliente:", "Producto:", "Cantidad:"};
-        Component[] fields = {cmbCliente, cmbProducto, spnCantidad};
+        String[] labels = {"Buscar cliente:", "Cliente:", "Código de barras:", "Buscar producto:", "Producto:", "Cantidad:", "Medio de pago:"};
+        Component[] fields = {txtBuscarCliente, cmbCliente, txtCodigo, txtBuscarProducto, cmbProducto, spnCantidad, cmbMedioPago};
         for (int i = 0; i < labels.length; i++) {
             gbc.gridx = 0; gbc.gridy = i;
             JLabel lbl = new JLabel(labels[i]);
@@ -147,14 +181,72 @@ public class PanelVentas extends JPanel implements ProductoChangeListener, Clien
         JScrollPane scrollPane = new JScrollPane(tablaVentas);
         scrollPane.getViewport().setBackground(bgField);
         
+        // Panel lateral de productos comprados juntos
+        lstSugeridos = new JList<>(new DefaultListModel<>());
+        lstSugeridos.setFont(fieldFont);
+        lstSugeridos.setBackground(bgField);
+        lstSugeridos.setForeground(fg);
+        lstSugeridos.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        JScrollPane scrollSugeridos = new JScrollPane(lstSugeridos);
+        scrollSugeridos.getViewport().setBackground(bgField);
+        scrollSugeridos.setPreferredSize(new Dimension(300, 0));
+        JLabel lblSugeridos = new JLabel("Comprados juntos:");
+        lblSugeridos.setFont(labelFont);
+        lblSugeridos.setForeground(fg);
+        JPanel sugeridosPanel = new JPanel(new BorderLayout(10, 10));
+        sugeridosPanel.setBackground(new Color(30, 30, 30));
+        sugeridosPanel.add(lblSugeridos, BorderLayout.NORTH);
+        sugeridosPanel.add(scrollSugeridos, BorderLayout.CENTER);
+        
         // Agregar componentes al panel principal
         add(formPanel, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
+        add(sugeridosPanel, BorderLayout.EAST);
         
         // Agregar listeners a los botones
         btnAgregar.addActionListener(e -> agregarProducto());
         btnEliminar.addActionListener(e -> eliminarProducto());
         btnFinalizar.addActionListener(e -> finalizarVenta());
+        // Los lectores tipo teclado envían el código seguido de Enter
+        txtCodigo.addActionListener(e -> escanearCodigo());
+        // Las sugerencias se recalculan con cada cambio del texto de búsqueda
+        txtBuscarProducto.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { sugerirProductos(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { sugerirProductos(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { sugerirProductos(); }
+        });
+        // Doble clic o Enter en la lista agrega el producto sugerido con la cantidad elegida
+        lstSugeridos.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    agregarSugerido();
+                }
+            }
+        });
+        lstSugeridos.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "agregarSugerido");
+        lstSugeridos.getActionMap().put("agregarSugerido", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                agregarSugerido();
+            }
+        });
+        // Enter en la búsqueda agrega el primer producto sugerido
+        txtBuscarProducto.addActionListener(e -> agregarProducto());
+        // La búsqueda de clientes espera a que se deje de escribir y se resuelve en segundo plano
+        temporizadorClientes = new Timer(ESPERA_BUSQUEDA_MS, e -> cargarClientes());
+        temporizadorClientes.setRepeats(false);
+        txtBuscarCliente.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { temporizadorClientes.restart(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { temporizadorClientes.restart(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { temporizadorClientes.restart(); }
+        });
     }
     
     // Método para actualizar los datos del panel
@@ -163,36 +255,79 @@ public class PanelVentas extends JPanel implements ProductoChangeListener, Clien
         cargarProductos();
     }
     
-    // Cargar clientes en el ComboBox
+    // Cargar en el ComboBox los clientes que coinciden con la búsqueda (los primeros si está vacía)
     private void cargarClientes() {
-        cmbCliente.removeAllItems();
-        List<Cliente> clientes = clienteController.obtenerClientes();
-        for (Cliente c : clientes) {
-            cmbCliente.addItem(c);
+        String texto = txtBuscarCliente.getText();
+        int busqueda = ++busquedaClientes;
+        if (texto.trim().isEmpty()) {
+            mostrarClientes(clienteController.buscarClientes(texto, MAX_CLIENTES), texto);
+            return;
+        }
+        new SwingWorker<List<Cliente>, Void>() {
+            @Override
+            protected List<Cliente> doInBackground() {
+                return clienteController.buscarClientes(texto, MAX_CLIENTES);
+            }
+            
+            @Override
+            protected void done() {
+                // Si ya se lanzó otra búsqueda, esta respuesta quedó obsoleta
+                if (busqueda != busquedaClientes) {
+                    return;
+                }
+                try {
+                    mostrarClientes(get(), texto);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+    
+    // Reemplaza el modelo del ComboBox por los clientes encontrados
+    private void mostrarClientes(List<Cliente> clientes, String texto) {
+        cmbCliente.setModel(new DefaultComboBoxModel<>(clientes.toArray(new Cliente[0])));
+        if (!texto.trim().isEmpty() && !clientes.isEmpty() && txtBuscarCliente.isShowing()) {
+            cmbCliente.showPopup();
         }
     }
     
-    // Cargar productos en el ComboBox
+    // Cargar en el ComboBox las sugerencias para el texto de búsqueda actual
     private void cargarProductos() {
-        cmbProducto.removeAllItems();
-        List<Producto> productos = productoController.obtenerProductos();
-        for (Producto p : productos) {
-            cmbProducto.addItem(p);
+        sugerirProductos();
+    }
+    
+    // Reemplaza el modelo del ComboBox por los primeros productos que coinciden con la búsqueda
+    private void sugerirProductos() {
+        String texto = txtBuscarProducto.getText();
+        List<Producto> sugerencias = productoController.sugerirProductos(texto, MAX_SUGERENCIAS);
+        cmbProducto.setModel(new DefaultComboBoxModel<>(sugerencias.toArray(new Producto[0])));
+        if (!texto.trim().isEmpty() && !sugerencias.isEmpty() && txtBuscarProducto.isShowing()) {
+            cmbProducto.showPopup();
+        }
+    }
+    
+    // Método para agregar a la venta el producto leído por el escáner
+    private void escanearCodigo() {
+        String codigo = txtCodigo.getText().trim();
+        txtCodigo.setText("");
+        if (codigo.isEmpty()) {
+            return;
         }
+        Producto producto = productoController.buscarProductoPorCodigo(codigo);
+        if (producto == null) {
+            // No interrumpimos la lectura con un diálogo; solo avisamos con un sonido
+            Toolkit.getDefaultToolkit().beep();
+            txtCodigo.setText(codigo);
+            txtCodigo.selectAll();
+            return;
+        }
+        agregarProducto(producto, 1);
+        txtCodigo.requestFocusInWindow();
     }
     
     // Método para agregar un producto a la venta
     private void agregarProducto() {
-        // Verificar si hay una venta en proceso
-        if (ventaActual == null) {
-            Cliente cliente = (Cliente) cmbCliente.getSelectedItem();
-            if (cliente == null) {
-                JOptionPane.showMessageDialog(this, "Por favor seleccione un cliente", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-            ventaActual = ventaController.crearVenta(cliente);
-        }
-        
         // Validar selección de producto
         Producto producto = (Producto) cmbProducto.getSelectedItem();
         if (producto == null) {
@@ -207,13 +342,39 @@ public class PanelVentas extends JPanel implements ProductoChangeListener, Clien
             return;
         }
         
+        if (agregarProducto(producto, cantidad)) {
+            spnCantidad.setValue(1);
+        }
+    }
+    
+    // Agrega el producto a la venta en curso, creándola si es necesario
+    private boolean agregarProducto(Producto producto, int cantidad) {
+        // Verificar si hay una venta en proceso
+        if (ventaActual == null) {
+            Cliente cliente = (Cliente) cmbCliente.getSelectedItem();
+            if (cliente == null) {
+                JOptionPane.showMessageDialog(this, "Por favor seleccione un cliente", "Error", JOptionPane.ERROR_MESSAGE);
+                return false;
+            }
+            ventaActual = ventaController.crearVenta(cliente);
+        }
+        
         // Agregar producto a la venta
         try {
             ventaController.agregarProductoAVenta(ventaActual, producto, cantidad);
             actualizarTablaVentas();
-            spnCantidad.setValue(1);
+            return true;
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+    }
+    
+    // Agrega a la venta el producto seleccionado en la lista de comprados juntos
+    private void agregarSugerido() {
+        Producto producto = lstSugeridos.getSelectedValue();
+        if (producto != null && agregarProducto(producto, (int) spnCantidad.getValue())) {
+            spnCantidad.setValue(1);
         }
     }
     
@@ -238,8 +399,10 @@ public class PanelVentas extends JPanel implements ProductoChangeListener, Clien
                     JOptionPane.YES_NO_OPTION);
             if (confirmacion == JOptionPane.YES_OPTION) {
                 try {
-                    FileManager.generarFacturaPDF(ventaActual);
+                    ventaActual.setMedioPago((String) cmbMedioPago.getSelectedItem());
+                    ventaController.finalizarVenta(ventaActual);
                     ventaActual = null;
+                    cmbMedioPago.setSelectedIndex(0);
                     actualizarTablaVentas();
                     JOptionPane.showMessageDialog(this, "Venta finalizada exitosamente");
                     VentanaPrincipal ventana = (VentanaPrincipal) SwingUtilities.getWindowAncestor(this);
@@ -262,7 +425,7 @@ public class PanelVentas extends JPanel implements ProductoChangeListener, Clien
                     d.getProducto().getId(),
                     d.getProducto().getNombre(),
                     d.getCantidad(),
-                    String.format("$%.2f", d.getProducto().getPrecio()),
+                    String.format("$%.2f", d.getPrecioBase()),
                     String.format("$%.2f", d.getSubtotalBase()),
                     String.format("$%.2f", d.getIvaMonto()),
                     String.format("$%.2f", d.getDescuentoMonto()),
@@ -271,19 +434,61 @@ public class PanelVentas extends JPanel implements ProductoChangeListener, Clien
                 modelo.addRow(fila);
             }
         }
+        actualizarSugeridos();
+    }
+    
+    // Recalcula los productos comprados junto con los del carrito
+    private void actualizarSugeridos() {
+        DefaultListModel<Producto> modeloSugeridos = (DefaultListModel<Producto>) lstSugeridos.getModel();
+        modeloSugeridos.clear();
+        if (ventaActual != null && !ventaActual.getDetalles().isEmpty()) {
+            for (Producto producto : ventaController.sugerirParaCarrito(ventaActual, MAX_COMPRADOS_JUNTOS)) {
+                modeloSugeridos.addElement(producto);
+            }
+        }
     }
 
     // Implementación del listener de clientes
     @Override
-    public void onClientesChanged() {
-        // Actualizamos la lista de clientes en el combo box
-        cargarClientes();
+    public void onClientesChanged(CambiosEntidad cambios) {
+        // Un cliente nuevo puede entrar en la búsqueda actual: se repite la búsqueda
+        if (cambios.hayAgregados()) {
+            cargarClientes();
+            return;
+        }
+        parchearCombo(cmbCliente, cambios, clienteController::buscarClientePorId, Cliente::getId);
     }
     
     // Implementación del listener de productos
     @Override
-    public void onProductosChanged() {
-        // Actualizamos la lista de productos cuando hay cambios
-        cargarProductos();
+    public void onProductosChanged(CambiosEntidad cambios) {
+        // Un producto nuevo puede entrar en las sugerencias: se repite la búsqueda
+        if (cambios.hayAgregados()) {
+            cargarProductos();
+            return;
+        }
+        parchearCombo(cmbProducto, cambios, productoController::buscarProductoPorId, Producto::getId);
+    }
+    
+    // Quita o reemplaza en el ComboBox solo los elementos eliminados o modificados,
+    // conservando la selección si el elemento seleccionado sigue existiendo
+    private <T> void parchearCombo(JComboBox<T> combo, CambiosEntidad cambios, IntFunction<T> buscar, ToIntFunction<T> idDe) {
+        DefaultComboBoxModel<T> modeloCombo = (DefaultComboBoxModel<T>) combo.getModel();
+        Object seleccionado = modeloCombo.getSelectedItem();
+        for (int i = modeloCombo.getSize() - 1; i >= 0; i--) {
+            T actual = modeloCombo.getElementAt(i);
+            int id = idDe.applyAsInt(actual);
+            T nuevo = cambios.fueEliminado(id) ? null : cambios.fueActualizado(id) ? buscar.apply(id) : actual;
+            if (nuevo == actual) {
+                continue;
+            }
+            modeloCombo.removeElementAt(i);
+            if (nuevo != null) {
+                modeloCombo.insertElementAt(nuevo, i);
+                if (actual == seleccionado) {
+                    modeloCombo.setSelectedItem(nuevo);
+                }
+            }
+        }
     }
-} 
\ No newline at end of file
+}
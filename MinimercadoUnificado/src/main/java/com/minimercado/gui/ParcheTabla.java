@@ -0,0 +1,77 @@
+/**
+ * Aplica un conjunto de cambios por ID sobre un modelo de tabla ya cargado.
+ * Los paneles de productos y clientes lo usan para tocar solo las filas afectadas
+ * en lugar de vaciar y volver a llenar la tabla con cada cambio.
+ *
+ * Características principales:
+ * - Altas insertadas en su posición, bajas quitadas y modificaciones reemplazadas en el lugar
+ * - Solo se escriben las celdas cuyo valor cambió
+ *
+ * Notas técnicas:
+ * - Supone que la columna 0 guarda el ID (Integer) y que las filas están ordenadas por ID,
+ *   como las cargan los paneles a partir de las listas de los controladores
+ * - Cada ID se ubica con búsqueda binaria: O(log n) por cambio
+ */
+package com.minimercado.gui;
+
+import com.minimercado.util.CambiosEntidad;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import javax.swing.table.DefaultTableModel;
+
+final class ParcheTabla {
+
+    private ParcheTabla() {
+    }
+
+    // Aplica los cambios; filaPorId arma la fila actual de un ID, o devuelve null si ya no existe
+    static void aplicar(DefaultTableModel modelo, CambiosEntidad cambios, IntFunction<Object[]> filaPorId) {
+        for (int id : cambios.getEliminados()) {
+            int posicion = buscar(modelo, id);
+            if (posicion >= 0) {
+                modelo.removeRow(posicion);
+            }
+        }
+        for (int id : cambios.getActualizados()) {
+            colocar(modelo, id, filaPorId.apply(id));
+        }
+        for (int id : cambios.getAgregados()) {
+            colocar(modelo, id, filaPorId.apply(id));
+        }
+    }
+
+    // Reemplaza, inserta o quita la fila del ID según su estado actual
+    private static void colocar(DefaultTableModel modelo, int id, Object[] fila) {
+        int posicion = buscar(modelo, id);
+        if (fila == null) {
+            if (posicion >= 0) {
+                modelo.removeRow(posicion);
+            }
+        } else if (posicion >= 0) {
+            for (int columna = 0; columna < fila.length; columna++) {
+                if (!Objects.equals(modelo.getValueAt(posicion, columna), fila[columna])) {
+                    modelo.setValueAt(fila[columna], posicion, columna);
+                }
+            }
+        } else {
+            modelo.insertRow(-posicion - 1, fila);
+        }
+    }
+
+    // Posición de la fila con el ID; si no está, -(punto de inserción) - 1 como Arrays.binarySearch
+    private static int buscar(DefaultTableModel modelo, int id) {
+        int bajo = 0, alto = modelo.getRowCount() - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int actual = (Integer) modelo.getValueAt(medio, 0);
+            if (actual < id) {
+                bajo = medio + 1;
+            } else if (actual > id) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -bajo - 1;
+    }
+}
@@ -14,31 +14,61 @@
  * - PanelClientes: Gestión de clientes
  * - PanelVentas: Proceso de ventas
  * - PanelFacturacion: Historial de facturas
+ * - PanelReportes: Ventas acumuladas por hora, día, producto y cliente
+ * - PanelCaja: Turnos de caja y cierres
+ * - PanelInventario: Alertas de stock bajo y reposición por demanda y días de cobertura
+ * - PanelDiagnostico: Latencia del hilo de eventos y bloqueos detectados
  * 
  * Notas técnicas:
  * - Utiliza JTabbedPane para la navegación
  * - Implementa un diseño moderno y responsivo
  * - Maneja la actualización de datos en tiempo real
+ * - Se muestra con todas las pestañas desde el inicio; cada panel se construye la primera
+ *   vez que se selecciona su pestaña y sus controladores ya están cargados
+ * - Los controladores llegan cuando termina la carga en segundo plano del historial, que
+ *   hasta entonces consulta los catálogos desde el hilo de carga
+ * - La pestaña de inventario muestra cuántos productos están en alerta de stock bajo y se
+ *   actualiza en cuanto uno entra o sale de la alerta, aunque su panel no se haya construido
  */
 package com.minimercado.gui;
 
 import com.minimercado.controlador.ControladorCliente;
 import com.minimercado.controlador.ControladorProducto;
 import com.minimercado.controlador.ControladorVenta;
+import com.minimercado.modelo.Producto;
+import com.minimercado.util.MedicionArranque;
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
 
 public class VentanaPrincipal extends JFrame {
+    // Pestañas en orden de aparición
+    private static final int PESTANA_PRODUCTOS = 0;
+    private static final int PESTANA_CLIENTES = 1;
+    private static final int PESTANA_VENTAS = 2;
+    private static final int PESTANA_FACTURACION = 3;
+    private static final int PESTANA_REPORTES = 4;
+    private static final int PESTANA_CAJA = 5;
+    private static final int PESTANA_INVENTARIO = 6;
+    private static final int PESTANA_DIAGNOSTICO = 7;
+    private static final String[] PESTANAS = {"Productos", "Clientes", "Ventas", "Facturación", "Reportes", "Caja",
+            "Inventario", "Diagnóstico"};
+    
     private static VentanaPrincipal instance;
     private JTabbedPane tabbedPane;
+    // Paneles ya construidos por pestaña (null mientras no se haya visitado)
+    private final JComponent[] paneles = new JComponent[PESTANAS.length];
     private PanelProductos panelProductos;
     private PanelClientes panelClientes;
     private PanelVentas panelVentas;
     private PanelFacturacion panelFacturacion;
+    private PanelReportes panelReportes;
+    private PanelCaja panelCaja;
+    private PanelInventario panelInventario;
+    private PanelDiagnostico panelDiagnostico;
     private ControladorProducto productoController;
     private ControladorCliente clienteController;
     private ControladorVenta ventaController;
+    private boolean pintada;
     
     private VentanaPrincipal() {
         initComponents();
@@ -51,21 +81,122 @@ public class VentanaPrincipal extends JFrame {
         return instance;
     }
     
-    public void inicializarControladores(ControladorProducto productoController, 
-                                       ControladorCliente clienteController,
-                                       ControladorVenta ventaController) {
+    // Muestra todas las pestañas con un estado de carga hasta que sus datos estén listos
+    public void mostrarCargando() {
+        tabbedPane.removeAll();
+        for (int i = 0; i < PESTANAS.length; i++) {
+            paneles[i] = null;
+            tabbedPane.addTab(PESTANAS[i], crearPanelCarga());
+        }
+        asegurarPanel(tabbedPane.getSelectedIndex());
+    }
+    
+    private JPanel crearPanelCarga() {
+        JPanel panelCarga = new JPanel(new GridBagLayout());
+        panelCarga.setBackground(new Color(30, 30, 30));
+        JLabel lblCargando = new JLabel("Cargando datos...");
+        lblCargando.setFont(new Font("Segoe UI", Font.BOLD, 18));
+        lblCargando.setForeground(Color.WHITE);
+        JProgressBar progreso = new JProgressBar();
+        progreso.setIndeterminate(true);
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(10, 10, 10, 10);
+        gbc.gridy = 0;
+        panelCarga.add(lblCargando, gbc);
+        gbc.gridy = 1;
+        panelCarga.add(progreso, gbc);
+        return panelCarga;
+    }
+    
+    // Informa de un error al cargar los datos iniciales
+    public void mostrarErrorCarga(Exception e) {
+        JOptionPane.showMessageDialog(this, "Error al cargar los datos: " + e.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
+    }
+    
+    // Los controladores se entregan al terminar la carga inicial; si la pestaña
+    // visible esperaba a alguno de ellos, se construye en ese momento
+    public void setControladorProducto(ControladorProducto productoController) {
         this.productoController = productoController;
+        productoController.addAlertaStockListener((producto, enAlerta) -> actualizarAlertasStock());
+        actualizarAlertasStock();
+        asegurarPanel(tabbedPane.getSelectedIndex());
+    }
+    
+    public void setControladorCliente(ControladorCliente clienteController) {
         this.clienteController = clienteController;
+        asegurarPanel(tabbedPane.getSelectedIndex());
+    }
+    
+    public void setControladorVenta(ControladorVenta ventaController) {
         this.ventaController = ventaController;
-        panelProductos = new PanelProductos(productoController);
-        panelClientes = new PanelClientes(clienteController);
-        panelVentas = new PanelVentas(ventaController, productoController, clienteController);
-        panelFacturacion = new PanelFacturacion(ventaController, this);
-        tabbedPane.removeAll();
-        tabbedPane.addTab("Productos", panelProductos);
-        tabbedPane.addTab("Clientes", panelClientes);
-        tabbedPane.addTab("Ventas", panelVentas);
-        tabbedPane.addTab("Facturación", panelFacturacion);
+        asegurarPanel(tabbedPane.getSelectedIndex());
+    }
+    
+    // Construye el panel de la pestaña si aún no existe y sus controladores están listos
+    private void asegurarPanel(int indice) {
+        if (indice < 0 || paneles[indice] != null) {
+            return;
+        }
+        JComponent panel = construirPanel(indice);
+        if (panel != null) {
+            paneles[indice] = panel;
+            tabbedPane.setComponentAt(indice, panel);
+            MedicionArranque.marcar("Pestaña " + PESTANAS[indice] + " construida");
+        }
+    }
+    
+    // Crea el panel de una pestaña; null si todavía falta algún controlador
+    private JComponent construirPanel(int indice) {
+        switch (indice) {
+            case PESTANA_PRODUCTOS:
+                if (productoController == null) {
+                    return null;
+                }
+                panelProductos = new PanelProductos(productoController);
+                return panelProductos;
+            case PESTANA_CLIENTES:
+                if (clienteController == null) {
+                    return null;
+                }
+                panelClientes = new PanelClientes(clienteController);
+                return panelClientes;
+            case PESTANA_VENTAS:
+                if (ventaController == null) {
+                    return null;
+                }
+                panelVentas = new PanelVentas(ventaController, productoController, clienteController);
+                return panelVentas;
+            case PESTANA_FACTURACION:
+                if (ventaController == null) {
+                    return null;
+                }
+                panelFacturacion = new PanelFacturacion(ventaController, this);
+                return panelFacturacion;
+            case PESTANA_REPORTES:
+                if (ventaController == null) {
+                    return null;
+                }
+                panelReportes = new PanelReportes(ventaController);
+                return panelReportes;
+            case PESTANA_CAJA:
+                if (ventaController == null) {
+                    return null;
+                }
+                panelCaja = new PanelCaja(ventaController.getTurnoController());
+                return panelCaja;
+            case PESTANA_INVENTARIO:
+                if (ventaController == null || productoController == null) {
+                    return null;
+                }
+                panelInventario = new PanelInventario(ventaController, productoController);
+                return panelInventario;
+            case PESTANA_DIAGNOSTICO:
+                panelDiagnostico = new PanelDiagnostico();
+                return panelDiagnostico;
+            default:
+                return null;
+        }
     }
     
     private void initComponents() {
@@ -73,17 +204,76 @@ public class VentanaPrincipal extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(1200, 800);
         setLocationRelativeTo(null);
-        
+    
         tabbedPane = new JTabbedPane();
         tabbedPane.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        // Cada panel se construye la primera vez que se selecciona su pestaña
+        tabbedPane.addChangeListener(e -> {
+            asegurarPanel(tabbedPane.getSelectedIndex());
+            // Los reportes, la caja y el inventario se consultan de nuevo al volver a su pestaña
+            if (tabbedPane.getSelectedIndex() == PESTANA_REPORTES && panelReportes != null) {
+                panelReportes.actualizar();
+            } else if (tabbedPane.getSelectedIndex() == PESTANA_CAJA && panelCaja != null) {
+                panelCaja.actualizar();
+            } else if (tabbedPane.getSelectedIndex() == PESTANA_INVENTARIO && panelInventario != null) {
+                panelInventario.actualizar();
+            }
+        });
         add(tabbedPane);
     }
     
+    // Registra el primer pintado de la ventana como hito del arranque
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!pintada) {
+            pintada = true;
+            MedicionArranque.marcar("Primer pintado de la ventana");
+        }
+    }
+    
+    // Muestra en la pestaña de inventario cuántos productos están en alerta y cuál es el más urgente
+    private void actualizarAlertasStock() {
+        int enAlerta = productoController.contarProductosBajoStock();
+        Producto masUrgente = productoController.obtenerProductoMasUrgente();
+        tabbedPane.setTitleAt(PESTANA_INVENTARIO, enAlerta > 0
+                ? PESTANAS[PESTANA_INVENTARIO] + " (" + enAlerta + ")" : PESTANAS[PESTANA_INVENTARIO]);
+        tabbedPane.setForegroundAt(PESTANA_INVENTARIO, enAlerta > 0 ? Color.RED : null);
+        tabbedPane.setToolTipTextAt(PESTANA_INVENTARIO, masUrgente == null ? null
+                : "Stock bajo: " + masUrgente.getNombre() + " (" + masUrgente.getStock() + " de " + masUrgente.getStockMinimo() + ")");
+        if (panelInventario != null) {
+            panelInventario.actualizarAlertas();
+        }
+    }
+    
+    // Los paneles aún no construidos cargarán datos frescos al crearse
     public void actualizarPanelVentas() {
-        panelVentas.actualizarDatos();
+        if (panelVentas != null) {
+            panelVentas.actualizarDatos();
+        }
+        if (panelReportes != null) {
+            panelReportes.actualizar();
+        }
+        if (panelCaja != null) {
+            panelCaja.actualizar();
+        }
+        if (panelInventario != null) {
+            panelInventario.actualizar();
+        }
     }
     
     public void ventaFinalizada() {
-        panelFacturacion.actualizarFacturas();
+        if (panelFacturacion != null) {
+            panelFacturacion.actualizarFacturas();
+        }
+        if (panelReportes != null) {
+            panelReportes.actualizar();
+        }
+        if (panelCaja != null) {
+            panelCaja.actualizar();
+        }
+        if (panelInventario != null) {
+            panelInventario.actualizar();
+        }
     }
 } 
\ No newline at end of file
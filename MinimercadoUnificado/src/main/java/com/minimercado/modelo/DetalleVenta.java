@@ -8,6 +8,8 @@
  * - Calcula subtotales basados en cantidad y precio
  * - Aplica IVA y descuentos del producto
  * - Mantiene el precio unitario histórico de la venta
+ * - Conserva el precio base, el IVA y el descuento vigentes al asignar el producto,
+ *   así los totales no cambian si después se modifica el producto
  */
 package com.minimercado.modelo;
 
@@ -18,6 +20,9 @@ public class DetalleVenta {
     private Producto producto;       // Producto vendido
     private int cantidad;            // Cantidad vendida
     private double precioUnitario;   // Precio unitario al momento de la venta
+    private double precioBase;       // Precio base al momento de la venta
+    private double tasaIva;          // IVA aplicado (0.19 = 19%)
+    private double tasaDescuento;    // Descuento aplicado (0.05 = 5%)
     private double subtotalBase;     // Subtotal basado en precio base (cantidad * precio base)
     private double ivaMonto;         // Monto de IVA
     private double descuentoMonto;     // Monto de descuento
@@ -29,9 +34,8 @@ public class DetalleVenta {
 
     // Constructor con producto y cantidad
     public DetalleVenta(Producto producto, int cantidad) {
-        this.producto = producto;
         this.cantidad = cantidad;
-        calcularTotales();
+        setProducto(producto);
     }
 
     // Getters y Setters
@@ -58,12 +62,22 @@ public class DetalleVenta {
     public void setProducto(Producto producto) {
         this.producto = producto;
         if (producto != null) {
-            // precioUnitario se establece con el precio final del producto al momento de la venta
-            this.precioUnitario = producto.getPrecioFinal(); 
-            calcularTotales(); // Recalcular totales cuando cambia el producto
+            // Precio y tasas se toman del producto al momento de la venta
+            setValoresVenta(producto.getPrecio(), producto.getIva(), producto.getDescuento());
         }
     }
 
+    // Establece el precio base y las tasas registrados al vender, sin consultar el producto.
+    // Se usa al reconstruir una venta archivada con los valores con que se vendió
+    public void setValoresVenta(double precioBase, double tasaIva, double tasaDescuento) {
+        this.precioBase = precioBase;
+        this.tasaIva = tasaIva;
+        this.tasaDescuento = tasaDescuento;
+        // precioUnitario es el precio final (precio base + IVA - descuento)
+        this.precioUnitario = precioBase + (precioBase * tasaIva) - (precioBase * tasaDescuento);
+        calcularTotales(); // Recalcular totales cuando cambian los valores
+    }
+
     public int getCantidad() {
         return cantidad;
     }
@@ -77,6 +91,18 @@ public class DetalleVenta {
         return precioUnitario;
     }
 
+    public double getPrecioBase() {
+        return precioBase;
+    }
+
+    public double getTasaIva() {
+        return tasaIva;
+    }
+
+    public double getTasaDescuento() {
+        return tasaDescuento;
+    }
+
     // Getters para los totales calculados
     public double getSubtotalBase() { return subtotalBase; }
     public double getIvaMonto() { return ivaMonto; }
@@ -85,11 +111,11 @@ public class DetalleVenta {
     
     // Método para calcular los totales del detalle
     private void calcularTotales() {
-        // Calculamos el subtotal basado en el precio base del producto
-        this.subtotalBase = producto.getPrecio() * cantidad;
+        // Calculamos el subtotal basado en el precio base registrado
+        this.subtotalBase = precioBase * cantidad;
         // Calculamos el monto de IVA y Descuento basado en el subtotal base
-        this.ivaMonto = subtotalBase * producto.getIva();
-        this.descuentoMonto = subtotalBase * producto.getDescuento();
+        this.ivaMonto = subtotalBase * tasaIva;
+        this.descuentoMonto = subtotalBase * tasaDescuento;
         // El total del detalle es el subtotal base + monto IVA - monto Descuento
         this.totalDetalle = subtotalBase + ivaMonto - descuentoMonto;
         
@@ -6,7 +6,7 @@
  * Características principales:
  * - Maneja precios con soporte para decimales
  * - Calcula precios finales incluyendo IVA y descuentos
- * - Mantiene control de inventario (stock)
+ * - Mantiene control de inventario (stock) y un stock mínimo opcional para las alertas
  * - Permite configurar descuentos e impuestos
  * 
  * Notas técnicas:
@@ -25,6 +25,7 @@ public class Producto {
     private double iva;              // Porcentaje de IVA aplicable
     private double descuento;        // Porcentaje de descuento aplicable
     private int stock;               // Cantidad disponible en inventario
+    private int stockMinimo;         // Umbral de alerta de stock bajo (0 = sin alerta)
 
     // Constructor por defecto
     public Producto() {
@@ -106,6 +107,14 @@ public class Producto {
         this.stock = stock;
     }
 
+    public int getStockMinimo() {
+        return stockMinimo;
+    }
+
+    public void setStockMinimo(int stockMinimo) {
+        this.stockMinimo = stockMinimo;
+    }
+
     // Método para calcular el precio con IVA (mantener por si se usa)
     public double getPrecioConIva() {
         return precio * (1 + iva);
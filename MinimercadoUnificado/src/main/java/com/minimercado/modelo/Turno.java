@@ -0,0 +1,189 @@
+/**
+ * Clase que representa un turno de caja.
+ * Un turno se abre con un cajero y una base de efectivo, acumula las ventas
+ * finalizadas mientras está abierto y se cierra con el efectivo contado.
+ *
+ * Características principales:
+ * - Totales acumulados del turno (ventas, subtotal, IVA, descuento y total)
+ * - Desglose por medio de pago (Venta.MEDIOS_PAGO)
+ * - Base gravable e IVA por tasa
+ * - Efectivo esperado en caja y diferencia con el contado al cerrar
+ *
+ * Notas técnicas:
+ * - Los totales se actualizan con cada venta, así que el cierre no recorre las ventas
+ * - La tasa de IVA de cada línea se deduce de sus montos, para que anular una venta
+ *   reste lo mismo que sumó aunque el producto haya cambiado de IVA después
+ */
+package com.minimercado.modelo;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class Turno {
+    // Atributos de la clase Turno
+    private int id;                  // Identificador único del turno
+    private String cajero;           // Nombre del cajero responsable
+    private Date apertura;           // Fecha y hora de apertura
+    private Date cierre;             // Fecha y hora de cierre (null mientras está abierto)
+    private double baseEfectivo;     // Efectivo en caja al abrir
+    private double efectivoContado;  // Efectivo contado al cerrar
+    // Totales acumulados del turno
+    private int ventas;
+    private double subtotal;
+    private double iva;
+    private double descuento;
+    private double total;
+    // Desglose por medio de pago, en el orden de Venta.MEDIOS_PAGO
+    private final int[] ventasPorMedio = new int[Venta.MEDIOS_PAGO.length];
+    private final double[] totalPorMedio = new double[Venta.MEDIOS_PAGO.length];
+    // Tasa de IVA -> {base gravable, monto de IVA}
+    private final TreeMap<Double, double[]> ivaPorTasa = new TreeMap<>();
+
+    // Constructor por defecto
+    public Turno() {
+    }
+
+    // Constructor de un turno nuevo
+    public Turno(int id, String cajero, double baseEfectivo) {
+        this.id = id;
+        this.cajero = cajero;
+        this.baseEfectivo = baseEfectivo;
+        this.apertura = new Date();
+    }
+
+    // Copia independiente del turno, para entregarla a otros hilos
+    public Turno(Turno otro) {
+        this.id = otro.id;
+        this.cajero = otro.cajero;
+        this.apertura = otro.apertura;
+        this.cierre = otro.cierre;
+        this.baseEfectivo = otro.baseEfectivo;
+        this.efectivoContado = otro.efectivoContado;
+        restaurarTotales(otro.ventas, otro.subtotal, otro.iva, otro.descuento, otro.total);
+        for (int i = 0; i < ventasPorMedio.length; i++) {
+            restaurarMedio(i, otro.ventasPorMedio[i], otro.totalPorMedio[i]);
+        }
+        for (Map.Entry<Double, double[]> tasa : otro.ivaPorTasa.entrySet()) {
+            restaurarTasa(tasa.getKey(), tasa.getValue()[0], tasa.getValue()[1]);
+        }
+    }
+
+    // Getters y Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+    public String getCajero() { return cajero; }
+    public void setCajero(String cajero) { this.cajero = cajero; }
+    public Date getApertura() { return apertura; }
+    public void setApertura(Date apertura) { this.apertura = apertura; }
+    public Date getCierre() { return cierre; }
+    public void setCierre(Date cierre) { this.cierre = cierre; }
+    public double getBaseEfectivo() { return baseEfectivo; }
+    public void setBaseEfectivo(double baseEfectivo) { this.baseEfectivo = baseEfectivo; }
+    public double getEfectivoContado() { return efectivoContado; }
+    public void setEfectivoContado(double efectivoContado) { this.efectivoContado = efectivoContado; }
+
+    public boolean estaAbierto() { return cierre == null; }
+
+    // Getters de los totales
+    public int getVentas() { return ventas; }
+    public double getSubtotal() { return subtotal; }
+    public double getIva() { return iva; }
+    public double getDescuento() { return descuento; }
+    public double getTotal() { return total; }
+    public int getVentasPorMedio(int medio) { return ventasPorMedio[medio]; }
+    public double getTotalPorMedio(int medio) { return totalPorMedio[medio]; }
+
+    // Tasas de IVA con su base gravable y monto, ordenadas por tasa
+    public Map<Double, double[]> getIvaPorTasa() {
+        Map<Double, double[]> copia = new TreeMap<>();
+        for (Map.Entry<Double, double[]> tasa : ivaPorTasa.entrySet()) {
+            copia.put(tasa.getKey(), tasa.getValue().clone());
+        }
+        return copia;
+    }
+
+    // Efectivo que debería haber en caja: base más las ventas en efectivo
+    public double getEfectivoEsperado() {
+        return baseEfectivo + totalPorMedio[0];
+    }
+
+    // Diferencia entre el efectivo contado y el esperado (negativa si falta dinero)
+    public double getDiferencia() {
+        return efectivoContado - getEfectivoEsperado();
+    }
+
+    // Suma una venta finalizada a los totales del turno
+    public void registrarVenta(Venta venta) {
+        aplicar(venta, 1);
+    }
+
+    // Resta una venta del turno (venta eliminada mientras el turno está abierto)
+    public void anularVenta(Venta venta) {
+        aplicar(venta, -1);
+    }
+
+    private void aplicar(Venta venta, int signo) {
+        ventas += signo;
+        subtotal += signo * venta.getSubtotal();
+        iva += signo * venta.getIva();
+        descuento += signo * venta.getDescuento();
+        total += signo * venta.getTotal();
+        int medio = indiceMedioPago(venta.getMedioPago());
+        ventasPorMedio[medio] += signo;
+        totalPorMedio[medio] += signo * venta.getTotal();
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            double[] montos = ivaPorTasa.computeIfAbsent(tasaIva(detalle), t -> new double[2]);
+            montos[0] += signo * detalle.getSubtotalBase();
+            montos[1] += signo * detalle.getIvaMonto();
+        }
+    }
+
+    // Tasa de IVA de la línea redondeada a 4 decimales (0.19 = 19%)
+    private static double tasaIva(DetalleVenta detalle) {
+        return Math.round(detalle.getTasaIva() * 10000) / 10000.0;
+    }
+
+    // Índice del medio de pago en Venta.MEDIOS_PAGO; los desconocidos cuentan como efectivo
+    public static int indiceMedioPago(String medioPago) {
+        for (int i = 0; i < Venta.MEDIOS_PAGO.length; i++) {
+            if (Venta.MEDIOS_PAGO[i].equals(medioPago)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    // Métodos para restaurar los totales guardados o recalcularlos desde cero
+    public void reiniciarTotales() {
+        restaurarTotales(0, 0, 0, 0, 0);
+        for (int i = 0; i < ventasPorMedio.length; i++) {
+            restaurarMedio(i, 0, 0);
+        }
+        ivaPorTasa.clear();
+    }
+
+    public void restaurarTotales(int ventas, double subtotal, double iva, double descuento, double total) {
+        this.ventas = ventas;
+        this.subtotal = subtotal;
+        this.iva = iva;
+        this.descuento = descuento;
+        this.total = total;
+    }
+
+    public void restaurarMedio(int medio, int ventas, double total) {
+        ventasPorMedio[medio] = ventas;
+        totalPorMedio[medio] = total;
+    }
+
+    public void restaurarTasa(double tasa, double base, double iva) {
+        ivaPorTasa.put(tasa, new double[]{base, iva});
+    }
+
+    // Método para representar el turno como String
+    @Override
+    public String toString() {
+        return String.format("Turno #%d - %s - %d ventas - $%.2f%s", id, cajero, ventas, total,
+                estaAbierto() ? " (abierto)" : "");
+    }
+}
@@ -8,6 +8,7 @@
  * - Calcula automáticamente subtotales, IVA y totales
  * - Asocia cada venta con un cliente
  * - Registra la fecha y hora de la venta
+ * - Registra el medio de pago y el turno de caja en que se finalizó
  */
 package com.minimercado.modelo;
 
@@ -16,6 +17,9 @@ import java.util.Date;
 import java.util.List;
 
 public class Venta {
+    // Medios de pago aceptados; el primero es el predeterminado
+    public static final String[] MEDIOS_PAGO = {"Efectivo", "Tarjeta", "Transferencia"};
+
     // Atributos de la clase Venta
     private int id;                  // Identificador único de la venta
     private Cliente cliente;         // Cliente que realiza la compra
@@ -25,11 +29,14 @@ public class Venta {
     private double ivaVenta;         // Monto total de IVA de la venta
     private double descuentoVenta;   // Monto total de descuento de la venta
     private double totalVenta;       // Monto total final de la venta
+    private String medioPago;        // Medio de pago (uno de MEDIOS_PAGO)
+    private int turnoId;             // Turno de caja en que se finalizó (0 si no tiene)
 
     // Constructor por defecto
     public Venta() {
         this.fecha = new Date();     // Fecha actual
         this.detalles = new ArrayList<>();  // Lista vacía de detalles
+        this.medioPago = MEDIOS_PAGO[0];    // Efectivo por defecto
         // Eliminamos el iva fijo, ahora se suma el iva de cada detalle
         // this.iva = 0.19;
     }
@@ -48,6 +55,10 @@ public class Venta {
     public Date getFecha() { return fecha; }
     public void setFecha(Date fecha) { this.fecha = fecha; }
     public List<DetalleVenta> getDetalles() { return detalles; }
+    public String getMedioPago() { return medioPago; }
+    public void setMedioPago(String medioPago) { this.medioPago = medioPago; }
+    public int getTurnoId() { return turnoId; }
+    public void setTurnoId(int turnoId) { this.turnoId = turnoId; }
     
     public void setDetalles(List<DetalleVenta> detalles) {
         this.detalles = detalles;
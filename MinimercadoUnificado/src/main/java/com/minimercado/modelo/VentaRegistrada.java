@@ -0,0 +1,171 @@
+/**
+ * Representación compacta e inmutable de una venta ya finalizada.
+ * Las ventas en curso siguen usando Venta y DetalleVenta; esta clase se usa
+ * para almacenar el historial con el menor número posible de objetos.
+ *
+ * Características principales:
+ * - Fecha como milisegundos desde epoch en lugar de java.util.Date
+ * - Conserva el medio de pago y el turno de caja
+ * - Líneas en arreglos primitivos paralelos, sin objetos por línea
+ * - Sin referencias a Cliente, Producto ni a la venta padre, solo IDs
+ * - Subtotales, IVA, descuentos y totales se calculan al leerlos
+ *
+ * Notas técnicas:
+ * - Por cada línea se guardan producto, cantidad, precio base y tasas de IVA y descuento
+ * - Los cálculos son los mismos de DetalleVenta (precio base * cantidad, más IVA, menos descuento)
+ */
+package com.minimercado.modelo;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.IntFunction;
+
+public final class VentaRegistrada {
+    // Atributos de la venta
+    private final int id;                 // Identificador único de la venta
+    private final int clienteId;          // ID del cliente (0 si no tiene)
+    private final long fecha;             // Fecha en milisegundos desde epoch
+    private final String medioPago;       // Medio de pago (cadena compartida de Venta.MEDIOS_PAGO)
+    private final int turnoId;            // Turno de caja (0 si no tiene)
+    // Líneas de la venta en arreglos paralelos
+    private final int[] productoIds;      // ID del producto de cada línea
+    private final int[] cantidades;       // Cantidad vendida de cada línea
+    private final double[] precios;       // Precio base al momento de la venta
+    private final double[] tasasIva;      // IVA aplicado (0.19 = 19%)
+    private final double[] tasasDescuento; // Descuento aplicado (0.05 = 5%)
+
+    public VentaRegistrada(int id, int clienteId, long fecha, String medioPago, int turnoId, int[] productoIds,
+                           int[] cantidades, double[] precios, double[] tasasIva, double[] tasasDescuento) {
+        this.id = id;
+        this.clienteId = clienteId;
+        this.fecha = fecha;
+        this.medioPago = medioPago;
+        this.turnoId = turnoId;
+        this.productoIds = productoIds;
+        this.cantidades = cantidades;
+        this.precios = precios;
+        this.tasasIva = tasasIva;
+        this.tasasDescuento = tasasDescuento;
+    }
+
+    // Crea el registro compacto a partir de una venta finalizada
+    public static VentaRegistrada desde(Venta venta) {
+        List<DetalleVenta> detalles = venta.getDetalles();
+        int n = detalles.size();
+        int[] productoIds = new int[n];
+        int[] cantidades = new int[n];
+        double[] precios = new double[n];
+        double[] tasasIva = new double[n];
+        double[] tasasDescuento = new double[n];
+        for (int i = 0; i < n; i++) {
+            DetalleVenta d = detalles.get(i);
+            productoIds[i] = d.getProducto().getId();
+            cantidades[i] = d.getCantidad();
+            precios[i] = d.getPrecioBase();
+            tasasIva[i] = d.getTasaIva();
+            tasasDescuento[i] = d.getTasaDescuento();
+        }
+        return new VentaRegistrada(venta.getId(),
+                venta.getCliente() != null ? venta.getCliente().getId() : 0,
+                venta.getFecha() != null ? venta.getFecha().getTime() : 0L,
+                venta.getMedioPago(), venta.getTurnoId(),
+                productoIds, cantidades, precios, tasasIva, tasasDescuento);
+    }
+
+    // Reconstruye una Venta mutable resolviendo cliente y productos por ID. Cada línea
+    // conserva el precio y las tasas registrados, no los actuales del producto
+    public Venta aVenta(IntFunction<Cliente> clientes, IntFunction<Producto> productos) {
+        Venta venta = new Venta(clientes.apply(clienteId));
+        venta.setId(id);
+        venta.setFecha(new Date(fecha));
+        venta.setMedioPago(medioPago);
+        venta.setTurnoId(turnoId);
+        for (int i = 0; i < productoIds.length; i++) {
+            Producto producto = productos.apply(productoIds[i]);
+            if (producto != null) {
+                DetalleVenta detalle = new DetalleVenta();
+                detalle.setProducto(producto);
+                detalle.setCantidad(cantidades[i]);
+                detalle.setValoresVenta(precios[i], tasasIva[i], tasasDescuento[i]);
+                venta.agregarDetalle(detalle);
+            }
+        }
+        return venta;
+    }
+
+    // Getters de la venta
+    public int getId() { return id; }
+    public int getClienteId() { return clienteId; }
+    public long getFecha() { return fecha; }
+    public String getMedioPago() { return medioPago; }
+    public int getTurnoId() { return turnoId; }
+    public int getLineas() { return productoIds.length; }
+
+    // Getters por línea
+    public int getProductoId(int linea) { return productoIds[linea]; }
+    public int getCantidad(int linea) { return cantidades[linea]; }
+    public double getPrecio(int linea) { return precios[linea]; }
+    public double getTasaIva(int linea) { return tasasIva[linea]; }
+    public double getTasaDescuento(int linea) { return tasasDescuento[linea]; }
+
+    // Montos derivados por línea
+    public double getSubtotalLinea(int linea) {
+        return precios[linea] * cantidades[linea];
+    }
+
+    public double getIvaLinea(int linea) {
+        return getSubtotalLinea(linea) * tasasIva[linea];
+    }
+
+    public double getDescuentoLinea(int linea) {
+        return getSubtotalLinea(linea) * tasasDescuento[linea];
+    }
+
+    public double getTotalLinea(int linea) {
+        double subtotal = getSubtotalLinea(linea);
+        return subtotal + subtotal * tasasIva[linea] - subtotal * tasasDescuento[linea];
+    }
+
+    public double getPrecioUnitarioLinea(int linea) {
+        return precios[linea] * (1 + tasasIva[linea] - tasasDescuento[linea]);
+    }
+
+    // Totales derivados de la venta
+    public double getSubtotal() {
+        double total = 0;
+        for (int i = 0; i < productoIds.length; i++) {
+            total += getSubtotalLinea(i);
+        }
+        return total;
+    }
+
+    public double getIva() {
+        double total = 0;
+        for (int i = 0; i < productoIds.length; i++) {
+            total += getIvaLinea(i);
+        }
+        return total;
+    }
+
+    public double getDescuento() {
+        double total = 0;
+        for (int i = 0; i < productoIds.length; i++) {
+            total += getDescuentoLinea(i);
+        }
+        return total;
+    }
+
+    public double getTotal() {
+        double total = 0;
+        for (int i = 0; i < productoIds.length; i++) {
+            total += getTotalLinea(i);
+        }
+        return total;
+    }
+
+    // Método para representar la venta como String
+    @Override
+    public String toString() {
+        return String.format("Venta #%d - cliente %d - $%.2f", id, clienteId, getTotal());
+    }
+}
@@ -0,0 +1,375 @@
+/**
+ * Acumulados materializados de las ventas por hora, por día, por producto y por cliente.
+ * Cada cubeta guarda número de ventas, unidades, subtotal, IVA, descuento y total, y se
+ * actualiza de forma incremental al finalizar o eliminar una venta, de modo que los
+ * reportes recorren cubetas en lugar de líneas de venta.
+ *
+ * Características principales:
+ * - Cuatro dimensiones: hora y día locales, producto y cliente
+ * - Altas y bajas incrementales: O(líneas de la venta) por operación
+ * - Consultas por rango de horas o días en O(cubetas del rango)
+ * - Serialización binaria compacta con una firma del historial para validarla al cargar
+ * - Reconstrucción completa desde el almacén columnar de líneas
+ *
+ * Notas técnicas:
+ * - Las horas y días se numeran desde la época en la zona horaria local (con su
+ *   desplazamiento en cada fecha, así que respeta el horario de verano)
+ * - En la dimensión producto una venta cuenta una vez por producto distinto
+ * - Una cubeta que se queda sin ventas se elimina
+ * - Todos los métodos públicos están sincronizados
+ */
+package com.minimercado.util;
+
+import com.minimercado.modelo.DetalleVenta;
+import com.minimercado.modelo.Venta;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+public class AcumuladosVentas {
+    // Cabecera del archivo binario
+    private static final int MAGICO = 0x41434D56; // "ACMV"
+    private static final int VERSION = 1;
+    private static final long MILLIS_HORA = 3_600_000L;
+    private static final long MILLIS_DIA = 86_400_000L;
+
+    // Dimensiones de los acumulados
+    public enum Dimension {
+        HORA, DIA, PRODUCTO, CLIENTE
+    }
+
+    // Cubeta de una dimensión: clave (hora, día, producto o cliente) y sus métricas
+    public static class Acumulado {
+        private final int clave;
+        private long ventas;
+        private long unidades;
+        private double subtotal;
+        private double iva;
+        private double descuento;
+        private double total;
+
+        private Acumulado(int clave) {
+            this.clave = clave;
+        }
+
+        private Acumulado copiar() {
+            Acumulado copia = new Acumulado(clave);
+            copia.ventas = ventas;
+            copia.unidades = unidades;
+            copia.subtotal = subtotal;
+            copia.iva = iva;
+            copia.descuento = descuento;
+            copia.total = total;
+            return copia;
+        }
+
+        // Getters
+        public int getClave() { return clave; }
+        public long getVentas() { return ventas; }
+        public long getUnidades() { return unidades; }
+        public double getSubtotal() { return subtotal; }
+        public double getIva() { return iva; }
+        public double getDescuento() { return descuento; }
+        public double getTotal() { return total; }
+    }
+
+    // Línea de venta reducida a lo que necesitan los acumulados
+    private static class Linea {
+        int producto;
+        int cantidad;
+        double subtotal;
+        double iva;
+        double descuento;
+        double total;
+    }
+
+    private final TimeZone zona;
+    private final List<MapaEnteros<Acumulado>> dimensiones = new ArrayList<>();
+    // Firma del historial acumulado: número de ventas y suma de sus IDs
+    private long ventasAcumuladas;
+    private long sumaIds;
+
+    public AcumuladosVentas() {
+        this(TimeZone.getDefault());
+    }
+
+    public AcumuladosVentas(TimeZone zona) {
+        this.zona = zona;
+        for (int i = 0; i < Dimension.values().length; i++) {
+            dimensiones.add(new MapaEnteros<>());
+        }
+    }
+
+    // Suma una venta finalizada; las ventas sin líneas no se acumulan
+    public synchronized void agregarVenta(Venta venta) {
+        List<Linea> lineas = new ArrayList<>(venta.getDetalles().size());
+        for (DetalleVenta d : venta.getDetalles()) {
+            Linea linea = new Linea();
+            linea.producto = d.getProducto() != null ? d.getProducto().getId() : 0;
+            linea.cantidad = d.getCantidad();
+            linea.subtotal = d.getSubtotalBase();
+            linea.iva = d.getIvaMonto();
+            linea.descuento = d.getDescuentoMonto();
+            linea.total = d.getTotalDetalle();
+            lineas.add(linea);
+        }
+        aplicar(venta.getId(), venta.getFecha() != null ? venta.getFecha().getTime() : 0L,
+                venta.getCliente() != null ? venta.getCliente().getId() : 0, lineas, 1);
+    }
+
+    // Resta una venta a partir de sus líneas en el almacén columnar; debe llamarse antes
+    // de marcarlas como inactivas. No necesita leer la venta de disco
+    public synchronized void quitarVenta(ColumnasDetalleVenta columnas, int ventaId) {
+        List<Linea> lineas = new ArrayList<>();
+        long[] fecha = new long[1];
+        int[] cliente = new int[1];
+        columnas.escanearAcotado(Long.MIN_VALUE, Long.MAX_VALUE, ventaId, ventaId,
+                fila -> columnas.getVentaId(fila) == ventaId, fila -> {
+                    fecha[0] = columnas.getFecha(fila);
+                    cliente[0] = columnas.getClienteId(fila);
+                    lineas.add(lineaDeColumnas(columnas, fila));
+                });
+        aplicar(ventaId, fecha[0], cliente[0], lineas, -1);
+    }
+
+    // Vuelve a calcular todos los acumulados desde las líneas activas del almacén columnar.
+    // Las líneas de una venta son contiguas porque se agregan juntas al finalizarla
+    public synchronized void reconstruir(ColumnasDetalleVenta columnas) {
+        for (MapaEnteros<Acumulado> dimension : dimensiones) {
+            dimension.clear();
+        }
+        ventasAcumuladas = 0;
+        sumaIds = 0;
+        List<Linea> lineas = new ArrayList<>();
+        int[] actual = {0, 0};   // venta y cliente en curso
+        long[] fecha = {0L};
+        columnas.escanear(null, fila -> {
+            int venta = columnas.getVentaId(fila);
+            if (venta != actual[0] && !lineas.isEmpty()) {
+                aplicar(actual[0], fecha[0], actual[1], lineas, 1);
+                lineas.clear();
+            }
+            actual[0] = venta;
+            actual[1] = columnas.getClienteId(fila);
+            fecha[0] = columnas.getFecha(fila);
+            lineas.add(lineaDeColumnas(columnas, fila));
+        });
+        if (!lineas.isEmpty()) {
+            aplicar(actual[0], fecha[0], actual[1], lineas, 1);
+        }
+    }
+
+    private static Linea lineaDeColumnas(ColumnasDetalleVenta columnas, int fila) {
+        Linea linea = new Linea();
+        linea.producto = columnas.getProductoId(fila);
+        linea.cantidad = columnas.getCantidad(fila);
+        linea.subtotal = columnas.getSubtotalBase(fila);
+        linea.iva = columnas.getIvaMonto(fila);
+        linea.descuento = columnas.getDescuentoMonto(fila);
+        linea.total = columnas.getTotalDetalle(fila);
+        return linea;
+    }
+
+    // Suma (signo 1) o resta (signo -1) una venta en las cuatro dimensiones
+    private void aplicar(int ventaId, long fecha, int clienteId, List<Linea> lineas, int signo) {
+        if (lineas.isEmpty()) {
+            return;
+        }
+        long unidades = 0;
+        double subtotal = 0, iva = 0, descuento = 0, total = 0;
+        MapaEnteros<Acumulado> productos = dimensiones.get(Dimension.PRODUCTO.ordinal());
+        // Productos ya contados en esta venta, para sumar la venta una sola vez por producto
+        MapaEnteros<Boolean> contados = new MapaEnteros<>(lineas.size());
+        for (Linea linea : lineas) {
+            unidades += linea.cantidad;
+            subtotal += linea.subtotal;
+            iva += linea.iva;
+            descuento += linea.descuento;
+            total += linea.total;
+            boolean nuevaVenta = contados.put(linea.producto, Boolean.TRUE) == null;
+            sumar(productos, linea.producto, nuevaVenta ? signo : 0, signo * (long) linea.cantidad,
+                    signo * linea.subtotal, signo * linea.iva, signo * linea.descuento, signo * linea.total);
+        }
+        int hora = (int) claveDe(fecha, MILLIS_HORA);
+        int dia = (int) claveDe(fecha, MILLIS_DIA);
+        sumar(dimensiones.get(Dimension.HORA.ordinal()), hora, signo, signo * unidades,
+                signo * subtotal, signo * iva, signo * descuento, signo * total);
+        sumar(dimensiones.get(Dimension.DIA.ordinal()), dia, signo, signo * unidades,
+                signo * subtotal, signo * iva, signo * descuento, signo * total);
+        sumar(dimensiones.get(Dimension.CLIENTE.ordinal()), clienteId, signo, signo * unidades,
+                signo * subtotal, signo * iva, signo * descuento, signo * total);
+        ventasAcumuladas += signo;
+        sumaIds += signo * (long) ventaId;
+    }
+
+    private static void sumar(MapaEnteros<Acumulado> dimension, int clave, long ventas, long unidades,
+                              double subtotal, double iva, double descuento, double total) {
+        Acumulado acumulado = dimension.get(clave);
+        if (acumulado == null) {
+            acumulado = new Acumulado(clave);
+            dimension.put(clave, acumulado);
+        }
+        acumulado.ventas += ventas;
+        acumulado.unidades += unidades;
+        acumulado.subtotal += subtotal;
+        acumulado.iva += iva;
+        acumulado.descuento += descuento;
+        acumulado.total += total;
+        if (acumulado.ventas <= 0) {
+            dimension.remove(clave);
+        }
+    }
+
+    // Cubetas de hora o día con fecha en [desde, hasta), en orden; O(cubetas del rango)
+    public synchronized List<Acumulado> consultarRango(Dimension dimension, long desde, long hasta) {
+        if (dimension != Dimension.HORA && dimension != Dimension.DIA) {
+            throw new IllegalArgumentException("La dimensión " + dimension + " no es temporal");
+        }
+        long unidad = dimension == Dimension.HORA ? MILLIS_HORA : MILLIS_DIA;
+        MapaEnteros<Acumulado> cubetas = dimensiones.get(dimension.ordinal());
+        long primera = claveDe(desde, unidad);
+        long ultima = claveDe(hasta - 1, unidad);
+        List<Acumulado> resultado = new ArrayList<>();
+        if (ultima - primera >= cubetas.size()) {
+            // Rango más amplio que las cubetas existentes: se recorren las cubetas y se ordenan
+            cubetas.forEachValor(a -> {
+                if (a.clave >= primera && a.clave <= ultima) {
+                    resultado.add(a.copiar());
+                }
+            });
+            resultado.sort((a, b) -> Integer.compare(a.clave, b.clave));
+        } else {
+            for (long clave = primera; clave <= ultima; clave++) {
+                Acumulado a = cubetas.get((int) clave);
+                if (a != null) {
+                    resultado.add(a.copiar());
+                }
+            }
+        }
+        return resultado;
+    }
+
+    // Número de hora o día local de una fecha; los extremos (rangos abiertos) se saturan
+    private long claveDe(long millis, long unidad) {
+        if (millis <= Long.MIN_VALUE / 2) {
+            return Integer.MIN_VALUE;
+        }
+        if (millis >= Long.MAX_VALUE / 2) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.floorDiv(millis + zona.getOffset(millis), unidad);
+    }
+
+    // Todas las cubetas de una dimensión, de mayor a menor total
+    public synchronized List<Acumulado> consultarTodo(Dimension dimension) {
+        List<Acumulado> resultado = new ArrayList<>(dimensiones.get(dimension.ordinal()).size());
+        dimensiones.get(dimension.ordinal()).forEachValor(a -> resultado.add(a.copiar()));
+        resultado.sort((a, b) -> Double.compare(b.total, a.total));
+        return resultado;
+    }
+
+    // Cubeta de una clave, o null si no tiene ventas
+    public synchronized Acumulado obtener(Dimension dimension, int clave) {
+        Acumulado a = dimensiones.get(dimension.ordinal()).get(clave);
+        return a != null ? a.copiar() : null;
+    }
+
+    // Inicio (en milisegundos de época) de la cubeta de hora o día con la clave dada
+    public long inicioCubeta(Dimension dimension, int clave) {
+        long unidad = dimension == Dimension.HORA ? MILLIS_HORA : MILLIS_DIA;
+        long local = clave * unidad;
+        return local - zona.getOffset(local - zona.getRawOffset());
+    }
+
+    public synchronized int getCubetas(Dimension dimension) {
+        return dimensiones.get(dimension.ordinal()).size();
+    }
+
+    // Firma del historial acumulado, para comprobar que un archivo cargado sigue vigente
+    public synchronized long getVentasAcumuladas() {
+        return ventasAcumuladas;
+    }
+
+    public synchronized long getSumaIds() {
+        return sumaIds;
+    }
+
+    // Serializa los acumulados: cabecera, firma y, por dimensión, sus cubetas
+    public synchronized byte[] serializar() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            salida.writeInt(MAGICO);
+            salida.writeInt(VERSION);
+            salida.writeUTF(zona.getID());
+            salida.writeLong(ventasAcumuladas);
+            salida.writeLong(sumaIds);
+            for (MapaEnteros<Acumulado> dimension : dimensiones) {
+                salida.writeInt(dimension.size());
+                IOException[] error = new IOException[1];
+                dimension.forEachValor(a -> {
+                    try {
+                        salida.writeInt(a.clave);
+                        salida.writeLong(a.ventas);
+                        salida.writeLong(a.unidades);
+                        salida.writeDouble(a.subtotal);
+                        salida.writeDouble(a.iva);
+                        salida.writeDouble(a.descuento);
+                        salida.writeDouble(a.total);
+                    } catch (IOException e) {
+                        error[0] = e;
+                    }
+                });
+                if (error[0] != null) {
+                    throw error[0];
+                }
+            }
+        } catch (IOException e) {
+            // Un ByteArrayOutputStream no falla al escribir
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Reemplaza el contenido por el serializado; devuelve false si el formato o la zona
+    // horaria no coinciden, en cuyo caso los acumulados quedan vacíos
+    public synchronized boolean cargar(byte[] datos) {
+        for (MapaEnteros<Acumulado> dimension : dimensiones) {
+            dimension.clear();
+        }
+        ventasAcumuladas = 0;
+        sumaIds = 0;
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(datos))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSION || !zona.getID().equals(entrada.readUTF())) {
+                return false;
+            }
+            long ventas = entrada.readLong();
+            long ids = entrada.readLong();
+            for (MapaEnteros<Acumulado> dimension : dimensiones) {
+                int cubetas = entrada.readInt();
+                for (int i = 0; i < cubetas; i++) {
+                    Acumulado a = new Acumulado(entrada.readInt());
+                    a.ventas = entrada.readLong();
+                    a.unidades = entrada.readLong();
+                    a.subtotal = entrada.readDouble();
+                    a.iva = entrada.readDouble();
+                    a.descuento = entrada.readDouble();
+                    a.total = entrada.readDouble();
+                    dimension.put(a.clave, a);
+                }
+            }
+            ventasAcumuladas = ventas;
+            sumaIds = ids;
+            return true;
+        } catch (IOException e) {
+            for (MapaEnteros<Acumulado> dimension : dimensiones) {
+                dimension.clear();
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * Cola de prioridad indexada de productos con stock mínimo, ordenada por urgencia.
+ * La urgencia de un producto es la proporción stock / stock mínimo: un producto está
+ * en alerta cuando esa proporción es 1 o menos, y el más urgente es el de menor proporción.
+ *
+ * Características principales:
+ * - Montículo binario mínimo con la posición de cada producto indexada por ID
+ * - Alta, cambio de stock y baja en O(log n), sin recorrer el catálogo
+ * - Producto más urgente y cantidad de productos en alerta en O(1)
+ * - Los k más urgentes en O(k log k), independiente del tamaño del catálogo
+ *
+ * Notas técnicas:
+ * - Solo se vigilan los productos con stock mínimo mayor que 0
+ * - El stock negativo cuenta como 0; a igual proporción, primero el menor ID
+ * - Cada producto guarda su posición en un arreglo de un elemento que se actualiza al
+ *   moverlo en el montículo, así que los intercambios no consultan el índice
+ * - Todos los métodos públicos están sincronizados
+ */
+package com.minimercado.util;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+public class AlertasStock {
+    // Montículo en arreglos paralelos: ID, proporción y celda con la posición del producto
+    private int[] ids;
+    private double[] proporciones;
+    private int[][] posiciones;
+    private int tamano;
+    // ID -> celda con su posición en el montículo
+    private final MapaEnteros<int[]> indice;
+    private int enAlerta;
+
+    public AlertasStock() {
+        this(16);
+    }
+
+    public AlertasStock(int capacidadEsperada) {
+        int capacidad = Math.max(16, capacidadEsperada);
+        ids = new int[capacidad];
+        proporciones = new double[capacidad];
+        posiciones = new int[capacidad][];
+        indice = new MapaEnteros<>(capacidadEsperada);
+    }
+
+    // Registra el stock actual de un producto. Devuelve 1 si entró en alerta, -1 si salió
+    // y 0 si no cambió de estado
+    public synchronized int actualizar(int productoId, int stock, int stockMinimo) {
+        int[] celda = indice.get(productoId);
+        boolean antes = celda != null && proporciones[celda[0]] <= 1;
+        if (stockMinimo <= 0) {
+            if (celda != null) {
+                quitarEn(celda[0]);
+            }
+        } else {
+            double proporcion = (double) Math.max(0, stock) / stockMinimo;
+            if (celda == null) {
+                insertar(productoId, proporcion);
+            } else {
+                cambiar(celda[0], proporcion);
+            }
+        }
+        celda = indice.get(productoId);
+        boolean despues = celda != null && proporciones[celda[0]] <= 1;
+        return Boolean.compare(despues, antes);
+    }
+
+    // Deja de vigilar un producto. Devuelve true si estaba en alerta
+    public synchronized boolean quitar(int productoId) {
+        int[] celda = indice.get(productoId);
+        if (celda == null) {
+            return false;
+        }
+        boolean estaba = proporciones[celda[0]] <= 1;
+        quitarEn(celda[0]);
+        return estaba;
+    }
+
+    // ID del producto más urgente en alerta, o 0 si no hay ninguno
+    public synchronized int getMasUrgente() {
+        return tamano > 0 && proporciones[0] <= 1 ? ids[0] : 0;
+    }
+
+    // Proporción stock / stock mínimo de un producto vigilado, o NaN si no se vigila
+    public synchronized double getProporcion(int productoId) {
+        int[] celda = indice.get(productoId);
+        return celda != null ? proporciones[celda[0]] : Double.NaN;
+    }
+
+    // IDs de hasta maximo productos en alerta, del más urgente al menos urgente.
+    // Recorre el montículo por niveles con una frontera ordenada: solo visita los
+    // elegidos y sus hijos
+    public synchronized int[] obtenerUrgentes(int maximo) {
+        int limite = Math.min(maximo, enAlerta);
+        int[] resultado = new int[limite];
+        if (limite == 0) {
+            return resultado;
+        }
+        PriorityQueue<Integer> frontera = new PriorityQueue<>(2 * limite + 1, this::comparar);
+        frontera.add(0);
+        int n = 0;
+        while (n < limite) {
+            int i = frontera.poll();
+            resultado[n++] = ids[i];
+            for (int hijo = 2 * i + 1; hijo <= 2 * i + 2 && hijo < tamano; hijo++) {
+                if (proporciones[hijo] <= 1) {
+                    frontera.add(hijo);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    // Productos en alerta, mantenido con cada cambio
+    public synchronized int getEnAlerta() {
+        return enAlerta;
+    }
+
+    // Productos con stock mínimo vigilados
+    public synchronized int getVigilados() {
+        return tamano;
+    }
+
+    private void insertar(int productoId, double proporcion) {
+        if (tamano == ids.length) {
+            int capacidad = tamano * 2;
+            ids = Arrays.copyOf(ids, capacidad);
+            proporciones = Arrays.copyOf(proporciones, capacidad);
+            posiciones = Arrays.copyOf(posiciones, capacidad);
+        }
+        int[] celda = {tamano};
+        indice.put(productoId, celda);
+        ids[tamano] = productoId;
+        proporciones[tamano] = proporcion;
+        posiciones[tamano] = celda;
+        tamano++;
+        if (proporcion <= 1) {
+            enAlerta++;
+        }
+        subir(tamano - 1);
+    }
+
+    private void cambiar(int i, double proporcion) {
+        double anterior = proporciones[i];
+        enAlerta += (proporcion <= 1 ? 1 : 0) - (anterior <= 1 ? 1 : 0);
+        proporciones[i] = proporcion;
+        if (proporcion < anterior) {
+            subir(i);
+        } else {
+            bajar(i);
+        }
+    }
+
+    // Quita la posición i llevando a su lugar el último elemento
+    private void quitarEn(int i) {
+        if (proporciones[i] <= 1) {
+            enAlerta--;
+        }
+        indice.remove(ids[i]);
+        tamano--;
+        if (i != tamano) {
+            mover(tamano, i);
+            // El último puede tener que subir o bajar según la rama donde cae
+            int[] celda = posiciones[i];
+            subir(i);
+            bajar(celda[0]);
+        }
+        posiciones[tamano] = null;
+    }
+
+    private void subir(int i) {
+        while (i > 0) {
+            int padre = (i - 1) >>> 1;
+            if (comparar(i, padre) >= 0) {
+                break;
+            }
+            intercambiar(i, padre);
+            i = padre;
+        }
+    }
+
+    private void bajar(int i) {
+        while (true) {
+            int menor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < tamano && comparar(izquierdo, menor) < 0) {
+                menor = izquierdo;
+            }
+            if (derecho < tamano && comparar(derecho, menor) < 0) {
+                menor = derecho;
+            }
+            if (menor == i) {
+                return;
+            }
+            intercambiar(i, menor);
+            i = menor;
+        }
+    }
+
+    private int comparar(int a, int b) {
+        int c = Double.compare(proporciones[a], proporciones[b]);
+        return c != 0 ? c : Integer.compare(ids[a], ids[b]);
+    }
+
+    private void intercambiar(int a, int b) {
+        int id = ids[a];
+        double proporcion = proporciones[a];
+        int[] celda = posiciones[a];
+        mover(b, a);
+        ids[b] = id;
+        proporciones[b] = proporcion;
+        posiciones[b] = celda;
+        celda[0] = b;
+    }
+
+    // Copia el elemento de la posición desde a la posición hasta
+    private void mover(int desde, int hasta) {
+        ids[hasta] = ids[desde];
+        proporciones[hasta] = proporciones[desde];
+        posiciones[hasta] = posiciones[desde];
+        posiciones[hasta][0] = hasta;
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Bus de cambios de una entidad con entregas agrupadas por cuadro.
+ * Los controladores publican cada alta, modificación o baja por ID; el bus las
+ * acumula y las entrega juntas en el EDT como máximo una vez por cuadro (~16 ms),
+ * de modo que una ráfaga de cambios produce una sola actualización de la vista.
+ *
+ * Características principales:
+ * - Entrega asíncrona en el EDT: publicar nunca ejecuta código de la vista
+ * - Combinación por ID: agregado y luego eliminado se anula, eliminado y luego
+ *   agregado se entrega como actualizado, y así sucesivamente
+ * - Una entrega por cuadro aunque la ráfaga dure más de un cuadro
+ *
+ * Notas técnicas:
+ * - Se puede publicar desde cualquier hilo; el acceso a los pendientes está sincronizado
+ * - El temporizador de Swing se arranca con el primer cambio pendiente y no se reinicia
+ *   con los siguientes, para que una ráfaga larga no retrase la entrega indefinidamente
+ */
+package com.minimercado.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.swing.Timer;
+
+public class BusCambios {
+    // Duración aproximada de un cuadro de pantalla a 60 Hz
+    private static final int INTERVALO_CUADRO_MS = 16;
+
+    // Estado combinado de un ID desde la última entrega
+    private enum Estado {
+        AGREGADO, ACTUALIZADO, ELIMINADO
+    }
+
+    private final Consumer<CambiosEntidad> entrega;
+    private final Map<Integer, Estado> pendientes = new HashMap<>();
+    private final Timer temporizador;
+    private long entregas;
+
+    // La función de entrega se invoca en el EDT con los cambios combinados
+    public BusCambios(Consumer<CambiosEntidad> entrega) {
+        this.entrega = entrega;
+        this.temporizador = new Timer(INTERVALO_CUADRO_MS, e -> entregarPendientes());
+        this.temporizador.setRepeats(false);
+    }
+
+    public void agregado(int id) {
+        publicar(id, Estado.AGREGADO);
+    }
+
+    public void actualizado(int id) {
+        publicar(id, Estado.ACTUALIZADO);
+    }
+
+    public void eliminado(int id) {
+        publicar(id, Estado.ELIMINADO);
+    }
+
+    private void publicar(int id, Estado nuevo) {
+        boolean primero;
+        synchronized (pendientes) {
+            primero = pendientes.isEmpty();
+            Estado combinado = combinar(pendientes.get(id), nuevo);
+            if (combinado == null) {
+                pendientes.remove(id);
+            } else {
+                pendientes.put(id, combinado);
+            }
+        }
+        if (primero) {
+            temporizador.start();
+        }
+    }
+
+    // Estado resultante de aplicar un cambio sobre el pendiente; null si se anulan
+    private static Estado combinar(Estado anterior, Estado nuevo) {
+        if (anterior == null) {
+            return nuevo;
+        }
+        switch (anterior) {
+            case AGREGADO:
+                // La vista nunca vio el elemento: sigue siendo un alta, o nada si se eliminó
+                return nuevo == Estado.ELIMINADO ? null : Estado.AGREGADO;
+            case ELIMINADO:
+                // Eliminado y vuelto a agregar con el mismo ID equivale a una modificación
+                return nuevo == Estado.ELIMINADO ? Estado.ELIMINADO : Estado.ACTUALIZADO;
+            default:
+                return nuevo == Estado.ELIMINADO ? Estado.ELIMINADO : Estado.ACTUALIZADO;
+        }
+    }
+
+    // Vacía los pendientes y los entrega; se ejecuta en el EDT desde el temporizador
+    private void entregarPendientes() {
+        CambiosEntidad cambios;
+        synchronized (pendientes) {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            int[][] listas = new int[3][pendientes.size()];
+            int[] tamanos = new int[3];
+            for (Map.Entry<Integer, Estado> pendiente : pendientes.entrySet()) {
+                int tipo = pendiente.getValue().ordinal();
+                listas[tipo][tamanos[tipo]++] = pendiente.getKey();
+            }
+            pendientes.clear();
+            cambios = new CambiosEntidad(
+                    Arrays.copyOf(listas[0], tamanos[0]),
+                    Arrays.copyOf(listas[1], tamanos[1]),
+                    Arrays.copyOf(listas[2], tamanos[2]));
+        }
+        entregas++;
+        entrega.accept(cambios);
+    }
+
+    // Número de entregas realizadas
+    public long getEntregas() {
+        return entregas;
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Conjunto de cambios sobre una entidad (productos o clientes) entregado a los listeners.
+ * Reúne los IDs agregados, actualizados y eliminados desde la entrega anterior,
+ * ya combinados: cada ID aparece en una sola de las tres listas.
+ *
+ * Características principales:
+ * - IDs agregados, actualizados y eliminados, ordenados de menor a mayor
+ * - Consulta rápida de si un ID cambió y de cuántos cambios hay en total
+ *
+ * Notas técnicas:
+ * - Inmutable: los arreglos no se exponen, se devuelven copias
+ * - Lo construye BusCambios al vaciar los cambios pendientes
+ */
+package com.minimercado.util;
+
+import java.util.Arrays;
+
+public final class CambiosEntidad {
+    private final int[] agregados;
+    private final int[] actualizados;
+    private final int[] eliminados;
+
+    public CambiosEntidad(int[] agregados, int[] actualizados, int[] eliminados) {
+        this.agregados = ordenar(agregados);
+        this.actualizados = ordenar(actualizados);
+        this.eliminados = ordenar(eliminados);
+    }
+
+    private static int[] ordenar(int[] ids) {
+        int[] copia = ids.clone();
+        Arrays.sort(copia);
+        return copia;
+    }
+
+    // Getters
+    public int[] getAgregados() {
+        return agregados.clone();
+    }
+
+    public int[] getActualizados() {
+        return actualizados.clone();
+    }
+
+    public int[] getEliminados() {
+        return eliminados.clone();
+    }
+
+    // Número total de IDs afectados
+    public int getTotal() {
+        return agregados.length + actualizados.length + eliminados.length;
+    }
+
+    public boolean estaVacio() {
+        return getTotal() == 0;
+    }
+
+    public boolean hayAgregados() {
+        return agregados.length > 0;
+    }
+
+    public boolean fueEliminado(int id) {
+        return Arrays.binarySearch(eliminados, id) >= 0;
+    }
+
+    public boolean fueActualizado(int id) {
+        return Arrays.binarySearch(actualizados, id) >= 0;
+    }
+
+    // Método para representar los cambios como String
+    @Override
+    public String toString() {
+        return "agregados=" + Arrays.toString(agregados) + ", actualizados=" + Arrays.toString(actualizados)
+                + ", eliminados=" + Arrays.toString(eliminados);
+    }
+}
@@ -0,0 +1,279 @@
+/**
+ * Conteo aproximado de clientes distintos por período con bosquejos HyperLogLog.
+ * Cada día local tiene su propio bosquejo; los clientes distintos de cualquier rango
+ * (día, semana, mes o lo que se pida) se obtienen combinando los bosquejos de sus
+ * días, sin guardar ni deduplicar conjuntos de IDs de clientes.
+ *
+ * Características principales:
+ * - Altas en O(líneas de la venta) al finalizar una venta
+ * - Conteo de un rango en O(días x registros), sin recorrer ventas
+ * - Error estándar de 1.04 / raíz(registros), cerca de 1.6% con 4096 registros
+ * - Serialización binaria con una firma del historial para validarla al cargar;
+ *   los días con pocos clientes se guardan dispersos
+ * - Reconstrucción completa desde el almacén columnar de líneas
+ *
+ * Notas técnicas:
+ * - Los días se numeran igual que en AcumuladosVentas (hora local)
+ * - Para pocos clientes se usa el conteo lineal de registros vacíos, casi exacto
+ * - Un bosquejo no admite bajas: eliminar una venta no cambia la firma guardada, así
+ *   que en el siguiente arranque los bosquejos se reconstruyen desde las líneas
+ * - Las ventas sin cliente (ID 0) no se cuentan
+ * - Todos los métodos públicos están sincronizados
+ */
+package com.minimercado.util;
+
+import com.minimercado.modelo.Venta;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.TimeZone;
+
+public class ClientesDistintos {
+    // Cabecera del archivo binario
+    private static final int MAGICO = 0x484C4C43; // "HLLC"
+    private static final int VERSION = 1;
+    private static final long MILLIS_DIA = 86_400_000L;
+    // Bits del hash que eligen el registro: 2^12 = 4096 registros de un byte por día
+    private static final int PRECISION = 12;
+    private static final int REGISTROS = 1 << PRECISION;
+    private static final double ALFA = 0.7213 / (1 + 1.079 / REGISTROS);
+
+    private final TimeZone zona;
+    // Día local -> registros del bosquejo
+    private final MapaEnteros<byte[]> dias = new MapaEnteros<>();
+    // Firma del historial incorporado: ventas y suma de sus IDs
+    private long ventasAcumuladas;
+    private long sumaIds;
+
+    public ClientesDistintos() {
+        this(TimeZone.getDefault());
+    }
+
+    public ClientesDistintos(TimeZone zona) {
+        this.zona = zona;
+    }
+
+    // Incorpora el cliente de una venta finalizada; las ventas sin líneas no cuentan
+    public synchronized void agregarVenta(Venta venta) {
+        if (venta.getDetalles().isEmpty()) {
+            return;
+        }
+        agregar(venta.getFecha() != null ? venta.getFecha().getTime() : 0L,
+                venta.getCliente() != null ? venta.getCliente().getId() : 0);
+        ventasAcumuladas++;
+        sumaIds += venta.getId();
+    }
+
+    // Vuelve a calcular los bosquejos desde las líneas activas del almacén columnar
+    public synchronized void reconstruir(ColumnasDetalleVenta columnas) {
+        dias.clear();
+        ventasAcumuladas = 0;
+        sumaIds = 0;
+        int[] ventaAnterior = {0};
+        columnas.escanear(null, fila -> {
+            int venta = columnas.getVentaId(fila);
+            if (venta != ventaAnterior[0]) {
+                // Las líneas de una venta son contiguas: se cuenta la venta en su primera línea
+                ventaAnterior[0] = venta;
+                ventasAcumuladas++;
+                sumaIds += venta;
+                agregar(columnas.getFecha(fila), columnas.getClienteId(fila));
+            }
+        });
+    }
+
+    private void agregar(long fecha, int clienteId) {
+        if (clienteId == 0) {
+            return;
+        }
+        int dia = claveDia(fecha);
+        byte[] registros = dias.get(dia);
+        if (registros == null) {
+            registros = new byte[REGISTROS];
+            dias.put(dia, registros);
+        }
+        long hash = mezclar(clienteId);
+        int registro = (int) (hash >>> (64 - PRECISION));
+        // Posición del primer bit a 1 en el resto del hash (1 si el primero ya lo es)
+        int rango = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        if (rango > registros[registro]) {
+            registros[registro] = (byte) rango;
+        }
+    }
+
+    // Mezcla de splitmix64: IDs consecutivos quedan repartidos en todo el rango
+    private static long mezclar(long valor) {
+        long z = valor + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Clientes distintos estimados con fecha en [desde, hasta)
+    public synchronized long estimar(long desde, long hasta) {
+        int primero = claveDia(desde);
+        int ultimo = claveDia(hasta - 1);
+        byte[] combinado = new byte[REGISTROS];
+        if ((long) ultimo - primero >= dias.size()) {
+            // Rango más amplio que los días con ventas: se recorren los días existentes
+            int[] claves = claves();
+            for (int dia : claves) {
+                if (dia >= primero && dia <= ultimo) {
+                    combinar(combinado, dias.get(dia));
+                }
+            }
+        } else {
+            for (int dia = primero; dia <= ultimo; dia++) {
+                byte[] registros = dias.get(dia);
+                if (registros != null) {
+                    combinar(combinado, registros);
+                }
+            }
+        }
+        return estimar(combinado);
+    }
+
+    // Unión de bosquejos: máximo registro a registro
+    private static void combinar(byte[] destino, byte[] origen) {
+        for (int i = 0; i < REGISTROS; i++) {
+            if (origen[i] > destino[i]) {
+                destino[i] = origen[i];
+            }
+        }
+    }
+
+    private static long estimar(byte[] registros) {
+        double suma = 0;
+        int vacios = 0;
+        for (byte registro : registros) {
+            suma += 1.0 / (1L << registro);
+            if (registro == 0) {
+                vacios++;
+            }
+        }
+        double estimado = ALFA * REGISTROS * REGISTROS / suma;
+        if (estimado <= 2.5 * REGISTROS && vacios > 0) {
+            // Rango bajo: conteo lineal sobre los registros vacíos
+            estimado = REGISTROS * Math.log((double) REGISTROS / vacios);
+        }
+        return Math.round(estimado);
+    }
+
+    // Error estándar relativo de las estimaciones
+    public static double getErrorEstandar() {
+        return 1.04 / Math.sqrt(REGISTROS);
+    }
+
+    // Número de día local de una fecha; los extremos (rangos abiertos) se saturan
+    private int claveDia(long millis) {
+        if (millis <= Long.MIN_VALUE / 2) {
+            return Integer.MIN_VALUE;
+        }
+        if (millis >= Long.MAX_VALUE / 2) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) Math.floorDiv(millis + zona.getOffset(millis), MILLIS_DIA);
+    }
+
+    private int[] claves() {
+        int[] claves = new int[dias.size()];
+        int[] i = {0};
+        dias.forEachClave(dia -> claves[i[0]++] = dia);
+        return claves;
+    }
+
+    public synchronized int getDias() {
+        return dias.size();
+    }
+
+    // Firma del historial incorporado, para comprobar que un archivo cargado sigue vigente
+    public synchronized long getVentasAcumuladas() {
+        return ventasAcumuladas;
+    }
+
+    public synchronized long getSumaIds() {
+        return sumaIds;
+    }
+
+    // Serializa los bosquejos: cabecera, firma y, por día, sus registros (densos o dispersos)
+    public synchronized byte[] serializar() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            salida.writeInt(MAGICO);
+            salida.writeInt(VERSION);
+            salida.writeInt(PRECISION);
+            salida.writeUTF(zona.getID());
+            salida.writeLong(ventasAcumuladas);
+            salida.writeLong(sumaIds);
+            int[] claves = claves();
+            salida.writeInt(claves.length);
+            for (int dia : claves) {
+                byte[] registros = dias.get(dia);
+                int usados = 0;
+                for (byte registro : registros) {
+                    if (registro != 0) {
+                        usados++;
+                    }
+                }
+                salida.writeInt(dia);
+                // Disperso (índice y valor, 3 bytes) mientras ocupe menos que los registros completos
+                boolean disperso = usados * 3 < REGISTROS;
+                salida.writeBoolean(disperso);
+                if (disperso) {
+                    salida.writeShort(usados);
+                    for (int i = 0; i < REGISTROS; i++) {
+                        if (registros[i] != 0) {
+                            salida.writeShort(i);
+                            salida.writeByte(registros[i]);
+                        }
+                    }
+                } else {
+                    salida.write(registros);
+                }
+            }
+        } catch (IOException e) {
+            // Un ByteArrayOutputStream no falla al escribir
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Reemplaza el contenido por el serializado; devuelve false si el formato, la precisión
+    // o la zona horaria no coinciden, en cuyo caso los bosquejos quedan vacíos
+    public synchronized boolean cargar(byte[] datos) {
+        dias.clear();
+        ventasAcumuladas = 0;
+        sumaIds = 0;
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(datos))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSION || entrada.readInt() != PRECISION
+                    || !zona.getID().equals(entrada.readUTF())) {
+                return false;
+            }
+            long ventas = entrada.readLong();
+            long ids = entrada.readLong();
+            int total = entrada.readInt();
+            for (int d = 0; d < total; d++) {
+                int dia = entrada.readInt();
+                byte[] registros = new byte[REGISTROS];
+                if (entrada.readBoolean()) {
+                    int usados = entrada.readShort();
+                    for (int i = 0; i < usados; i++) {
+                        int registro = entrada.readShort();
+                        registros[registro] = entrada.readByte();
+                    }
+                } else {
+                    entrada.readFully(registros);
+                }
+                dias.put(dia, registros);
+            }
+            ventasAcumuladas = ventas;
+            sumaIds = ids;
+            return true;
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            dias.clear();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/**
+ * Almacén columnar fuera del heap para las líneas de venta (DetalleVenta).
+ * Cada atributo de la línea se guarda en su propia columna primitiva respaldada
+ * por un ByteBuffer directo, de modo que recorrer millones de líneas no crea objetos.
+ *
+ * Características principales:
+ * - Columnas de venta, producto, cliente, fecha, cantidad, precio y montos
+ * - Se alimenta al finalizar cada venta y al cargar el historial
+ * - API de recorrido con filtro por fila y agregaciones sin asignaciones
+ *
+ * Notas técnicas:
+ * - Cada columna se divide en trozos de FILAS_POR_TROZO filas: un ByteBuffer no pasa de
+ *   2 GB y los desplazamientos en bytes se calculan dentro del trozo, sin desbordar int
+ * - El primer trozo crece duplicando su capacidad; después se agregan trozos completos
+ *   sin copiar los anteriores
+ * - Las líneas de ventas eliminadas se marcan como inactivas, no se compactan
+ * - Las filas se acceden por índice; los filtros reciben el índice de fila
+ * - Cada bloque de filas guarda el mínimo y máximo de fecha e ID de venta, para
+ *   saltar bloques enteros en los recorridos acotados
+ * - Las lecturas en paralelo se hacen dentro de leerExclusivo
+ */
+package com.minimercado.util;
+
+import com.minimercado.modelo.DetalleVenta;
+import com.minimercado.modelo.Venta;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+public class ColumnasDetalleVenta {
+    private static final int CAPACIDAD_INICIAL = 1024;
+    // Filas por bloque en los metadatos de mínimo y máximo
+    public static final int FILAS_POR_BLOQUE = 4096;
+    // Filas por trozo de columna (2^20: 8 MB en las columnas de 8 bytes)
+    private static final int BITS_TROZO = 20;
+    public static final int FILAS_POR_TROZO = 1 << BITS_TROZO;
+    private static final int MASCARA_TROZO = FILAS_POR_TROZO - 1;
+
+    // Filtro evaluado sobre el índice de fila
+    public interface FiltroLinea {
+        boolean acepta(int fila);
+    }
+
+    // Visitante invocado por cada fila que pasa el filtro
+    public interface VisitanteLinea {
+        void visitar(int fila);
+    }
+
+    private int filas;
+    private long capacidad;
+    private final Columna ventaId;
+    private final Columna productoId;
+    private final Columna clienteId;
+    private final Columna fecha;
+    private final Columna cantidad;
+    private final Columna precioUnitario;
+    private final Columna subtotalBase;
+    private final Columna ivaMonto;
+    private final Columna descuentoMonto;
+    private final Columna totalDetalle;
+    private final Columna activo;
+    private final Columna[] columnas;
+    // Metadatos por bloque de filas
+    private long[] fechaMinima = new long[0];
+    private long[] fechaMaxima = new long[0];
+    private int[] ventaMinima = new int[0];
+    private int[] ventaMaxima = new int[0];
+
+    public ColumnasDetalleVenta() {
+        capacidad = CAPACIDAD_INICIAL;
+        ventaId = new Columna(4);
+        productoId = new Columna(4);
+        clienteId = new Columna(4);
+        fecha = new Columna(8);
+        cantidad = new Columna(4);
+        precioUnitario = new Columna(8);
+        subtotalBase = new Columna(8);
+        ivaMonto = new Columna(8);
+        descuentoMonto = new Columna(8);
+        totalDetalle = new Columna(8);
+        activo = new Columna(1);
+        columnas = new Columna[]{ventaId, productoId, clienteId, fecha, cantidad, precioUnitario,
+                subtotalBase, ivaMonto, descuentoMonto, totalDetalle, activo};
+    }
+
+    // Agrega todas las líneas de una venta finalizada
+    public synchronized void agregarVenta(Venta venta) {
+        int cliente = venta.getCliente() != null ? venta.getCliente().getId() : 0;
+        long millis = venta.getFecha() != null ? venta.getFecha().getTime() : 0L;
+        for (DetalleVenta d : venta.getDetalles()) {
+            asegurarCapacidad(filas + 1);
+            int f = filas;
+            ventaId.trozo(f).putInt(ventaId.desplazamiento(f), venta.getId());
+            productoId.trozo(f).putInt(productoId.desplazamiento(f), d.getProducto() != null ? d.getProducto().getId() : 0);
+            clienteId.trozo(f).putInt(clienteId.desplazamiento(f), cliente);
+            fecha.trozo(f).putLong(fecha.desplazamiento(f), millis);
+            cantidad.trozo(f).putInt(cantidad.desplazamiento(f), d.getCantidad());
+            precioUnitario.trozo(f).putDouble(precioUnitario.desplazamiento(f), d.getPrecioUnitario());
+            subtotalBase.trozo(f).putDouble(subtotalBase.desplazamiento(f), d.getSubtotalBase());
+            ivaMonto.trozo(f).putDouble(ivaMonto.desplazamiento(f), d.getIvaMonto());
+            descuentoMonto.trozo(f).putDouble(descuentoMonto.desplazamiento(f), d.getDescuentoMonto());
+            totalDetalle.trozo(f).putDouble(totalDetalle.desplazamiento(f), d.getTotalDetalle());
+            activo.trozo(f).put(activo.desplazamiento(f), (byte) 1);
+            actualizarBloque(f, venta.getId(), millis);
+            filas++;
+        }
+    }
+
+    // Marca como inactivas las líneas de una venta eliminada
+    public synchronized void eliminarVenta(int id) {
+        for (int b = 0; b * FILAS_POR_BLOQUE < filas; b++) {
+            if (id < ventaMinima[b] || id > ventaMaxima[b]) {
+                continue;
+            }
+            int fin = Math.min(filas, (b + 1) * FILAS_POR_BLOQUE);
+            for (int f = b * FILAS_POR_BLOQUE; f < fin; f++) {
+                if (getVentaId(f) == id) {
+                    activo.trozo(f).put(activo.desplazamiento(f), (byte) 0);
+                }
+            }
+        }
+    }
+
+    // Recorre las filas activas que cumplen el filtro
+    public synchronized void escanear(FiltroLinea filtro, VisitanteLinea visitante) {
+        for (int f = 0; f < filas; f++) {
+            if (isActiva(f) && (filtro == null || filtro.acepta(f))) {
+                visitante.visitar(f);
+            }
+        }
+    }
+
+    // Recorre solo los bloques que pueden contener filas con fecha en [desde, hasta) y
+    // ID de venta en [ventaDesde, ventaHasta]; devuelve el número de bloques leídos
+    public synchronized int escanearAcotado(long desde, long hasta, int ventaDesde, int ventaHasta,
+                                            FiltroLinea filtro, VisitanteLinea visitante) {
+        int leidos = 0;
+        for (int b = 0; b * FILAS_POR_BLOQUE < filas; b++) {
+            if (fechaMaxima[b] < desde || fechaMinima[b] >= hasta
+                    || ventaMaxima[b] < ventaDesde || ventaMinima[b] > ventaHasta) {
+                continue;
+            }
+            leidos++;
+            int fin = Math.min(filas, (b + 1) * FILAS_POR_BLOQUE);
+            for (int f = b * FILAS_POR_BLOQUE; f < fin; f++) {
+                if (isActiva(f) && (filtro == null || filtro.acepta(f))) {
+                    visitante.visitar(f);
+                }
+            }
+        }
+        return leidos;
+    }
+
+    // Ejecuta una lectura, que puede repartirse entre varios hilos, sin altas ni bajas a la vez.
+    // Los hilos de la lectura usan los accesores por fila, que no toman el bloqueo
+    public synchronized <T> T leerExclusivo(Supplier<T> lectura) {
+        return lectura.get();
+    }
+
+    // Cuenta las filas activas que cumplen el filtro
+    public synchronized int contar(FiltroLinea filtro) {
+        int total = 0;
+        for (int f = 0; f < filas; f++) {
+            if (isActiva(f) && (filtro == null || filtro.acepta(f))) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    // Suma las unidades vendidas de las filas que cumplen el filtro
+    public synchronized long sumarCantidad(FiltroLinea filtro) {
+        long total = 0;
+        for (int f = 0; f < filas; f++) {
+            if (isActiva(f) && (filtro == null || filtro.acepta(f))) {
+                total += getCantidad(f);
+            }
+        }
+        return total;
+    }
+
+    // Suma el total final de las filas que cumplen el filtro
+    public synchronized double sumarTotal(FiltroLinea filtro) {
+        double total = 0;
+        for (int f = 0; f < filas; f++) {
+            if (isActiva(f) && (filtro == null || filtro.acepta(f))) {
+                total += getTotalDetalle(f);
+            }
+        }
+        return total;
+    }
+
+    // Accesores por fila
+    public int getFilas() { return filas; }
+    public synchronized int getBloques() { return (filas + FILAS_POR_BLOQUE - 1) / FILAS_POR_BLOQUE; }
+    public boolean isActiva(int fila) { return activo.trozo(fila).get(activo.desplazamiento(fila)) != 0; }
+    public int getVentaId(int fila) { return ventaId.trozo(fila).getInt(ventaId.desplazamiento(fila)); }
+    public int getProductoId(int fila) { return productoId.trozo(fila).getInt(productoId.desplazamiento(fila)); }
+    public int getClienteId(int fila) { return clienteId.trozo(fila).getInt(clienteId.desplazamiento(fila)); }
+    public long getFecha(int fila) { return fecha.trozo(fila).getLong(fecha.desplazamiento(fila)); }
+    public int getCantidad(int fila) { return cantidad.trozo(fila).getInt(cantidad.desplazamiento(fila)); }
+    public double getPrecioUnitario(int fila) { return precioUnitario.trozo(fila).getDouble(precioUnitario.desplazamiento(fila)); }
+    public double getSubtotalBase(int fila) { return subtotalBase.trozo(fila).getDouble(subtotalBase.desplazamiento(fila)); }
+    public double getIvaMonto(int fila) { return ivaMonto.trozo(fila).getDouble(ivaMonto.desplazamiento(fila)); }
+    public double getDescuentoMonto(int fila) { return descuentoMonto.trozo(fila).getDouble(descuentoMonto.desplazamiento(fila)); }
+    public double getTotalDetalle(int fila) { return totalDetalle.trozo(fila).getDouble(totalDetalle.desplazamiento(fila)); }
+
+    // Memoria fuera del heap reservada por todas las columnas
+    public synchronized long getBytesReservados() {
+        return capacidad * (4 * 4 + 8 * 6 + 1);
+    }
+
+    // Extiende el mínimo y máximo del bloque al que pertenece la fila
+    private void actualizarBloque(int fila, int venta, long millis) {
+        int b = fila / FILAS_POR_BLOQUE;
+        if (b == fechaMinima.length) {
+            int n = Math.max(4, b * 2);
+            fechaMinima = Arrays.copyOf(fechaMinima, n);
+            fechaMaxima = Arrays.copyOf(fechaMaxima, n);
+            ventaMinima = Arrays.copyOf(ventaMinima, n);
+            ventaMaxima = Arrays.copyOf(ventaMaxima, n);
+        }
+        if (fila % FILAS_POR_BLOQUE == 0) {
+            fechaMinima[b] = fechaMaxima[b] = millis;
+            ventaMinima[b] = ventaMaxima[b] = venta;
+        } else {
+            fechaMinima[b] = Math.min(fechaMinima[b], millis);
+            fechaMaxima[b] = Math.max(fechaMaxima[b], millis);
+            ventaMinima[b] = Math.min(ventaMinima[b], venta);
+            ventaMaxima[b] = Math.max(ventaMaxima[b], venta);
+        }
+    }
+
+    private void asegurarCapacidad(int requeridas) {
+        if (requeridas <= capacidad) {
+            return;
+        }
+        long nueva = capacidad;
+        while (nueva < requeridas) {
+            // Hasta completar el primer trozo se duplica; después se suma un trozo
+            nueva = nueva < FILAS_POR_TROZO ? Math.min(nueva * 2, FILAS_POR_TROZO) : nueva + FILAS_POR_TROZO;
+        }
+        for (Columna columna : columnas) {
+            columna.crecer(nueva);
+        }
+        capacidad = nueva;
+    }
+
+    // Columna de ancho fijo repartida en ByteBuffers directos de hasta FILAS_POR_TROZO filas
+    static final class Columna {
+        private final int ancho;
+        private ByteBuffer[] trozos;
+
+        Columna(int ancho) {
+            this.ancho = ancho;
+            this.trozos = new ByteBuffer[]{reservar(CAPACIDAD_INICIAL)};
+        }
+
+        ByteBuffer trozo(int fila) {
+            return trozos[fila >>> BITS_TROZO];
+        }
+
+        // Posición en bytes de la fila dentro de su trozo (como mucho FILAS_POR_TROZO * 8)
+        int desplazamiento(int fila) {
+            return (fila & MASCARA_TROZO) * ancho;
+        }
+
+        void crecer(long filas) {
+            int necesarios = (int) ((filas + FILAS_POR_TROZO - 1) >>> BITS_TROZO);
+            if (trozos[0].capacity() < FILAS_POR_TROZO * ancho) {
+                // El primer trozo aún no está completo: se copia a uno mayor
+                ByteBuffer nuevo = reservar((int) Math.min(filas, FILAS_POR_TROZO));
+                trozos[0].clear();
+                nuevo.put(trozos[0]);
+                trozos[0] = nuevo;
+            }
+            int actuales = trozos.length;
+            if (necesarios > actuales) {
+                trozos = Arrays.copyOf(trozos, necesarios);
+                for (int t = actuales; t < necesarios; t++) {
+                    trozos[t] = reservar(FILAS_POR_TROZO);
+                }
+            }
+        }
+
+        private ByteBuffer reservar(int filas) {
+            return ByteBuffer.allocateDirect(filas * ancho).order(ByteOrder.nativeOrder());
+        }
+    }
+}
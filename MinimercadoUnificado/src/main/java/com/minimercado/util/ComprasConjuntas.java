@@ -0,0 +1,257 @@
+/**
+ * Índice de productos comprados juntos (análisis de canasta).
+ * Guarda una matriz dispersa de coocurrencias: para cada par de productos, en
+ * cuántas ventas aparecieron juntos. Con ella sugiere, para el carrito en curso,
+ * los productos que más suelen acompañar a los que ya tiene.
+ *
+ * Características principales:
+ * - Altas incrementales con cada venta finalizada, en O(productos de la venta al cuadrado)
+ * - Pares en un MapaLargos (clave = los dos IDs en un long), sin objetos por par
+ * - Vecinos por producto para que las sugerencias solo miren los pares del carrito
+ * - Poda de los pares raros cuando se supera el máximo de pares, para acotar la memoria
+ *
+ * Notas técnicas:
+ * - El puntaje de un candidato es la suma, por producto del carrito, de la fracción de
+ *   sus ventas en las que también apareció el candidato (confianza de la regla)
+ * - Solo se sugieren pares vistos juntos al menos MIN_VENTAS_JUNTAS veces
+ * - De cada venta se toman como mucho MAX_PRODUCTOS_VENTA productos distintos
+ * - La poda elimina los pares con menos ventas juntas hasta dejar 3/4 del máximo; un
+ *   par podado vuelve a contar desde cero
+ * - Máximo de pares configurable con minimercado.comprasConjuntas.maxPares
+ * - Todos los métodos públicos están sincronizados
+ */
+package com.minimercado.util;
+
+import com.minimercado.modelo.DetalleVenta;
+import com.minimercado.modelo.Venta;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class ComprasConjuntas {
+    private static final int MAX_PARES = Integer.getInteger("minimercado.comprasConjuntas.maxPares", 200_000);
+    private static final int MAX_PRODUCTOS_VENTA = 32;
+    private static final int MIN_VENTAS_JUNTAS = 2;
+
+    // Producto sugerido con su puntaje y las ventas en que apareció con el carrito
+    public static class Sugerencia {
+        private final int productoId;
+        private final double puntaje;
+        private final long ventasJuntas;
+
+        private Sugerencia(int productoId, double puntaje, long ventasJuntas) {
+            this.productoId = productoId;
+            this.puntaje = puntaje;
+            this.ventasJuntas = ventasJuntas;
+        }
+
+        public int getProductoId() { return productoId; }
+        // Suma de confianzas: 0.5 = aparece en la mitad de las ventas de un producto del carrito
+        public double getPuntaje() { return puntaje; }
+        public long getVentasJuntas() { return ventasJuntas; }
+    }
+
+    // Par (menor, mayor) -> ventas en que aparecieron juntos
+    private final MapaLargos pares = new MapaLargos();
+    // Producto -> ventas en que apareció
+    private final MapaLargos ventasProducto = new MapaLargos();
+    // Producto -> {cantidad de vecinos, vecino1, vecino2, ...}
+    private final MapaEnteros<int[]> vecinos = new MapaEnteros<>();
+    private int podas;
+
+    // Suma una venta finalizada
+    public synchronized void agregarVenta(Venta venta) {
+        int[] productos = new int[venta.getDetalles().size()];
+        int n = 0;
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            if (detalle.getProducto() != null) {
+                productos[n++] = detalle.getProducto().getId();
+            }
+        }
+        aplicar(productos, n, 1);
+        if (pares.size() > MAX_PARES) {
+            podar(MAX_PARES * 3 / 4);
+        }
+    }
+
+    // Resta una venta eliminada a partir de sus líneas; debe llamarse antes de marcarlas
+    // como inactivas. Los pares podados no se restan
+    public synchronized void quitarVenta(ColumnasDetalleVenta columnas, int ventaId) {
+        // Productos de las líneas en un int[] que se duplica al llenarse (el visitante no
+        // puede reasignar variables locales, por eso van en arreglos de un elemento)
+        int[][] productos = {new int[8]};
+        int[] n = {0};
+        columnas.escanearAcotado(Long.MIN_VALUE, Long.MAX_VALUE, ventaId, ventaId,
+                fila -> columnas.getVentaId(fila) == ventaId, fila -> {
+                    if (n[0] == productos[0].length) {
+                        productos[0] = Arrays.copyOf(productos[0], n[0] * 2);
+                    }
+                    productos[0][n[0]++] = columnas.getProductoId(fila);
+                });
+        aplicar(productos[0], n[0], -1);
+    }
+
+    private void aplicar(int[] productos, int n, int signo) {
+        // Productos distintos de la venta, ordenados para formar las claves (menor, mayor)
+        Arrays.sort(productos, 0, n);
+        int distintos = 0;
+        for (int i = 0; i < n && distintos < MAX_PRODUCTOS_VENTA; i++) {
+            if (productos[i] > 0 && (distintos == 0 || productos[i] != productos[distintos - 1])) {
+                productos[distintos++] = productos[i];
+            }
+        }
+        for (int i = 0; i < distintos; i++) {
+            sumar(ventasProducto, productos[i], signo);
+            for (int j = i + 1; j < distintos; j++) {
+                long juntas = sumar(pares, clave(productos[i], productos[j]), signo);
+                if (signo > 0 && juntas == 1) {
+                    agregarVecino(productos[i], productos[j]);
+                    agregarVecino(productos[j], productos[i]);
+                } else if (signo < 0 && juntas == 0) {
+                    quitarVecino(productos[i], productos[j]);
+                    quitarVecino(productos[j], productos[i]);
+                }
+            }
+        }
+    }
+
+    // Las bajas solo restan contadores existentes: un par podado no debe quedar negativo.
+    // Devuelve el nuevo valor, o -1 si no se restó nada
+    private static long sumar(MapaLargos mapa, long clave, int signo) {
+        if (signo < 0 && mapa.get(clave) <= 0) {
+            return -1;
+        }
+        return mapa.sumar(clave, signo);
+    }
+
+    private static long clave(int menor, int mayor) {
+        return ((long) menor << 32) | (mayor & 0xFFFFFFFFL);
+    }
+
+    private void agregarVecino(int producto, int vecino) {
+        int[] lista = vecinos.get(producto);
+        if (lista == null) {
+            lista = new int[5];
+            vecinos.put(producto, lista);
+        } else if (lista[0] + 1 == lista.length) {
+            lista = Arrays.copyOf(lista, lista.length * 2);
+            vecinos.put(producto, lista);
+        }
+        lista[++lista[0]] = vecino;
+    }
+
+    private void quitarVecino(int producto, int vecino) {
+        int[] lista = vecinos.get(producto);
+        if (lista == null) {
+            return;
+        }
+        for (int i = 1; i <= lista[0]; i++) {
+            if (lista[i] == vecino) {
+                // El último ocupa el hueco
+                lista[i] = lista[lista[0]--];
+                break;
+            }
+        }
+        if (lista[0] == 0) {
+            vecinos.remove(producto);
+        }
+    }
+
+    // Elimina los pares con menos ventas juntas hasta dejar como mucho objetivo pares
+    private void podar(int objetivo) {
+        // Histograma de los contadores bajos para elegir el umbral en una sola pasada
+        long[] histograma = new long[64];
+        pares.forEach((clave, valor) -> histograma[(int) Math.min(valor, histograma.length - 1)]++);
+        long quedan = pares.size();
+        int umbral = 0;
+        // La última casilla agrupa los contadores altos: esos pares siempre se conservan
+        while (quedan > objetivo && umbral < histograma.length - 2) {
+            quedan -= histograma[++umbral];
+        }
+        int minimo = umbral + 1;
+        pares.retener((clave, valor) -> valor >= minimo);
+        // Los vecinos se rehacen desde los pares que quedaron
+        vecinos.clear();
+        pares.forEach((clave, valor) -> {
+            int a = (int) (clave >>> 32);
+            int b = (int) clave;
+            agregarVecino(a, b);
+            agregarVecino(b, a);
+        });
+        podas++;
+    }
+
+    // Los k productos más asociados a los del carrito, excluyendo los que ya tiene
+    public synchronized List<Sugerencia> sugerir(int[] carrito, int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        // Candidato -> {puntaje, ventas juntas}
+        MapaEnteros<double[]> candidatos = new MapaEnteros<>();
+        for (int producto : carrito) {
+            int[] lista = vecinos.get(producto);
+            long ventas = ventasProducto.get(producto);
+            if (lista == null || ventas == 0) {
+                continue;
+            }
+            for (int i = 1; i <= lista[0]; i++) {
+                int vecino = lista[i];
+                long juntas = pares.get(producto < vecino ? clave(producto, vecino) : clave(vecino, producto));
+                if (juntas < MIN_VENTAS_JUNTAS || contiene(carrito, vecino)) {
+                    continue;
+                }
+                double[] acumulado = candidatos.get(vecino);
+                if (acumulado == null) {
+                    acumulado = new double[2];
+                    candidatos.put(vecino, acumulado);
+                }
+                acumulado[0] += (double) juntas / ventas;
+                acumulado[1] += juntas;
+            }
+        }
+        // Selección de los k mayores con un montículo mínimo
+        PriorityQueue<Sugerencia> mejores = new PriorityQueue<>(k + 1,
+                (a, b) -> Double.compare(a.puntaje, b.puntaje));
+        candidatos.forEachClave(id -> {
+            double[] acumulado = candidatos.get(id);
+            if (mejores.size() < k) {
+                mejores.add(new Sugerencia(id, acumulado[0], (long) acumulado[1]));
+            } else if (acumulado[0] > mejores.peek().puntaje) {
+                mejores.poll();
+                mejores.add(new Sugerencia(id, acumulado[0], (long) acumulado[1]));
+            }
+        });
+        List<Sugerencia> resultado = new ArrayList<>(mejores.size());
+        while (!mejores.isEmpty()) {
+            resultado.add(mejores.poll());
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    private static boolean contiene(int[] ids, int id) {
+        for (int otro : ids) {
+            if (otro == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized int getPares() {
+        return pares.size();
+    }
+
+    public synchronized int getPodas() {
+        return podas;
+    }
+
+    // Memoria aproximada de los pares y las listas de vecinos
+    public synchronized long getBytesAproximados() {
+        long[] bytes = {(long) pares.size() * 2 * 16};
+        vecinos.forEachValor(lista -> bytes[0] += 16 + 4L * lista.length);
+        return bytes[0];
+    }
+}
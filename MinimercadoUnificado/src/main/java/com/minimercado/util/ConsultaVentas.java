@@ -0,0 +1,120 @@
+/**
+ * Criterios de una consulta sobre el historial de ventas.
+ * Se arma con setters y se entrega a ControladorVenta.consultar(), que evalúa
+ * los filtros sobre índices y columnas antes de materializar objetos Venta.
+ *
+ * Características principales:
+ * - Rango de fechas [desde, hasta), cliente, producto y total mínimo
+ * - Orden por fecha, ID o total, ascendente o descendente
+ * - Paginación con desplazamiento y límite
+ *
+ * Notas técnicas:
+ * - Los criterios sin asignar no filtran (null en fechas, 0 en IDs, -1 en el total)
+ * - El límite por defecto es ilimitado
+ */
+package com.minimercado.util;
+
+import java.util.Date;
+
+public class ConsultaVentas {
+    // Orden de los resultados
+    public enum Orden {
+        FECHA_ASC, FECHA_DESC, ID_ASC, ID_DESC, TOTAL_ASC, TOTAL_DESC
+    }
+
+    // Criterios de la consulta
+    private Date desde;                  // Fecha inicial incluida (null = sin límite)
+    private Date hasta;                  // Fecha final excluida (null = sin límite)
+    private int clienteId;               // Cliente de las ventas (0 = cualquiera)
+    private int productoId;              // Producto que debe aparecer en la venta (0 = cualquiera)
+    private double totalMinimo = -1;     // Total mínimo de la venta (-1 = cualquiera)
+    private int desplazamiento;          // Resultados a omitir al principio
+    private int limite = Integer.MAX_VALUE; // Máximo de resultados
+    private Orden orden = Orden.FECHA_ASC;
+
+    // Getters y Setters
+    public Date getDesde() {
+        return desde;
+    }
+
+    public void setDesde(Date desde) {
+        this.desde = desde;
+    }
+
+    public Date getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(Date hasta) {
+        this.hasta = hasta;
+    }
+
+    public int getClienteId() {
+        return clienteId;
+    }
+
+    public void setClienteId(int clienteId) {
+        this.clienteId = clienteId;
+    }
+
+    public int getProductoId() {
+        return productoId;
+    }
+
+    public void setProductoId(int productoId) {
+        this.productoId = productoId;
+    }
+
+    public double getTotalMinimo() {
+        return totalMinimo;
+    }
+
+    public void setTotalMinimo(double totalMinimo) {
+        this.totalMinimo = totalMinimo;
+    }
+
+    public int getDesplazamiento() {
+        return desplazamiento;
+    }
+
+    public void setDesplazamiento(int desplazamiento) {
+        this.desplazamiento = Math.max(0, desplazamiento);
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public void setLimite(int limite) {
+        this.limite = Math.max(0, limite);
+    }
+
+    public Orden getOrden() {
+        return orden;
+    }
+
+    public void setOrden(Orden orden) {
+        this.orden = orden != null ? orden : Orden.FECHA_ASC;
+    }
+
+    // Límites del rango en milisegundos
+    long getDesdeMillis() {
+        return desde != null ? desde.getTime() : Long.MIN_VALUE;
+    }
+
+    long getHastaMillis() {
+        return hasta != null ? hasta.getTime() : Long.MAX_VALUE;
+    }
+
+    boolean tieneRango() {
+        return desde != null || hasta != null;
+    }
+
+    // Método para representar la consulta como String
+    @Override
+    public String toString() {
+        return String.format("desde=%s, hasta=%s, cliente=%d, producto=%d, totalMinimo=%.2f, orden=%s, desplazamiento=%d, limite=%s",
+                desde, hasta, clienteId, productoId, totalMinimo, orden, desplazamiento,
+                limite == Integer.MAX_VALUE ? "sin límite" : String.valueOf(limite));
+    }
+}
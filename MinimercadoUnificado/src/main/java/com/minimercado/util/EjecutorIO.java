@@ -0,0 +1,159 @@
+/**
+ * Capa de ejecución de E/S fuera del hilo de eventos de Swing (EDT).
+ * Las escrituras se encolan en un único hilo escritor, en orden, y las cargas
+ * se ejecutan en SwingWorker y entregan su resultado en el EDT.
+ *
+ * Características principales:
+ * - Hilo escritor único: los archivos se escriben en el mismo orden en que se pidieron
+ * - Cargas asíncronas con resultado o error entregados en el EDT
+ * - Cargas por lotes: los elementos se publican al EDT agrupados, no de uno en uno
+ * - Modo de verificación (-Dminimercado.verificarEDT=true): cualquier E/S de
+ *   archivo en el EDT lanza IllegalStateException
+ *
+ * Notas técnicas:
+ * - Quien encola una escritura debe pasar una copia (instantánea) de los datos
+ * - Al cerrar la aplicación un gancho de apagado espera a que terminen las escrituras pendientes
+ * - Los errores de las tareas se registran con printStackTrace, como en el resto del sistema
+ */
+package com.minimercado.util;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+public class EjecutorIO {
+    // Activa la verificación de E/S en el EDT
+    private static final boolean VERIFICAR_EDT = Boolean.getBoolean("minimercado.verificarEDT");
+    // Segundos que se esperan las escrituras pendientes al cerrar
+    private static final int ESPERA_CIERRE_SEGUNDOS = 30;
+
+    private static final AtomicInteger PENDIENTES = new AtomicInteger();
+    private static final ExecutorService ESCRITOR = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "minimercado-escritor");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(EjecutorIO::esperarEscrituras, "minimercado-cierre"));
+    }
+
+    // Productor de una carga por lotes: entrega cada elemento al consumidor recibido
+    public interface ProductorLotes<T> {
+        void producir(Consumer<T> publicar) throws Exception;
+    }
+
+    private EjecutorIO() {
+    }
+
+    // Encola una escritura en el hilo escritor; la tarea debe trabajar sobre una instantánea
+    public static Future<?> escribir(Runnable tarea) {
+        PENDIENTES.incrementAndGet();
+        return ESCRITOR.submit(() -> {
+            try {
+                tarea.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                PENDIENTES.decrementAndGet();
+            }
+        });
+    }
+
+    // Ejecuta la carga en segundo plano y entrega el resultado (o el error) en el EDT
+    public static <T> SwingWorker<T, Void> cargar(Callable<T> carga, Consumer<T> alTerminar, Consumer<Exception> alFallar) {
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return carga.call();
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    alTerminar.accept(get());
+                } catch (Exception e) {
+                    Exception causa = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    causa.printStackTrace();
+                    if (alFallar != null) {
+                        alFallar.accept(causa);
+                    }
+                }
+            }
+        };
+        worker.execute();
+        return worker;
+    }
+
+    // Ejecuta el productor en segundo plano; el EDT recibe los elementos agrupados en lotes
+    // (SwingWorker une las publicaciones pendientes) y al final se invoca alTerminar
+    public static <T> SwingWorker<Void, T> cargarPorLotes(ProductorLotes<T> productor, Consumer<List<T>> alRecibirLote,
+                                                          Runnable alTerminar) {
+        SwingWorker<Void, T> worker = new SwingWorker<Void, T>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                productor.producir(elemento -> {
+                    if (!isCancelled()) {
+                        publish(elemento);
+                    }
+                });
+                return null;
+            }
+
+            @Override
+            protected void process(List<T> lote) {
+                if (!isCancelled()) {
+                    alRecibirLote.accept(lote);
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    get();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                if (alTerminar != null) {
+                    alTerminar.run();
+                }
+            }
+        };
+        worker.execute();
+        return worker;
+    }
+
+    // En modo de verificación, falla si se intenta E/S de archivo desde el EDT
+    public static void verificarFueraDelEDT(String operacion) {
+        if (VERIFICAR_EDT && SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("E/S de archivo en el hilo de eventos de Swing: " + operacion);
+        }
+    }
+
+    // Número de escrituras encoladas o en curso
+    public static int getEscriturasPendientes() {
+        return PENDIENTES.get();
+    }
+
+    // Espera a que se completen las escrituras encoladas hasta el momento
+    public static void esperarEscrituras() {
+        try {
+            ESCRITOR.submit(() -> { }).get(ESPERA_CIERRE_SEGUNDOS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
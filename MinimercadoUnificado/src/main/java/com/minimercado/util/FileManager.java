@@ -5,7 +5,7 @@
  * 
  * Funcionalidades principales:
  * - Persistencia de datos en archivos CSV
- * - Generación de facturas en PDF
+ * - Generación de facturas y cierres de caja en PDF
  * - Manejo de directorios y archivos
  * - Inicialización del sistema
  * 
@@ -14,6 +14,7 @@
  * - Maneja archivos CSV para datos estructurados
  * - Implementa manejo de errores robusto
  * - Mantiene la estructura de directorios
+ * - Las operaciones públicas verifican que no se ejecuten en el EDT (modo minimercado.verificarEDT)
  * 
  * Estructura de archivos:
  * - data/
@@ -21,8 +22,14 @@
  *   - productos.csv
  *   - ventas.csv
  *   - detalles_venta.csv
+ *   - diagnostico_edt.log
+ *   - acumulados_ventas.bin
+ *   - clientes_distintos.bin
+ *   - turnos.csv
  *   - facturas/
  *     - Factura_X.pdf
+ *   - cierres/
+ *     - Cierre_Turno_X.pdf
  */
 package com.minimercado.util;
 
@@ -30,16 +37,28 @@ import com.minimercado.modelo.*;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.text.SimpleDateFormat;
 import java.util.Locale;
 import java.text.NumberFormat;
 import java.text.ParseException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class FileManager {
     // Definimos la configuración regional para Colombia
@@ -47,10 +66,15 @@ public class FileManager {
     
     private static final String DATA_DIR = "data";
     private static final String FACTURAS_DIR = "facturas";
+    private static final String CIERRES_DIR = "cierres";
     private static final String CLIENTES_FILE = "clientes.csv";
     private static final String PRODUCTOS_FILE = "productos.csv";
     private static final String VENTAS_FILE = "ventas.csv";
     private static final String DETALLES_FILE = "detalles_venta.csv";
+    private static final String DIAGNOSTICO_EDT_FILE = "diagnostico_edt.log";
+    private static final String ACUMULADOS_FILE = "acumulados_ventas.bin";
+    private static final String CLIENTES_DISTINTOS_FILE = "clientes_distintos.bin";
+    private static final String TURNOS_FILE = "turnos.csv";
     
     static {
         createDirectories();
@@ -61,6 +85,7 @@ public class FileManager {
         try {
             Files.createDirectories(Paths.get(DATA_DIR));
             Files.createDirectories(Paths.get(DATA_DIR, FACTURAS_DIR));
+            Files.createDirectories(Paths.get(DATA_DIR, CIERRES_DIR));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -76,6 +101,7 @@ public class FileManager {
     }
     
     public static List<Cliente> cargarClientes() {
+        EjecutorIO.verificarFueraDelEDT("cargarClientes");
         List<Cliente> clientes = new ArrayList<>();
         Path file = Paths.get(DATA_DIR, CLIENTES_FILE);
         
@@ -95,6 +121,10 @@ public class FileManager {
                         cliente.setEmail(data[2]);
                         cliente.setTelefono(data[3]);
                         cliente.setDireccion(data[4]);
+                        // El documento es opcional para mantener compatibilidad con archivos anteriores
+                        if (data.length >= 6 && !data[5].isEmpty()) {
+                            cliente.setDocumento(data[5]);
+                        }
                         clientes.add(cliente);
                     }
                 } catch (Exception e) {
@@ -109,11 +139,13 @@ public class FileManager {
     }
     
     public static void guardarClientes(List<Cliente> clientes) {
+        EjecutorIO.verificarFueraDelEDT("guardarClientes");
         Path file = Paths.get(DATA_DIR, CLIENTES_FILE);
         try (BufferedWriter writer = Files.newBufferedWriter(file)) {
             for (Cliente c : clientes) {
-                writer.write(String.format("%d,%s,%s,%s,%s\n",
-                    c.getId(), c.getNombre(), c.getEmail(), c.getTelefono(), c.getDireccion()));
+                writer.write(String.format("%d,%s,%s,%s,%s,%s\n",
+                    c.getId(), c.getNombre(), c.getEmail(), c.getTelefono(), c.getDireccion(),
+                    c.getDocumento() != null ? c.getDocumento() : ""));
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -121,6 +153,7 @@ public class FileManager {
     }
     
     public static List<Producto> cargarProductos() {
+        EjecutorIO.verificarFueraDelEDT("cargarProductos");
         List<Producto> productos = new ArrayList<>();
         Path file = Paths.get(DATA_DIR, PRODUCTOS_FILE);
         
@@ -136,7 +169,7 @@ public class FileManager {
             while ((line = reader.readLine()) != null) {
                 try {
                     String[] data = line.split(",");
-                    if (data.length >= 7) { // Esperamos al menos 7 columnas (ID, Nombre, Desc, Precio, IVA, Descuento, Stock)
+                    if (data.length >= 7) { // Esperamos al menos 7 columnas (ID, Nombre, Desc, Precio, IVA, Descuento, Stock[, Código[, Stock mínimo]])
                         Producto producto = new Producto();
                         producto.setId(Integer.parseInt(data[0]));
                         producto.setNombre(data[1]);
@@ -154,6 +187,15 @@ public class FileManager {
                         
                         producto.setStock(Integer.parseInt(data[6]));
                         
+                        // El código de barras es opcional para mantener compatibilidad con archivos anteriores
+                        if (data.length >= 8 && !data[7].isEmpty()) {
+                            producto.setCodigo(data[7]);
+                        }
+                        // El stock mínimo también es opcional: sin él, el producto no genera alertas
+                        if (data.length >= 9 && !data[8].isEmpty()) {
+                            producto.setStockMinimo(Integer.parseInt(data[8]));
+                        }
+                        
                         productos.add(producto);
                     } else {
                          System.err.println("Línea de producto incompleta en " + PRODUCTOS_FILE + ", se esperaban 7 columnas pero se encontraron " + data.length + ": " + line);
@@ -173,15 +215,18 @@ public class FileManager {
     }
     
     public static void guardarProductos(List<Producto> productos) {
+        EjecutorIO.verificarFueraDelEDT("guardarProductos");
         Path file = Paths.get(DATA_DIR, PRODUCTOS_FILE);
         try (BufferedWriter writer = Files.newBufferedWriter(file)) {
             for (Producto p : productos) {
                 // Guardamos IVA y Descuento como porcentajes usando el LOCALE para consistencia
-                writer.write(String.format(LOCALE, "%d,%s,%s,%.2f,%.2f,%.2f,%d\n",
+                writer.write(String.format(LOCALE, "%d,%s,%s,%.2f,%.2f,%.2f,%d,%s,%d\n",
                     p.getId(), p.getNombre(), p.getDescripcion(), p.getPrecio(),
                     p.getIva() * 100.0, // Convertimos de decimal a porcentaje (ej: 0.15 -> 15.00)
                     p.getDescuento() * 100.0, // Convertimos de decimal a porcentaje (ej: 0.05 -> 5.00)
-                    p.getStock()));
+                    p.getStock(),
+                    p.getCodigo() != null ? p.getCodigo() : "",
+                    p.getStockMinimo()));
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -189,156 +234,577 @@ public class FileManager {
     }
 
     public static List<Venta> cargarVentas() {
+        return cargarVentas(id -> true);
+    }
+    
+    // Carga una única venta del historial en disco, o null si no existe
+    public static Venta cargarVenta(int id) {
+        List<Venta> ventas = cargarVentas(ventaId -> ventaId == id);
+        return ventas.isEmpty() ? null : ventas.get(0);
+    }
+    
+    // Carga las ventas cuyo ID cumple el filtro; los catálogos se leen una sola vez por carga
+    public static List<Venta> cargarVentas(IntPredicate filtro) {
+        return cargarVentas(filtro, resolverClientes(), resolverProductos());
+    }
+    
+    // Carga las ventas cuyo ID cumple el filtro resolviendo clientes y productos con las
+    // funciones dadas, para compartir las instancias del catálogo en memoria
+    public static List<Venta> cargarVentas(IntPredicate filtro, IntFunction<Cliente> clientes, IntFunction<Producto> productos) {
         List<Venta> ventas = new ArrayList<>();
+        try (Stream<Venta> stream = recorrerVentas(filtro, clientes, productos)) {
+            stream.forEachOrdered(ventas::add);
+        }
+        return ventas;
+    }
+    
+    // Devuelve un Stream perezoso de las ventas cuyo ID cumple el filtro.
+    // Lee ventas.csv y detalles_venta.csv en paralelo (merge) con memoria constante,
+    // admite terminación temprana y división para procesamiento paralelo.
+    // El Stream debe cerrarse (try-with-resources) para liberar los archivos.
+    public static Stream<Venta> recorrerVentas(IntPredicate filtro, IntFunction<Cliente> clientes, IntFunction<Producto> productos) {
+        return recorrerVentas(filtro, clientes, productos, null);
+    }
+    
+    // Igual que recorrerVentas, registrando además en posiciones (si no es null) dónde está
+    // cada venta recorrida, para leerla después por acceso directo con leerVentasEn
+    public static Stream<Venta> recorrerVentas(IntPredicate filtro, IntFunction<Cliente> clientes, IntFunction<Producto> productos,
+                                               PosicionesVentas posiciones) {
+        return recorrerVentasSinResolver(filtro, posiciones)
+                .map(venta -> venta.aVenta(clientes, productos))
+                .filter(Objects::nonNull);
+    }
+    
+    // Lee las ventas cuyo ID cumple el filtro sin resolver cliente ni productos. No consulta
+    // el catálogo en memoria, así que puede llamarse en segundo plano aunque el EDT lo modifique.
+    // Si posiciones no es null, registra en ella la posición de todas las ventas recorridas
+    public static List<VentaSinResolver> leerVentas(IntPredicate filtro, PosicionesVentas posiciones) {
+        List<VentaSinResolver> ventas = new ArrayList<>();
+        try (Stream<VentaSinResolver> stream = recorrerVentasSinResolver(filtro, posiciones)) {
+            stream.forEachOrdered(ventas::add);
+        }
+        return ventas;
+    }
+    
+    // Lee sin resolver las ventas indicadas saltando a sus posiciones, sin recorrer el historial.
+    // Cada venta se valida (ID de la línea de venta, ID y cantidad de sus detalles); las que no
+    // tienen posición o cuya posición quedó desactualizada no se devuelven y deben leerse
+    // con leerVentas
+    public static List<VentaSinResolver> leerVentasEn(int[] ids, PosicionesVentas posiciones) {
+        EjecutorIO.verificarFueraDelEDT("leerVentasEn");
+        List<VentaSinResolver> ventas = new ArrayList<>(ids.length);
         Path ventasFile = Paths.get(DATA_DIR, VENTAS_FILE);
         Path detallesFile = Paths.get(DATA_DIR, DETALLES_FILE);
-        
         if (!Files.exists(ventasFile) || !Files.exists(detallesFile)) {
             return ventas;
         }
+        try (LectorLineas lectorVentas = new LectorLineas(FileChannel.open(ventasFile));
+             LectorLineas lectorDetalles = new LectorLineas(FileChannel.open(detallesFile))) {
+            for (int id : ids) {
+                long[] posicion = posiciones.obtener(id);
+                if (posicion != null) {
+                    VentaSinResolver venta = leerVentaEn(id, posicion, lectorVentas, lectorDetalles);
+                    if (venta != null) {
+                        ventas.add(venta);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return ventas;
+    }
+    
+    // Lee una venta en su posición; null si las líneas encontradas no son las esperadas
+    private static VentaSinResolver leerVentaEn(int id, long[] posicion, LectorLineas lectorVentas,
+                                                LectorLineas lectorDetalles) throws IOException {
+        if (!lectorVentas.irAInicioDeLinea(posicion[0])) {
+            return null;
+        }
+        String line = lectorVentas.leerLinea();
+        String[] data = line != null ? line.split(",") : null;
+        if (data == null || data.length < 6 || !data[0].equals(String.valueOf(id))) {
+            return null;
+        }
+        int lineas = (int) posicion[2];
+        List<String[]> detalles = new ArrayList<>(lineas);
+        if (lineas > 0) {
+            if (!lectorDetalles.irAInicioDeLinea(posicion[1])) {
+                return null;
+            }
+            // Se leen los detalles contiguos de la venta: deben ser exactamente los registrados
+            String detalle;
+            while (detalles.size() <= lineas && (detalle = lectorDetalles.leerLinea()) != null) {
+                String[] campos = detalle.split(",");
+                if (campos.length < 6 || !campos[1].equals(data[0])) {
+                    break;
+                }
+                detalles.add(campos);
+            }
+            if (detalles.size() != lineas) {
+                return null;
+            }
+        }
+        return new VentaSinResolver(id, data, detalles);
+    }
+    
+    private static Stream<VentaSinResolver> recorrerVentasSinResolver(IntPredicate filtro, PosicionesVentas posiciones) {
+        EjecutorIO.verificarFueraDelEDT("recorrerVentas");
+        Path ventasFile = Paths.get(DATA_DIR, VENTAS_FILE);
+        Path detallesFile = Paths.get(DATA_DIR, DETALLES_FILE);
         
+        if (!Files.exists(ventasFile) || !Files.exists(detallesFile)) {
+            return Stream.empty();
+        }
         try {
-            Map<Integer, Venta> ventasMap = new HashMap<>();
-            try (BufferedReader reader = Files.newBufferedReader(ventasFile)) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    try {
-                        String[] data = line.split(",");
-                        if (data.length >= 6) { // ID, Fecha, ClienteID, Subtotal, IVA%, Total
-                            Venta venta = new Venta();
-                            venta.setId(Integer.parseInt(data[0]));
-                            venta.setFecha(new Date(Long.parseLong(data[1])));
-                            // Asignamos el cliente (se busca por ID)
-                            venta.setCliente(buscarCliente(Integer.parseInt(data[2])));
-                            // No asignamos subtotal, IVA% ni total directamente al cargar, se recalcularán
-                            // venta.setSubtotal(Double.parseDouble(data[3]));
-                            // venta.setIva(Double.parseDouble(data[4])); // Si quisieramos guardar el IVA% de la venta
-                            // venta.setTotal(Double.parseDouble(data[5]));
-                            ventasMap.put(venta.getId(), venta);
-                        } else {
-                            System.err.println("Línea de venta incompleta, se esperaban 6 columnas pero se encontraron " + data.length + ": " + line);
+            LectorVentas lector = new LectorVentas(ventasFile, detallesFile, filtro, posiciones);
+            return StreamSupport.stream(lector, false).onClose(lector::cerrar);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return Stream.empty();
+        }
+    }
+    
+    /**
+     * Venta leída de disco con sus campos tal como están en los archivos, sin resolver
+     * cliente ni productos. Se lee en segundo plano y se resuelve después, con aVenta,
+     * contra el catálogo en memoria en el hilo que lo modifica.
+     */
+    public static final class VentaSinResolver {
+        private final int id;
+        private final String[] venta;
+        private final List<String[]> detalles;
+        
+        private VentaSinResolver(int id, String[] venta, List<String[]> detalles) {
+            this.id = id;
+            this.venta = venta;
+            this.detalles = detalles;
+        }
+        
+        public int getId() {
+            return id;
+        }
+        
+        // Construye la Venta resolviendo cliente y productos por ID; null si la línea de venta no es válida
+        public Venta aVenta(IntFunction<Cliente> clientes, IntFunction<Producto> productos) {
+            Venta resultado = new Venta();
+            try {
+                resultado.setId(id);
+                resultado.setFecha(new Date(Long.parseLong(venta[1])));
+                // Asignamos el cliente (se busca por ID)
+                resultado.setCliente(clientes.apply(Integer.parseInt(venta[2])));
+                // Medio de pago y turno (los archivos anteriores no los tienen)
+                if (venta.length >= 9) {
+                    resultado.setMedioPago(venta[7]);
+                    resultado.setTurnoId(Integer.parseInt(venta[8]));
+                }
+                // No asignamos subtotal, IVA ni total directamente al cargar, se recalcularán
+            } catch (NumberFormatException e) {
+                System.err.println("Error de formato numérico al procesar línea de venta: " + String.join(",", venta));
+                e.printStackTrace();
+                return null;
+            } catch (Exception e) {
+                System.err.println("Error al procesar línea de venta: " + String.join(",", venta));
+                e.printStackTrace();
+                return null;
+            }
+            for (String[] data : detalles) {
+                try {
+                    Producto producto = productos.apply(Integer.parseInt(data[2]));
+                    if (producto != null) {
+                        DetalleVenta detalle = new DetalleVenta();
+                        detalle.setId(Integer.parseInt(data[0]));
+                        detalle.setProducto(producto); // Establece precioUnitario y recalcula totales del detalle
+                        detalle.setCantidad(Integer.parseInt(data[3]));
+                        // Precio base y tasas con que se vendió; los archivos anteriores no los
+                        // tienen y se quedan con los del catálogo actual
+                        if (data.length >= 9) {
+                            detalle.setValoresVenta(Double.parseDouble(data[6]), Double.parseDouble(data[7]),
+                                    Double.parseDouble(data[8]));
                         }
-                    } catch (NumberFormatException e) {
-                        System.err.println("Error de formato numérico al procesar línea de venta: " + line);
-                        e.printStackTrace();
-                    } catch (Exception e) {
-                        System.err.println("Error al procesar línea de venta: " + line);
-                        e.printStackTrace();
+                        resultado.agregarDetalle(detalle);
+                    } else {
+                        System.err.println("Producto no encontrado para el detalle: " + String.join(",", data));
                     }
+                } catch (NumberFormatException e) {
+                    System.err.println("Error de formato numérico al procesar línea de detalle: " + String.join(",", data));
+                    e.printStackTrace();
                 }
             }
-            try (BufferedReader reader = Files.newBufferedReader(detallesFile)) {
-                String line;
-                NumberFormat nf = NumberFormat.getInstance(LOCALE);
-                while ((line = reader.readLine()) != null) {
+            // Recalcular totales de venta después de cargar todos los detalles
+            resultado.recalcularTotales();
+            return resultado;
+        }
+    }
+    
+    /**
+     * Spliterator que une ventas.csv y detalles_venta.csv línea a línea.
+     * Ambos archivos se escriben en el mismo orden de ventas (IDs crecientes),
+     * por lo que los detalles de cada venta son contiguos y basta una línea de lectura
+     * anticipada. La división para paralelismo la hace AbstractSpliterator por lotes.
+     * Solo separa los campos: cliente y productos se resuelven en VentaSinResolver.
+     * Opcionalmente registra la posición en disco de cada venta recorrida.
+     */
+    private static class LectorVentas extends Spliterators.AbstractSpliterator<VentaSinResolver> {
+        private final LectorLineas ventasReader;
+        private final LectorLineas detallesReader;
+        private final IntPredicate filtro;
+        private final PosicionesVentas posiciones;
+        // Detalle leído por adelantado que pertenece a una venta posterior, y su posición
+        private String[] detallePendiente;
+        private long posicionPendiente;
+        // Posición del primer detalle de la última venta leída y cuántos tiene
+        private long posicionDetalles;
+        private int lineasDetalle;
+        
+        LectorVentas(Path ventasFile, Path detallesFile, IntPredicate filtro, PosicionesVentas posiciones) throws IOException {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.filtro = filtro;
+            this.posiciones = posiciones;
+            this.ventasReader = new LectorLineas(FileChannel.open(ventasFile));
+            LectorLineas detalles;
+            try {
+                detalles = new LectorLineas(FileChannel.open(detallesFile));
+            } catch (IOException e) {
+                ventasReader.close();
+                throw e;
+            }
+            this.detallesReader = detalles;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super VentaSinResolver> action) {
+            try {
+                while (true) {
+                    long posicionVenta = ventasReader.getPosicion();
+                    String line = ventasReader.leerLinea();
+                    if (line == null) {
+                        return false;
+                    }
+                    String[] data = line.split(",");
+                    if (data.length < 6) { // ID, Fecha, ClienteID, Subtotal, IVA%, Total
+                        System.err.println("Línea de venta incompleta, se esperaban 6 columnas pero se encontraron " + data.length + ": " + line);
+                        continue;
+                    }
+                    int id;
                     try {
-                        String[] data = line.split(",");
-                        if (data.length >= 6) { // ID, VentaID, ProductoID, Cantidad, PrecioUnitario, SubtotalDetalle
-                            DetalleVenta detalle = new DetalleVenta();
-                            detalle.setId(Integer.parseInt(data[0]));
-                            int ventaId = Integer.parseInt(data[1]);
-                            Producto producto = buscarProducto(Integer.parseInt(data[2]));
-                            if (producto != null) {
-                                detalle.setProducto(producto); // Esto debería establecer precioUnitario y recalcular totales del detalle
-                                detalle.setCantidad(Integer.parseInt(data[3]));
-                                // No asignamos precioUnitario ni subtotal directamente al cargar, se calculan en DetalleVenta
-                                // detalle.setPrecioUnitario(nf.parse(data[4]).doubleValue());
-                                // detalle.setSubtotalBase(nf.parse(data[5]).doubleValue());
-                                Venta venta = ventasMap.get(ventaId);
-                                if (venta != null) {
-                                    venta.agregarDetalle(detalle); // Agregar detalle recalculará los totales de la venta
-                                }
-                            } else {
-                                System.err.println("Producto no encontrado para el detalle: " + line);
-                            }
-                        } else {
-                             System.err.println("Línea de detalle de venta incompleta, se esperaban 6 columnas pero se encontraron " + data.length + ": " + line);
-                        }
+                        id = Integer.parseInt(data[0]);
                     } catch (NumberFormatException e) {
-                         System.err.println("Error de formato numérico al procesar línea de detalle: " + line);
-                         e.printStackTrace();
-                    } catch (Exception e) {
-                        System.err.println("Error al procesar línea de detalle: " + line);
-                        e.printStackTrace();
+                        System.err.println("Error de formato numérico al procesar línea de venta: " + line);
+                        continue;
+                    }
+                    boolean incluida = filtro.test(id);
+                    List<String[]> detalles = leerDetalles(id, incluida);
+                    if (posiciones != null) {
+                        posiciones.agregar(id, posicionVenta, posicionDetalles, lineasDetalle);
+                    }
+                    if (incluida) {
+                        action.accept(new VentaSinResolver(id, data, detalles));
+                        return true;
                     }
                 }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-            
-            ventas.addAll(ventasMap.values());
-            // Recalcular totales de venta después de cargar todos los detalles
-            for (Venta venta : ventas) {
-                venta.recalcularTotales();
+        }
+        
+        // Consume los detalles contiguos de la venta; si no está incluida solo los descarta
+        private List<String[]> leerDetalles(int ventaId, boolean incluida) throws IOException {
+            List<String[]> detalles = new ArrayList<>();
+            posicionDetalles = -1;
+            lineasDetalle = 0;
+            while (true) {
+                String[] data = detallePendiente;
+                long posicion = posicionPendiente;
+                detallePendiente = null;
+                if (data == null) {
+                    posicion = detallesReader.getPosicion();
+                    String line = detallesReader.leerLinea();
+                    if (line == null) {
+                        return detalles;
+                    }
+                    data = line.split(",");
+                    if (data.length < 6) { // ID, VentaID, ProductoID, Cantidad, PrecioUnitario, SubtotalDetalle[, PrecioBase, TasaIVA, TasaDescuento]
+                        System.err.println("Línea de detalle de venta incompleta, se esperaban 6 columnas pero se encontraron " + data.length + ": " + line);
+                        continue;
+                    }
+                }
+                int ventaDelDetalle;
+                try {
+                    ventaDelDetalle = Integer.parseInt(data[1]);
+                } catch (NumberFormatException e) {
+                    System.err.println("Error de formato numérico al procesar línea de detalle: " + String.join(",", data));
+                    continue;
+                }
+                if (ventaDelDetalle > ventaId) {
+                    // Pertenece a una venta posterior: la guardamos para la siguiente lectura
+                    detallePendiente = data;
+                    posicionPendiente = posicion;
+                    return detalles;
+                }
+                if (ventaDelDetalle == ventaId) {
+                    if (lineasDetalle++ == 0) {
+                        posicionDetalles = posicion;
+                    }
+                    if (incluida) {
+                        detalles.add(data);
+                    }
+                }
+                // Si no, es un detalle huérfano (venta eliminada)
+            }
+        }
+        
+        void cerrar() {
+            try {
+                ventasReader.close();
+                detallesReader.close();
+            } catch (IOException e) {
+                e.printStackTrace();
             }
-            
-        } catch (IOException e) {
-            e.printStackTrace();
         }
-        return ventas;
     }
     
-    public static void guardarVenta(Venta venta) {
-        List<Venta> ventas = cargarVentas();
-        boolean found = false;
-        for (int i = 0; i < ventas.size(); i++) {
-            if (ventas.get(i).getId() == venta.getId()) {
-                ventas.set(i, venta);
-                found = true;
-                break;
+    /**
+     * Lector de líneas UTF-8 sobre un FileChannel que conoce la posición en bytes de cada
+     * línea y puede saltar a una posición, para leer una venta sin recorrer el archivo.
+     */
+    private static class LectorLineas implements Closeable {
+        private final FileChannel canal;
+        private final byte[] buffer = new byte[64 * 1024];
+        private final ByteBuffer envoltura = ByteBuffer.wrap(buffer);
+        // Bytes pendientes del buffer y posición en el archivo de buffer[inicio]
+        private int inicio, fin;
+        private long posicion;
+        private byte[] linea = new byte[256];
+        
+        LectorLineas(FileChannel canal) {
+            this.canal = canal;
+        }
+        
+        // Posición en bytes de la próxima línea
+        long getPosicion() {
+            return posicion;
+        }
+        
+        // Salta a una posición y comprueba que allí empieza una línea (el byte anterior es '\n')
+        boolean irAInicioDeLinea(long destino) throws IOException {
+            if (destino < 0 || destino > canal.size()) {
+                return false;
+            }
+            if (destino == 0) {
+                irA(0);
+                return true;
+            }
+            irA(destino - 1);
+            String anterior = leerLinea();
+            return anterior != null && anterior.isEmpty() && posicion == destino;
+        }
+        
+        private void irA(long destino) throws IOException {
+            canal.position(destino);
+            posicion = destino;
+            inicio = fin = 0;
+        }
+        
+        // Lee la siguiente línea sin el salto de línea (\n o \r\n); null al final del archivo
+        String leerLinea() throws IOException {
+            int n = 0;
+            boolean leida = false;
+            while (true) {
+                if (inicio == fin) {
+                    envoltura.clear();
+                    int leidos = canal.read(envoltura);
+                    if (leidos <= 0) {
+                        return leida ? decodificar(n) : null;
+                    }
+                    inicio = 0;
+                    fin = leidos;
+                }
+                leida = true;
+                int i = inicio;
+                while (i < fin && buffer[i] != '\n') {
+                    i++;
+                }
+                int largo = i - inicio;
+                if (n + largo > linea.length) {
+                    linea = Arrays.copyOf(linea, Math.max(linea.length * 2, n + largo));
+                }
+                System.arraycopy(buffer, inicio, linea, n, largo);
+                n += largo;
+                posicion += largo;
+                inicio = i;
+                if (i < fin) {
+                    // Se consume el salto de línea
+                    inicio++;
+                    posicion++;
+                    return decodificar(n);
+                }
             }
         }
-        if (!found) {
-            ventas.add(venta);
+        
+        private String decodificar(int n) {
+            if (n > 0 && linea[n - 1] == '\r') {
+                n--;
+            }
+            return new String(linea, 0, n, StandardCharsets.UTF_8);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            canal.close();
         }
+    }
+    
+    // Resolutores que leen el catálogo de disco una sola vez por carga
+    private static IntFunction<Cliente> resolverClientes() {
+        Map<Integer, Cliente> clientesMap = new HashMap<>();
+        for (Cliente c : cargarClientes()) {
+            clientesMap.put(c.getId(), c);
+        }
+        return clientesMap::get;
+    }
+    
+    private static IntFunction<Producto> resolverProductos() {
+        Map<Integer, Producto> productosMap = new HashMap<>();
+        for (Producto p : cargarProductos()) {
+            productosMap.put(p.getId(), p);
+        }
+        return productosMap::get;
+    }
+    
+    // Guarda o reemplaza una venta reescribiendo los archivos línea a línea,
+    // sin cargar ni volver a calcular el resto del historial. No genera la factura PDF
+    public static void guardarVenta(Venta venta) {
+        EjecutorIO.verificarFueraDelEDT("guardarVenta");
         Path ventasFile = Paths.get(DATA_DIR, VENTAS_FILE);
-        try (BufferedWriter writer = Files.newBufferedWriter(ventasFile)) {
-            for (Venta v : ventas) {
-                // Guardamos ID, Fecha, ClienteID, Subtotal Base Venta, Monto IVA Venta, Monto Descuento Venta, Total Venta
-                writer.write(String.format(LOCALE, "%d,%d,%d,%.2f,%.2f,%.2f,%.2f\n", 
-                        v.getId(), 
-                        v.getFecha().getTime(), 
-                        v.getCliente().getId(), 
-                        v.getSubtotal(), // Subtotal Base Venta
-                        v.getIva(), // Monto IVA Venta
-                        v.getDescuento(), // Monto Descuento Venta
-                        v.getTotal())); // Total Venta
+        Path detallesFile = Paths.get(DATA_DIR, DETALLES_FILE);
+        String id = String.valueOf(venta.getId());
+        
+        // ventas.csv: reemplazamos la línea de la venta en su sitio o la agregamos al final
+        Path ventasTmp = ventasFile.resolveSibling(VENTAS_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(ventasTmp)) {
+            boolean escrita = false;
+            if (Files.exists(ventasFile)) {
+                try (BufferedReader reader = Files.newBufferedReader(ventasFile)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!escrita && line.startsWith(id + ",")) {
+                            writer.write(lineaVenta(venta));
+                            escrita = true;
+                        } else {
+                            writer.write(line);
+                            writer.write("\n");
+                        }
+                    }
+                }
+            }
+            if (!escrita) {
+                writer.write(lineaVenta(venta));
             }
         } catch (IOException e) {
             e.printStackTrace();
+            return;
         }
-        Path detallesFile = Paths.get(DATA_DIR, DETALLES_FILE);
-        try (BufferedWriter writer = Files.newBufferedWriter(detallesFile)) {
-            for (Venta v : ventas) {
-                for (DetalleVenta detalle : v.getDetalles()) {
-                    // Guardamos ID Detalle, VentaID, ProductoID, Cantidad, PrecioUnitario(Final), SubtotalBase Detalle
-                    writer.write(String.format(LOCALE, "%d,%d,%d,%d,%.2f,%.2f\n",
-                        detalle.getId(), 
-                        v.getId(), 
-                        detalle.getProducto().getId(),
-                        detalle.getCantidad(), 
-                        detalle.getPrecioUnitario(), // Precio unitario final al momento de la venta
-                        detalle.getSubtotalBase())); // Subtotal base del detalle
+        
+        // detalles_venta.csv: los detalles de la venta se escriben antes del primer detalle de una venta posterior
+        Path detallesTmp = detallesFile.resolveSibling(DETALLES_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(detallesTmp)) {
+            boolean escritos = false;
+            if (Files.exists(detallesFile)) {
+                try (BufferedReader reader = Files.newBufferedReader(detallesFile)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String[] data = line.split(",");
+                        int ventaId = -1;
+                        try {
+                            ventaId = data.length > 1 ? Integer.parseInt(data[1]) : -1;
+                        } catch (NumberFormatException e) {
+                            // Línea inválida: se conserva tal cual
+                        }
+                        if (ventaId == venta.getId()) {
+                            continue;
+                        }
+                        if (!escritos && ventaId > venta.getId()) {
+                            writer.write(lineasDetalle(venta));
+                            escritos = true;
+                        }
+                        writer.write(line);
+                        writer.write("\n");
+                    }
                 }
             }
+            if (!escritos) {
+                writer.write(lineasDetalle(venta));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        
+        try {
+            Files.move(ventasTmp, ventasFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(detallesTmp, detallesFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    // Agrega al final de los archivos una venta nueva cuyo ID es mayor que el de todas las guardadas,
+    // sin reescribir el historial
+    public static void agregarVentaNueva(Venta venta) {
+        EjecutorIO.verificarFueraDelEDT("agregarVentaNueva");
+        try {
+            Files.write(Paths.get(DATA_DIR, VENTAS_FILE), lineaVenta(venta).getBytes(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            Files.write(Paths.get(DATA_DIR, DETALLES_FILE), lineasDetalle(venta).getBytes(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
         } catch (IOException e) {
             e.printStackTrace();
         }
-        // La generación de PDF se mantiene igual, usa los getters de Venta
-        generarFacturaPDF(venta);
+    }
+    
+    // Guardamos ID, Fecha, ClienteID, Subtotal Base Venta, Monto IVA Venta, Monto Descuento Venta, Total Venta,
+    // Medio de pago, TurnoID
+    private static String lineaVenta(Venta v) {
+        return String.format(LOCALE, "%d,%d,%d,%.2f,%.2f,%.2f,%.2f,%s,%d\n",
+                v.getId(),
+                v.getFecha().getTime(),
+                v.getCliente().getId(),
+                v.getSubtotal(), // Subtotal Base Venta
+                v.getIva(), // Monto IVA Venta
+                v.getDescuento(), // Monto Descuento Venta
+                v.getTotal(), // Total Venta
+                v.getMedioPago(),
+                v.getTurnoId());
+    }
+    
+    // Guardamos ID Detalle, VentaID, ProductoID, Cantidad, PrecioUnitario(Final), SubtotalBase Detalle,
+    // PrecioBase, TasaIVA, TasaDescuento (sin redondear, para reconstruir la venta tal como se vendió)
+    private static String lineasDetalle(Venta v) {
+        StringBuilder sb = new StringBuilder();
+        for (DetalleVenta detalle : v.getDetalles()) {
+            sb.append(String.format(LOCALE, "%d,%d,%d,%d,%.2f,%.2f,%s,%s,%s\n",
+                    detalle.getId(),
+                    v.getId(),
+                    detalle.getProducto().getId(),
+                    detalle.getCantidad(),
+                    detalle.getPrecioUnitario(), // Precio unitario final al momento de la venta
+                    detalle.getSubtotalBase(), // Subtotal base del detalle
+                    detalle.getPrecioBase(),
+                    detalle.getTasaIva(),
+                    detalle.getTasaDescuento()));
+        }
+        return sb.toString();
     }
     
      public static void guardarVentas(List<Venta> ventas) {
+         EjecutorIO.verificarFueraDelEDT("guardarVentas");
         Path ventasFile = Paths.get(DATA_DIR, VENTAS_FILE);
         try (BufferedWriter writer = Files.newBufferedWriter(ventasFile)) {
             for (Venta v : ventas) {
-                 // Guardamos ID, Fecha, ClienteID, Subtotal Base Venta, Monto IVA Venta, Monto Descuento Venta, Total Venta
-                writer.write(String.format(LOCALE, "%d,%d,%d,%.2f,%.2f,%.2f,%.2f\n", 
-                        v.getId(), 
-                        v.getFecha().getTime(), 
-                        v.getCliente().getId(), 
-                        v.getSubtotal(), // Subtotal Base Venta
-                        v.getIva(), // Monto IVA Venta
-                        v.getDescuento(), // Monto Descuento Venta
-                        v.getTotal())); // Total Venta
+                 // Guardamos ID, Fecha, ClienteID, Subtotal Base Venta, Monto IVA Venta, Monto Descuento Venta, Total Venta,
+                 // Medio de pago, TurnoID
+                writer.write(lineaVenta(v));
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -346,7 +812,205 @@ public class FileManager {
          // No generamos PDF al guardar la lista completa de ventas
     }
     
+    // Agrega un registro al log de diagnóstico del hilo de eventos
+    public static void agregarDiagnosticoEDT(String registro) {
+        EjecutorIO.verificarFueraDelEDT("agregarDiagnosticoEDT");
+        try {
+            Files.write(Paths.get(DATA_DIR, DIAGNOSTICO_EDT_FILE), registro.getBytes("UTF-8"),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    // Guarda los acumulados de ventas serializados, reemplazando el archivo de forma atómica
+    public static void guardarAcumulados(byte[] datos) {
+        EjecutorIO.verificarFueraDelEDT("guardarAcumulados");
+        guardarBinario(ACUMULADOS_FILE, datos);
+    }
+    
+    // Lee los acumulados de ventas serializados; null si el archivo no existe o no se puede leer
+    public static byte[] cargarAcumulados() {
+        EjecutorIO.verificarFueraDelEDT("cargarAcumulados");
+        return cargarBinario(ACUMULADOS_FILE);
+    }
+    
+    // Guarda los bosquejos de clientes distintos serializados, reemplazando el archivo de forma atómica
+    public static void guardarClientesDistintos(byte[] datos) {
+        EjecutorIO.verificarFueraDelEDT("guardarClientesDistintos");
+        guardarBinario(CLIENTES_DISTINTOS_FILE, datos);
+    }
+    
+    // Lee los bosquejos de clientes distintos; null si el archivo no existe o no se puede leer
+    public static byte[] cargarClientesDistintos() {
+        EjecutorIO.verificarFueraDelEDT("cargarClientesDistintos");
+        return cargarBinario(CLIENTES_DISTINTOS_FILE);
+    }
+    
+    private static void guardarBinario(String nombre, byte[] datos) {
+        Path file = Paths.get(DATA_DIR, nombre);
+        Path temporal = file.resolveSibling(nombre + ".tmp");
+        try {
+            Files.write(temporal, datos);
+            Files.move(temporal, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    private static byte[] cargarBinario(String nombre) {
+        Path file = Paths.get(DATA_DIR, nombre);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    // Carga los turnos de caja ordenados por ID
+    public static List<Turno> cargarTurnos() {
+        EjecutorIO.verificarFueraDelEDT("cargarTurnos");
+        List<Turno> turnos = new ArrayList<>();
+        Path file = Paths.get(DATA_DIR, TURNOS_FILE);
+        if (!Files.exists(file)) {
+            return turnos;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    // Se conservan las columnas vacías del final (turno sin ventas)
+                    String[] data = line.split(",", -1);
+                    if (data.length >= 13) { // ID, Apertura, Cierre, Cajero, Base, Contado, Ventas, Subtotal, IVA, Descuento, Total, Medios, Tasas
+                        Turno turno = new Turno();
+                        turno.setId(Integer.parseInt(data[0]));
+                        turno.setApertura(new Date(Long.parseLong(data[1])));
+                        long cierre = Long.parseLong(data[2]);
+                        turno.setCierre(cierre != 0 ? new Date(cierre) : null);
+                        turno.setCajero(data[3]);
+                        turno.setBaseEfectivo(Double.parseDouble(data[4]));
+                        turno.setEfectivoContado(Double.parseDouble(data[5]));
+                        turno.restaurarTotales(Integer.parseInt(data[6]), Double.parseDouble(data[7]),
+                                Double.parseDouble(data[8]), Double.parseDouble(data[9]), Double.parseDouble(data[10]));
+                        // Medios: Nombre:Ventas:Total separados por ';'
+                        for (String medio : data[11].split(";")) {
+                            String[] partes = medio.split(":");
+                            if (partes.length == 3) {
+                                turno.restaurarMedio(Turno.indiceMedioPago(partes[0]),
+                                        Integer.parseInt(partes[1]), Double.parseDouble(partes[2]));
+                            }
+                        }
+                        // Tasas: Tasa:Base:IVA separados por ';'
+                        for (String tasa : data[12].split(";")) {
+                            String[] partes = tasa.split(":");
+                            if (partes.length == 3) {
+                                turno.restaurarTasa(Double.parseDouble(partes[0]),
+                                        Double.parseDouble(partes[1]), Double.parseDouble(partes[2]));
+                            }
+                        }
+                        turnos.add(turno);
+                    } else {
+                        System.err.println("Línea de turno incompleta en " + TURNOS_FILE + ", se esperaban 13 columnas pero se encontraron " + data.length + ": " + line);
+                    }
+                } catch (NumberFormatException e) {
+                    System.err.println("Error de formato numérico al procesar línea de turno: " + line);
+                    e.printStackTrace();
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return turnos;
+    }
+    
+    // Guarda todos los turnos, reemplazando el archivo de forma atómica
+    public static void guardarTurnos(List<Turno> turnos) {
+        EjecutorIO.verificarFueraDelEDT("guardarTurnos");
+        Path file = Paths.get(DATA_DIR, TURNOS_FILE);
+        Path temporal = file.resolveSibling(TURNOS_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporal)) {
+            for (Turno t : turnos) {
+                StringBuilder medios = new StringBuilder();
+                for (int i = 0; i < Venta.MEDIOS_PAGO.length; i++) {
+                    if (t.getVentasPorMedio(i) != 0) {
+                        medios.append(medios.length() > 0 ? ";" : "")
+                                .append(String.format(LOCALE, "%s:%d:%.2f", Venta.MEDIOS_PAGO[i], t.getVentasPorMedio(i), t.getTotalPorMedio(i)));
+                    }
+                }
+                StringBuilder tasas = new StringBuilder();
+                for (Map.Entry<Double, double[]> tasa : t.getIvaPorTasa().entrySet()) {
+                    tasas.append(tasas.length() > 0 ? ";" : "")
+                            .append(String.format(LOCALE, "%.4f:%.2f:%.2f", tasa.getKey(), tasa.getValue()[0], tasa.getValue()[1]));
+                }
+                // Las comas del nombre del cajero se reemplazan para no romper el CSV
+                writer.write(String.format(LOCALE, "%d,%d,%d,%s,%.2f,%.2f,%d,%.2f,%.2f,%.2f,%.2f,%s,%s\n",
+                        t.getId(),
+                        t.getApertura().getTime(),
+                        t.getCierre() != null ? t.getCierre().getTime() : 0L,
+                        t.getCajero().replace(',', ' '),
+                        t.getBaseEfectivo(),
+                        t.getEfectivoContado(),
+                        t.getVentas(),
+                        t.getSubtotal(),
+                        t.getIva(),
+                        t.getDescuento(),
+                        t.getTotal(),
+                        medios,
+                        tasas));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        try {
+            Files.move(temporal, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    // Elimina una venta y sus detalles del disco sin cargar el historial completo en memoria
+    public static void eliminarVenta(int id) {
+        EjecutorIO.verificarFueraDelEDT("eliminarVenta");
+        filtrarLineas(Paths.get(DATA_DIR, VENTAS_FILE), 0, id);
+        filtrarLineas(Paths.get(DATA_DIR, DETALLES_FILE), 1, id);
+    }
+    
+    // Reescribe el archivo omitiendo las líneas cuya columna indicada coincide con el ID
+    private static void filtrarLineas(Path file, int columna, int id) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        Path temporal = file.resolveSibling(file.getFileName() + ".tmp");
+        String valor = String.valueOf(id);
+        try (BufferedReader reader = Files.newBufferedReader(file);
+             BufferedWriter writer = Files.newBufferedWriter(temporal)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] data = line.split(",");
+                if (data.length > columna && data[columna].equals(valor)) {
+                    continue;
+                }
+                writer.write(line);
+                writer.write("\n");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        try {
+            Files.move(temporal, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
     public static void generarFacturaPDF(Venta venta) {
+        EjecutorIO.verificarFueraDelEDT("generarFacturaPDF");
         try {
             Document document = new Document(PageSize.A4);
             PdfWriter.getInstance(document, new FileOutputStream(DATA_DIR + "/" + FACTURAS_DIR + "/Factura_" + venta.getId() + ".pdf"));
@@ -361,6 +1025,7 @@ public class FileManager {
 
             document.add(new Paragraph("Fecha: " + new SimpleDateFormat("dd 'de' MMMM 'de' yyyy", LOCALE).format(venta.getFecha()), fontRegular));
             document.add(new Paragraph("Cliente: " + venta.getCliente().getNombre() + " " + venta.getCliente().getApellido(), fontRegular));
+            document.add(new Paragraph("Medio de pago: " + venta.getMedioPago(), fontRegular));
             document.add(Chunk.NEWLINE);
 
             PdfPTable table = new PdfPTable(4);
@@ -393,22 +1058,76 @@ public class FileManager {
         }
     }
     
-    private static Cliente buscarCliente(int id) {
-        // Recargamos clientes cada vez para asegurar datos actualizados
-        List<Cliente> clientes = cargarClientes();
-        return clientes.stream()
-                .filter(c -> c.getId() == id)
-                .findFirst()
-                .orElse(null);
-    }
-    
-    private static Producto buscarProducto(int id) {
-        // Recargamos productos cada vez para asegurar datos actualizados
-        List<Producto> productos = cargarProductos();
-        return productos.stream()
-                .filter(p -> p.getId() == id)
-                .findFirst()
-                .orElse(null);
+    // Genera el reporte de cierre de caja de un turno a partir de sus totales acumulados
+    public static void generarCierreTurnoPDF(Turno turno) {
+        EjecutorIO.verificarFueraDelEDT("generarCierreTurnoPDF");
+        try {
+            Document document = new Document(PageSize.A4);
+            PdfWriter.getInstance(document, new FileOutputStream(DATA_DIR + "/" + CIERRES_DIR + "/Cierre_Turno_" + turno.getId() + ".pdf"));
+            document.open();
+            Font fontTitle = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
+            Font fontRegular = new Font(Font.FontFamily.HELVETICA, 12, Font.NORMAL);
+            Font fontBold = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD);
+            SimpleDateFormat formatoFecha = new SimpleDateFormat("dd/MM/yyyy HH:mm", LOCALE);
+
+            Paragraph title = new Paragraph("Cierre de Caja - Turno No. " + turno.getId(), fontTitle);
+            title.setAlignment(Element.ALIGN_CENTER);
+            document.add(title);
+
+            document.add(new Paragraph("Cajero: " + turno.getCajero(), fontRegular));
+            document.add(new Paragraph("Apertura: " + formatoFecha.format(turno.getApertura()), fontRegular));
+            document.add(new Paragraph("Cierre: " + (turno.getCierre() != null ? formatoFecha.format(turno.getCierre()) : "Turno abierto"), fontRegular));
+            document.add(new Paragraph("Ventas: " + turno.getVentas(), fontRegular));
+            document.add(Chunk.NEWLINE);
+
+            // Desglose por medio de pago
+            PdfPTable medios = new PdfPTable(3);
+            medios.setWidthPercentage(100);
+            medios.setSpacingBefore(10f);
+            medios.setSpacingAfter(10f);
+            medios.addCell(new PdfPCell(new Phrase("Medio de pago", fontBold)));
+            medios.addCell(new PdfPCell(new Phrase("Ventas", fontBold)));
+            medios.addCell(new PdfPCell(new Phrase("Total", fontBold)));
+            for (int i = 0; i < Venta.MEDIOS_PAGO.length; i++) {
+                medios.addCell(new Phrase(Venta.MEDIOS_PAGO[i], fontRegular));
+                medios.addCell(new Phrase(String.valueOf(turno.getVentasPorMedio(i)), fontRegular));
+                medios.addCell(new Phrase(String.format(LOCALE, "%.2f", turno.getTotalPorMedio(i)), fontRegular));
+            }
+            document.add(medios);
+
+            // IVA por tasa
+            PdfPTable tasas = new PdfPTable(3);
+            tasas.setWidthPercentage(100);
+            tasas.setSpacingBefore(10f);
+            tasas.setSpacingAfter(10f);
+            tasas.addCell(new PdfPCell(new Phrase("Tasa IVA", fontBold)));
+            tasas.addCell(new PdfPCell(new Phrase("Base gravable", fontBold)));
+            tasas.addCell(new PdfPCell(new Phrase("IVA", fontBold)));
+            for (Map.Entry<Double, double[]> tasa : turno.getIvaPorTasa().entrySet()) {
+                tasas.addCell(new Phrase(String.format(LOCALE, "%.2f%%", tasa.getKey() * 100), fontRegular));
+                tasas.addCell(new Phrase(String.format(LOCALE, "%.2f", tasa.getValue()[0]), fontRegular));
+                tasas.addCell(new Phrase(String.format(LOCALE, "%.2f", tasa.getValue()[1]), fontRegular));
+            }
+            document.add(tasas);
+
+            document.add(new Paragraph("Subtotal (Base): " + String.format(LOCALE, "%.2f", turno.getSubtotal()), fontBold));
+            document.add(new Paragraph("IVA (Total): " + String.format(LOCALE, "%.2f", turno.getIva()), fontBold));
+            document.add(new Paragraph("Descuento (Total): " + String.format(LOCALE, "%.2f", turno.getDescuento()), fontBold));
+            document.add(new Paragraph("Total: " + String.format(LOCALE, "%.2f", turno.getTotal()), fontBold));
+            document.add(Chunk.NEWLINE);
+
+            // Arqueo de efectivo
+            document.add(new Paragraph("Base de efectivo: " + String.format(LOCALE, "%.2f", turno.getBaseEfectivo()), fontRegular));
+            document.add(new Paragraph("Efectivo esperado: " + String.format(LOCALE, "%.2f", turno.getEfectivoEsperado()), fontRegular));
+            if (!turno.estaAbierto()) {
+                document.add(new Paragraph("Efectivo contado: " + String.format(LOCALE, "%.2f", turno.getEfectivoContado()), fontRegular));
+                document.add(new Paragraph("Diferencia: " + String.format(LOCALE, "%.2f", turno.getDiferencia()), fontBold));
+            }
+
+            document.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
     }
     
     // Método para cargar ventas, crea datos por defecto si los archivos no existen
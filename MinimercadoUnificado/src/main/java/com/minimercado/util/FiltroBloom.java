@@ -0,0 +1,86 @@
+/**
+ * Filtro de Bloom para cadenas: responde si una cadena "puede estar" en el
+ * conjunto o si "seguro no está", usando un arreglo de bits fijo.
+ * Se coloca delante de un índice exacto para evitar consultarlo cuando la
+ * respuesta es negativa, que es el caso habitual al registrar datos nuevos.
+ *
+ * Características principales:
+ * - Sin falsos negativos: si puedeContener devuelve false, la cadena no se agregó
+ * - Tasa de falsos positivos configurable al dimensionar el filtro
+ * - Memoria fija: unos 9,6 bits por elemento para un 1% de falsos positivos
+ *
+ * Notas técnicas:
+ * - Los k índices se obtienen por doble dispersión (h1 + i * h2) a partir de dos hashes de 32 bits
+ * - No admite eliminar; tras muchas bajas conviene reconstruirlo desde el índice exacto
+ * - No es seguro para hilos
+ */
+package com.minimercado.util;
+
+public class FiltroBloom {
+    private final long[] bits;
+    private final int numBits;
+    private final int numHashes;
+    private final int capacidad;
+    private int elementos;
+
+    // Dimensiona el filtro para la capacidad esperada y la tasa de falsos positivos deseada
+    public FiltroBloom(int capacidad, double tasaFalsosPositivos) {
+        this.capacidad = Math.max(capacidad, 1);
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-this.capacidad * Math.log(tasaFalsosPositivos) / (ln2 * ln2));
+        this.numBits = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / this.capacidad * ln2));
+        this.bits = new long[(numBits + 63) >>> 6];
+    }
+
+    public void agregar(String valor) {
+        int h1 = valor.hashCode();
+        int h2 = segundoHash(h1);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = posicion(h1 + i * h2);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+        elementos++;
+    }
+
+    // false garantiza que el valor nunca se agregó; true obliga a confirmar en el índice exacto
+    public boolean puedeContener(String valor) {
+        int h1 = valor.hashCode();
+        int h2 = segundoHash(h1);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = posicion(h1 + i * h2);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Indica si ya se agregaron más elementos de los previstos y la tasa de error empieza a subir
+    public boolean estaSaturado() {
+        return elementos > capacidad;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public int getBytesReservados() {
+        return bits.length * 8;
+    }
+
+    // Mezcla de bits (finalizador de MurmurHash3) para obtener un segundo hash independiente
+    private static int segundoHash(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        // Impar para que los k índices recorran posiciones distintas
+        return h | 1;
+    }
+
+    private int posicion(int hash) {
+        return (int) ((hash & 0xFFFFFFFFL) % numBits);
+    }
+}
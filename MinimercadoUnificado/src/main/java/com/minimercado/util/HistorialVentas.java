@@ -0,0 +1,431 @@
+/**
+ * Almacén del historial de ventas con memoria acotada.
+ * Mantiene residente solo una ventana "caliente" de ventas recientes y pagina
+ * las ventas antiguas desde disco bajo demanda a través de una caché LRU.
+ *
+ * Características principales:
+ * - Ventana reciente configurable por número de ventas y por antigüedad en días
+ * - Caché LRU de ventas archivadas con expulsión por tamaño (líneas de detalle)
+ * - La caché guarda registros compactos (VentaRegistrada) y reconstruye la Venta al leerla
+ * - Estadísticas de aciertos, fallos y expulsiones de la caché
+ * - Búsqueda y listado transparentes sobre ambos niveles
+ *
+ * Notas técnicas:
+ * - Las ventas archivadas solo conservan su ID en memoria, en un arreglo int ordenado, y su
+ *   posición en disco (PosicionesVentas): un fallo de caché salta a la venta en lugar de
+ *   recorrer los archivos
+ * - Eliminar o reemplazar una venta residente solo la marca como descartada en la ventana;
+ *   las descartadas se saltan al archivar y se compactan cuando superan a las vigentes
+ * - El disco (FileManager) es la fuente de verdad para las ventas archivadas
+ * - Las ventas expulsadas de la ventana reciente ya están persistidas
+ * - Las ventas paginadas comparten los Producto y Cliente del catálogo en memoria
+ * - Es seguro para hilos: las lecturas de disco se hacen sin retener el candado,
+ *   para que el EDT no espere a un cargador en segundo plano
+ * - Las búsquedas desde la interfaz van en dos fases: leer, en segundo plano, solo lee de
+ *   disco sin resolver cliente ni productos; resolver, en el EDT, los resuelve contra el
+ *   catálogo, cuyos índices no admiten lecturas concurrentes con sus modificaciones
+ */
+package com.minimercado.util;
+
+import com.minimercado.modelo.Cliente;
+import com.minimercado.modelo.Producto;
+import com.minimercado.modelo.Venta;
+import com.minimercado.modelo.VentaRegistrada;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.IntFunction;
+
+public class HistorialVentas {
+    private static final long MILLIS_POR_DIA = 24L * 60 * 60 * 1000;
+
+    // Límites de la ventana reciente
+    private final int maxRecientes;
+    private final long ventanaMillis;
+    // Ventas residentes en memoria, en orden de inserción (la más antigua primero),
+    // incluidas las descartadas que aún no se han compactado
+    private final ArrayDeque<Residente> recientes;
+    // Índice por ID de las ventas residentes vigentes
+    private final MapaEnteros<Residente> indiceRecientes;
+    // IDs de las ventas que solo están en disco
+    private final IdsOrdenados idsArchivados;
+    // Caché LRU de ventas archivadas cargadas bajo demanda
+    private final CacheVentas cache;
+    // Posición en disco de cada venta, llenada por el recorrido de arranque
+    private final PosicionesVentas posiciones = new PosicionesVentas();
+    // Resolución de clientes y productos contra el catálogo en memoria
+    private final IntFunction<Cliente> clientes;
+    private final IntFunction<Producto> productos;
+    private int ultimoId;
+
+    public HistorialVentas(int maxRecientes, int diasRecientes, int capacidadCacheLineas,
+                           IntFunction<Cliente> clientes, IntFunction<Producto> productos) {
+        this.maxRecientes = maxRecientes;
+        this.clientes = clientes;
+        this.productos = productos;
+        this.ventanaMillis = diasRecientes * MILLIS_POR_DIA;
+        this.recientes = new ArrayDeque<>();
+        this.indiceRecientes = new MapaEnteros<>();
+        this.idsArchivados = new IdsOrdenados();
+        this.cache = new CacheVentas(capacidadCacheLineas);
+    }
+
+    // Destino de las posiciones que registra el recorrido de arranque de FileManager
+    public PosicionesVentas getPosiciones() {
+        return posiciones;
+    }
+
+    // Agrega una venta a la ventana reciente y archiva las que quedan fuera de ella.
+    // Si ya estaba residente, la anterior se descarta y la venta pasa al final de la ventana
+    public synchronized void agregar(Venta venta) {
+        Residente residente = new Residente(venta);
+        descartar(indiceRecientes.put(venta.getId(), residente));
+        recientes.addLast(residente);
+        ultimoId = Math.max(ultimoId, venta.getId());
+        archivarFueraDeVentana();
+    }
+
+    // Elimina una venta de cualquiera de los dos niveles
+    public synchronized boolean eliminar(int id) {
+        Residente residente = indiceRecientes.remove(id);
+        if (residente != null) {
+            descartar(residente);
+            return true;
+        }
+        cache.remove(id);
+        return idsArchivados.quitar(id);
+    }
+
+    // Ventas pedidas en una búsqueda, reunidas por leer y aún sin resolver
+    public static final class Lectura {
+        private final int[] ids;
+        // Residentes (ya resueltas), registros de la caché y ventas leídas de disco
+        private final MapaEnteros<Venta> residentes = new MapaEnteros<>();
+        private final MapaEnteros<VentaRegistrada> enCache = new MapaEnteros<>();
+        private final MapaEnteros<FileManager.VentaSinResolver> deDisco = new MapaEnteros<>();
+
+        private Lectura(int[] ids) {
+            this.ids = ids;
+        }
+    }
+
+    // Primera fase de una búsqueda: reúne las ventas pedidas y lee de disco, en una sola
+    // pasada, las archivadas que no están en caché. No consulta el catálogo, así que puede
+    // ejecutarse fuera del EDT
+    public Lectura leer(int... ids) {
+        Lectura lectura = new Lectura(ids);
+        int[] pendientes = new int[ids.length];
+        int n = 0;
+        synchronized (this) {
+            for (int id : ids) {
+                Residente residente = indiceRecientes.get(id);
+                if (residente != null) {
+                    lectura.residentes.put(id, residente.venta);
+                } else if (idsArchivados.contiene(id)) {
+                    VentaRegistrada registrada = cache.get(id);
+                    if (registrada != null) {
+                        cache.aciertos++;
+                        lectura.enCache.put(id, registrada);
+                    } else {
+                        pendientes[n++] = id;
+                    }
+                }
+            }
+            // Un ID pedido varias veces cuenta como un solo fallo
+            n = sinRepetidos(pendientes, n);
+            cache.fallos += n;
+        }
+        leerDeDisco(Arrays.copyOf(pendientes, n), lectura.deDisco);
+        return lectura;
+    }
+
+    // Lee de disco las ventas indicadas (IDs ordenados y sin repetir) saltando a sus posiciones;
+    // las que no tienen posición válida (venta posterior al arranque o archivos reescritos) se
+    // buscan recorriendo los archivos, y ese recorrido renueva las posiciones de paso
+    private void leerDeDisco(int[] ids, MapaEnteros<FileManager.VentaSinResolver> destino) {
+        if (ids.length == 0) {
+            return;
+        }
+        int faltantes = ids.length;
+        for (FileManager.VentaSinResolver venta : FileManager.leerVentasEn(ids, posiciones)) {
+            destino.put(venta.getId(), venta);
+            faltantes--;
+        }
+        if (faltantes > 0) {
+            PosicionesVentas nuevas = new PosicionesVentas();
+            for (FileManager.VentaSinResolver venta : FileManager.leerVentas(
+                    id -> Arrays.binarySearch(ids, id) >= 0 && !destino.contiene(id), nuevas)) {
+                destino.put(venta.getId(), venta);
+            }
+            posiciones.reemplazar(nuevas);
+        }
+    }
+
+    // Ordena los n primeros IDs y deja al principio los distintos; devuelve cuántos son
+    private static int sinRepetidos(int[] ids, int n) {
+        Arrays.sort(ids, 0, n);
+        int distintos = 0;
+        for (int i = 0; i < n; i++) {
+            if (distintos == 0 || ids[i] != ids[distintos - 1]) {
+                ids[distintos++] = ids[i];
+            }
+        }
+        return distintos;
+    }
+
+    // Segunda fase: resuelve cliente y productos de las ventas leídas, en el orden pedido.
+    // Debe ejecutarse en el hilo que modifica el catálogo (el EDT); las leídas de disco pasan a la caché
+    public List<Venta> resolver(Lectura lectura) {
+        List<Venta> resultado = new ArrayList<>(lectura.ids.length);
+        for (int id : lectura.ids) {
+            Venta venta = lectura.residentes.get(id);
+            if (venta == null) {
+                VentaRegistrada registrada = lectura.enCache.get(id);
+                if (registrada != null) {
+                    venta = registrada.aVenta(clientes, productos);
+                } else {
+                    FileManager.VentaSinResolver leida = lectura.deDisco.get(id);
+                    venta = leida != null ? leida.aVenta(clientes, productos) : null;
+                    if (venta != null) {
+                        synchronized (this) {
+                            // La venta pudo eliminarse mientras se leía
+                            if (idsArchivados.contiene(id)) {
+                                cache.put(id, VentaRegistrada.desde(venta));
+                            }
+                        }
+                    }
+                }
+            }
+            if (venta != null) {
+                resultado.add(venta);
+            }
+        }
+        return resultado;
+    }
+
+    // Busca una venta en memoria y, si está archivada, la pagina desde disco. Lee y resuelve
+    // en el hilo que llama: desde la interfaz, usar leer en segundo plano y resolver en el EDT
+    public Venta buscar(int id) {
+        List<Venta> encontradas = resolver(leer(id));
+        return encontradas.isEmpty() ? null : encontradas.get(0);
+    }
+
+    // Resuelve varias ventas por ID conservando el orden pedido; las archivadas que
+    // no están en caché se leen de disco en una sola pasada y pasan a la caché.
+    // Como buscar, lee y resuelve en el hilo que llama
+    public List<Venta> buscarVarias(int[] ids) {
+        return resolver(leer(ids));
+    }
+
+    // Devuelve todas las ventas, las archivadas primero; las que no están en caché
+    // se leen de disco sin resolver y sin contaminar la caché
+    public List<Venta> obtenerTodas() {
+        int[] archivados;
+        MapaEnteros<VentaRegistrada> enCache = new MapaEnteros<>();
+        int[] pendientes;
+        synchronized (this) {
+            archivados = idsArchivados.copiar();
+            // forEach no altera el orden de acceso de la caché
+            cache.forEach(enCache::put);
+            pendientes = new int[archivados.length];
+            int n = 0;
+            for (int id : archivados) {
+                if (!enCache.contiene(id)) {
+                    pendientes[n++] = id;
+                }
+            }
+            pendientes = Arrays.copyOf(pendientes, n);
+        }
+        MapaEnteros<FileManager.VentaSinResolver> deDisco = new MapaEnteros<>(pendientes.length);
+        leerDeDisco(pendientes, deDisco);
+        List<Venta> resultado = new ArrayList<>(archivados.length + maxRecientes);
+        for (int id : archivados) {
+            VentaRegistrada registrada = enCache.get(id);
+            FileManager.VentaSinResolver leida = registrada == null ? deDisco.get(id) : null;
+            Venta venta = registrada != null ? registrada.aVenta(clientes, productos)
+                    : leida != null ? leida.aVenta(clientes, productos) : null;
+            if (venta != null) {
+                resultado.add(venta);
+            }
+        }
+        synchronized (this) {
+            // Descarta las que se eliminaron mientras se leían
+            resultado.removeIf(venta -> !idsArchivados.contiene(venta.getId()));
+            agregarVigentes(resultado);
+            return resultado;
+        }
+    }
+
+    public synchronized int getUltimoId() {
+        return ultimoId;
+    }
+
+    public synchronized int tamano() {
+        return idsArchivados.size() + indiceRecientes.size();
+    }
+
+    public synchronized long getAciertosCache() {
+        return cache.aciertos;
+    }
+
+    public synchronized long getFallosCache() {
+        return cache.fallos;
+    }
+
+    public synchronized long getExpulsionesCache() {
+        return cache.expulsiones;
+    }
+
+    public synchronized String getEstadisticas() {
+        long consultas = cache.aciertos + cache.fallos;
+        double tasa = consultas == 0 ? 0 : (100.0 * cache.aciertos / consultas);
+        return String.format("Recientes: %d, archivadas: %d, en caché: %d (%d líneas), aciertos: %d, fallos: %d (%.1f%%), expulsiones: %d",
+                indiceRecientes.size(), idsArchivados.size(), cache.size(), cache.lineas,
+                cache.aciertos, cache.fallos, tasa, cache.expulsiones);
+    }
+
+    // Agrega a la lista las ventas residentes vigentes, de la más antigua a la más reciente
+    private void agregarVigentes(List<Venta> destino) {
+        for (Residente residente : recientes) {
+            if (residente.vigente) {
+                destino.add(residente.venta);
+            }
+        }
+    }
+
+    // Marca como descartada una venta de la ventana en O(1); la cola se compacta de una vez
+    // cuando las descartadas superan a las vigentes, lo que amortiza el recorrido
+    private void descartar(Residente residente) {
+        if (residente == null) {
+            return;
+        }
+        residente.vigente = false;
+        if (recientes.size() > 2 * indiceRecientes.size() + 16) {
+            recientes.removeIf(r -> !r.vigente);
+        }
+    }
+
+    // Mueve al archivo las ventas más antiguas que exceden el tamaño o la antigüedad de la ventana
+    private void archivarFueraDeVentana() {
+        long limite = System.currentTimeMillis() - ventanaMillis;
+        while (!recientes.isEmpty()) {
+            Residente masAntigua = recientes.peekFirst();
+            if (!masAntigua.vigente) {
+                recientes.pollFirst();
+                continue;
+            }
+            Date fecha = masAntigua.venta.getFecha();
+            boolean excedeTamano = indiceRecientes.size() > maxRecientes;
+            boolean excedeEdad = fecha != null && fecha.getTime() < limite;
+            if (!excedeTamano && !excedeEdad) {
+                break;
+            }
+            recientes.pollFirst();
+            indiceRecientes.remove(masAntigua.venta.getId());
+            idsArchivados.agregar(masAntigua.venta.getId());
+        }
+    }
+
+    // Venta de la ventana reciente; deja de estar vigente al eliminarla o reemplazarla
+    private static final class Residente {
+        private final Venta venta;
+        private boolean vigente = true;
+
+        Residente(Venta venta) {
+            this.venta = venta;
+        }
+    }
+
+    // Conjunto de IDs en un arreglo int ordenado: 4 bytes por venta archivada, sin boxing.
+    // Las ventas se archivan en orden de ID, así que agregar casi siempre añade al final
+    private static final class IdsOrdenados {
+        private int[] ids = new int[1024];
+        private int tamano;
+
+        void agregar(int id) {
+            int i = tamano > 0 && id > ids[tamano - 1] ? -(tamano + 1) : Arrays.binarySearch(ids, 0, tamano, id);
+            if (i >= 0) {
+                return;
+            }
+            i = -(i + 1);
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            System.arraycopy(ids, i, ids, i + 1, tamano - i);
+            ids[i] = id;
+            tamano++;
+        }
+
+        boolean contiene(int id) {
+            return Arrays.binarySearch(ids, 0, tamano, id) >= 0;
+        }
+
+        // Eliminar desplaza el resto del arreglo; solo ocurre al borrar una venta archivada
+        boolean quitar(int id) {
+            int i = Arrays.binarySearch(ids, 0, tamano, id);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(ids, i + 1, ids, i, tamano - i - 1);
+            tamano--;
+            return true;
+        }
+
+        int size() {
+            return tamano;
+        }
+
+        int[] copiar() {
+            return Arrays.copyOf(ids, tamano);
+        }
+    }
+
+    // Caché LRU cuyo tamaño se mide en líneas de detalle para acotar la memoria real
+    private static class CacheVentas extends LinkedHashMap<Integer, VentaRegistrada> {
+        private final int capacidadLineas;
+        private int lineas;
+        private long aciertos;
+        private long fallos;
+        private long expulsiones;
+
+        CacheVentas(int capacidadLineas) {
+            super(16, 0.75f, true);     // Orden de acceso para LRU
+            this.capacidadLineas = capacidadLineas;
+        }
+
+        private static int peso(VentaRegistrada venta) {
+            return venta.getLineas() + 1;
+        }
+
+        @Override
+        public VentaRegistrada put(Integer id, VentaRegistrada venta) {
+            VentaRegistrada anterior = super.put(id, venta);
+            if (anterior != null) {
+                lineas -= peso(anterior);
+            }
+            lineas += peso(venta);
+            // Expulsamos las menos usadas hasta volver a la capacidad, conservando la recién cargada
+            Iterator<VentaRegistrada> it = values().iterator();
+            while (lineas > capacidadLineas && size() > 1) {
+                VentaRegistrada expulsada = it.next();
+                it.remove();
+                lineas -= peso(expulsada);
+                expulsiones++;
+            }
+            return anterior;
+        }
+
+        @Override
+        public VentaRegistrada remove(Object id) {
+            VentaRegistrada eliminada = super.remove(id);
+            if (eliminada != null) {
+                lineas -= peso(eliminada);
+            }
+            return eliminada;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Índice de prefijos para autocompletado mientras se escribe.
+ * Cada elemento se indexa por varios textos (nombre completo, cada palabra,
+ * código) normalizados sin tildes ni mayúsculas, sobre un árbol ordenado.
+ *
+ * Características principales:
+ * - Búsqueda de los primeros k elementos cuyo texto empieza por el prefijo
+ * - Insensible a mayúsculas, tildes y diéresis ("Pan Ñandú" ~ "pan nandu")
+ * - Actualización incremental al agregar, modificar o eliminar elementos
+ *
+ * Notas técnicas:
+ * - Las claves se guardan en un TreeMap; un prefijo es el rango [p, p + Character.MAX_VALUE)
+ * - Consulta O(log n + k) y actualización O(t log n), con t textos por elemento
+ * - Los métodos están sincronizados para poder consultar desde otros hilos
+ */
+package com.minimercado.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+public class IndicePrefijos<T> {
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    // Texto normalizado -> elementos que lo contienen, en orden de inserción
+    private final TreeMap<String, List<T>> claves = new TreeMap<>();
+    // Claves bajo las que se indexó cada elemento, para poder retirarlo
+    private final MapaEnteros<String[]> clavesPorId = new MapaEnteros<>();
+    private final MapaEnteros<T> elementos = new MapaEnteros<>();
+
+    // Indexa (o reindexa) el elemento por los textos dados
+    public synchronized void agregar(int id, T elemento, String... textos) {
+        eliminar(id);
+        Set<String> nuevas = new LinkedHashSet<>();
+        for (String texto : textos) {
+            String normalizado = normalizar(texto);
+            if (normalizado.isEmpty()) {
+                continue;
+            }
+            nuevas.add(normalizado);
+            for (String palabra : SEPARADORES.split(normalizado)) {
+                if (!palabra.isEmpty()) {
+                    nuevas.add(palabra);
+                }
+            }
+        }
+        for (String clave : nuevas) {
+            claves.computeIfAbsent(clave, c -> new ArrayList<>(1)).add(elemento);
+        }
+        clavesPorId.put(id, nuevas.toArray(new String[0]));
+        elementos.put(id, elemento);
+    }
+
+    // Retira el elemento de todas sus claves
+    public synchronized void eliminar(int id) {
+        String[] anteriores = clavesPorId.remove(id);
+        T elemento = elementos.remove(id);
+        if (anteriores == null) {
+            return;
+        }
+        for (String clave : anteriores) {
+            List<T> lista = claves.get(clave);
+            if (lista != null) {
+                lista.remove(elemento);
+                if (lista.isEmpty()) {
+                    claves.remove(clave);
+                }
+            }
+        }
+    }
+
+    // Devuelve hasta k elementos distintos con algún texto que empiece por el prefijo
+    public synchronized List<T> buscar(String prefijo, int k) {
+        String normalizado = normalizar(prefijo);
+        Map<String, List<T>> rango = normalizado.isEmpty()
+                ? claves
+                : claves.subMap(normalizado, true, normalizado + Character.MAX_VALUE, false);
+        Set<T> resultado = new LinkedHashSet<>();
+        for (List<T> lista : rango.values()) {
+            for (T elemento : lista) {
+                resultado.add(elemento);
+                if (resultado.size() >= k) {
+                    return new ArrayList<>(resultado);
+                }
+            }
+        }
+        return new ArrayList<>(resultado);
+    }
+
+    public synchronized int tamano() {
+        return elementos.size();
+    }
+
+    // Minúsculas, sin tildes y sin espacios sobrantes
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = texto;
+        // Solo descomponemos los textos que tienen caracteres fuera de ASCII
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 127) {
+                sinTildes = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        return ESPACIOS.matcher(sinTildes.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+}
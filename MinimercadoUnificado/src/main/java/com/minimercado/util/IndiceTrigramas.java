@@ -0,0 +1,203 @@
+/**
+ * Índice invertido de trigramas para búsqueda aproximada (tolerante a errores).
+ * Cada elemento se descompone en trigramas de sus textos normalizados y la
+ * consulta puntúa a los candidatos por el coeficiente de Dice entre trigramas.
+ *
+ * Características principales:
+ * - Encuentra coincidencias con letras cambiadas, faltantes o sobrantes
+ * - Resultados ordenados por similitud, limitados a los k mejores
+ * - Actualización incremental al agregar, modificar o eliminar elementos
+ *
+ * Notas técnicas:
+ * - Las listas de aparición guardan posiciones internas densas (slots), no objetos
+ * - El slot de cada ID está en un MapaLargos, sin objetos Integer
+ * - Cada slot recuerda su posición en cada lista de aparición: eliminar la quita
+ *   intercambiándola con la última, sin recorrer la lista
+ * - Los contadores de la consulta usan un arreglo por slot, sin mapas ni boxing
+ * - Los métodos están sincronizados: se consulta desde hilos de fondo
+ */
+package com.minimercado.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+public class IndiceTrigramas<T> {
+    // Similitud mínima (Dice) para considerar un candidato
+    private static final double SIMILITUD_MINIMA = 0.3;
+
+    // Trigrama -> slots de los elementos que lo contienen
+    private final Map<String, ListaApariciones> apariciones = new HashMap<>();
+    // ID externo -> slot interno + 1 (ver claveId)
+    private final MapaLargos slotPorId = new MapaLargos();
+    // Datos por slot: elemento, sus trigramas y su posición en la lista de cada trigrama
+    private final List<T> elementos = new ArrayList<>();
+    private final List<String[]> trigramasPorSlot = new ArrayList<>();
+    private final List<int[]> posicionesPorSlot = new ArrayList<>();
+    private final ListaEnteros slotsLibres = new ListaEnteros();
+    // Contadores de coincidencias reutilizados entre consultas
+    private int[] coincidencias = new int[0];
+
+    // Indexa (o reindexa) el elemento por los textos dados
+    public synchronized void agregar(int id, T elemento, String... textos) {
+        eliminar(id);
+        Set<String> trigramas = new LinkedHashSet<>();
+        for (String texto : textos) {
+            agregarTrigramas(IndicePrefijos.normalizar(texto), trigramas);
+        }
+        String[] propios = trigramas.toArray(new String[0]);
+        int[] posiciones = new int[propios.length];
+        int slot;
+        if (slotsLibres.tamano > 0) {
+            slot = slotsLibres.valores[--slotsLibres.tamano];
+            elementos.set(slot, elemento);
+            trigramasPorSlot.set(slot, propios);
+            posicionesPorSlot.set(slot, posiciones);
+        } else {
+            slot = elementos.size();
+            elementos.add(elemento);
+            trigramasPorSlot.add(propios);
+            posicionesPorSlot.add(posiciones);
+        }
+        for (int i = 0; i < propios.length; i++) {
+            posiciones[i] = apariciones.computeIfAbsent(propios[i], t -> new ListaApariciones()).agregar(slot, i);
+        }
+        slotPorId.sumar(claveId(id), slot + 1);
+    }
+
+    // Retira el elemento de todas las listas de aparición
+    public synchronized void eliminar(int id) {
+        int slot = (int) slotPorId.remove(claveId(id)) - 1;
+        if (slot < 0) {
+            return;
+        }
+        String[] propios = trigramasPorSlot.get(slot);
+        int[] posiciones = posicionesPorSlot.get(slot);
+        for (int i = 0; i < propios.length; i++) {
+            ListaApariciones lista = apariciones.get(propios[i]);
+            lista.quitarEn(posiciones[i], posicionesPorSlot);
+            if (lista.tamano == 0) {
+                apariciones.remove(propios[i]);
+            }
+        }
+        elementos.set(slot, null);
+        trigramasPorSlot.set(slot, new String[0]);
+        posicionesPorSlot.set(slot, new int[0]);
+        slotsLibres.agregar(slot);
+    }
+
+    // Devuelve hasta k elementos ordenados de mayor a menor similitud con la consulta
+    public synchronized List<T> buscar(String consulta, int k) {
+        Set<String> trigramasConsulta = new LinkedHashSet<>();
+        agregarTrigramas(IndicePrefijos.normalizar(consulta), trigramasConsulta);
+        List<T> resultado = new ArrayList<>();
+        if (trigramasConsulta.isEmpty() || k <= 0) {
+            return resultado;
+        }
+        if (coincidencias.length < elementos.size()) {
+            coincidencias = new int[Math.max(elementos.size(), coincidencias.length * 2)];
+        }
+        // Contamos trigramas compartidos y recordamos los slots tocados para limpiar después
+        ListaEnteros tocados = new ListaEnteros();
+        for (String trigrama : trigramasConsulta) {
+            ListaApariciones lista = apariciones.get(trigrama);
+            if (lista == null) {
+                continue;
+            }
+            for (int i = 0; i < lista.tamano; i++) {
+                int slot = lista.slots[i];
+                if (coincidencias[slot]++ == 0) {
+                    tocados.agregar(slot);
+                }
+            }
+        }
+        // Montículo de mínimos con los k mejores: [slot, similitud]
+        PriorityQueue<double[]> mejores = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(a[1], b[1]));
+        for (int i = 0; i < tocados.tamano; i++) {
+            int slot = tocados.valores[i];
+            double dice = 2.0 * coincidencias[slot] / (trigramasConsulta.size() + trigramasPorSlot.get(slot).length);
+            coincidencias[slot] = 0;
+            if (dice >= SIMILITUD_MINIMA) {
+                mejores.add(new double[]{slot, dice});
+                if (mejores.size() > k) {
+                    mejores.poll();
+                }
+            }
+        }
+        while (!mejores.isEmpty()) {
+            resultado.add(elementos.get((int) mejores.poll()[0]));
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    public synchronized int tamano() {
+        return slotPorId.size();
+    }
+
+    // MapaLargos no admite la clave 0: se desplaza el ID fuera del rango de int
+    private static long claveId(int id) {
+        return id + (1L << 32);
+    }
+
+    // Trigramas de cada palabra, con dos espacios delante y uno detrás ("  pe", " pe", "per", ...)
+    private static void agregarTrigramas(String normalizado, Set<String> destino) {
+        for (String palabra : normalizado.split(" ")) {
+            if (palabra.isEmpty()) {
+                continue;
+            }
+            String relleno = "  " + palabra + " ";
+            for (int i = 0; i + 3 <= relleno.length(); i++) {
+                destino.add(relleno.substring(i, i + 3));
+            }
+        }
+    }
+
+    // Arreglo creciente de enteros primitivos
+    private static class ListaEnteros {
+        private int[] valores = new int[4];
+        private int tamano;
+
+        void agregar(int valor) {
+            if (tamano == valores.length) {
+                valores = Arrays.copyOf(valores, tamano * 2);
+            }
+            valores[tamano++] = valor;
+        }
+    }
+
+    // Lista de aparición de un trigrama: cada slot con el índice del trigrama entre los suyos
+    private static class ListaApariciones {
+        private int[] slots = new int[4];
+        private int[] indices = new int[4];
+        private int tamano;
+
+        // Agrega el slot y devuelve su posición en la lista
+        int agregar(int slot, int indiceTrigrama) {
+            if (tamano == slots.length) {
+                slots = Arrays.copyOf(slots, tamano * 2);
+                indices = Arrays.copyOf(indices, tamano * 2);
+            }
+            slots[tamano] = slot;
+            indices[tamano] = indiceTrigrama;
+            return tamano++;
+        }
+
+        // Quita la posición llevando a ella la última (el orden no importa) y
+        // actualiza la posición registrada del slot movido
+        void quitarEn(int posicion, List<int[]> posicionesPorSlot) {
+            int ultima = --tamano;
+            if (posicion != ultima) {
+                slots[posicion] = slots[ultima];
+                indices[posicion] = indices[ultima];
+                posicionesPorSlot.get(slots[posicion])[indices[posicion]] = posicion;
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Índices secundarios sobre las ventas: por cliente y por fecha.
+ * Guardan solo IDs de venta, por lo que cubren por igual las ventas residentes
+ * y las archivadas en disco; el historial resuelve después cada ID.
+ *
+ * Características principales:
+ * - Cliente -> IDs de sus ventas, en orden de inserción
+ * - Índice de fechas ordenado para consultas por rango [desde, hasta)
+ * - Mantenimiento incremental al agregar y eliminar ventas
+ * - Guarda fecha, cliente y total de cada venta para listarlas sin leerlas de disco
+ *
+ * Notas técnicas:
+ * - Las fechas y los IDs se guardan en arreglos primitivos paralelos ordenados por (fecha, ID)
+ * - Las ventas llegan casi siempre en orden de fecha, así que insertar cuesta O(1) amortizado
+ * - Consultas O(log n + k) por rango y O(k) por cliente, con k ventas devueltas
+ * - No es seguro para hilos
+ */
+package com.minimercado.util;
+
+import java.util.Arrays;
+
+public class IndiceVentas {
+    // Cliente -> IDs de sus ventas
+    private final MapaEnteros<ListaIds> ventasPorCliente = new MapaEnteros<>();
+    // Fecha, cliente y total (bits del double) de cada venta
+    private final MapaEnteros<long[]> fechaPorId = new MapaEnteros<>();
+    // Índice ordenado por (fecha, ID)
+    private long[] fechas = new long[64];
+    private int[] ids = new int[64];
+    private int tamano;
+
+    // Indexa una venta; si ya estaba indexada se reemplaza
+    public void agregar(int id, int clienteId, long fecha, double total) {
+        eliminar(id);
+        ListaIds lista = ventasPorCliente.get(clienteId);
+        if (lista == null) {
+            lista = new ListaIds();
+            ventasPorCliente.put(clienteId, lista);
+        }
+        lista.agregar(id);
+        fechaPorId.put(id, new long[]{fecha, clienteId, Double.doubleToLongBits(total)});
+        if (tamano == fechas.length) {
+            fechas = Arrays.copyOf(fechas, tamano * 2);
+            ids = Arrays.copyOf(ids, tamano * 2);
+        }
+        // Caso habitual: la venta es la más reciente y va al final
+        int posicion = tamano;
+        if (tamano > 0 && compara(fecha, id, fechas[tamano - 1], ids[tamano - 1]) < 0) {
+            posicion = posicionDe(fecha, id);
+            System.arraycopy(fechas, posicion, fechas, posicion + 1, tamano - posicion);
+            System.arraycopy(ids, posicion, ids, posicion + 1, tamano - posicion);
+        }
+        fechas[posicion] = fecha;
+        ids[posicion] = id;
+        tamano++;
+    }
+
+    // Retira la venta de ambos índices
+    public void eliminar(int id) {
+        long[] datos = fechaPorId.remove(id);
+        if (datos == null) {
+            return;
+        }
+        ListaIds lista = ventasPorCliente.get((int) datos[1]);
+        if (lista != null) {
+            lista.quitar(id);
+            if (lista.tamano == 0) {
+                ventasPorCliente.remove((int) datos[1]);
+            }
+        }
+        int posicion = posicionDe(datos[0], id);
+        if (posicion < tamano && ids[posicion] == id) {
+            System.arraycopy(fechas, posicion + 1, fechas, posicion, tamano - posicion - 1);
+            System.arraycopy(ids, posicion + 1, ids, posicion, tamano - posicion - 1);
+            tamano--;
+        }
+    }
+
+    // IDs de las ventas del cliente, en orden de inserción
+    public int[] buscarPorCliente(int clienteId) {
+        ListaIds lista = ventasPorCliente.get(clienteId);
+        return lista == null ? new int[0] : Arrays.copyOf(lista.valores, lista.tamano);
+    }
+
+    public int contarPorCliente(int clienteId) {
+        ListaIds lista = ventasPorCliente.get(clienteId);
+        return lista == null ? 0 : lista.tamano;
+    }
+
+    // IDs de las ventas con fecha en [desde, hasta), ordenados por fecha
+    public int[] buscarPorRango(long desde, long hasta) {
+        int inicio = primeraPosicionDesde(desde);
+        int fin = primeraPosicionDesde(hasta);
+        return fin <= inicio ? new int[0] : Arrays.copyOfRange(ids, inicio, fin);
+    }
+
+    public int contarPorRango(long desde, long hasta) {
+        return Math.max(0, primeraPosicionDesde(hasta) - primeraPosicionDesde(desde));
+    }
+
+    public boolean contiene(int id) {
+        return fechaPorId.contiene(id);
+    }
+
+    // Fecha, cliente y total de una venta indexada (la venta debe estar indexada)
+    public long getFecha(int id) {
+        return fechaPorId.get(id)[0];
+    }
+
+    public int getClienteId(int id) {
+        return (int) fechaPorId.get(id)[1];
+    }
+
+    public double getTotal(int id) {
+        return Double.longBitsToDouble(fechaPorId.get(id)[2]);
+    }
+
+    // Fecha de la venta más antigua y más reciente indexadas (0 si no hay ventas)
+    public long getFechaMinima() {
+        return tamano == 0 ? 0 : fechas[0];
+    }
+
+    public long getFechaMaxima() {
+        return tamano == 0 ? 0 : fechas[tamano - 1];
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    // Primera posición cuya fecha es >= fecha
+    private int primeraPosicionDesde(long fecha) {
+        return posicionDe(fecha, Integer.MIN_VALUE);
+    }
+
+    // Búsqueda binaria de la primera posición >= (fecha, id)
+    private int posicionDe(long fecha, int id) {
+        int bajo = 0, alto = tamano;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (compara(fechas[medio], ids[medio], fecha, id) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private static int compara(long fechaA, int idA, long fechaB, int idB) {
+        int c = Long.compare(fechaA, fechaB);
+        return c != 0 ? c : Integer.compare(idA, idB);
+    }
+
+    // Arreglo creciente de IDs
+    private static class ListaIds {
+        private int[] valores = new int[4];
+        private int tamano;
+
+        void agregar(int id) {
+            if (tamano == valores.length) {
+                valores = Arrays.copyOf(valores, tamano * 2);
+            }
+            valores[tamano++] = id;
+        }
+
+        // Quita el ID conservando el orden de las demás
+        void quitar(int id) {
+            for (int i = tamano - 1; i >= 0; i--) {
+                if (valores[i] == id) {
+                    System.arraycopy(valores, i + 1, valores, i, tamano - i - 1);
+                    tamano--;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -45,6 +45,7 @@ public class InicializadorDatos {
         producto1.setIva(0.19);
         producto1.setDescuento(0.0);
         producto1.setStock(100);
+        producto1.setStockMinimo(20);
         productos.add(producto1);
         
         Producto producto2 = new Producto();
@@ -55,6 +56,7 @@ public class InicializadorDatos {
         producto2.setIva(0.19);
         producto2.setDescuento(0.0);
         producto2.setStock(50);
+        producto2.setStockMinimo(10);
         productos.add(producto2);
         
         Producto producto3 = new Producto();
@@ -65,6 +67,7 @@ public class InicializadorDatos {
         producto3.setIva(0.19);
         producto3.setDescuento(0.0);
         producto3.setStock(30);
+        producto3.setStockMinimo(10);
         productos.add(producto3);
         
         FileManager.guardarProductos(productos);
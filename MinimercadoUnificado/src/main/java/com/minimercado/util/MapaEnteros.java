@@ -0,0 +1,171 @@
+/**
+ * Mapa hash de direccionamiento abierto con claves int primitivas.
+ * Se usa como índice por ID junto a las listas de los controladores,
+ * evitando el boxing de Integer y las búsquedas lineales.
+ *
+ * Características principales:
+ * - Búsqueda, inserción y eliminación en O(1) promedio
+ * - Sondeo lineal sobre arreglos paralelos de claves y valores
+ * - Eliminación por desplazamiento hacia atrás, sin lápidas
+ *
+ * Notas técnicas:
+ * - Los valores no pueden ser null (null marca una celda vacía)
+ * - La capacidad es potencia de dos y se duplica al superar el 50% de ocupación
+ * - No es seguro para hilos
+ */
+package com.minimercado.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+public class MapaEnteros<V> {
+    private int[] claves;
+    private Object[] valores;
+    private int tamano;
+    private int mascara;
+    private int desplazamiento;
+
+    public MapaEnteros() {
+        this(16);
+    }
+
+    public MapaEnteros(int capacidadEsperada) {
+        int capacidad = 16;
+        while (capacidad < capacidadEsperada * 2) {
+            capacidad <<= 1;
+        }
+        claves = new int[capacidad];
+        valores = new Object[capacidad];
+        mascara = capacidad - 1;
+        desplazamiento = Integer.numberOfLeadingZeros(mascara);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int clave) {
+        int i = indice(clave);
+        while (valores[i] != null) {
+            if (claves[i] == clave) {
+                return (V) valores[i];
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    public boolean contiene(int clave) {
+        return get(clave) != null;
+    }
+
+    // Asocia el valor a la clave y devuelve el valor anterior, si existía
+    @SuppressWarnings("unchecked")
+    public V put(int clave, V valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("MapaEnteros no admite valores null");
+        }
+        int i = indice(clave);
+        while (valores[i] != null) {
+            if (claves[i] == clave) {
+                V anterior = (V) valores[i];
+                valores[i] = valor;
+                return anterior;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = clave;
+        valores[i] = valor;
+        if (++tamano * 2 > claves.length) {
+            redimensionar(claves.length * 2);
+        }
+        return null;
+    }
+
+    // Elimina la clave y devuelve el valor que tenía asociado
+    @SuppressWarnings("unchecked")
+    public V remove(int clave) {
+        int i = indice(clave);
+        while (valores[i] != null) {
+            if (claves[i] == clave) {
+                V anterior = (V) valores[i];
+                desplazarHaciaAtras(i);
+                tamano--;
+                return anterior;
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    public int size() {
+        return tamano;
+    }
+
+    public boolean isEmpty() {
+        return tamano == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(valores, null);
+        tamano = 0;
+    }
+
+    // Recorre los valores en un orden no especificado
+    @SuppressWarnings("unchecked")
+    public void forEachValor(Consumer<? super V> accion) {
+        for (Object valor : valores) {
+            if (valor != null) {
+                accion.accept((V) valor);
+            }
+        }
+    }
+
+    // Recorre las claves en un orden no especificado
+    public void forEachClave(IntConsumer accion) {
+        for (int i = 0; i < valores.length; i++) {
+            if (valores[i] != null) {
+                accion.accept(claves[i]);
+            }
+        }
+    }
+
+    // Dispersión de Fibonacci: los bits altos del producto reparten bien los IDs consecutivos
+    private int indice(int clave) {
+        return (clave * 0x9E3779B9) >>> desplazamiento;
+    }
+
+    // Rellena el hueco dejado en i moviendo hacia atrás las entradas de su misma cadena
+    private void desplazarHaciaAtras(int i) {
+        int hueco = i;
+        int j = (i + 1) & mascara;
+        while (valores[j] != null) {
+            int ideal = indice(claves[j]);
+            // La entrada j puede ocupar el hueco si su posición ideal no está entre hueco y j
+            if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+                claves[hueco] = claves[j];
+                valores[hueco] = valores[j];
+                hueco = j;
+            }
+            j = (j + 1) & mascara;
+        }
+        valores[hueco] = null;
+    }
+
+    private void redimensionar(int capacidad) {
+        int[] clavesAnteriores = claves;
+        Object[] valoresAnteriores = valores;
+        claves = new int[capacidad];
+        valores = new Object[capacidad];
+        mascara = capacidad - 1;
+        desplazamiento = Integer.numberOfLeadingZeros(mascara);
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            if (valoresAnteriores[i] != null) {
+                int j = indice(clavesAnteriores[i]);
+                while (valores[j] != null) {
+                    j = (j + 1) & mascara;
+                }
+                claves[j] = clavesAnteriores[i];
+                valores[j] = valoresAnteriores[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Mapa hash de direccionamiento abierto de claves long a contadores long, sin objetos.
+ * Complementa a MapaEnteros cuando la clave combina dos IDs (por ejemplo, un par de
+ * productos) y el valor es un simple contador.
+ *
+ * Características principales:
+ * - Búsqueda, suma y eliminación en O(1) promedio
+ * - Sondeo lineal sobre dos arreglos primitivos: 16 bytes por celda
+ * - Eliminación por desplazamiento hacia atrás, sin lápidas
+ * - Recorrido con eliminación de las entradas que no cumplen una condición
+ *
+ * Notas técnicas:
+ * - La clave 0 no se admite (marca una celda vacía)
+ * - Una entrada cuyo contador llega a 0 se elimina
+ * - La capacidad es potencia de dos y se duplica al superar el 50% de ocupación
+ * - No es seguro para hilos
+ */
+package com.minimercado.util;
+
+import java.util.Arrays;
+
+public class MapaLargos {
+    // Visitante de entradas
+    public interface VisitanteEntrada {
+        void visitar(long clave, long valor);
+    }
+
+    // Condición para conservar una entrada en retener
+    public interface CondicionEntrada {
+        boolean conservar(long clave, long valor);
+    }
+
+    private long[] claves;
+    private long[] valores;
+    private int tamano;
+    private int mascara;
+    private int desplazamiento;
+
+    public MapaLargos() {
+        this(16);
+    }
+
+    public MapaLargos(int capacidadEsperada) {
+        int capacidad = 16;
+        while (capacidad < capacidadEsperada * 2) {
+            capacidad <<= 1;
+        }
+        claves = new long[capacidad];
+        valores = new long[capacidad];
+        mascara = capacidad - 1;
+        desplazamiento = Long.numberOfLeadingZeros(mascara);
+    }
+
+    // Valor de la clave, o 0 si no está
+    public long get(long clave) {
+        int i = indice(clave);
+        while (claves[i] != 0) {
+            if (claves[i] == clave) {
+                return valores[i];
+            }
+            i = (i + 1) & mascara;
+        }
+        return 0;
+    }
+
+    // Suma al contador de la clave (lo crea si no existe) y devuelve el nuevo valor
+    public long sumar(long clave, long cantidad) {
+        if (clave == 0) {
+            throw new IllegalArgumentException("MapaLargos no admite la clave 0");
+        }
+        int i = indice(clave);
+        while (claves[i] != 0) {
+            if (claves[i] == clave) {
+                valores[i] += cantidad;
+                long valor = valores[i];
+                if (valor == 0) {
+                    desplazarHaciaAtras(i);
+                    tamano--;
+                }
+                return valor;
+            }
+            i = (i + 1) & mascara;
+        }
+        if (cantidad == 0) {
+            return 0;
+        }
+        claves[i] = clave;
+        valores[i] = cantidad;
+        if (++tamano * 2 > claves.length) {
+            redimensionar(claves.length * 2);
+        }
+        return cantidad;
+    }
+
+    // Elimina la clave y devuelve el valor que tenía (0 si no estaba)
+    public long remove(long clave) {
+        int i = indice(clave);
+        while (claves[i] != 0) {
+            if (claves[i] == clave) {
+                long anterior = valores[i];
+                desplazarHaciaAtras(i);
+                tamano--;
+                return anterior;
+            }
+            i = (i + 1) & mascara;
+        }
+        return 0;
+    }
+
+    public int size() {
+        return tamano;
+    }
+
+    public boolean isEmpty() {
+        return tamano == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(claves, 0);
+        tamano = 0;
+    }
+
+    // Recorre las entradas en un orden no especificado
+    public void forEach(VisitanteEntrada visitante) {
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != 0) {
+                visitante.visitar(claves[i], valores[i]);
+            }
+        }
+    }
+
+    // Elimina las entradas que no cumplen la condición y devuelve cuántas se eliminaron.
+    // Las conservadas se copian a una tabla nueva, que queda del tamaño que necesitan
+    public int retener(CondicionEntrada condicion) {
+        long[] clavesAnteriores = claves;
+        long[] valoresAnteriores = valores;
+        int anterior = tamano;
+        claves = new long[16];
+        valores = new long[16];
+        mascara = 15;
+        desplazamiento = Long.numberOfLeadingZeros(mascara);
+        tamano = 0;
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            if (clavesAnteriores[i] != 0 && condicion.conservar(clavesAnteriores[i], valoresAnteriores[i])) {
+                insertarNueva(clavesAnteriores[i], valoresAnteriores[i]);
+                if (tamano * 2 > claves.length) {
+                    redimensionar(claves.length * 2);
+                }
+            }
+        }
+        return anterior - tamano;
+    }
+
+    // Dispersión de Fibonacci sobre 64 bits
+    private int indice(long clave) {
+        return (int) ((clave * 0x9E3779B97F4A7C15L) >>> desplazamiento);
+    }
+
+    // Rellena el hueco dejado en i moviendo hacia atrás las entradas de su misma cadena
+    private void desplazarHaciaAtras(int i) {
+        int hueco = i;
+        int j = (i + 1) & mascara;
+        while (claves[j] != 0) {
+            int ideal = indice(claves[j]);
+            // La entrada j puede ocupar el hueco si su posición ideal no está entre hueco y j
+            if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+                claves[hueco] = claves[j];
+                valores[hueco] = valores[j];
+                hueco = j;
+            }
+            j = (j + 1) & mascara;
+        }
+        claves[hueco] = 0;
+    }
+
+    // Inserta una clave que se sabe ausente, sin comprobar la ocupación
+    private void insertarNueva(long clave, long valor) {
+        int j = indice(clave);
+        while (claves[j] != 0) {
+            j = (j + 1) & mascara;
+        }
+        claves[j] = clave;
+        valores[j] = valor;
+        tamano++;
+    }
+
+    private void redimensionar(int capacidad) {
+        long[] clavesAnteriores = claves;
+        long[] valoresAnteriores = valores;
+        claves = new long[capacidad];
+        valores = new long[capacidad];
+        mascara = capacidad - 1;
+        desplazamiento = Long.numberOfLeadingZeros(mascara);
+        tamano = 0;
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            if (clavesAnteriores[i] != 0) {
+                insertarNueva(clavesAnteriores[i], valoresAnteriores[i]);
+            }
+        }
+    }
+}
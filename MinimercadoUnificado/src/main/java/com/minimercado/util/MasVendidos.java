@@ -0,0 +1,273 @@
+/**
+ * Productos más vendidos en ventanas deslizantes, con memoria acotada.
+ * Cada ventana (última hora, último día, última semana) se divide en cubetas de
+ * tiempo y cada cubeta guarda un resumen SpaceSaving ponderado por unidades, con
+ * un número fijo de contadores. Las consultas combinan los resúmenes de la ventana.
+ *
+ * Características principales:
+ * - Memoria fija: ventanas x cubetas x capacidad contadores, sin importar el volumen
+ * - Alta en O(capacidad) en el peor caso por línea de venta
+ * - Top-k en O(cubetas x capacidad), sin recorrer ventas
+ * - Cada estimación trae su cota de error: las unidades reales están entre
+ *   estimado - error y estimado
+ *
+ * Notas técnicas:
+ * - La ventana avanza de cubeta en cubeta (5 minutos, 1 hora y 6 horas), así que
+ *   cubre entre la duración menos una cubeta y la duración completa
+ * - Al combinar cubetas, un producto que una cubeta no sigue suma el mínimo de esa
+ *   cubeta como cuenta y como error (resúmenes combinables)
+ * - Los resúmenes no admiten bajas: una venta eliminada se sigue contando hasta
+ *   que su cubeta sale de la ventana
+ * - Capacidad configurable con minimercado.masVendidos.capacidad
+ * - Todos los métodos públicos están sincronizados
+ */
+package com.minimercado.util;
+
+import com.minimercado.modelo.DetalleVenta;
+import com.minimercado.modelo.Venta;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class MasVendidos {
+    // Contadores por cubeta
+    private static final int CAPACIDAD = Integer.getInteger("minimercado.masVendidos.capacidad", 64);
+    private static final long MILLIS_HORA = 3_600_000L;
+
+    // Ventanas deslizantes con su duración y número de cubetas
+    public enum Ventana {
+        HORA(MILLIS_HORA, 12), DIA(24 * MILLIS_HORA, 24), SEMANA(7 * 24 * MILLIS_HORA, 28);
+
+        private final long duracion;
+        private final int cubetas;
+
+        Ventana(long duracion, int cubetas) {
+            this.duracion = duracion;
+            this.cubetas = cubetas;
+        }
+
+        public long getDuracion() { return duracion; }
+        long anchoCubeta() { return duracion / cubetas; }
+    }
+
+    // Estimación de unidades vendidas de un producto en una ventana
+    public static class Estimacion {
+        private final int productoId;
+        private final long unidades;
+        private final long error;
+        private boolean garantizado;
+
+        private Estimacion(int productoId, long unidades, long error) {
+            this.productoId = productoId;
+            this.unidades = unidades;
+            this.error = error;
+        }
+
+        public int getProductoId() { return productoId; }
+        // Cota superior de las unidades vendidas
+        public long getUnidades() { return unidades; }
+        // Máxima sobreestimación posible
+        public long getError() { return error; }
+        // Cota inferior de las unidades vendidas
+        public long getMinimo() { return unidades - error; }
+        // Si el producto está con seguridad entre los k primeros
+        public boolean isGarantizado() { return garantizado; }
+    }
+
+    // Resultado de una consulta top-k con las cotas de la ventana
+    public static class Resultado {
+        private final List<Estimacion> estimaciones;
+        private final long unidadesVentana;
+        private final long cotaError;
+
+        private Resultado(List<Estimacion> estimaciones, long unidadesVentana, long cotaError) {
+            this.estimaciones = estimaciones;
+            this.unidadesVentana = unidadesVentana;
+            this.cotaError = cotaError;
+        }
+
+        public List<Estimacion> getEstimaciones() { return estimaciones; }
+        // Unidades vendidas en la ventana (exacto)
+        public long getUnidadesVentana() { return unidadesVentana; }
+        // Error máximo de cualquier estimación de la ventana, incluidos los productos no listados
+        public long getCotaError() { return cotaError; }
+    }
+
+    // Resumen SpaceSaving ponderado de una cubeta de tiempo
+    private static class Resumen {
+        private long periodo = Long.MIN_VALUE;
+        private final int[] ids = new int[CAPACIDAD];
+        private final long[] cuentas = new long[CAPACIDAD];
+        private final long[] errores = new long[CAPACIDAD];
+        // ID de producto -> posición + 1 del contador que lo sigue (ver claveId)
+        private final MapaLargos posiciones = new MapaLargos(CAPACIDAD);
+        private int usados;
+        private long unidades;
+
+        void reiniciar(long periodo) {
+            this.periodo = periodo;
+            posiciones.clear();
+            usados = 0;
+            unidades = 0;
+        }
+
+        void sumar(int id, long cantidad) {
+            unidades += cantidad;
+            int posicion = (int) posiciones.get(claveId(id)) - 1;
+            if (posicion >= 0) {
+                cuentas[posicion] += cantidad;
+                return;
+            }
+            if (usados < CAPACIDAD) {
+                ids[usados] = id;
+                cuentas[usados] = cantidad;
+                errores[usados] = 0;
+                posiciones.sumar(claveId(id), ++usados);
+                return;
+            }
+            // Se reemplaza el contador mínimo: el nuevo producto hereda su cuenta como error
+            int minimo = posicionMinima();
+            posiciones.remove(claveId(ids[minimo]));
+            ids[minimo] = id;
+            errores[minimo] = cuentas[minimo];
+            cuentas[minimo] += cantidad;
+            posiciones.sumar(claveId(id), minimo + 1);
+        }
+
+        // MapaLargos no admite la clave 0: se desplaza el ID fuera del rango de int
+        private static long claveId(int id) {
+            return id + (1L << 32);
+        }
+
+        // Cuenta mínima; 0 mientras quedan contadores libres (todo lo visto está contado)
+        long minimo() {
+            return usados < CAPACIDAD ? 0 : cuentas[posicionMinima()];
+        }
+
+        private int posicionMinima() {
+            int minimo = 0;
+            for (int i = 1; i < usados; i++) {
+                if (cuentas[i] < cuentas[minimo]) {
+                    minimo = i;
+                }
+            }
+            return minimo;
+        }
+    }
+
+    // Anillo de cubetas por ventana, en el orden de Ventana.values()
+    private final Resumen[][] anillos;
+
+    public MasVendidos() {
+        Ventana[] ventanas = Ventana.values();
+        anillos = new Resumen[ventanas.length][];
+        for (Ventana ventana : ventanas) {
+            anillos[ventana.ordinal()] = new Resumen[ventana.cubetas];
+            for (int i = 0; i < ventana.cubetas; i++) {
+                anillos[ventana.ordinal()][i] = new Resumen();
+            }
+        }
+    }
+
+    // Suma las líneas de una venta finalizada en las cubetas de su fecha
+    public synchronized void agregarVenta(Venta venta) {
+        if (venta.getFecha() == null) {
+            return;
+        }
+        long fecha = venta.getFecha().getTime();
+        for (Ventana ventana : Ventana.values()) {
+            long periodo = Math.floorDiv(fecha, ventana.anchoCubeta());
+            Resumen cubeta = anillos[ventana.ordinal()][(int) Math.floorMod(periodo, (long) ventana.cubetas)];
+            if (cubeta.periodo > periodo) {
+                // La ranura ya pertenece a un período más reciente: la venta quedó fuera de la ventana
+                continue;
+            }
+            if (cubeta.periodo < periodo) {
+                cubeta.reiniciar(periodo);
+            }
+            for (DetalleVenta detalle : venta.getDetalles()) {
+                cubeta.sumar(detalle.getProducto().getId(), detalle.getCantidad());
+            }
+        }
+    }
+
+    // Los k productos con más unidades en la ventana que termina ahora
+    public Resultado top(Ventana ventana, int k) {
+        return top(ventana, k, System.currentTimeMillis());
+    }
+
+    // Los k productos con más unidades en la ventana que termina en el instante indicado;
+    // con k <= 0 la lista está vacía, pero se informan las unidades y la cota de error
+    public synchronized Resultado top(Ventana ventana, int k, long ahora) {
+        k = Math.max(k, 0);
+        long actual = Math.floorDiv(ahora, ventana.anchoCubeta());
+        // Suma de los mínimos: cuenta y error de un producto que ninguna cubeta sigue
+        long base = 0;
+        long unidades = 0;
+        List<Resumen> cubetas = new ArrayList<>(ventana.cubetas);
+        long[] minimos = new long[ventana.cubetas];
+        for (Resumen cubeta : anillos[ventana.ordinal()]) {
+            if (cubeta.periodo > actual - ventana.cubetas && cubeta.periodo <= actual) {
+                minimos[cubetas.size()] = cubeta.minimo();
+                base += minimos[cubetas.size()];
+                unidades += cubeta.unidades;
+                cubetas.add(cubeta);
+            }
+        }
+        // Por candidato {id, cuenta, error}: lo que aportan las cubetas que lo siguen
+        // por encima de su mínimo
+        MapaEnteros<long[]> candidatos = new MapaEnteros<>(cubetas.size() * CAPACIDAD);
+        List<long[]> deltas = new ArrayList<>();
+        for (int c = 0; c < cubetas.size(); c++) {
+            Resumen cubeta = cubetas.get(c);
+            for (int i = 0; i < cubeta.usados; i++) {
+                long[] delta = candidatos.get(cubeta.ids[i]);
+                if (delta == null) {
+                    delta = new long[]{cubeta.ids[i], 0, 0};
+                    candidatos.put(cubeta.ids[i], delta);
+                    deltas.add(delta);
+                }
+                delta[1] += cubeta.cuentas[i] - minimos[c];
+                delta[2] += cubeta.errores[i] - minimos[c];
+            }
+        }
+        // Selección de los k + 1 mayores con un montículo mínimo, sin ordenar todos los candidatos
+        PriorityQueue<long[]> mayores = new PriorityQueue<>(k + 2, (a, b) -> Long.compare(a[1], b[1]));
+        for (long[] delta : deltas) {
+            if (mayores.size() <= k) {
+                mayores.add(delta);
+            } else if (delta[1] > mayores.peek()[1]) {
+                mayores.poll();
+                mayores.add(delta);
+            }
+        }
+        // El (k + 1)-ésimo no se lista, pero sirve para decidir qué puestos son seguros
+        long siguiente = base;
+        if (mayores.size() > k) {
+            siguiente = base + mayores.poll()[1];
+        }
+        List<Estimacion> estimaciones = new ArrayList<>(mayores.size());
+        while (!mayores.isEmpty()) {
+            long[] delta = mayores.poll();
+            estimaciones.add(new Estimacion((int) delta[0], base + delta[1], base + delta[2]));
+        }
+        Collections.reverse(estimaciones);
+        // Está garantizado si su mínimo supera la estimación de cualquiera fuera del top-k
+        for (Estimacion estimacion : estimaciones) {
+            estimacion.garantizado = estimacion.getMinimo() >= siguiente;
+        }
+        // El error de un contador nunca supera el mínimo de su cubeta, así que la suma de
+        // los mínimos acota el error de cualquier producto (y es <= unidades / capacidad)
+        return new Resultado(estimaciones, unidades, base);
+    }
+
+    // Contadores reservados por todas las ventanas (memoria acotada)
+    public int getContadores() {
+        int total = 0;
+        for (Resumen[] anillo : anillos) {
+            total += anillo.length * CAPACIDAD;
+        }
+        return total;
+    }
+}
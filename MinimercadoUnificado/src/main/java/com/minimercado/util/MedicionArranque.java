@@ -0,0 +1,47 @@
+/**
+ * Registro de los hitos del arranque de la aplicación.
+ * Cada hito guarda los milisegundos transcurridos desde que arrancó la JVM, de modo
+ * que el tiempo hasta el primer pintado incluye también la carga de la máquina virtual.
+ *
+ * Características principales:
+ * - Hitos con nombre en el orden en que ocurrieron (ventana visible, primer pintado,
+ *   catálogos cargados, historial cargado, pestañas construidas)
+ * - Resumen en texto para la consola y el panel de diagnóstico
+ *
+ * Notas técnicas:
+ * - Se puede marcar desde cualquier hilo
+ * - Cada hito se imprime también en la salida de errores al registrarse
+ */
+package com.minimercado.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MedicionArranque {
+    // Instante de arranque de la JVM, en milisegundos de época
+    private static final long INICIO_JVM = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private static final List<String> HITOS = new ArrayList<>();
+
+    private MedicionArranque() {
+    }
+
+    // Registra un hito y devuelve los ms transcurridos desde el arranque de la JVM
+    public static long marcar(String hito) {
+        long transcurrido = System.currentTimeMillis() - INICIO_JVM;
+        String registro = String.format("%6d ms  %s (%s)", transcurrido, hito, Thread.currentThread().getName());
+        synchronized (HITOS) {
+            HITOS.add(registro);
+        }
+        System.err.println("[arranque] " + registro);
+        return transcurrido;
+    }
+
+    // Hitos registrados hasta el momento, en orden
+    public static List<String> getHitos() {
+        synchronized (HITOS) {
+            return new ArrayList<>(HITOS);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/**
+ * Monitor del hilo de eventos de Swing (EDT) para detectar bloqueos de la interfaz.
+ * Se instala como cola de eventos del sistema y mide cuánto tarda en despacharse
+ * cada evento; un hilo vigilante captura la pila del EDT cuando un evento supera
+ * el umbral, para saber qué acción de qué panel dejó la ventana congelada.
+ *
+ * Características principales:
+ * - Histograma de latencias de despacho en cubetas de potencias de dos (ms)
+ * - Percentiles aproximados, máximo y número de eventos lentos
+ * - Pila del EDT capturada mientras el evento sigue bloqueando, no al terminar
+ * - Registro de cada bloqueo en data/diagnostico_edt.log y en memoria para la vista de diagnóstico
+ *
+ * Notas técnicas:
+ * - El umbral se configura con -Dminimercado.edt.umbralMs (200 ms por defecto)
+ * - Medir un evento cuesta dos System.nanoTime() y un incremento atómico
+ * - El log se escribe desde el hilo escritor de EjecutorIO, nunca desde el EDT
+ * - Se conservan en memoria los últimos MAX_BLOQUEOS registros
+ * - Los eventos que abren un diálogo modal no cuentan como bloqueo: se miden los eventos
+ *   despachados dentro del diálogo
+ */
+package com.minimercado.util;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.swing.AbstractButton;
+
+public class MonitorEDT extends EventQueue {
+    // Umbral de bloqueo y frecuencia del vigilante
+    private static final long UMBRAL_MS = Long.getLong("minimercado.edt.umbralMs", 200L);
+    private static final long PERIODO_VIGILANCIA_MS = Math.max(10, UMBRAL_MS / 4);
+    private static final int MAX_BLOQUEOS = 50;
+    // Límites superiores de las cubetas del histograma en ms; la última es "más de 1024 ms"
+    private static final long[] LIMITES_MS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024, Long.MAX_VALUE};
+
+    private static MonitorEDT instancia;
+
+    private final AtomicLongArray histograma = new AtomicLongArray(LIMITES_MS.length);
+    private volatile long maximoNanos;
+    private volatile long lentos;
+    // Evento en despacho: inicio (0 si no hay) y descripción; los lee el vigilante
+    private volatile long inicioActual;
+    private volatile AWTEvent eventoActual;
+    private volatile Thread hiloEDT;
+    // Inicio del evento cuya pila ya se capturó, para capturarla una sola vez por evento
+    private volatile long inicioCapturado;
+    // Profundidad de despacho y si el evento actual despachó eventos anidados (solo los usa el EDT)
+    private int profundidad;
+    private boolean conModal;
+    private final ArrayDeque<String> bloqueos = new ArrayDeque<>();
+
+    // Instala el monitor como cola de eventos del sistema y arranca el vigilante
+    public static synchronized MonitorEDT instalar() {
+        if (instancia == null) {
+            instancia = new MonitorEDT();
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(instancia);
+            Thread vigilante = new Thread(instancia::vigilar, "minimercado-vigilante-edt");
+            vigilante.setDaemon(true);
+            vigilante.start();
+        }
+        return instancia;
+    }
+
+    // Monitor instalado, o null si no se instaló
+    public static synchronized MonitorEDT getInstancia() {
+        return instancia;
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent evento) {
+        // Un despacho anidado significa que el evento exterior abrió un diálogo modal
+        boolean anidado = profundidad > 0;
+        boolean modalPrevio = conModal;
+        profundidad++;
+        conModal = false;
+        hiloEDT = Thread.currentThread();
+        eventoActual = evento;
+        long inicio = System.nanoTime();
+        inicioActual = inicio;
+        try {
+            super.dispatchEvent(evento);
+        } finally {
+            long duracion = System.nanoTime() - inicio;
+            boolean abrioModal = conModal;
+            profundidad--;
+            conModal = modalPrevio || anidado;
+            // Tras un despacho anidado el evento exterior queda esperando al diálogo: no se vigila
+            inicioActual = 0;
+            eventoActual = null;
+            // Un evento que abrió un diálogo modal mide la espera del usuario, no un bloqueo
+            if (!abrioModal) {
+                registrar(duracion);
+                if (duracion >= UMBRAL_MS * 1_000_000L) {
+                    lentos++;
+                    agregarBloqueo(String.format("[%s] Evento terminado tras %.1f ms: %s%n",
+                            ahora(), duracion / 1e6, describir(evento)));
+                }
+            }
+        }
+    }
+
+    // Bucle del vigilante: si el evento en curso supera el umbral, captura la pila del EDT
+    private void vigilar() {
+        while (true) {
+            try {
+                Thread.sleep(PERIODO_VIGILANCIA_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long inicio = inicioActual;
+            AWTEvent evento = eventoActual;
+            Thread edt = hiloEDT;
+            if (inicio == 0 || edt == null || inicio == inicioCapturado) {
+                continue;
+            }
+            long transcurrido = System.nanoTime() - inicio;
+            if (transcurrido >= UMBRAL_MS * 1_000_000L) {
+                inicioCapturado = inicio;
+                StringBuilder registro = new StringBuilder();
+                registro.append(String.format("[%s] EDT bloqueado %.1f ms en: %s%n",
+                        ahora(), transcurrido / 1e6, describir(evento)));
+                for (StackTraceElement marco : edt.getStackTrace()) {
+                    registro.append("    at ").append(marco).append('\n');
+                }
+                agregarBloqueo(registro.toString());
+            }
+        }
+    }
+
+    private void registrar(long duracionNanos) {
+        long ms = duracionNanos / 1_000_000L;
+        int cubeta = 0;
+        while (ms >= LIMITES_MS[cubeta]) {
+            cubeta++;
+        }
+        histograma.incrementAndGet(cubeta);
+        if (duracionNanos > maximoNanos) {
+            maximoNanos = duracionNanos;
+        }
+    }
+
+    private void agregarBloqueo(String registro) {
+        synchronized (bloqueos) {
+            bloqueos.addLast(registro);
+            if (bloqueos.size() > MAX_BLOQUEOS) {
+                bloqueos.removeFirst();
+            }
+        }
+        EjecutorIO.escribir(() -> FileManager.agregarDiagnosticoEDT(registro));
+    }
+
+    // Tipo de evento y origen; para botones y menús incluye el texto, que identifica la acción
+    private static String describir(AWTEvent evento) {
+        if (evento == null) {
+            return "(desconocido)";
+        }
+        Object origen = evento.getSource();
+        String nombreOrigen = origen == null ? "?" : origen.getClass().getSimpleName();
+        if (origen instanceof AbstractButton) {
+            nombreOrigen += " \"" + ((AbstractButton) origen).getText() + "\"";
+        }
+        String detalle = evento instanceof ActionEvent ? ((ActionEvent) evento).getActionCommand() : evento.paramString();
+        return evento.getClass().getSimpleName() + " de " + nombreOrigen + " (" + detalle + ")";
+    }
+
+    private static String ahora() {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date());
+    }
+
+    // Conteos por cubeta del histograma
+    public long[] getHistograma() {
+        long[] copia = new long[LIMITES_MS.length];
+        for (int i = 0; i < copia.length; i++) {
+            copia[i] = histograma.get(i);
+        }
+        return copia;
+    }
+
+    // Etiqueta de cada cubeta ("< 1 ms", "1-2 ms", ..., ">= 1024 ms")
+    public static String[] getEtiquetasHistograma() {
+        String[] etiquetas = new String[LIMITES_MS.length];
+        for (int i = 0; i < etiquetas.length; i++) {
+            if (i == 0) {
+                etiquetas[i] = "< " + LIMITES_MS[0] + " ms";
+            } else if (i == etiquetas.length - 1) {
+                etiquetas[i] = ">= " + LIMITES_MS[i - 1] + " ms";
+            } else {
+                etiquetas[i] = LIMITES_MS[i - 1] + "-" + LIMITES_MS[i] + " ms";
+            }
+        }
+        return etiquetas;
+    }
+
+    public long getEventos() {
+        long total = 0;
+        for (int i = 0; i < histograma.length(); i++) {
+            total += histograma.get(i);
+        }
+        return total;
+    }
+
+    // Percentil aproximado: límite superior de la cubeta que lo contiene (en ms)
+    public long getPercentilMs(double percentil) {
+        long[] conteos = getHistograma();
+        long total = 0;
+        for (long c : conteos) {
+            total += c;
+        }
+        long objetivo = (long) Math.ceil(total * percentil / 100.0);
+        long acumulado = 0;
+        for (int i = 0; i < conteos.length; i++) {
+            acumulado += conteos[i];
+            if (acumulado >= objetivo && acumulado > 0) {
+                return i == conteos.length - 1 ? getMaximoMs() : LIMITES_MS[i];
+            }
+        }
+        return 0;
+    }
+
+    public long getMaximoMs() {
+        return maximoNanos / 1_000_000L;
+    }
+
+    public long getEventosLentos() {
+        return lentos;
+    }
+
+    public long getUmbralMs() {
+        return UMBRAL_MS;
+    }
+
+    // Últimos bloqueos registrados, del más reciente al más antiguo
+    public List<String> getBloqueos() {
+        synchronized (bloqueos) {
+            List<String> copia = new ArrayList<>(bloqueos);
+            Collections.reverse(copia);
+            return copia;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/**
+ * Motor que resuelve una ConsultaVentas sobre el almacén de ventas.
+ * Todos los filtros, el orden y la paginación se evalúan sobre IDs, con los
+ * índices y las columnas de líneas; solo las ventas de la página pedida se
+ * materializan como objetos Venta.
+ *
+ * Características principales:
+ * - Poda por metadatos: un rango fuera de las fechas del historial no toca nada
+ * - Elige como acceso el índice más selectivo (cliente o fechas) o las columnas por producto
+ * - El producto se evalúa en las columnas, saltando bloques por sus mínimos y máximos
+ * - Total mínimo y orden por total usan el total guardado en el índice, sin leer líneas
+ * - Plan de ejecución legible para ver qué índice se usó y cuántas ventas pasó cada paso
+ *
+ * Notas técnicas:
+ * - Las ventas en curso no están en las columnas: se evalúan sobre la Venta residente
+ * - Los IDs se ordenan solo si el acceso elegido no los entrega ya en el orden pedido,
+ *   sobre arreglos primitivos de claves e IDs (sin cajas Integer ni comparadores)
+ * - No es seguro para hilos; se usa con la misma disciplina que el historial
+ */
+package com.minimercado.util;
+
+import com.minimercado.modelo.DetalleVenta;
+import com.minimercado.modelo.Venta;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+public class MotorConsultaVentas {
+    private final HistorialVentas historial;
+    private final IndiceVentas indice;
+    private final ColumnasDetalleVenta lineas;
+    // IDs de las ventas en curso, que aún no tienen líneas en las columnas
+    private final Set<Integer> ventasEnCurso;
+
+    public MotorConsultaVentas(HistorialVentas historial, IndiceVentas indice,
+                               ColumnasDetalleVenta lineas, Set<Integer> ventasEnCurso) {
+        this.historial = historial;
+        this.indice = indice;
+        this.lineas = lineas;
+        this.ventasEnCurso = ventasEnCurso;
+    }
+
+    // Ejecuta la consulta y materializa solo la página pedida
+    public List<Venta> ejecutar(ConsultaVentas consulta) {
+        return historial.buscarVarias(buscarIds(consulta));
+    }
+
+    // IDs de la página pedida, sin materializar ventas
+    public int[] buscarIds(ConsultaVentas consulta) {
+        return paginar(planificar(consulta, null), consulta);
+    }
+
+    // Número total de ventas que cumplen los filtros, sin paginar
+    public int contar(ConsultaVentas consulta) {
+        return planificar(consulta, null).length;
+    }
+
+    // Ejecuta la fase de IDs y devuelve el plan con el acceso elegido y los conteos de cada paso
+    public String explicar(ConsultaVentas consulta) {
+        StringBuilder plan = new StringBuilder("Consulta: ").append(consulta).append('\n');
+        long inicio = System.nanoTime();
+        int[] ids = planificar(consulta, plan);
+        int pagina = paginar(ids, consulta).length;
+        paso(plan, "Paginación: %d de %d ventas (desplazamiento %d)", pagina, ids.length, consulta.getDesplazamiento());
+        paso(plan, "Materializa: %d ventas", pagina);
+        paso(plan, "Tiempo de planificación y filtrado: %.3f ms", (System.nanoTime() - inicio) / 1e6);
+        return plan.toString();
+    }
+
+    // Resuelve filtros y orden sobre IDs; si plan no es null, anota cada paso
+    private int[] planificar(ConsultaVentas consulta, StringBuilder plan) {
+        long desde = consulta.getDesdeMillis();
+        long hasta = consulta.getHastaMillis();
+
+        // 1. Poda por metadatos del historial
+        if (indice.tamano() == 0 || desde >= hasta
+                || desde > indice.getFechaMaxima() || hasta <= indice.getFechaMinima()) {
+            if (plan != null) {
+                SimpleDateFormat formato = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+                paso(plan, "Poda por metadatos: el rango no se solapa con el historial (%s - %s); no se lee nada",
+                        indice.tamano() == 0 ? "vacío" : formato.format(new Date(indice.getFechaMinima())),
+                        indice.tamano() == 0 ? "vacío" : formato.format(new Date(indice.getFechaMaxima())));
+            }
+            return new int[0];
+        }
+
+        // 2. Acceso por el índice más selectivo
+        int porCliente = consulta.getClienteId() > 0 ? indice.contarPorCliente(consulta.getClienteId()) : Integer.MAX_VALUE;
+        int porRango = consulta.tieneRango() ? indice.contarPorRango(desde, hasta) : Integer.MAX_VALUE;
+        int[] ids;
+        boolean filtrarCliente = consulta.getClienteId() > 0;
+        boolean filtrarFecha = consulta.tieneRango();
+        boolean filtrarProducto = consulta.getProductoId() > 0;
+        boolean enOrdenDeFecha = false;
+        if (filtrarCliente && porCliente <= porRango) {
+            ids = indice.buscarPorCliente(consulta.getClienteId());
+            filtrarCliente = false;
+            if (plan != null) {
+                paso(plan, "Acceso: índice por cliente %d -> %d ventas (índice de fechas daría %s)", consulta.getClienteId(),
+                        ids.length, porRango == Integer.MAX_VALUE ? "todas" : String.valueOf(porRango));
+            }
+        } else if (filtrarFecha) {
+            ids = indice.buscarPorRango(desde, hasta);
+            filtrarFecha = false;
+            enOrdenDeFecha = true;
+            if (plan != null) {
+                paso(plan, "Acceso: índice de fechas por rango -> %d ventas", ids.length);
+            }
+        } else if (filtrarProducto) {
+            ids = ventasConProducto(consulta.getProductoId(), plan);
+            filtrarProducto = false;
+        } else {
+            ids = indice.buscarPorRango(Long.MIN_VALUE, Long.MAX_VALUE);
+            enOrdenDeFecha = true;
+            if (plan != null) {
+                paso(plan, "Acceso: recorrido completo del índice de fechas -> %d ventas", ids.length);
+            }
+        }
+
+        // 3. Filtros residuales con los datos del índice (sin leer ventas)
+        boolean filtrarTotal = consulta.getTotalMinimo() >= 0;
+        if (filtrarCliente || filtrarFecha || filtrarTotal) {
+            int n = 0;
+            for (int id : ids) {
+                if (filtrarCliente && indice.getClienteId(id) != consulta.getClienteId()) {
+                    continue;
+                }
+                long fecha = indice.getFecha(id);
+                if (filtrarFecha && (fecha < desde || fecha >= hasta)) {
+                    continue;
+                }
+                if (filtrarTotal && indice.getTotal(id) < consulta.getTotalMinimo()) {
+                    continue;
+                }
+                ids[n++] = id;
+            }
+            ids = Arrays.copyOf(ids, n);
+            if (plan != null) {
+                paso(plan, "Filtro sobre el índice:%s%s%s -> %d ventas",
+                        filtrarCliente ? " cliente" : "", filtrarFecha ? " fecha" : "",
+                        filtrarTotal ? String.format(" total >= %.2f", consulta.getTotalMinimo()) : "", n);
+            }
+        }
+
+        // 4. Filtro de producto sobre las columnas de líneas
+        if (ids.length > 0 && filtrarProducto) {
+            MapaEnteros<Boolean> conProducto = filtrarLineas(ids, consulta.getProductoId(), desde, hasta, plan);
+            int n = 0;
+            for (int id : ids) {
+                if (conProducto.contiene(id)) {
+                    ids[n++] = id;
+                }
+            }
+            ids = Arrays.copyOf(ids, n);
+            if (plan != null) {
+                paso(plan, "Filtro sobre columnas: producto %d -> %d ventas", consulta.getProductoId(), n);
+            }
+        }
+
+        // 5. Orden
+        return ordenar(ids, consulta.getOrden(), enOrdenDeFecha, plan);
+    }
+
+    // Ventas que contienen el producto: columnas (saltando bloques) más las ventas en curso
+    private int[] ventasConProducto(int productoId, StringBuilder plan) {
+        MapaEnteros<Boolean> encontradas = new MapaEnteros<>();
+        int bloques = lineas.escanearAcotado(Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                f -> lineas.getProductoId(f) == productoId,
+                f -> encontradas.put(lineas.getVentaId(f), Boolean.TRUE));
+        for (Integer id : ventasEnCurso) {
+            Venta venta = historial.buscar(id);
+            if (venta != null && contieneProducto(venta, productoId)) {
+                encontradas.put(id, Boolean.TRUE);
+            }
+        }
+        int[] ids = new int[encontradas.size()];
+        int n = 0;
+        for (int id : indice.buscarPorRango(Long.MIN_VALUE, Long.MAX_VALUE)) {
+            if (encontradas.contiene(id)) {
+                ids[n++] = id;
+            }
+        }
+        if (plan != null) {
+            paso(plan, "Acceso: columnas por producto %d (%d de %d bloques) y %d ventas en curso -> %d ventas",
+                    productoId, bloques, lineas.getBloques(), ventasEnCurso.size(), n);
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    // Ventas candidatas que contienen el producto, leyendo solo los bloques de líneas que pueden tenerlas
+    private MapaEnteros<Boolean> filtrarLineas(int[] ids, int productoId, long desde, long hasta, StringBuilder plan) {
+        MapaEnteros<Boolean> candidatas = new MapaEnteros<>(ids.length);
+        MapaEnteros<Boolean> conProducto = new MapaEnteros<>();
+        int idMinimo = Integer.MAX_VALUE, idMaximo = Integer.MIN_VALUE;
+        int enCurso = 0;
+        for (int id : ids) {
+            if (ventasEnCurso.contains(id)) {
+                // Sin líneas en las columnas: se evalúa la venta residente
+                Venta venta = historial.buscar(id);
+                if (venta != null && contieneProducto(venta, productoId)) {
+                    conProducto.put(id, Boolean.TRUE);
+                }
+                enCurso++;
+            } else {
+                candidatas.put(id, Boolean.TRUE);
+                idMinimo = Math.min(idMinimo, id);
+                idMaximo = Math.max(idMaximo, id);
+            }
+        }
+        int bloques = 0;
+        if (idMinimo <= idMaximo) {
+            bloques = lineas.escanearAcotado(desde, hasta, idMinimo, idMaximo,
+                    f -> lineas.getProductoId(f) == productoId && candidatas.contiene(lineas.getVentaId(f)),
+                    f -> conProducto.put(lineas.getVentaId(f), Boolean.TRUE));
+        }
+        if (plan != null) {
+            paso(plan, "Columnas de líneas: %d de %d bloques leídos para %d ventas (%d en curso evaluadas en memoria)",
+                    bloques, lineas.getBloques(), ids.length - enCurso, enCurso);
+        }
+        return conProducto;
+    }
+
+    // Ordena los IDs por una clave primitiva (fecha, total o el propio ID) y, a igual clave, por ID
+    private int[] ordenar(int[] ids, ConsultaVentas.Orden orden, boolean enOrdenDeFecha, StringBuilder plan) {
+        boolean descendente = orden == ConsultaVentas.Orden.FECHA_DESC || orden == ConsultaVentas.Orden.ID_DESC
+                || orden == ConsultaVentas.Orden.TOTAL_DESC;
+        boolean fecha = orden == ConsultaVentas.Orden.FECHA_ASC || orden == ConsultaVentas.Orden.FECHA_DESC;
+        boolean total = orden == ConsultaVentas.Orden.TOTAL_ASC || orden == ConsultaVentas.Orden.TOTAL_DESC;
+        long[] claves = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            claves[i] = total ? claveOrdenable(indice.getTotal(ids[i])) : fecha ? indice.getFecha(ids[i]) : ids[i];
+        }
+        // El índice ya entrega los IDs ordenados, o el acceso los dejó en orden (p. ej. por cliente)
+        boolean ordenados = (fecha && enOrdenDeFecha) || estaOrdenado(claves, ids);
+        if (!ordenados) {
+            ordenarPorClave(claves, ids, new long[ids.length], new int[ids.length], 0, ids.length);
+        }
+        if (descendente) {
+            for (int i = 0, j = ids.length - 1; i < j; i++, j--) {
+                int t = ids[i];
+                ids[i] = ids[j];
+                ids[j] = t;
+            }
+        }
+        if (plan != null) {
+            paso(plan, "Orden: %s (%s)", orden, ordenados ? "ya en orden, sin ordenar" : "ordenado en memoria sobre " + ids.length + " IDs");
+        }
+        return ids;
+    }
+
+    private static boolean estaOrdenado(long[] claves, int[] ids) {
+        for (int i = 1; i < ids.length; i++) {
+            if (comparar(claves, ids, i - 1, i) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Convierte un double en un long con el mismo orden que Double.compare
+    private static long claveOrdenable(double valor) {
+        long bits = Double.doubleToLongBits(valor);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    // Mergesort de [desde, hasta) sobre los arreglos paralelos de claves e IDs
+    private static void ordenarPorClave(long[] claves, int[] ids, long[] clavesAux, int[] idsAux, int desde, int hasta) {
+        if (hasta - desde < 2) {
+            return;
+        }
+        int medio = (desde + hasta) >>> 1;
+        ordenarPorClave(claves, ids, clavesAux, idsAux, desde, medio);
+        ordenarPorClave(claves, ids, clavesAux, idsAux, medio, hasta);
+        if (comparar(claves, ids, medio - 1, medio) <= 0) {
+            return;
+        }
+        System.arraycopy(claves, desde, clavesAux, desde, hasta - desde);
+        System.arraycopy(ids, desde, idsAux, desde, hasta - desde);
+        int i = desde, j = medio;
+        for (int k = desde; k < hasta; k++) {
+            if (j >= hasta || (i < medio && comparar(clavesAux, idsAux, i, j) <= 0)) {
+                claves[k] = clavesAux[i];
+                ids[k] = idsAux[i++];
+            } else {
+                claves[k] = clavesAux[j];
+                ids[k] = idsAux[j++];
+            }
+        }
+    }
+
+    private static int comparar(long[] claves, int[] ids, int a, int b) {
+        int c = Long.compare(claves[a], claves[b]);
+        return c != 0 ? c : Integer.compare(ids[a], ids[b]);
+    }
+
+    private static int[] paginar(int[] ids, ConsultaVentas consulta) {
+        int inicio = Math.min(consulta.getDesplazamiento(), ids.length);
+        int fin = (int) Math.min((long) inicio + consulta.getLimite(), ids.length);
+        return Arrays.copyOfRange(ids, inicio, fin);
+    }
+
+    private static boolean contieneProducto(Venta venta, int productoId) {
+        for (DetalleVenta d : venta.getDetalles()) {
+            if (d.getProducto() != null && d.getProducto().getId() == productoId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void paso(StringBuilder plan, String formato, Object... args) {
+        plan.append(" - ").append(String.format(formato, args)).append('\n');
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Posiciones en disco de las ventas del historial: el byte donde empieza su línea en
+ * ventas.csv, el byte de su primer detalle en detalles_venta.csv y cuántos detalles tiene.
+ * Permite leer una venta archivada por acceso directo en lugar de recorrer los archivos.
+ *
+ * Características principales:
+ * - Arreglos primitivos paralelos ordenados por ID: 24 bytes por venta, sin objetos
+ * - Búsqueda binaria por ID
+ * - Se llena durante el recorrido de arranque, que ya lee los archivos en orden de ID
+ *
+ * Notas técnicas:
+ * - Las posiciones pueden quedar desactualizadas si se reescriben los archivos (por ejemplo,
+ *   al eliminar una venta anterior): quien lee debe validar las líneas y, si no coinciden,
+ *   recorrer los archivos y reemplazar las posiciones
+ * - Una venta sin detalles tiene posición de detalle -1
+ * - Los IDs que no son crecientes se ignoran (los archivos se escriben en orden de ID)
+ * - Todos los métodos públicos están sincronizados
+ */
+package com.minimercado.util;
+
+import java.util.Arrays;
+
+public class PosicionesVentas {
+    private int[] ids = new int[1024];
+    private long[] posicionesVenta = new long[1024];
+    private long[] posicionesDetalle = new long[1024];
+    private int[] lineas = new int[1024];
+    private int tamano;
+
+    // Registra la posición de la venta siguiente en el orden de los archivos
+    public synchronized void agregar(int id, long posicionVenta, long posicionDetalle, int lineasDetalle) {
+        if (tamano > 0 && id <= ids[tamano - 1]) {
+            return;
+        }
+        if (tamano == ids.length) {
+            int capacidad = Math.max(1024, tamano * 2);
+            ids = Arrays.copyOf(ids, capacidad);
+            posicionesVenta = Arrays.copyOf(posicionesVenta, capacidad);
+            posicionesDetalle = Arrays.copyOf(posicionesDetalle, capacidad);
+            lineas = Arrays.copyOf(lineas, capacidad);
+        }
+        ids[tamano] = id;
+        posicionesVenta[tamano] = posicionVenta;
+        posicionesDetalle[tamano] = posicionDetalle;
+        lineas[tamano] = lineasDetalle;
+        tamano++;
+    }
+
+    // {posición de la venta, posición del primer detalle, detalles}, o null si no se conoce
+    public synchronized long[] obtener(int id) {
+        int i = Arrays.binarySearch(ids, 0, tamano, id);
+        return i >= 0 ? new long[]{posicionesVenta[i], posicionesDetalle[i], lineas[i]} : null;
+    }
+
+    // Reemplaza todas las posiciones por las de otro recorrido de los archivos
+    public synchronized void reemplazar(PosicionesVentas otras) {
+        synchronized (otras) {
+            ids = Arrays.copyOf(otras.ids, otras.tamano);
+            posicionesVenta = Arrays.copyOf(otras.posicionesVenta, otras.tamano);
+            posicionesDetalle = Arrays.copyOf(otras.posicionesDetalle, otras.tamano);
+            lineas = Arrays.copyOf(otras.lineas, otras.tamano);
+            tamano = otras.tamano;
+        }
+    }
+
+    public synchronized int size() {
+        return tamano;
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Pronóstico de demanda por producto y lista de reposición por días de cobertura.
+ * Cada producto guarda una suma de unidades vendidas con decaimiento exponencial en
+ * el tiempo; de ella sale la demanda diaria suavizada sin volver a recorrer ventas.
+ *
+ * Características principales:
+ * - Actualización en O(1) por línea de venta finalizada
+ * - Demanda diaria suavizada con una vida media configurable
+ * - Días de cobertura (stock / demanda diaria) y pedido sugerido por producto
+ * - Lista de reposición ordenada por urgencia en O(productos x log k)
+ *
+ * Notas técnicas:
+ * - Suavizado en tiempo continuo: entre dos ventas la suma decae con exp(-lambda x días),
+ *   así que los días sin ventas bajan la demanda aunque no haya actualizaciones
+ * - Se corrige el sesgo de los productos con poca historia dividiendo por el peso
+ *   acumulado desde su primera venta (como mínimo un día)
+ * - Las ventas con fecha anterior a la última se suman ya decaídas
+ * - Vida media con minimercado.demanda.vidaMediaDias (14) y cobertura objetivo con
+ *   minimercado.reposicion.diasCobertura (14)
+ * - Todos los métodos públicos están sincronizados
+ */
+package com.minimercado.util;
+
+import com.minimercado.modelo.DetalleVenta;
+import com.minimercado.modelo.Producto;
+import com.minimercado.modelo.Venta;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class PronosticoDemanda {
+    private static final double MILLIS_DIA = 86_400_000.0;
+    private static final double VIDA_MEDIA_DIAS = Double.parseDouble(
+            System.getProperty("minimercado.demanda.vidaMediaDias", "14"));
+    private static final int DIAS_COBERTURA = Integer.getInteger("minimercado.reposicion.diasCobertura", 14);
+    // Decaimiento por día
+    private static final double LAMBDA = Math.log(2) / VIDA_MEDIA_DIAS;
+
+    // Estado suavizado de un producto; las fechas en días desde la época
+    private static class Demanda {
+        double suma;
+        double ultima;
+        double primera;
+    }
+
+    // Producto a reponer con su demanda y cobertura
+    public static class Reposicion {
+        private final Producto producto;
+        private final double demandaDiaria;
+        private final double diasCobertura;
+        private final int pedidoSugerido;
+
+        private Reposicion(Producto producto, double demandaDiaria, double diasCobertura, int pedidoSugerido) {
+            this.producto = producto;
+            this.demandaDiaria = demandaDiaria;
+            this.diasCobertura = diasCobertura;
+            this.pedidoSugerido = pedidoSugerido;
+        }
+
+        public Producto getProducto() { return producto; }
+        public double getDemandaDiaria() { return demandaDiaria; }
+        // Días que dura el stock actual al ritmo de la demanda suavizada
+        public double getDiasCobertura() { return diasCobertura; }
+        // Unidades para cubrir la cobertura objetivo
+        public int getPedidoSugerido() { return pedidoSugerido; }
+    }
+
+    private final MapaEnteros<Demanda> demandas = new MapaEnteros<>();
+
+    // Suma las líneas de una venta finalizada
+    public synchronized void agregarVenta(Venta venta) {
+        if (venta.getFecha() == null) {
+            return;
+        }
+        double dia = venta.getFecha().getTime() / MILLIS_DIA;
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            if (detalle.getProducto() != null) {
+                sumar(detalle.getProducto().getId(), dia, detalle.getCantidad());
+            }
+        }
+    }
+
+    // Resta una venta eliminada a partir de sus líneas; debe llamarse antes de marcarlas
+    // como inactivas
+    public synchronized void quitarVenta(ColumnasDetalleVenta columnas, int ventaId) {
+        columnas.escanearAcotado(Long.MIN_VALUE, Long.MAX_VALUE, ventaId, ventaId,
+                fila -> columnas.getVentaId(fila) == ventaId,
+                fila -> sumar(columnas.getProductoId(fila), columnas.getFecha(fila) / MILLIS_DIA,
+                        -columnas.getCantidad(fila)));
+    }
+
+    private void sumar(int productoId, double dia, int cantidad) {
+        Demanda demanda = demandas.get(productoId);
+        if (demanda == null) {
+            if (cantidad <= 0) {
+                return;
+            }
+            demanda = new Demanda();
+            demanda.ultima = dia;
+            demanda.primera = dia;
+            demandas.put(productoId, demanda);
+        }
+        if (dia >= demanda.ultima) {
+            demanda.suma = demanda.suma * Math.exp(-LAMBDA * (dia - demanda.ultima)) + cantidad;
+            demanda.ultima = dia;
+        } else {
+            // Venta anterior a la última: entra con el decaimiento que ya habría tenido
+            demanda.suma += cantidad * Math.exp(-LAMBDA * (demanda.ultima - dia));
+            demanda.primera = Math.min(demanda.primera, dia);
+        }
+        // Una baja no puede dejar demanda negativa
+        demanda.suma = Math.max(0, demanda.suma);
+    }
+
+    // Demanda diaria suavizada del producto en el instante indicado (0 si nunca se vendió)
+    public synchronized double getDemandaDiaria(int productoId, long ahora) {
+        Demanda demanda = demandas.get(productoId);
+        return demanda != null ? demandaDiaria(demanda, ahora / MILLIS_DIA) : 0;
+    }
+
+    private static double demandaDiaria(Demanda demanda, double hoy) {
+        double decaida = demanda.suma * Math.exp(-LAMBDA * Math.max(0, hoy - demanda.ultima));
+        // Con demanda constante r desde la primera venta, la suma vale r (1 - e^(-lambda T)) / lambda
+        double historia = Math.max(1, hoy - demanda.primera);
+        return LAMBDA * decaida / (1 - Math.exp(-LAMBDA * historia));
+    }
+
+    // Los productos con menos días de cobertura que el objetivo, del más urgente al menos
+    // urgente, como mucho maximo
+    public List<Reposicion> calcularReposicion(List<Producto> productos, long ahora, int maximo) {
+        if (maximo <= 0) {
+            return new ArrayList<>();
+        }
+        double hoy = ahora / MILLIS_DIA;
+        // Montículo con el menos urgente arriba, para quedarse con los maximo más urgentes
+        PriorityQueue<Reposicion> urgentes = new PriorityQueue<>(maximo + 1,
+                (a, b) -> Double.compare(b.diasCobertura, a.diasCobertura));
+        synchronized (this) {
+            for (Producto producto : productos) {
+                Demanda demanda = demandas.get(producto.getId());
+                if (demanda == null) {
+                    continue;
+                }
+                double diaria = demandaDiaria(demanda, hoy);
+                if (diaria <= 0) {
+                    continue;
+                }
+                int stock = Math.max(0, producto.getStock());
+                double cobertura = stock / diaria;
+                if (cobertura >= DIAS_COBERTURA) {
+                    continue;
+                }
+                if (urgentes.size() < maximo) {
+                    urgentes.add(new Reposicion(producto, diaria, cobertura,
+                            (int) Math.ceil(diaria * DIAS_COBERTURA - stock)));
+                } else if (cobertura < urgentes.peek().diasCobertura) {
+                    urgentes.poll();
+                    urgentes.add(new Reposicion(producto, diaria, cobertura,
+                            (int) Math.ceil(diaria * DIAS_COBERTURA - stock)));
+                }
+            }
+        }
+        List<Reposicion> resultado = new ArrayList<>(urgentes.size());
+        while (!urgentes.isEmpty()) {
+            resultado.add(urgentes.poll());
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    public static int getDiasCobertura() {
+        return DIAS_COBERTURA;
+    }
+
+    public synchronized int getProductos() {
+        return demandas.size();
+    }
+}
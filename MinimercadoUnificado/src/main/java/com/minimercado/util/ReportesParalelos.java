@@ -0,0 +1,236 @@
+/**
+ * Motor de reportes ad hoc sobre el historial de líneas de venta, en paralelo.
+ * Cada reporte es un map-reduce particionado sobre el almacén columnar: un
+ * ForkJoinPool reparte los rangos de filas, cada tarea acumula en su propio mapa
+ * y los mapas parciales se combinan de dos en dos al unir las tareas.
+ *
+ * Características principales:
+ * - Reportes por producto, por cliente, por hora del día y por tasa de IVA
+ * - Filtro por rango de fechas en cualquier reporte
+ * - Ventas, líneas, unidades, subtotal, IVA, descuento, total e ingreso neto por grupo
+ * - Sin estado compartido entre tareas: no hay bloqueos ni contención al acumular
+ *
+ * Notas técnicas:
+ * - Lee las columnas fuera del heap; no materializa ventas ni lee archivos
+ * - Los cortes entre tareas se ajustan a los límites de venta: cada venta la cuenta
+ *   entera la tarea donde empieza, así que las ventas por grupo son exactas
+ * - Las altas y bajas esperan a que termine el reporte (lectura exclusiva de las columnas)
+ * - Las líneas no guardan costo, así que el reporte por tasa de IVA da el ingreso neto
+ *   (subtotal menos descuento) en lugar de un margen sobre costo
+ * - Hilos configurables con minimercado.reportes.hilos (por defecto, los núcleos disponibles)
+ */
+package com.minimercado.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class ReportesParalelos {
+    private static final int HILOS = Integer.getInteger("minimercado.reportes.hilos",
+            Runtime.getRuntime().availableProcessors());
+    // Tareas por hilo: algo de holgura para repartir la carga si un rango es más lento
+    private static final int TAREAS_POR_HILO = 4;
+    private static final long MILLIS_HORA = 3_600_000L;
+    private static final long MILLIS_DIA = 86_400_000L;
+
+    // Agrupaciones disponibles
+    public enum Tipo {
+        PRODUCTO, CLIENTE, HORA_DEL_DIA, TASA_IVA
+    }
+
+    // Métricas de un grupo. La clave es el ID de producto o cliente, la hora (0-23) o la
+    // tasa de IVA en centésimas de punto porcentual (1900 = 19%)
+    public static class Grupo {
+        private final int clave;
+        private long ventas;
+        private long lineas;
+        private long unidades;
+        private double subtotal;
+        private double iva;
+        private double descuento;
+        private double total;
+
+        private Grupo(int clave) {
+            this.clave = clave;
+        }
+
+        private void combinar(Grupo otro) {
+            ventas += otro.ventas;
+            lineas += otro.lineas;
+            unidades += otro.unidades;
+            subtotal += otro.subtotal;
+            iva += otro.iva;
+            descuento += otro.descuento;
+            total += otro.total;
+        }
+
+        // Getters
+        public int getClave() { return clave; }
+        public long getVentas() { return ventas; }
+        public long getLineas() { return lineas; }
+        public long getUnidades() { return unidades; }
+        public double getSubtotal() { return subtotal; }
+        public double getIva() { return iva; }
+        public double getDescuento() { return descuento; }
+        public double getTotal() { return total; }
+        // Ingreso sin impuestos después de descuentos
+        public double getIngresoNeto() { return subtotal - descuento; }
+        // Tasa de IVA del grupo como fracción (solo en el reporte por tasa)
+        public double getTasaIva() { return clave / 10000.0; }
+    }
+
+    private final ColumnasDetalleVenta columnas;
+    private final ForkJoinPool pool;
+    private final TimeZone zona;
+
+    public ReportesParalelos(ColumnasDetalleVenta columnas) {
+        this(columnas, HILOS);
+    }
+
+    public ReportesParalelos(ColumnasDetalleVenta columnas, int hilos) {
+        this.columnas = columnas;
+        this.pool = new ForkJoinPool(Math.max(1, hilos));
+        this.zona = TimeZone.getDefault();
+    }
+
+    // Calcula un reporte sobre las líneas activas con fecha en [desde, hasta). Los reportes
+    // por producto y cliente se ordenan por total descendente; los demás, por clave
+    public List<Grupo> calcular(Tipo tipo, long desde, long hasta) {
+        MapaEnteros<Grupo> grupos = columnas.leerExclusivo(() -> {
+            int filas = columnas.getFilas();
+            int porTarea = Math.max(ColumnasDetalleVenta.FILAS_POR_BLOQUE,
+                    filas / (pool.getParallelism() * TAREAS_POR_HILO) + 1);
+            return pool.invoke(new Tarea(tipo, desde, hasta, 0, filas, filas, porTarea));
+        });
+        List<Grupo> resultado = new ArrayList<>(grupos.size());
+        grupos.forEachValor(resultado::add);
+        if (tipo == Tipo.PRODUCTO || tipo == Tipo.CLIENTE) {
+            resultado.sort((a, b) -> Double.compare(b.total, a.total));
+        } else {
+            resultado.sort(Comparator.comparingInt(Grupo::getClave));
+        }
+        return resultado;
+    }
+
+    public int getHilos() {
+        return pool.getParallelism();
+    }
+
+    // Acumula las ventas que empiezan en [inicio, fin); divide el rango mientras sea grande
+    private class Tarea extends RecursiveTask<MapaEnteros<Grupo>> {
+        private final Tipo tipo;
+        private final long desde, hasta;
+        private final int inicio, fin, filas, porTarea;
+
+        Tarea(Tipo tipo, long desde, long hasta, int inicio, int fin, int filas, int porTarea) {
+            this.tipo = tipo;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.inicio = inicio;
+            this.fin = fin;
+            this.filas = filas;
+            this.porTarea = porTarea;
+        }
+
+        @Override
+        protected MapaEnteros<Grupo> compute() {
+            if (fin - inicio <= porTarea) {
+                return acumular();
+            }
+            int medio = (inicio + fin) >>> 1;
+            Tarea izquierda = new Tarea(tipo, desde, hasta, inicio, medio, filas, porTarea);
+            Tarea derecha = new Tarea(tipo, desde, hasta, medio, fin, filas, porTarea);
+            izquierda.fork();
+            MapaEnteros<Grupo> parcial = derecha.compute();
+            return combinar(izquierda.join(), parcial);
+        }
+
+        private MapaEnteros<Grupo> acumular() {
+            MapaEnteros<Grupo> grupos = new MapaEnteros<>();
+            int f = inicio;
+            // Las filas iniciales de una venta que empezó antes son de la tarea anterior
+            while (f > 0 && f < fin && columnas.getVentaId(f) == columnas.getVentaId(f - 1)) {
+                f++;
+            }
+            int ventaActual = 0;
+            // Claves ya contadas en la venta actual, para contar cada venta una vez por grupo
+            int[] clavesVenta = new int[8];
+            int contadas = 0;
+            // La última venta del rango se termina aunque sus líneas pasen de fin
+            for (; f < filas; f++) {
+                int venta = columnas.getVentaId(f);
+                if (venta != ventaActual) {
+                    if (f >= fin) {
+                        break;
+                    }
+                    ventaActual = venta;
+                    contadas = 0;
+                }
+                if (!columnas.isActiva(f)) {
+                    continue;
+                }
+                long fecha = columnas.getFecha(f);
+                if (fecha < desde || fecha >= hasta) {
+                    continue;
+                }
+                int clave = clave(f, fecha);
+                Grupo grupo = grupos.get(clave);
+                if (grupo == null) {
+                    grupo = new Grupo(clave);
+                    grupos.put(clave, grupo);
+                }
+                boolean contada = false;
+                for (int i = 0; i < contadas && !contada; i++) {
+                    contada = clavesVenta[i] == clave;
+                }
+                if (!contada) {
+                    if (contadas == clavesVenta.length) {
+                        clavesVenta = Arrays.copyOf(clavesVenta, contadas * 2);
+                    }
+                    clavesVenta[contadas++] = clave;
+                    grupo.ventas++;
+                }
+                grupo.lineas++;
+                grupo.unidades += columnas.getCantidad(f);
+                grupo.subtotal += columnas.getSubtotalBase(f);
+                grupo.iva += columnas.getIvaMonto(f);
+                grupo.descuento += columnas.getDescuentoMonto(f);
+                grupo.total += columnas.getTotalDetalle(f);
+            }
+            return grupos;
+        }
+
+        private int clave(int fila, long fecha) {
+            switch (tipo) {
+                case PRODUCTO:
+                    return columnas.getProductoId(fila);
+                case CLIENTE:
+                    return columnas.getClienteId(fila);
+                case HORA_DEL_DIA:
+                    return (int) (Math.floorMod(fecha + zona.getOffset(fecha), MILLIS_DIA) / MILLIS_HORA);
+                default:
+                    double subtotal = columnas.getSubtotalBase(fila);
+                    return subtotal != 0 ? (int) Math.round(columnas.getIvaMonto(fila) / subtotal * 10000) : 0;
+            }
+        }
+    }
+
+    // Combina dos resultados parciales, volcando el menor sobre el mayor
+    private static MapaEnteros<Grupo> combinar(MapaEnteros<Grupo> a, MapaEnteros<Grupo> b) {
+        MapaEnteros<Grupo> mayor = a.size() >= b.size() ? a : b;
+        MapaEnteros<Grupo> menor = mayor == a ? b : a;
+        menor.forEachValor(grupo -> {
+            Grupo existente = mayor.get(grupo.clave);
+            if (existente == null) {
+                mayor.put(grupo.clave, grupo);
+            } else {
+                existente.combinar(grupo);
+            }
+        });
+        return mayor;
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Pruebas de AcumuladosVentas: las altas y bajas incrementales, la reconstrucción
+ * desde las columnas de líneas y un recorrido directo de las ventas vigentes dan
+ * las mismas cubetas en las cuatro dimensiones.
+ */
+package com.minimercado.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.minimercado.modelo.Cliente;
+import com.minimercado.modelo.DetalleVenta;
+import com.minimercado.modelo.Producto;
+import com.minimercado.modelo.Venta;
+import com.minimercado.util.AcumuladosVentas.Acumulado;
+import com.minimercado.util.AcumuladosVentas.Dimension;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+import org.junit.Test;
+
+public class AcumuladosVentasTest {
+    private static final long MILLIS_HORA = 3_600_000L;
+    private static final long MILLIS_DIA = 86_400_000L;
+    private static final long INICIO = 1_700_006_400_000L;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void reconstruirCoincideConIncrementalYConRecorrido() {
+        Random azar = new Random(9);
+        Producto[] productos = new Producto[40];
+        for (int i = 0; i < productos.length; i++) {
+            productos[i] = new Producto();
+            productos[i].setId(i + 1);
+            productos[i].setPrecio(1 + azar.nextInt(5000) / 100.0);
+            productos[i].setIva(azar.nextBoolean() ? 0.19 : 0.05);
+            productos[i].setDescuento(azar.nextInt(4) == 0 ? 0.1 : 0);
+        }
+        AcumuladosVentas incremental = new AcumuladosVentas(UTC);
+        ColumnasDetalleVenta columnas = new ColumnasDetalleVenta();
+        List<Venta> vigentes = new ArrayList<>();
+        for (int id = 1; id <= 5000; id++) {
+            Cliente cliente = new Cliente();
+            cliente.setId(azar.nextInt(60) + 1);
+            Venta venta = new Venta(cliente);
+            venta.setId(id);
+            venta.setFecha(new Date(INICIO + (long) (azar.nextDouble() * 10 * MILLIS_DIA)));
+            // Algunas ventas sin líneas (no se acumulan) y algunas con un producto repetido
+            int lineas = azar.nextInt(10) == 0 ? 0 : azar.nextInt(4) + 1;
+            for (int l = 0; l < lineas; l++) {
+                venta.agregarDetalle(new DetalleVenta(productos[azar.nextInt(productos.length)], azar.nextInt(5) + 1));
+            }
+            incremental.agregarVenta(venta);
+            columnas.agregarVenta(venta);
+            vigentes.add(venta);
+        }
+        // Bajas: los acumulados se restan antes de marcar las líneas como inactivas
+        for (int i = 0; i < 500; i++) {
+            Venta eliminada = vigentes.remove(azar.nextInt(vigentes.size()));
+            incremental.quitarVenta(columnas, eliminada.getId());
+            columnas.eliminarVenta(eliminada.getId());
+        }
+
+        AcumuladosVentas reconstruidos = new AcumuladosVentas(UTC);
+        reconstruidos.reconstruir(columnas);
+        assertEquals(incremental.getVentasAcumuladas(), reconstruidos.getVentasAcumuladas());
+        assertEquals(incremental.getSumaIds(), reconstruidos.getSumaIds());
+        for (Dimension dimension : Dimension.values()) {
+            Map<Integer, double[]> esperado = recorrer(vigentes, dimension);
+            verificar(dimension, esperado, incremental);
+            verificar(dimension, esperado, reconstruidos);
+        }
+
+        long ventasConLineas = vigentes.stream().filter(v -> !v.getDetalles().isEmpty()).count();
+        assertEquals(ventasConLineas, reconstruidos.getVentasAcumuladas());
+    }
+
+    @Test
+    public void cargarLoSerializadoConservaLasCubetas() {
+        AcumuladosVentas acumulados = new AcumuladosVentas(UTC);
+        Producto producto = new Producto();
+        producto.setId(3);
+        producto.setPrecio(12.5);
+        for (int id = 1; id <= 100; id++) {
+            Cliente cliente = new Cliente();
+            cliente.setId(id % 7 + 1);
+            Venta venta = new Venta(cliente);
+            venta.setId(id);
+            venta.setFecha(new Date(INICIO + id * MILLIS_HORA));
+            venta.agregarDetalle(new DetalleVenta(producto, id % 3 + 1));
+            acumulados.agregarVenta(venta);
+        }
+        AcumuladosVentas cargados = new AcumuladosVentas(UTC);
+        assertTrue(cargados.cargar(acumulados.serializar()));
+        for (Dimension dimension : Dimension.values()) {
+            List<Acumulado> originales = acumulados.consultarTodo(dimension);
+            assertEquals(originales.size(), cargados.getCubetas(dimension));
+            for (Acumulado a : originales) {
+                Acumulado b = cargados.obtener(dimension, a.getClave());
+                assertNotNull(b);
+                assertEquals(a.getVentas(), b.getVentas());
+                assertEquals(a.getUnidades(), b.getUnidades());
+                assertEquals(a.getTotal(), b.getTotal(), DELTA);
+            }
+        }
+    }
+
+    // Recorrido directo: clave -> {ventas, unidades, subtotal, iva, descuento, total}
+    private static Map<Integer, double[]> recorrer(List<Venta> ventas, Dimension dimension) {
+        Map<Integer, double[]> cubetas = new HashMap<>();
+        for (Venta venta : ventas) {
+            if (venta.getDetalles().isEmpty()) {
+                continue;
+            }
+            long fecha = venta.getFecha().getTime();
+            Set<Integer> contados = new HashSet<>();
+            for (DetalleVenta d : venta.getDetalles()) {
+                int clave;
+                switch (dimension) {
+                    case HORA:
+                        clave = (int) Math.floorDiv(fecha, MILLIS_HORA);
+                        break;
+                    case DIA:
+                        clave = (int) Math.floorDiv(fecha, MILLIS_DIA);
+                        break;
+                    case PRODUCTO:
+                        clave = d.getProducto().getId();
+                        break;
+                    default:
+                        clave = venta.getCliente().getId();
+                }
+                double[] c = cubetas.computeIfAbsent(clave, k -> new double[6]);
+                // En la dimensión producto la venta cuenta una vez por producto distinto
+                if (contados.add(clave)) {
+                    c[0]++;
+                }
+                c[1] += d.getCantidad();
+                c[2] += d.getSubtotalBase();
+                c[3] += d.getIvaMonto();
+                c[4] += d.getDescuentoMonto();
+                c[5] += d.getTotalDetalle();
+            }
+        }
+        return cubetas;
+    }
+
+    private static void verificar(Dimension dimension, Map<Integer, double[]> esperado, AcumuladosVentas acumulados) {
+        List<Acumulado> cubetas = acumulados.consultarTodo(dimension);
+        assertEquals(dimension.toString(), esperado.size(), cubetas.size());
+        for (Acumulado a : cubetas) {
+            double[] c = esperado.get(a.getClave());
+            assertNotNull(dimension + " " + a.getClave(), c);
+            assertEquals((long) c[0], a.getVentas());
+            assertEquals((long) c[1], a.getUnidades());
+            assertEquals(c[2], a.getSubtotal(), DELTA);
+            assertEquals(c[3], a.getIva(), DELTA);
+            assertEquals(c[4], a.getDescuento(), DELTA);
+            assertEquals(c[5], a.getTotal(), DELTA);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Pruebas de AlertasStock contra un recorrido completo de los productos vigilados:
+ * tras cada cambio se comparan el conteo de alertas, el más urgente, los k más
+ * urgentes y la transición que devuelve actualizar.
+ */
+package com.minimercado.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class AlertasStockTest {
+
+    @Test
+    public void coincideConRecorridoCompleto() {
+        Random azar = new Random(11);
+        AlertasStock alertas = new AlertasStock(4);
+        // ID -> {stock, stock mínimo} de los productos vigilados
+        Map<Integer, int[]> vigilados = new HashMap<>();
+        for (int op = 0; op < 50_000; op++) {
+            int id = azar.nextInt(300) + 1;
+            if (azar.nextInt(10) == 0) {
+                boolean estaba = enAlerta(vigilados.remove(id));
+                assertEquals(estaba, alertas.quitar(id));
+            } else {
+                int stock = azar.nextInt(40) - 5;
+                // Un mínimo de 0 deja de vigilar el producto
+                int minimo = azar.nextInt(5) == 0 ? 0 : azar.nextInt(20) + 1;
+                boolean antes = enAlerta(vigilados.get(id));
+                if (minimo > 0) {
+                    vigilados.put(id, new int[]{stock, minimo});
+                } else {
+                    vigilados.remove(id);
+                }
+                boolean despues = enAlerta(vigilados.get(id));
+                assertEquals(Boolean.compare(despues, antes), alertas.actualizar(id, stock, minimo));
+            }
+            if (op % 97 == 0) {
+                verificar(alertas, vigilados, azar.nextInt(12));
+            }
+        }
+        verificar(alertas, vigilados, vigilados.size());
+    }
+
+    @Test
+    public void sinAlertasNoHayUrgentes() {
+        AlertasStock alertas = new AlertasStock();
+        alertas.actualizar(1, 50, 10);
+        assertEquals(0, alertas.getMasUrgente());
+        assertEquals(0, alertas.obtenerUrgentes(5).length);
+        assertEquals(1, alertas.getVigilados());
+    }
+
+    private static void verificar(AlertasStock alertas, Map<Integer, int[]> vigilados, int k) {
+        List<Integer> urgentes = new ArrayList<>();
+        for (Map.Entry<Integer, int[]> e : vigilados.entrySet()) {
+            if (enAlerta(e.getValue())) {
+                urgentes.add(e.getKey());
+            }
+        }
+        // Menor proporción primero; a igual proporción, menor ID
+        urgentes.sort((a, b) -> {
+            int c = Double.compare(proporcion(vigilados.get(a)), proporcion(vigilados.get(b)));
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        assertEquals(vigilados.size(), alertas.getVigilados());
+        assertEquals(urgentes.size(), alertas.getEnAlerta());
+        assertEquals(urgentes.isEmpty() ? 0 : (int) urgentes.get(0), alertas.getMasUrgente());
+        int[] esperados = new int[Math.min(k, urgentes.size())];
+        for (int i = 0; i < esperados.length; i++) {
+            esperados[i] = urgentes.get(i);
+        }
+        assertArrayEquals(esperados, alertas.obtenerUrgentes(k));
+        for (Map.Entry<Integer, int[]> e : vigilados.entrySet()) {
+            assertEquals(proporcion(e.getValue()), alertas.getProporcion(e.getKey()), 0);
+        }
+    }
+
+    private static boolean enAlerta(int[] producto) {
+        return producto != null && proporcion(producto) <= 1;
+    }
+
+    private static double proporcion(int[] producto) {
+        return (double) Math.max(0, producto[0]) / producto[1];
+    }
+}
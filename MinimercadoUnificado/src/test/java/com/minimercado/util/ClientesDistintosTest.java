@@ -0,0 +1,119 @@
+/**
+ * Pruebas de ClientesDistintos: la serialización conserva las estimaciones y la firma,
+ * la reconstrucción desde las columnas equivale a la carga incremental, y las
+ * estimaciones quedan cerca del conteo exacto de clientes distintos.
+ */
+package com.minimercado.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.minimercado.modelo.Cliente;
+import com.minimercado.modelo.DetalleVenta;
+import com.minimercado.modelo.Producto;
+import com.minimercado.modelo.Venta;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClientesDistintosTest {
+    private static final long MILLIS_DIA = 86_400_000L;
+    private static final long INICIO = 1_700_006_400_000L; // Medianoche UTC
+    private static final int DIAS = 40;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final List<Venta> ventas = new ArrayList<>();
+    private ClientesDistintos clientes;
+
+    @Before
+    public void generarVentas() {
+        Random azar = new Random(5);
+        Producto producto = new Producto();
+        producto.setId(1);
+        producto.setPrecio(10);
+        clientes = new ClientesDistintos(UTC);
+        for (int id = 1; id <= 60_000; id++) {
+            Venta venta = new Venta(cliente(azar.nextInt(25_000) + 1));
+            venta.setId(id);
+            venta.setFecha(new Date(INICIO + (long) (azar.nextDouble() * DIAS * MILLIS_DIA)));
+            venta.agregarDetalle(new DetalleVenta(producto, 1));
+            ventas.add(venta);
+            clientes.agregarVenta(venta);
+        }
+    }
+
+    @Test
+    public void serializarYCargarConservaEstimaciones() {
+        ClientesDistintos cargados = new ClientesDistintos(UTC);
+        assertTrue(cargados.cargar(clientes.serializar()));
+        assertEquals(clientes.getDias(), cargados.getDias());
+        assertEquals(clientes.getVentasAcumuladas(), cargados.getVentasAcumuladas());
+        assertEquals(clientes.getSumaIds(), cargados.getSumaIds());
+        for (int dia = 0; dia < DIAS; dia++) {
+            for (int largo : new int[]{1, 7, DIAS}) {
+                long desde = INICIO + dia * MILLIS_DIA;
+                long hasta = desde + largo * MILLIS_DIA;
+                assertEquals(clientes.estimar(desde, hasta), cargados.estimar(desde, hasta));
+            }
+        }
+        assertEquals(clientes.estimar(Long.MIN_VALUE, Long.MAX_VALUE), cargados.estimar(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void cargarRechazaOtraZonaYDatosCorruptos() {
+        byte[] datos = clientes.serializar();
+        assertFalse(new ClientesDistintos(TimeZone.getTimeZone("America/Bogota")).cargar(datos));
+        datos[0] ^= 0x7F;
+        ClientesDistintos corruptos = new ClientesDistintos(UTC);
+        assertFalse(corruptos.cargar(datos));
+        assertEquals(0, corruptos.getDias());
+    }
+
+    @Test
+    public void reconstruirDesdeColumnasEquivaleALaCargaIncremental() {
+        ColumnasDetalleVenta columnas = new ColumnasDetalleVenta();
+        for (Venta venta : ventas) {
+            columnas.agregarVenta(venta);
+        }
+        ClientesDistintos reconstruidos = new ClientesDistintos(UTC);
+        reconstruidos.reconstruir(columnas);
+        assertEquals(clientes.getVentasAcumuladas(), reconstruidos.getVentasAcumuladas());
+        assertEquals(clientes.getSumaIds(), reconstruidos.getSumaIds());
+        for (int dia = 0; dia < DIAS; dia++) {
+            long desde = INICIO + dia * MILLIS_DIA;
+            assertEquals(clientes.estimar(desde, desde + MILLIS_DIA), reconstruidos.estimar(desde, desde + MILLIS_DIA));
+        }
+    }
+
+    @Test
+    public void estimacionCercaDelConteoExacto() {
+        for (int largo : new int[]{1, 7, DIAS}) {
+            long desde = INICIO;
+            long hasta = desde + largo * MILLIS_DIA;
+            Set<Integer> exactos = new HashSet<>();
+            for (Venta venta : ventas) {
+                long fecha = venta.getFecha().getTime();
+                if (fecha >= desde && fecha < hasta) {
+                    exactos.add(venta.getCliente().getId());
+                }
+            }
+            double error = Math.abs(clientes.estimar(desde, hasta) - exactos.size()) / (double) exactos.size();
+            // Cuatro errores estándar: la semilla es fija, así que la prueba es determinista
+            assertTrue("error relativo " + error + " en " + largo + " días",
+                    error < 4 * ClientesDistintos.getErrorEstandar());
+        }
+    }
+
+    private static Cliente cliente(int id) {
+        Cliente cliente = new Cliente();
+        cliente.setId(id);
+        return cliente;
+    }
+}
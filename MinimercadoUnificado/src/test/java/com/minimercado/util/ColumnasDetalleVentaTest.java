@@ -0,0 +1,84 @@
+/**
+ * Pruebas de ColumnasDetalleVenta: la correspondencia de fila a trozo y desplazamiento
+ * de cada columna a ambos lados del límite de un trozo, sin desbordar int en filas
+ * altas, y la conservación de los datos al crecer.
+ */
+package com.minimercado.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.minimercado.modelo.Cliente;
+import com.minimercado.modelo.DetalleVenta;
+import com.minimercado.modelo.Producto;
+import com.minimercado.modelo.Venta;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import org.junit.Test;
+
+public class ColumnasDetalleVentaTest {
+    private static final int TROZO = ColumnasDetalleVenta.FILAS_POR_TROZO;
+
+    @Test
+    public void desplazamientoDentroDelTrozoSinDesbordar() {
+        ColumnasDetalleVenta.Columna columna = new ColumnasDetalleVenta.Columna(8);
+        // Con un solo ByteBuffer, fila * 8 desborda int a partir de unos 268 millones de filas
+        int[] filas = {0, 1, TROZO - 1, TROZO, TROZO + 1, 3 * TROZO + 5, 300_000_000, Integer.MAX_VALUE};
+        for (int fila : filas) {
+            long esperado = (long) (fila % TROZO) * 8;
+            assertEquals("fila " + fila, esperado, columna.desplazamiento(fila));
+        }
+    }
+
+    @Test
+    public void filasAmbosLadosDelLimiteDeTrozo() {
+        ColumnasDetalleVenta.Columna columna = new ColumnasDetalleVenta.Columna(8);
+        columna.trozo(5).putLong(columna.desplazamiento(5), 55L);
+        columna.crecer(TROZO + 2);
+        assertNotSame(columna.trozo(TROZO - 1), columna.trozo(TROZO));
+        assertSame(columna.trozo(TROZO), columna.trozo(TROZO + 1));
+        assertSame(columna.trozo(0), columna.trozo(TROZO - 1));
+        for (int fila = TROZO - 2; fila <= TROZO + 1; fila++) {
+            columna.trozo(fila).putLong(columna.desplazamiento(fila), fila * 10L);
+        }
+        for (int fila = TROZO - 2; fila <= TROZO + 1; fila++) {
+            assertEquals(fila * 10L, columna.trozo(fila).getLong(columna.desplazamiento(fila)));
+        }
+        // El primer trozo se copió al completarse; los datos anteriores siguen ahí
+        assertEquals(55L, columna.trozo(5).getLong(columna.desplazamiento(5)));
+        // Crecer de nuevo agrega trozos sin reemplazar los existentes
+        ByteBuffer segundo = columna.trozo(TROZO);
+        columna.crecer(3L * TROZO);
+        assertSame(segundo, columna.trozo(TROZO));
+        assertEquals(TROZO * 10L, columna.trozo(TROZO).getLong(columna.desplazamiento(TROZO)));
+    }
+
+    @Test
+    public void lineasConservanSusValoresAlCrecer() {
+        ColumnasDetalleVenta columnas = new ColumnasDetalleVenta();
+        Producto producto = new Producto();
+        producto.setId(7);
+        Cliente cliente = new Cliente();
+        cliente.setId(3);
+        // Varias duplicaciones del primer trozo desde la capacidad inicial
+        for (int id = 1; id <= 3000; id++) {
+            Venta venta = new Venta(cliente);
+            venta.setId(id);
+            venta.setFecha(new Date(id * 1000L));
+            venta.agregarDetalle(new DetalleVenta(producto, id % 9 + 1));
+            columnas.agregarVenta(venta);
+        }
+        assertEquals(3000, columnas.getFilas());
+        for (int fila = 0; fila < columnas.getFilas(); fila++) {
+            int id = fila + 1;
+            assertEquals(id, columnas.getVentaId(fila));
+            assertEquals(7, columnas.getProductoId(fila));
+            assertEquals(3, columnas.getClienteId(fila));
+            assertEquals(id * 1000L, columnas.getFecha(fila));
+            assertEquals(id % 9 + 1, columnas.getCantidad(fila));
+        }
+        columnas.eliminarVenta(1500);
+        assertEquals(2999, columnas.contar(null));
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Pruebas de la lectura del historial de ventas de FileManager contra un agrupamiento
+ * directo de las líneas escritas: la unión de ventas.csv y detalles_venta.csv línea a
+ * línea (con huecos de IDs, ventas sin detalles, detalles huérfanos y saltos \r\n),
+ * la terminación temprana del Stream, las posiciones que registra el recorrido, la
+ * lectura por acceso directo y el precio y las tasas con que se vendió cada línea.
+ *
+ * Se ejecuta en el directorio de trabajo de surefire (target/pruebas), donde
+ * FileManager crea su directorio data.
+ */
+package com.minimercado.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import com.minimercado.modelo.Cliente;
+import com.minimercado.modelo.DetalleVenta;
+import com.minimercado.modelo.Producto;
+import com.minimercado.modelo.Venta;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileManagerTest {
+    private static final Path VENTAS = Paths.get("data", "ventas.csv");
+    private static final Path DETALLES = Paths.get("data", "detalles_venta.csv");
+
+    // ID -> venta descrita como texto, en el orden de los archivos
+    private final Map<Integer, String> esperadas = new LinkedHashMap<>();
+
+    @Before
+    public void escribirHistorial() throws IOException {
+        Files.createDirectories(VENTAS.getParent());
+        Random azar = new Random(21);
+        StringBuilder ventas = new StringBuilder();
+        StringBuilder detalles = new StringBuilder();
+        int id = 0;
+        int detalleId = 0;
+        for (int n = 0; n < 3000; n++) {
+            id += 1 + azar.nextInt(3);
+            if (azar.nextInt(15) == 0) {
+                // Detalle huérfano de una venta eliminada: el lector debe descartarlo
+                detalles.append(++detalleId).append(',').append(id).append(",1,1,1.00,1.00\n");
+                id++;
+            }
+            long fecha = 1_700_000_000_000L + id * 60_000L;
+            int cliente = azar.nextInt(50) + 1;
+            ventas.append(id).append(',').append(fecha).append(',').append(cliente)
+                    .append(",0.00,0.00,0.00,0.00,Efectivo,0").append(salto(azar));
+            StringBuilder descripcion = new StringBuilder().append(id).append('|').append(fecha).append('|').append(cliente);
+            int lineas = azar.nextInt(5);
+            for (int l = 0; l < lineas; l++) {
+                int producto = azar.nextInt(30) + 1;
+                int cantidad = azar.nextInt(9) + 1;
+                detalles.append(++detalleId).append(',').append(id).append(',').append(producto).append(',')
+                        .append(cantidad).append(",1.00,1.00").append(salto(azar));
+                descripcion.append('|').append(detalleId).append(':').append(producto).append('x').append(cantidad);
+            }
+            esperadas.put(id, descripcion.toString());
+        }
+        Files.write(VENTAS, ventas.toString().getBytes(StandardCharsets.UTF_8));
+        Files.write(DETALLES, detalles.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void recorridoUneVentasYDetalles() {
+        PosicionesVentas posiciones = new PosicionesVentas();
+        List<String> leidas = new ArrayList<>();
+        for (FileManager.VentaSinResolver venta : FileManager.leerVentas(id -> id % 3 == 0, posiciones)) {
+            leidas.add(describir(venta));
+        }
+        List<String> filtradas = new ArrayList<>();
+        for (Map.Entry<Integer, String> e : esperadas.entrySet()) {
+            if (e.getKey() % 3 == 0) {
+                filtradas.add(e.getValue());
+            }
+        }
+        assertEquals(filtradas, leidas);
+        // Las posiciones cubren todas las ventas recorridas, no solo las del filtro
+        assertEquals(esperadas.size(), posiciones.size());
+    }
+
+    @Test
+    public void recorridoSeDetieneAlCortarElStream() {
+        List<String> primeras;
+        try (Stream<Venta> historial = FileManager.recorrerVentas(id -> true,
+                FileManagerTest::cliente, FileManagerTest::producto)) {
+            primeras = historial.limit(10).map(FileManagerTest::describir).collect(Collectors.toList());
+        }
+        assertEquals(new ArrayList<>(esperadas.values()).subList(0, 10), primeras);
+    }
+
+    @Test
+    public void accesoDirectoLeeLasMismasVentas() {
+        PosicionesVentas posiciones = new PosicionesVentas();
+        FileManager.leerVentas(id -> false, posiciones);
+        int[] ids = ids();
+        List<String> leidas = new ArrayList<>();
+        for (FileManager.VentaSinResolver venta : FileManager.leerVentasEn(ids, posiciones)) {
+            leidas.add(describir(venta));
+        }
+        assertEquals(new ArrayList<>(esperadas.values()), leidas);
+        // Un ID sin posición no se devuelve
+        assertEquals(0, FileManager.leerVentasEn(new int[]{-1}, posiciones).size());
+    }
+
+    @Test
+    public void accesoDirectoDescartaPosicionesDesactualizadas() {
+        PosicionesVentas posiciones = new PosicionesVentas();
+        FileManager.leerVentas(id -> false, posiciones);
+        // Eliminar una de las primeras ventas desplaza todas las posiciones posteriores
+        int eliminada = ids()[5];
+        FileManager.eliminarVenta(eliminada);
+        esperadas.remove(eliminada);
+        for (FileManager.VentaSinResolver venta : FileManager.leerVentasEn(ids(), posiciones)) {
+            // Lo que se devuelve siempre es la venta pedida, completa
+            assertNotNull(esperadas.get(venta.getId()));
+            assertEquals(esperadas.get(venta.getId()), describir(venta));
+        }
+        // Un recorrido nuevo vuelve a dejar todas las posiciones válidas
+        PosicionesVentas nuevas = new PosicionesVentas();
+        FileManager.leerVentas(id -> false, nuevas);
+        assertEquals(esperadas.size(), FileManager.leerVentasEn(ids(), nuevas).size());
+        assertFalse(FileManager.leerVentasEn(new int[]{eliminada}, nuevas).iterator().hasNext());
+    }
+
+    @Test
+    public void lineasConservanPrecioYTasasDeLaVenta() throws IOException {
+        Producto vendido = producto(1);
+        vendido.setPrecio(10.0);
+        vendido.setIva(0.19);
+        vendido.setDescuento(0.05);
+        Venta venta = new Venta(cliente(1));
+        venta.setId(ids()[ids().length - 1] + 1);
+        venta.setFecha(new Date());
+        DetalleVenta detalle = new DetalleVenta(vendido, 3);
+        detalle.setId(1);
+        venta.agregarDetalle(detalle);
+        FileManager.agregarVentaNueva(venta);
+        // El catálogo cambia después de la venta
+        Producto actual = producto(1);
+        actual.setPrecio(99.0);
+        actual.setIva(0.0);
+        Venta leida = FileManager.cargarVentas(id -> id == venta.getId(), FileManagerTest::cliente, id -> actual).get(0);
+        DetalleVenta linea = leida.getDetalles().get(0);
+        assertEquals(10.0, linea.getPrecioBase(), 0);
+        assertEquals(0.19, linea.getTasaIva(), 0);
+        assertEquals(0.05, linea.getTasaDescuento(), 0);
+        assertEquals(venta.getTotal(), leida.getTotal(), 1e-9);
+        // Las líneas de seis columnas de archivos anteriores toman el precio del catálogo
+        int conLineas = esperadas.entrySet().stream().filter(e -> e.getValue().contains(":"))
+                .findFirst().get().getKey();
+        Venta anterior = FileManager.cargarVentas(id -> id == conLineas, FileManagerTest::cliente, id -> actual).get(0);
+        assertFalse(anterior.getDetalles().isEmpty());
+        for (DetalleVenta d : anterior.getDetalles()) {
+            assertEquals(99.0, d.getPrecioBase(), 0);
+        }
+    }
+
+    private int[] ids() {
+        return esperadas.keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String salto(Random azar) {
+        return azar.nextInt(4) == 0 ? "\r\n" : "\n";
+    }
+
+    private static String describir(FileManager.VentaSinResolver leida) {
+        return describir(leida.aVenta(FileManagerTest::cliente, FileManagerTest::producto));
+    }
+
+    // Misma descripción que escribirHistorial, a partir de la venta resuelta
+    private static String describir(Venta venta) {
+        StringBuilder descripcion = new StringBuilder().append(venta.getId()).append('|')
+                .append(venta.getFecha().getTime()).append('|').append(venta.getCliente().getId());
+        for (DetalleVenta d : venta.getDetalles()) {
+            descripcion.append('|').append(d.getId()).append(':').append(d.getProducto().getId())
+                    .append('x').append(d.getCantidad());
+        }
+        return descripcion.toString();
+    }
+
+    private static Cliente cliente(int id) {
+        Cliente cliente = new Cliente();
+        cliente.setId(id);
+        return cliente;
+    }
+
+    private static Producto producto(int id) {
+        Producto producto = new Producto();
+        producto.setId(id);
+        return producto;
+    }
+}
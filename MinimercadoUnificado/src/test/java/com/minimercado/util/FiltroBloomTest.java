@@ -0,0 +1,58 @@
+/**
+ * Pruebas de FiltroBloom: nunca hay falsos negativos y la tasa de falsos positivos
+ * medida sobre valores no agregados se mantiene cerca de la configurada.
+ */
+package com.minimercado.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class FiltroBloomTest {
+
+    @Test
+    public void sinFalsosNegativosYTasaAcotada() {
+        int capacidad = 50_000;
+        double tasa = 0.01;
+        FiltroBloom filtro = new FiltroBloom(capacidad, tasa);
+        Random azar = new Random(3);
+        Set<String> agregados = new HashSet<>();
+        while (agregados.size() < capacidad) {
+            String valor = "cliente-" + azar.nextInt(Integer.MAX_VALUE);
+            if (agregados.add(valor)) {
+                filtro.agregar(valor);
+            }
+        }
+        for (String valor : agregados) {
+            assertTrue(valor, filtro.puedeContener(valor));
+        }
+        int falsosPositivos = 0;
+        int pruebas = 0;
+        while (pruebas < 100_000) {
+            String valor = "otro-" + azar.nextInt(Integer.MAX_VALUE);
+            if (agregados.contains(valor)) {
+                continue;
+            }
+            pruebas++;
+            if (filtro.puedeContener(valor)) {
+                falsosPositivos++;
+            }
+        }
+        double medida = (double) falsosPositivos / pruebas;
+        assertTrue("tasa de falsos positivos " + medida, medida < tasa * 2);
+        assertFalse(filtro.estaSaturado());
+    }
+
+    @Test
+    public void seSaturaAlSuperarLaCapacidad() {
+        FiltroBloom filtro = new FiltroBloom(10, 0.01);
+        for (int i = 0; i <= 10; i++) {
+            filtro.agregar("v" + i);
+        }
+        assertTrue(filtro.estaSaturado());
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Pruebas de HistorialVentas contra un modelo de la caché LRU: con una secuencia
+ * aleatoria de búsquedas de ventas archivadas, los aciertos, fallos y expulsiones
+ * coinciden con un LinkedHashMap en orden de acceso con el mismo límite de líneas,
+ * y cada búsqueda devuelve la venta escrita en disco. También comprueba la ventana
+ * reciente al eliminar y reemplazar ventas residentes, y el listado completo.
+ *
+ * Se ejecuta en el directorio de trabajo de surefire (target/pruebas), donde
+ * FileManager crea su directorio data.
+ */
+package com.minimercado.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.minimercado.modelo.Cliente;
+import com.minimercado.modelo.DetalleVenta;
+import com.minimercado.modelo.Producto;
+import com.minimercado.modelo.Venta;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HistorialVentasTest {
+    private static final Path VENTAS = Paths.get("data", "ventas.csv");
+    private static final Path DETALLES = Paths.get("data", "detalles_venta.csv");
+    private static final int CAPACIDAD_LINEAS = 40;
+
+    private final Map<Integer, Producto> productos = new LinkedHashMap<>();
+    private final Map<Integer, Cliente> clientes = new LinkedHashMap<>();
+    private final List<Venta> ventas = new ArrayList<>();
+    private HistorialVentas historial;
+
+    @Before
+    public void escribirVentas() throws IOException {
+        Files.createDirectories(VENTAS.getParent());
+        Files.write(VENTAS, new byte[0]);
+        Files.write(DETALLES, new byte[0]);
+        Random azar = new Random(13);
+        for (int id = 1; id <= 20; id++) {
+            Producto producto = new Producto();
+            producto.setId(id);
+            producto.setPrecio(id * 1.5);
+            producto.setIva(0.19);
+            productos.put(id, producto);
+            Cliente cliente = new Cliente();
+            cliente.setId(id);
+            clientes.put(id, cliente);
+        }
+        int detalleId = 0;
+        for (int id = 1; id <= 200; id++) {
+            Venta venta = new Venta(clientes.get(azar.nextInt(20) + 1));
+            venta.setId(id);
+            venta.setFecha(new Date());
+            int lineas = azar.nextInt(6);
+            for (int l = 0; l < lineas; l++) {
+                DetalleVenta detalle = new DetalleVenta(productos.get(azar.nextInt(20) + 1), azar.nextInt(4) + 1);
+                detalle.setId(++detalleId);
+                venta.agregarDetalle(detalle);
+            }
+            FileManager.agregarVentaNueva(venta);
+            ventas.add(venta);
+        }
+        // Una sola venta residente: todas las demás quedan archivadas
+        historial = nuevoHistorial(1);
+    }
+
+    private HistorialVentas nuevoHistorial(int maxRecientes) {
+        HistorialVentas nuevo = new HistorialVentas(maxRecientes, 365, CAPACIDAD_LINEAS, clientes::get, productos::get);
+        for (Venta venta : ventas) {
+            nuevo.agregar(venta);
+        }
+        return nuevo;
+    }
+
+    @Test
+    public void cacheCoincideConModeloLru() {
+        Random azar = new Random(17);
+        // ID -> peso (líneas + 1) en orden de acceso, como la caché
+        LinkedHashMap<Integer, Integer> modelo = new LinkedHashMap<>(16, 0.75f, true);
+        int lineas = 0;
+        long aciertos = 0, fallos = 0, expulsiones = 0;
+        for (int op = 0; op < 3000; op++) {
+            // Pocas ventas muy consultadas y el resto al azar, para tener aciertos y expulsiones
+            int id = azar.nextInt(3) == 0 ? azar.nextInt(5) + 1 : azar.nextInt(ventas.size() - 1) + 1;
+            Venta esperada = ventas.get(id - 1);
+            if (modelo.get(id) != null) {
+                aciertos++;
+            } else {
+                fallos++;
+                int peso = esperada.getDetalles().size() + 1;
+                modelo.put(id, peso);
+                lineas += peso;
+                Iterator<Map.Entry<Integer, Integer>> it = modelo.entrySet().iterator();
+                while (lineas > CAPACIDAD_LINEAS && modelo.size() > 1) {
+                    lineas -= it.next().getValue();
+                    it.remove();
+                    expulsiones++;
+                }
+            }
+            Venta leida = historial.buscar(id);
+            assertNotNull(leida);
+            assertEquals(id, leida.getId());
+            assertEquals(esperada.getCliente().getId(), leida.getCliente().getId());
+            assertEquals(esperada.getDetalles().size(), leida.getDetalles().size());
+            assertEquals(esperada.getTotal(), leida.getTotal(), 1e-9);
+            assertEquals(aciertos, historial.getAciertosCache());
+            assertEquals(fallos, historial.getFallosCache());
+            assertEquals(expulsiones, historial.getExpulsionesCache());
+        }
+    }
+
+    @Test
+    public void buscarVariasConservaElOrdenPedido() {
+        int[] ids = {150, 3, 200, 77, 3};
+        List<Venta> leidas = historial.buscarVarias(ids);
+        assertEquals(ids.length, leidas.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], leidas.get(i).getId());
+        }
+        // La venta residente no pasa por la caché
+        assertEquals(ventas.get(199), historial.buscar(200));
+    }
+
+    @Test
+    public void eliminarQuitaLaVentaDeAmbosNiveles() {
+        historial.buscar(10);
+        historial.eliminar(10);
+        historial.eliminar(200);
+        assertNull(historial.buscar(10));
+        assertNull(historial.buscar(200));
+        assertEquals(ventas.size() - 2, historial.tamano());
+    }
+
+    @Test
+    public void ventanaSaltaLasResidentesDescartadas() {
+        // Residentes 151..200; eliminar 40 de ellas obliga a compactar la cola
+        HistorialVentas ventana = nuevoHistorial(50);
+        for (int id = 151; id <= 190; id++) {
+            assertTrue(ventana.eliminar(id));
+        }
+        assertFalse(ventana.eliminar(151));
+        // Reemplazar una residente la pasa al final de la ventana
+        ventana.agregar(ventas.get(195));
+        ventana.agregar(ventas.get(191));
+        // 55 vigentes: se archivan las 5 más antiguas, sin contar las descartadas
+        for (int id = 201; id <= 245; id++) {
+            Venta venta = new Venta(clientes.get(1));
+            venta.setId(id);
+            venta.setFecha(new Date());
+            ventana.agregar(venta);
+        }
+        assertEquals(205, ventana.tamano());
+        List<Integer> esperados = new ArrayList<>();
+        for (int id = 1; id <= 150; id++) {
+            esperados.add(id);
+        }
+        esperados.addAll(Arrays.asList(191, 193, 194, 195, 197, 198, 199, 200, 196, 192));
+        for (int id = 201; id <= 245; id++) {
+            esperados.add(id);
+        }
+        List<Integer> todos = new ArrayList<>();
+        for (Venta venta : ventana.obtenerTodas()) {
+            todos.add(venta.getId());
+        }
+        assertEquals(esperados, todos);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Pruebas de IndicePrefijos: la normalización sin tildes, diéresis ni mayúsculas al
+ * indexar y al consultar, la búsqueda por palabra y por código, y que al eliminar o
+ * reindexar un elemento no quede ninguna de sus claves anteriores.
+ */
+package com.minimercado.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class IndicePrefijosTest {
+
+    @Test
+    public void normalizarQuitaTildesMayusculasYEspacios() {
+        assertEquals("pan nandu", IndicePrefijos.normalizar("  Pan   Ñandú "));
+        assertEquals("pinguino aceite", IndicePrefijos.normalizar("PINGÜINO\tAceite"));
+        assertEquals("cafe", IndicePrefijos.normalizar("Café"));
+        assertEquals("", IndicePrefijos.normalizar(null));
+    }
+
+    @Test
+    public void consultaConYSinTildesEncuentraLoMismo() {
+        IndicePrefijos<String> indice = new IndicePrefijos<>();
+        indice.agregar(1, "Café Águila", "Café Águila", "7701234");
+        indice.agregar(2, "Pan Ñandú", "Pan Ñandú", "7705678");
+        indice.agregar(3, "Cafetera", "Cafetera");
+        for (String consulta : new String[]{"caf", "CAF", "Caf", "café"}) {
+            assertEquals(consulta, Arrays.asList("Café Águila", "Cafetera"), indice.buscar(consulta, 10));
+        }
+        // Cada palabra es una clave, con o sin tildes en la consulta
+        assertEquals(Collections.singletonList("Café Águila"), indice.buscar("agu", 10));
+        assertEquals(Collections.singletonList("Café Águila"), indice.buscar("ÁGUILA", 10));
+        assertEquals(Collections.singletonList("Pan Ñandú"), indice.buscar("nan", 10));
+        assertEquals(Collections.singletonList("Pan Ñandú"), indice.buscar("ñandu", 10));
+        // Por código de barras
+        assertEquals(Collections.singletonList("Pan Ñandú"), indice.buscar("77056", 10));
+        // El límite corta los resultados
+        assertEquals(1, indice.buscar("caf", 1).size());
+    }
+
+    @Test
+    public void eliminarYReindexarQuitanLasClavesAnteriores() {
+        IndicePrefijos<String> indice = new IndicePrefijos<>();
+        indice.agregar(1, "Leche Entera", "Leche Entera", "111");
+        indice.agregar(2, "Leche Deslactosada", "Leche Deslactosada", "222");
+        assertEquals(2, indice.tamano());
+
+        indice.eliminar(1);
+        assertEquals(Collections.singletonList("Leche Deslactosada"), indice.buscar("leche", 10));
+        assertTrue(indice.buscar("entera", 10).isEmpty());
+        assertTrue(indice.buscar("111", 10).isEmpty());
+        assertEquals(1, indice.tamano());
+        // Eliminar un ID que no está no cambia nada
+        indice.eliminar(1);
+        indice.eliminar(99);
+        assertEquals(1, indice.tamano());
+
+        // Reindexar con otro nombre y código retira los anteriores
+        indice.agregar(2, "Yogur Griego", "Yogur Griego", "333");
+        assertTrue(indice.buscar("leche", 10).isEmpty());
+        assertTrue(indice.buscar("222", 10).isEmpty());
+        assertEquals(Collections.singletonList("Yogur Griego"), indice.buscar("gri", 10));
+        assertEquals(Collections.singletonList("Yogur Griego"), indice.buscar("333", 10));
+        assertEquals(1, indice.tamano());
+
+        indice.eliminar(2);
+        List<String> todos = indice.buscar("", 10);
+        assertTrue(todos.isEmpty());
+        assertEquals(0, indice.tamano());
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Pruebas de IndiceTrigramas contra un recorrido por fuerza bruta: tras una secuencia
+ * aleatoria de altas, cambios y bajas, cada búsqueda devuelve los mismos elementos y
+ * similitudes que calcular el coeficiente de Dice con todos los elementos vigentes.
+ * Las bajas ejercitan la eliminación por intercambio con la última posición de cada
+ * lista de aparición y las altas posteriores reutilizan los slots libres.
+ */
+package com.minimercado.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class IndiceTrigramasTest {
+    private static final String[] PALABRAS = {
+        "María", "Mario", "Marina", "José", "Josué", "Pérez", "Perea", "Gómez", "Gomes",
+        "Núñez", "Nuñes", "Ana", "Andrea", "Andrés", "Lucía", "Luciano", "Peña", "Pena"
+    };
+
+    // ID -> textos vigentes del elemento
+    private final Map<Integer, String[]> vigentes = new HashMap<>();
+
+    @Test
+    public void buscarCoincideConFuerzaBruta() {
+        IndiceTrigramas<Integer> indice = new IndiceTrigramas<>();
+        Random azar = new Random(34);
+        for (int op = 0; op < 4000; op++) {
+            int id = azar.nextInt(120);
+            if (azar.nextInt(3) == 0) {
+                indice.eliminar(id);
+                vigentes.remove(id);
+            } else {
+                // Alta o cambio: reindexa con textos nuevos
+                String[] textos = {texto(azar), texto(azar)};
+                indice.agregar(id, id, textos);
+                vigentes.put(id, textos);
+            }
+            if (op % 50 == 0) {
+                for (int c = 0; c < 5; c++) {
+                    comprobar(indice, consulta(azar));
+                }
+            }
+        }
+        assertEquals(vigentes.size(), indice.tamano());
+        // Vaciar el índice y volver a llenarlo solo con slots reutilizados
+        for (int id = 0; id < 120; id++) {
+            indice.eliminar(id);
+            vigentes.remove(id);
+        }
+        assertTrue(indice.buscar("maria", 10).isEmpty());
+        for (int id = 0; id < 60; id++) {
+            String[] textos = {texto(azar)};
+            indice.agregar(id, id, textos);
+            vigentes.put(id, textos);
+        }
+        for (String palabra : PALABRAS) {
+            comprobar(indice, palabra);
+        }
+    }
+
+    private void comprobar(IndiceTrigramas<Integer> indice, String consulta) {
+        Set<String> deConsulta = trigramas(consulta);
+        // Similitud de cada elemento vigente que supera el mínimo
+        Map<Integer, Double> esperadas = new HashMap<>();
+        for (Map.Entry<Integer, String[]> e : vigentes.entrySet()) {
+            Set<String> propios = trigramas(e.getValue());
+            int comunes = 0;
+            for (String t : deConsulta) {
+                if (propios.contains(t)) {
+                    comunes++;
+                }
+            }
+            double dice = 2.0 * comunes / (deConsulta.size() + propios.size());
+            if (dice >= 0.3) {
+                esperadas.put(e.getKey(), dice);
+            }
+        }
+        // Con un límite mayor que el índice: exactamente los mismos elementos, de mayor a menor similitud
+        List<Integer> todos = indice.buscar(consulta, 1000);
+        assertEquals(consulta, esperadas.keySet(), new LinkedHashSet<>(todos));
+        assertEquals(esperadas.size(), todos.size());
+        for (int i = 1; i < todos.size(); i++) {
+            assertTrue(esperadas.get(todos.get(i - 1)) >= esperadas.get(todos.get(i)));
+        }
+        // Con límite: las k mejores similitudes (los empates pueden resolverse distinto)
+        List<Double> ordenadas = new ArrayList<>(esperadas.values());
+        ordenadas.sort((a, b) -> Double.compare(b, a));
+        int k = 3;
+        List<Integer> mejores = indice.buscar(consulta, k);
+        assertEquals(Math.min(k, ordenadas.size()), mejores.size());
+        for (int i = 0; i < mejores.size(); i++) {
+            assertEquals(ordenadas.get(i), esperadas.get(mejores.get(i)), 0);
+        }
+    }
+
+    // Trigramas como los calcula el índice: por palabra normalizada, con relleno "  palabra "
+    private static Set<String> trigramas(String... textos) {
+        Set<String> resultado = new LinkedHashSet<>();
+        for (String texto : textos) {
+            for (String palabra : IndicePrefijos.normalizar(texto).split(" ")) {
+                if (palabra.isEmpty()) {
+                    continue;
+                }
+                String relleno = "  " + palabra + " ";
+                for (int i = 0; i + 3 <= relleno.length(); i++) {
+                    resultado.add(relleno.substring(i, i + 3));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    private static String texto(Random azar) {
+        return PALABRAS[azar.nextInt(PALABRAS.length)] + " " + PALABRAS[azar.nextInt(PALABRAS.length)];
+    }
+
+    // Una palabra con una letra cambiada, quitada o duplicada, en mayúsculas o sin tildes
+    private static String consulta(Random azar) {
+        String palabra = PALABRAS[azar.nextInt(PALABRAS.length)];
+        int i = azar.nextInt(palabra.length());
+        switch (azar.nextInt(4)) {
+            case 0:
+                return palabra.substring(0, i) + (char) ('a' + azar.nextInt(26)) + palabra.substring(i + 1);
+            case 1:
+                return palabra.substring(0, i) + palabra.substring(i + 1);
+            case 2:
+                return palabra.substring(0, i + 1) + palabra.substring(i);
+            default:
+                return IndicePrefijos.normalizar(palabra).toUpperCase();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Pruebas de MapaEnteros contra HashMap con secuencias aleatorias de
+ * altas, bajas y consultas. Las claves se eligen en un rango chico para forzar
+ * colisiones, cadenas de sondeo largas y eliminaciones en medio de ellas.
+ */
+package com.minimercado.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class MapaEnterosTest {
+    private static final int OPERACIONES = 200_000;
+
+    @Test
+    public void mapaEnterosCoincideConHashMap() {
+        Random azar = new Random(42);
+        MapaEnteros<Integer> mapa = new MapaEnteros<>();
+        Map<Integer, Integer> esperado = new HashMap<>();
+        for (int op = 0; op < OPERACIONES; op++) {
+            // Claves negativas y 0 incluidas: MapaEnteros admite cualquier int
+            int clave = azar.nextInt(2000) - 500;
+            switch (azar.nextInt(3)) {
+                case 0:
+                    int valor = azar.nextInt();
+                    assertEquals(esperado.put(clave, valor), mapa.put(clave, valor));
+                    break;
+                case 1:
+                    assertEquals(esperado.remove(clave), mapa.remove(clave));
+                    break;
+                default:
+                    assertEquals(esperado.get(clave), mapa.get(clave));
+                    assertEquals(esperado.containsKey(clave), mapa.contiene(clave));
+            }
+            assertEquals(esperado.size(), mapa.size());
+        }
+        List<Integer> recorridos = new ArrayList<>();
+        mapa.forEachValor(recorridos::add);
+        List<Integer> valores = new ArrayList<>(esperado.values());
+        Collections.sort(recorridos);
+        Collections.sort(valores);
+        assertEquals(valores, recorridos);
+    }
+
+    @Test
+    public void mapaEnterosVacioTrasClear() {
+        MapaEnteros<String> mapa = new MapaEnteros<>(4);
+        for (int i = 0; i < 100; i++) {
+            mapa.put(i * 16, "v" + i);
+        }
+        mapa.clear();
+        assertTrue(mapa.isEmpty());
+        assertNull(mapa.get(16));
+        mapa.put(16, "otra");
+        assertEquals("otra", mapa.get(16));
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Pruebas de MapaLargos contra HashMap con secuencias aleatorias de sumas, bajas y
+ * consultas. Las claves se eligen en un rango chico, con la parte alta variando, para
+ * forzar colisiones y eliminaciones en medio de las cadenas de sondeo.
+ */
+package com.minimercado.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class MapaLargosTest {
+    private static final int OPERACIONES = 200_000;
+
+    @Test
+    public void coincideConHashMap() {
+        Random azar = new Random(7);
+        MapaLargos mapa = new MapaLargos();
+        Map<Long, Long> esperado = new HashMap<>();
+        for (int op = 0; op < OPERACIONES; op++) {
+            long clave = azar.nextInt(2000) + 1 + ((long) azar.nextInt(3) << 32);
+            switch (azar.nextInt(3)) {
+                case 0:
+                    // Cantidades negativas: un contador que llega a 0 desaparece
+                    long cantidad = azar.nextInt(7) - 3;
+                    long nuevo = esperado.getOrDefault(clave, 0L) + cantidad;
+                    if (nuevo == 0) {
+                        esperado.remove(clave);
+                    } else {
+                        esperado.put(clave, nuevo);
+                    }
+                    assertEquals(nuevo, mapa.sumar(clave, cantidad));
+                    break;
+                case 1:
+                    Long anterior = esperado.remove(clave);
+                    assertEquals(anterior == null ? 0 : anterior, mapa.remove(clave));
+                    break;
+                default:
+                    assertEquals((long) esperado.getOrDefault(clave, 0L), mapa.get(clave));
+            }
+            assertEquals(esperado.size(), mapa.size());
+        }
+        Map<Long, Long> recorrido = new HashMap<>();
+        mapa.forEach(recorrido::put);
+        assertEquals(esperado, recorrido);
+    }
+
+    @Test
+    public void retenerConservaSoloLasQueCumplen() {
+        MapaLargos mapa = new MapaLargos();
+        Map<Long, Long> esperado = new HashMap<>();
+        for (long clave = 1; clave <= 5000; clave++) {
+            mapa.sumar(clave, clave % 10);
+            if (clave % 10 >= 5) {
+                esperado.put(clave, clave % 10);
+            }
+        }
+        int antes = mapa.size();
+        int eliminadas = mapa.retener((clave, valor) -> valor >= 5);
+        assertEquals(antes - esperado.size(), eliminadas);
+        Map<Long, Long> recorrido = new HashMap<>();
+        mapa.forEach(recorrido::put);
+        assertEquals(esperado, recorrido);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rechazaLaClaveCero() {
+        new MapaLargos().sumar(0, 1);
+    }
+}
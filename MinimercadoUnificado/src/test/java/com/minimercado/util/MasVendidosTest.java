@@ -0,0 +1,79 @@
+/**
+ * Pruebas de MasVendidos contra un conteo exacto de las ventas de la ventana: cada
+ * estimación acota las unidades reales, los puestos garantizados son correctos y
+ * k <= 0 devuelve una lista vacía.
+ */
+package com.minimercado.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.minimercado.modelo.Cliente;
+import com.minimercado.modelo.DetalleVenta;
+import com.minimercado.modelo.Producto;
+import com.minimercado.modelo.Venta;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class MasVendidosTest {
+    private static final long AHORA = 1_700_000_000_000L;
+
+    @Test
+    public void estimacionesAcotanLasUnidadesReales() {
+        MasVendidos masVendidos = new MasVendidos();
+        Map<Integer, Long> reales = new HashMap<>();
+        Random azar = new Random(5);
+        long desde = AHORA - MasVendidos.Ventana.HORA.getDuracion() + 5 * 60_000L;
+        for (int n = 0; n < 5000; n++) {
+            // Pocos productos muy vendidos entre muchos que superan los contadores
+            int id = azar.nextInt(4) == 0 ? azar.nextInt(5) : azar.nextInt(500);
+            int cantidad = azar.nextInt(3) + 1;
+            masVendidos.agregarVenta(venta(desde + azar.nextInt(55 * 60_000), id, cantidad));
+            reales.merge(id, (long) cantidad, Long::sum);
+        }
+        MasVendidos.Resultado resultado = masVendidos.top(MasVendidos.Ventana.HORA, 10, AHORA);
+        List<MasVendidos.Estimacion> estimaciones = resultado.getEstimaciones();
+        assertEquals(10, estimaciones.size());
+        long total = reales.values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(total, resultado.getUnidadesVentana());
+        for (MasVendidos.Estimacion e : estimaciones) {
+            long real = reales.getOrDefault(e.getProductoId(), 0L);
+            assertTrue(e.getMinimo() <= real && real <= e.getUnidades());
+            assertTrue(e.getError() <= resultado.getCotaError());
+            if (e.isGarantizado()) {
+                // Ningún producto fuera de la lista vendió más que su cota inferior
+                for (Map.Entry<Integer, Long> otro : reales.entrySet()) {
+                    if (estimaciones.stream().noneMatch(x -> x.getProductoId() == otro.getKey())) {
+                        assertTrue(otro.getValue() <= e.getMinimo());
+                    }
+                }
+            }
+        }
+        // El producto 0 se sigue como cualquier otro
+        assertTrue(estimaciones.stream().anyMatch(e -> e.getProductoId() == 0));
+    }
+
+    @Test
+    public void kNoPositivoDevuelveListaVacia() {
+        MasVendidos masVendidos = new MasVendidos();
+        masVendidos.agregarVenta(venta(AHORA - 60_000L, 1, 4));
+        for (int k : new int[]{0, -1, Integer.MIN_VALUE}) {
+            MasVendidos.Resultado resultado = masVendidos.top(MasVendidos.Ventana.DIA, k, AHORA);
+            assertTrue(resultado.getEstimaciones().isEmpty());
+            assertEquals(4, resultado.getUnidadesVentana());
+        }
+    }
+
+    private static Venta venta(long fecha, int productoId, int cantidad) {
+        Producto producto = new Producto();
+        producto.setId(productoId);
+        Venta venta = new Venta(new Cliente());
+        venta.setFecha(new Date(fecha));
+        venta.agregarDetalle(new DetalleVenta(producto, cantidad));
+        return venta;
+    }
+}